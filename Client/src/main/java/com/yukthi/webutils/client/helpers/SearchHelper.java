@@ -25,8 +25,12 @@ package com.yukthi.webutils.client.helpers;
 
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_PREFIX_SEARCH;
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_EXECUTE;
+import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_EXECUTE_BATCH;
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.PARAM_NAME;
 
+import java.util.Collections;
+import java.util.List;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yukthi.utils.CommonUtils;
 import com.yukthi.utils.exceptions.InvalidStateException;
@@ -38,7 +42,11 @@ import com.yukthi.webutils.client.ClientContext;
 import com.yukthi.webutils.client.RestException;
 import com.yukthi.webutils.common.IWebUtilsCommonConstants;
 import com.yukthi.webutils.common.SearchExecutionModel;
+import com.yukthi.webutils.common.SearchResultFormat;
+import com.yukthi.webutils.common.models.search.ExecuteSearchBatchRequest;
+import com.yukthi.webutils.common.models.search.ExecuteSearchBatchResponse;
 import com.yukthi.webutils.common.models.search.ExecuteSearchResponse;
+import com.yukthi.webutils.common.models.search.SearchBatchEntry;
 
 /**
  * Helper to execute search related functions
@@ -51,6 +59,23 @@ public class SearchHelper
 	{
 		objectMapper.setDateFormat(IWebUtilsCommonConstants.DEFAULT_DATE_FORMAT);
 	}
+	
+	/**
+	 * If true, results are requested in columnar format (to reduce payload size) and are decoded into
+	 * search rows before returning.
+	 */
+	private boolean columnarFormat = false;
+	
+	/**
+	 * Sets whether results should be requested in columnar format. Irrespective of format, returned responses will 
+	 * have search results as rows.
+	 *
+	 * @param columnarFormat the new columnar format flag
+	 */
+	public void setColumnarFormat(boolean columnarFormat)
+	{
+		this.columnarFormat = columnarFormat;
+	}
 
 	/**
 	 * Executes search query with specified query object
@@ -62,16 +87,38 @@ public class SearchHelper
 	 */
 	public ExecuteSearchResponse executeSearchQuery(ClientContext context, String queryName, Object searchQuery, int pageSize)
 	{
-		//Build model object
+		return executeSearchQuery(context, queryName, searchQuery, new SearchExecutionModel());
+	}
+	
+	/**
+	 * Executes search query with specified query object using keyset pagination. The next page token of 
+	 * the response can be used to fetch next page.
+	 * @param context Client context
+	 * @param queryName Name of query to execute
+	 * @param searchQuery Query object
+	 * @param pageToken Token of the page to fetch, null for first page
+	 * @return Search results
+	 */
+	public ExecuteSearchResponse executeKeysetSearchQuery(ClientContext context, String queryName, Object searchQuery, String pageToken)
+	{
 		SearchExecutionModel searchExecutionModel = new SearchExecutionModel();
+		searchExecutionModel.setKeysetPagination(true);
+		searchExecutionModel.setPageToken(pageToken);
 		
-		try
-		{
-			searchExecutionModel.setQueryModelJson(searchQuery == null ? null : objectMapper.writeValueAsString(searchQuery));
-		}catch(Exception ex)
-		{
-			throw new InvalidStateException("An error occurred while converting {} into json", searchQuery);
-		}
+		return executeSearchQuery(context, queryName, searchQuery, searchExecutionModel);
+	}
+	
+	/**
+	 * Executes search query with specified query object and execution params
+	 * @param context Client context
+	 * @param queryName Name of query to execute
+	 * @param searchQuery Query object
+	 * @param searchExecutionModel Execution params to use
+	 * @return Search results
+	 */
+	private ExecuteSearchResponse executeSearchQuery(ClientContext context, String queryName, Object searchQuery, SearchExecutionModel searchExecutionModel)
+	{
+		prepareExecutionModel(searchQuery, searchExecutionModel);
 		
 		//build request object
 		RestRequest<?> request = ActionRequestBuilder.buildRequest(context, ACTION_PREFIX_SEARCH + "." + ACTION_TYPE_EXECUTE, searchExecutionModel, CommonUtils.toMap(
@@ -89,6 +136,83 @@ public class SearchHelper
 			throw new RestException("An error occurred while executing search-query - " + queryName, searchResult.getStatusCode(), response);
 		}
 		
+		decodeResults(response);
 		return response;
 	}
+	
+	/**
+	 * Executes multiple search queries in single request. Queries are executed in parallel by server. Failure of
+	 * a query does not fail other queries, it is indicated by code and message of corresponding response.
+	 * @param context Client context
+	 * @param entries Queries to execute. Query objects of the entries are converted into query json
+	 * @return Responses of the queries, in entry order
+	 */
+	public List<ExecuteSearchResponse> executeSearchBatch(ClientContext context, List<SearchBatchEntry> entries)
+	{
+		for(SearchBatchEntry entry : entries)
+		{
+			if(entry.getSearchExecutionModel() == null)
+			{
+				entry.setSearchExecutionModel(new SearchExecutionModel());
+			}
+			
+			prepareExecutionModel(entry.getQuery(), entry.getSearchExecutionModel());
+		}
+		
+		//build request object
+		RestRequest<?> request = ActionRequestBuilder.buildRequest(context, ACTION_PREFIX_SEARCH + "." + ACTION_TYPE_EXECUTE_BATCH, 
+				new ExecuteSearchBatchRequest(entries), Collections.<String, Object>emptyMap());
+		
+		RestClient client = context.getRestClient();
+		
+		//execute request
+		RestResult<ExecuteSearchBatchResponse> batchResult = client.invokeJsonRequest(request, ExecuteSearchBatchResponse.class);
+		ExecuteSearchBatchResponse response = batchResult.getValue();
+		
+		if(response == null || response.getCode() != 0)
+		{
+			throw new RestException("An error occurred while executing search batch", batchResult.getStatusCode(), response);
+		}
+		
+		for(ExecuteSearchResponse searchResponse : response.getResponses())
+		{
+			decodeResults(searchResponse);
+		}
+		
+		return response.getResponses();
+	}
+	
+	/**
+	 * Sets query json and result format on specified execution model.
+	 * @param searchQuery Query object
+	 * @param searchExecutionModel Execution model to prepare
+	 */
+	private void prepareExecutionModel(Object searchQuery, SearchExecutionModel searchExecutionModel)
+	{
+		try
+		{
+			searchExecutionModel.setQueryModelJson(searchQuery == null ? null : objectMapper.writeValueAsString(searchQuery));
+		}catch(Exception ex)
+		{
+			throw new InvalidStateException("An error occurred while converting {} into json", searchQuery);
+		}
+		
+		if(columnarFormat)
+		{
+			searchExecutionModel.setResultFormat(SearchResultFormat.COLUMNAR);
+		}
+	}
+	
+	/**
+	 * Decodes columnar results, if any, of specified response into rows.
+	 * @param response Response to decode
+	 */
+	private void decodeResults(ExecuteSearchResponse response)
+	{
+		if(response.getColumnarResults() != null)
+		{
+			response.setSearchResults(response.getColumnarResults().toRows());
+			response.setColumnarResults(null);
+		}
+	}
 }
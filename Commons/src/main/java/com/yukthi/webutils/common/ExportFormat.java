@@ -0,0 +1,50 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common;
+
+/**
+ * Formats in which search results can be exported.
+ * @author akiran
+ */
+public enum ExportFormat
+{
+	/**
+	 * Excel (xlsx) format, served with mime type "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet".
+	 * <BR>
+	 * <B>Note:</B> Earlier versions exported this format as legacy .xls ("application/vnd.ms-excel"). As xls workbooks
+	 * cannot be streamed, exports are now always generated as .xlsx. Clients depending on file extension or mime type
+	 * of the exported file should be updated accordingly.
+	 */
+	EXCEL,
+	
+	/**
+	 * Comma separated values, with header line.
+	 */
+	CSV,
+	
+	/**
+	 * Newline delimited json, one json object per row.
+	 */
+	JSON_LINES;
+}
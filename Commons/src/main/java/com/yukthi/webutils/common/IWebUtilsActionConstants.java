@@ -59,6 +59,11 @@ public interface IWebUtilsActionConstants
 	 */
 	public String ACTION_TYPE_EXPORT = "export";
 
+	/**
+	 * Action to be used for executing multiple requests in single batch
+	 */
+	public String ACTION_TYPE_EXECUTE_BATCH = "execute.batch";
+
 	/**
 	 * Action be be used for deleting all 
 	 */
@@ -74,6 +79,26 @@ public interface IWebUtilsActionConstants
 	 */
 	public String ACTION_TYPE_FETCH_RESULT_DEF = "fetch.resultDef";
 	
+	/**
+	 * Action to be used to fetch execution metrics
+	 */
+	public String ACTION_TYPE_FETCH_METRICS = "fetch.metrics";
+	
+	/**
+	 * Action to be used to compute aggregations
+	 */
+	public String ACTION_TYPE_AGGREGATE = "aggregate";
+	
+	/**
+	 * Action to be used to submit asynchronous export
+	 */
+	public String ACTION_TYPE_EXPORT_ASYNC = "export.async";
+	
+	/**
+	 * Action to be used to fetch status of asynchronous export
+	 */
+	public String ACTION_TYPE_FETCH_EXPORT_STATUS = "fetch.exportStatus";
+	
 	/**
 	 * Action to fetch extension field
 	 */
@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import com.yukthi.webutils.common.annotations.Model;
+import com.yukthi.webutils.common.models.search.ExtendedFieldCondition;
+import com.yukthi.webutils.common.models.search.SearchAggregation;
+
+/**
+ * Model used to execute aggregations on search query results.
+ * @author akiran
+ */
+@Model
+public class SearchAggregationModel
+{
+	/**
+	 * Query object json.
+	 */
+	private String queryModelJson;
+	
+	/**
+	 * Result fields by which results should be grouped. If not specified, all results form single group.
+	 */
+	private List<String> groupByFields;
+	
+	/**
+	 * Aggregations to be computed for each group.
+	 */
+	@NotNull
+	@Size(min = 1)
+	@Valid
+	private List<SearchAggregation> aggregations;
+	
+	/**
+	 * Conditions on extended fields, which are applied in addition to the conditions of query object.
+	 */
+	@Valid
+	private List<ExtendedFieldCondition> extendedConditions;
+	
+	/**
+	 * Instantiates a new search aggregation model.
+	 */
+	public SearchAggregationModel()
+	{}
+
+	/**
+	 * Gets the query object json.
+	 *
+	 * @return the query object json
+	 */
+	public String getQueryModelJson()
+	{
+		return queryModelJson;
+	}
+
+	/**
+	 * Sets the query object json.
+	 *
+	 * @param queryModelJson the new query object json
+	 */
+	public void setQueryModelJson(String queryModelJson)
+	{
+		this.queryModelJson = queryModelJson;
+	}
+
+	/**
+	 * Gets the result fields by which results should be grouped. If not specified, all results form single group.
+	 *
+	 * @return the result fields by which results should be grouped. If not specified, all results form single group
+	 */
+	public List<String> getGroupByFields()
+	{
+		return groupByFields;
+	}
+
+	/**
+	 * Sets the result fields by which results should be grouped. If not specified, all results form single group.
+	 *
+	 * @param groupByFields the new result fields by which results should be grouped. If not specified, all results form single group
+	 */
+	public void setGroupByFields(List<String> groupByFields)
+	{
+		this.groupByFields = groupByFields;
+	}
+
+	/**
+	 * Gets the aggregations to be computed for each group.
+	 *
+	 * @return the aggregations to be computed for each group
+	 */
+	public List<SearchAggregation> getAggregations()
+	{
+		return aggregations;
+	}
+
+	/**
+	 * Sets the aggregations to be computed for each group.
+	 *
+	 * @param aggregations the new aggregations to be computed for each group
+	 */
+	public void setAggregations(List<SearchAggregation> aggregations)
+	{
+		this.aggregations = aggregations;
+	}
+
+	/**
+	 * Gets the conditions on extended fields, which are applied in addition to the conditions of query object.
+	 *
+	 * @return the conditions on extended fields, which are applied in addition to the conditions of query object
+	 */
+	public List<ExtendedFieldCondition> getExtendedConditions()
+	{
+		return extendedConditions;
+	}
+
+	/**
+	 * Sets the conditions on extended fields, which are applied in addition to the conditions of query object.
+	 *
+	 * @param extendedConditions the new conditions on extended fields, which are applied in addition to the conditions of query object
+	 */
+	public void setExtendedConditions(List<ExtendedFieldCondition> extendedConditions)
+	{
+		this.extendedConditions = extendedConditions;
+	}
+}
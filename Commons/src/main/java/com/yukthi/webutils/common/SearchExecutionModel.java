@@ -23,10 +23,14 @@
 
 package com.yukthi.webutils.common;
 
+import java.util.List;
+
+import javax.validation.Valid;
 import javax.validation.constraints.Min;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.yukthi.webutils.common.annotations.Model;
+import com.yukthi.webutils.common.models.search.ExtendedFieldCondition;
 
 /**
  * Model used to execute search queries.
@@ -56,6 +60,33 @@ public class SearchExecutionModel
 	 */
 	private boolean fetchAll = false;
 	
+	/**
+	 * Format in which results should be exported. Used only by export.
+	 */
+	private ExportFormat exportFormat = ExportFormat.EXCEL;
+	
+	/**
+	 * If true, keyset pagination is used, in which case {@link #pageToken} is used instead of {@link #pageNumber}.
+	 */
+	private boolean keysetPagination = false;
+	
+	/**
+	 * Continuation token of the page to be fetched, as returned by previous page response. Used only 
+	 * in keyset pagination. Null for first page.
+	 */
+	private String pageToken;
+	
+	/**
+	 * Format in which results should be sent.
+	 */
+	private SearchResultFormat resultFormat = SearchResultFormat.ROWS;
+	
+	/**
+	 * Conditions on extended fields, which are applied in addition to the conditions of query object.
+	 */
+	@Valid
+	private List<ExtendedFieldCondition> extendedConditions;
+	
 	/**
 	 * Instantiates a new search execution model.
 	 */
@@ -156,4 +187,104 @@ public class SearchExecutionModel
 	{
 		this.fetchAll = fetchAll;
 	}
+
+	/**
+	 * Gets the format in which results should be exported. Used only by export.
+	 *
+	 * @return the format in which results should be exported
+	 */
+	public ExportFormat getExportFormat()
+	{
+		return exportFormat;
+	}
+
+	/**
+	 * Sets the format in which results should be exported. Used only by export.
+	 *
+	 * @param exportFormat the new format in which results should be exported
+	 */
+	public void setExportFormat(ExportFormat exportFormat)
+	{
+		this.exportFormat = exportFormat;
+	}
+
+	/**
+	 * Checks if keyset pagination is enabled.
+	 *
+	 * @return true, if keyset pagination is enabled
+	 */
+	public boolean isKeysetPagination()
+	{
+		return keysetPagination;
+	}
+
+	/**
+	 * Sets whether keyset pagination should be used.
+	 *
+	 * @param keysetPagination the new keyset pagination flag
+	 */
+	public void setKeysetPagination(boolean keysetPagination)
+	{
+		this.keysetPagination = keysetPagination;
+	}
+
+	/**
+	 * Gets the continuation token of the page to be fetched. Used only in keyset pagination.
+	 *
+	 * @return the continuation token of the page to be fetched
+	 */
+	public String getPageToken()
+	{
+		return pageToken;
+	}
+
+	/**
+	 * Sets the continuation token of the page to be fetched. Used only in keyset pagination.
+	 *
+	 * @param pageToken the new continuation token of the page to be fetched
+	 */
+	public void setPageToken(String pageToken)
+	{
+		this.pageToken = pageToken;
+	}
+
+	/**
+	 * Gets the format in which results should be sent.
+	 *
+	 * @return the format in which results should be sent
+	 */
+	public SearchResultFormat getResultFormat()
+	{
+		return resultFormat;
+	}
+
+	/**
+	 * Sets the format in which results should be sent.
+	 *
+	 * @param resultFormat the new format in which results should be sent
+	 */
+	public void setResultFormat(SearchResultFormat resultFormat)
+	{
+		this.resultFormat = resultFormat;
+	}
+
+	/**
+	 * Gets the conditions on extended fields, which are applied in addition to the conditions of query object.
+	 *
+	 * @return the conditions on extended fields, which are applied in addition to the conditions of query object
+	 */
+	public List<ExtendedFieldCondition> getExtendedConditions()
+	{
+		return extendedConditions;
+	}
+
+	/**
+	 * Sets the conditions on extended fields, which are applied in addition to the conditions of query object.
+	 *
+	 * @param extendedConditions the new conditions on extended fields, which are applied in addition to the conditions of query object
+	 */
+	public void setExtendedConditions(List<ExtendedFieldCondition> extendedConditions)
+	{
+		this.extendedConditions = extendedConditions;
+	}
 }
@@ -1,9 +1,15 @@
 package com.yukthi.webutils.common.controllers;
 
 import com.yukthi.webutils.common.RemoteService;
+import com.yukthi.webutils.common.SearchAggregationModel;
 import com.yukthi.webutils.common.SearchExecutionModel;
 import com.yukthi.webutils.common.models.ModelDefResponse;
+import com.yukthi.webutils.common.models.search.ExecuteSearchBatchRequest;
+import com.yukthi.webutils.common.models.search.ExecuteSearchBatchResponse;
 import com.yukthi.webutils.common.models.search.ExecuteSearchResponse;
+import com.yukthi.webutils.common.models.search.SearchAggregationResponse;
+import com.yukthi.webutils.common.models.search.SearchExportJobResponse;
+import com.yukthi.webutils.common.models.search.SearchMetricsResponse;
 
 @RemoteService
 public interface ISearchController extends IClientController<ISearchController>
@@ -33,4 +39,41 @@ public interface ISearchController extends IClientController<ISearchController>
 
 	void exportSearch(String queryName, SearchExecutionModel searchExecutionModel) throws Exception;
 
-}
\ No newline at end of file
+	/**
+	 * Executes multiple search queries in parallel
+	 * @param request Queries to be executed
+	 * @return Responses of the queries, in request order
+	 */
+	ExecuteSearchBatchResponse executeSearchBatch(ExecuteSearchBatchRequest request) throws Exception;
+	
+	/**
+	 * Fetches execution metrics of search queries, slow query executions of current user space and search cache statistics
+	 * @return Search metrics
+	 */
+	SearchMetricsResponse fetchSearchMetrics() throws Exception;
+	
+	/**
+	 * Computes aggregations on results of specified query, grouped by specified result fields
+	 * @param queryName Name of the query to aggregate
+	 * @param aggregationModel Query object, group-by fields and aggregations
+	 * @return Aggregated groups
+	 */
+	SearchAggregationResponse aggregateSearch(String queryName, SearchAggregationModel aggregationModel) throws Exception;
+	
+	/**
+	 * Submits export of specified query for background execution. Search execution model is expected as request body (POST).
+	 * @param queryName Name of the query to export
+	 * @param searchExecutionModel Query object and export format
+	 * @return Status of submitted export job
+	 */
+	SearchExportJobResponse exportSearchAsync(String queryName, SearchExecutionModel searchExecutionModel) throws Exception;
+	
+	/**
+	 * Fetches status and progress of asynchronous export job. Once completed, exported file can be downloaded
+	 * using file id of the response
+	 * @param jobId Id of the export job
+	 * @return Status of the export job
+	 */
+	SearchExportJobResponse fetchExportStatus(String jobId);
+
+}
\ No newline at end of file
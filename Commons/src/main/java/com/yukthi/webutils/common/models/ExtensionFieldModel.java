@@ -119,6 +119,19 @@ public class ExtensionFieldModel
 	@Min(0)
 	@Max(2000)
 	private int maxLength = 0;
+	
+	/**
+	 * Indicates typed values of this field should be indexed, so that range conditions can be used 
+	 * on it during search. Supported only for integer, decimal, date and boolean fields. Can be set only
+	 * during creation.
+	 */
+	private boolean indexed = false;
+	
+	/**
+	 * Indicates field can be used in search conditions. Database index is maintained (in background) on 
+	 * extension column of searchable fields.
+	 */
+	private boolean searchable = false;
 
 	/**
 	 * Instantiates a new extension field model.
@@ -418,4 +431,43 @@ public class ExtensionFieldModel
 		return builder.toString();
 	}
 
+	/**
+	 * Checks if typed values of this field should be indexed.
+	 *
+	 * @return true, if typed values of this field should be indexed
+	 */
+	public boolean isIndexed()
+	{
+		return indexed;
+	}
+
+	/**
+	 * Sets whether typed values of this field should be indexed.
+	 *
+	 * @param indexed the new indexed flag
+	 */
+	public void setIndexed(boolean indexed)
+	{
+		this.indexed = indexed;
+	}
+
+	/**
+	 * Checks if field can be used in search conditions.
+	 *
+	 * @return true, if field can be used in search conditions
+	 */
+	public boolean isSearchable()
+	{
+		return searchable;
+	}
+
+	/**
+	 * Sets whether field can be used in search conditions.
+	 *
+	 * @param searchable the new searchable flag
+	 */
+	public void setSearchable(boolean searchable)
+	{
+		this.searchable = searchable;
+	}
 }
@@ -0,0 +1,208 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.def;
+
+import java.util.List;
+
+import com.yukthi.webutils.common.extensions.ExtensionFieldType;
+import com.yukthi.webutils.common.extensions.LovOption;
+
+/**
+ * Definition of extended field which can be used in search conditions.
+ * @author akiran
+ */
+public class ExtendedFieldDef
+{
+	/**
+	 * Name of the extension under which field is defined.
+	 */
+	private String extensionName;
+	
+	/**
+	 * Name of the field.
+	 */
+	private String name;
+	
+	/**
+	 * Label of the field.
+	 */
+	private String label;
+	
+	/**
+	 * Type of the field.
+	 */
+	private ExtensionFieldType type;
+	
+	/**
+	 * Lov options of the field, for lov fields.
+	 */
+	private List<LovOption> lovOptions;
+	
+	/**
+	 * Indicates typed values of the field are indexed, so that range conditions can be used.
+	 */
+	private boolean indexed;
+	
+	/**
+	 * Instantiates a new extended field def.
+	 */
+	public ExtendedFieldDef()
+	{}
+
+	/**
+	 * Instantiates a new extended field def.
+	 *
+	 * @param extensionName the extension name
+	 * @param name the name
+	 * @param label the label
+	 * @param type the type
+	 */
+	public ExtendedFieldDef(String extensionName, String name, String label, ExtensionFieldType type)
+	{
+		this.extensionName = extensionName;
+		this.name = name;
+		this.label = label;
+		this.type = type;
+	}
+
+	/**
+	 * Gets the name of the extension under which field is defined.
+	 *
+	 * @return the name of the extension under which field is defined
+	 */
+	public String getExtensionName()
+	{
+		return extensionName;
+	}
+
+	/**
+	 * Sets the name of the extension under which field is defined.
+	 *
+	 * @param extensionName the new name of the extension under which field is defined
+	 */
+	public void setExtensionName(String extensionName)
+	{
+		this.extensionName = extensionName;
+	}
+
+	/**
+	 * Gets the name of the field.
+	 *
+	 * @return the name of the field
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Sets the name of the field.
+	 *
+	 * @param name the new name of the field
+	 */
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+
+	/**
+	 * Gets the label of the field.
+	 *
+	 * @return the label of the field
+	 */
+	public String getLabel()
+	{
+		return label;
+	}
+
+	/**
+	 * Sets the label of the field.
+	 *
+	 * @param label the new label of the field
+	 */
+	public void setLabel(String label)
+	{
+		this.label = label;
+	}
+
+	/**
+	 * Gets the type of the field.
+	 *
+	 * @return the type of the field
+	 */
+	public ExtensionFieldType getType()
+	{
+		return type;
+	}
+
+	/**
+	 * Sets the type of the field.
+	 *
+	 * @param type the new type of the field
+	 */
+	public void setType(ExtensionFieldType type)
+	{
+		this.type = type;
+	}
+
+	/**
+	 * Gets the lov options of the field, for lov fields.
+	 *
+	 * @return the lov options of the field, for lov fields
+	 */
+	public List<LovOption> getLovOptions()
+	{
+		return lovOptions;
+	}
+
+	/**
+	 * Sets the lov options of the field, for lov fields.
+	 *
+	 * @param lovOptions the new lov options of the field, for lov fields
+	 */
+	public void setLovOptions(List<LovOption> lovOptions)
+	{
+		this.lovOptions = lovOptions;
+	}
+
+	/**
+	 * Checks if typed values of the field are indexed, so that range conditions can be used.
+	 *
+	 * @return true, if typed values of the field are indexed, so that range conditions can be used
+	 */
+	public boolean isIndexed()
+	{
+		return indexed;
+	}
+
+	/**
+	 * Sets whether typed values of the field are indexed, so that range conditions can be used.
+	 *
+	 * @param indexed the new indexed flag
+	 */
+	public void setIndexed(boolean indexed)
+	{
+		this.indexed = indexed;
+	}
+}
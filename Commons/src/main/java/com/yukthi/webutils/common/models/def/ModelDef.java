@@ -58,6 +58,11 @@ public class ModelDef
 	 */
 	private String extensionName;
 	
+	/**
+	 * Extended fields which can be used in search conditions. Populated only for search query models.
+	 */
+	private List<ExtendedFieldDef> extendedFields;
+	
 	/** 
 	 * The date format to be used by java clients. 
 	 */
@@ -208,6 +213,26 @@ public class ModelDef
 		this.jsDateFormat = jsDateFormat;
 	}
 
+	/**
+	 * Gets the extended fields which can be used in search conditions. Populated only for search query models.
+	 *
+	 * @return the extended fields which can be used in search conditions. Populated only for search query models
+	 */
+	public List<ExtendedFieldDef> getExtendedFields()
+	{
+		return extendedFields;
+	}
+
+	/**
+	 * Sets the extended fields which can be used in search conditions. Populated only for search query models.
+	 *
+	 * @param extendedFields the new extended fields which can be used in search conditions. Populated only for search query models
+	 */
+	public void setExtendedFields(List<ExtendedFieldDef> extendedFields)
+	{
+		this.extendedFields = extendedFields;
+	}
+
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -224,5 +249,4 @@ public class ModelDef
 		builder.append("]");
 		return builder.toString();
 	}
-
 }
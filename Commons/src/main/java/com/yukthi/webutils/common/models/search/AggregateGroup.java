@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import java.util.List;
+
+/**
+ * Aggregated values of single group of search results.
+ * @author akiran
+ */
+public class AggregateGroup
+{
+	/**
+	 * Values of group-by fields of the group.
+	 */
+	private List<String> keys;
+	
+	/**
+	 * Number of results in the group.
+	 */
+	private long rowCount;
+	
+	/**
+	 * Aggregated values of the group, in aggregation order.
+	 */
+	private List<String> values;
+	
+	/**
+	 * Instantiates a new aggregate group.
+	 */
+	public AggregateGroup()
+	{}
+
+	/**
+	 * Instantiates a new aggregate group.
+	 *
+	 * @param keys the values of group-by fields of the group
+	 * @param rowCount the number of results in the group
+	 * @param values the aggregated values of the group, in aggregation order
+	 */
+	public AggregateGroup(List<String> keys, long rowCount, List<String> values)
+	{
+		this.keys = keys;
+		this.rowCount = rowCount;
+		this.values = values;
+	}
+
+	/**
+	 * Gets the values of group-by fields of the group.
+	 *
+	 * @return the values of group-by fields of the group
+	 */
+	public List<String> getKeys()
+	{
+		return keys;
+	}
+
+	/**
+	 * Sets the values of group-by fields of the group.
+	 *
+	 * @param keys the new values of group-by fields of the group
+	 */
+	public void setKeys(List<String> keys)
+	{
+		this.keys = keys;
+	}
+
+	/**
+	 * Gets the number of results in the group.
+	 *
+	 * @return the number of results in the group
+	 */
+	public long getRowCount()
+	{
+		return rowCount;
+	}
+
+	/**
+	 * Sets the number of results in the group.
+	 *
+	 * @param rowCount the new number of results in the group
+	 */
+	public void setRowCount(long rowCount)
+	{
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * Gets the aggregated values of the group, in aggregation order.
+	 *
+	 * @return the aggregated values of the group, in aggregation order
+	 */
+	public List<String> getValues()
+	{
+		return values;
+	}
+
+	/**
+	 * Sets the aggregated values of the group, in aggregation order.
+	 *
+	 * @param values the new aggregated values of the group, in aggregation order
+	 */
+	public void setValues(List<String> values)
+	{
+		this.values = values;
+	}
+}
@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+/**
+ * Statistics of an internal cache.
+ * @author akiran
+ */
+public class CacheStatistics
+{
+	/**
+	 * Name of the cache.
+	 */
+	private String name;
+	
+	/**
+	 * Current number of entries.
+	 */
+	private int size;
+	
+	/**
+	 * Maximum number of entries.
+	 */
+	private int maxSize;
+	
+	/**
+	 * Number of lookups which found the value.
+	 */
+	private long hitCount;
+	
+	/**
+	 * Number of lookups which did not find the value.
+	 */
+	private long missCount;
+	
+	/**
+	 * Number of entries evicted because of size limit.
+	 */
+	private long evictionCount;
+	
+	/**
+	 * Number of entries removed because of expiry.
+	 */
+	private long expiryCount;
+	
+	/**
+	 * Instantiates a new cache statistics.
+	 */
+	public CacheStatistics()
+	{}
+
+	/**
+	 * Gets the name of the cache.
+	 *
+	 * @return the name of the cache
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Sets the name of the cache.
+	 *
+	 * @param name the new name of the cache
+	 */
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+
+	/**
+	 * Gets the current number of entries.
+	 *
+	 * @return the current number of entries
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Sets the current number of entries.
+	 *
+	 * @param size the new current number of entries
+	 */
+	public void setSize(int size)
+	{
+		this.size = size;
+	}
+
+	/**
+	 * Gets the maximum number of entries.
+	 *
+	 * @return the maximum number of entries
+	 */
+	public int getMaxSize()
+	{
+		return maxSize;
+	}
+
+	/**
+	 * Sets the maximum number of entries.
+	 *
+	 * @param maxSize the new maximum number of entries
+	 */
+	public void setMaxSize(int maxSize)
+	{
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Gets the number of lookups which found the value.
+	 *
+	 * @return the number of lookups which found the value
+	 */
+	public long getHitCount()
+	{
+		return hitCount;
+	}
+
+	/**
+	 * Sets the number of lookups which found the value.
+	 *
+	 * @param hitCount the new number of lookups which found the value
+	 */
+	public void setHitCount(long hitCount)
+	{
+		this.hitCount = hitCount;
+	}
+
+	/**
+	 * Gets the number of lookups which did not find the value.
+	 *
+	 * @return the number of lookups which did not find the value
+	 */
+	public long getMissCount()
+	{
+		return missCount;
+	}
+
+	/**
+	 * Sets the number of lookups which did not find the value.
+	 *
+	 * @param missCount the new number of lookups which did not find the value
+	 */
+	public void setMissCount(long missCount)
+	{
+		this.missCount = missCount;
+	}
+
+	/**
+	 * Gets the number of entries evicted because of size limit.
+	 *
+	 * @return the number of entries evicted because of size limit
+	 */
+	public long getEvictionCount()
+	{
+		return evictionCount;
+	}
+
+	/**
+	 * Sets the number of entries evicted because of size limit.
+	 *
+	 * @param evictionCount the new number of entries evicted because of size limit
+	 */
+	public void setEvictionCount(long evictionCount)
+	{
+		this.evictionCount = evictionCount;
+	}
+
+	/**
+	 * Gets the number of entries removed because of expiry.
+	 *
+	 * @return the number of entries removed because of expiry
+	 */
+	public long getExpiryCount()
+	{
+		return expiryCount;
+	}
+
+	/**
+	 * Sets the number of entries removed because of expiry.
+	 *
+	 * @param expiryCount the new number of entries removed because of expiry
+	 */
+	public void setExpiryCount(long expiryCount)
+	{
+		this.expiryCount = expiryCount;
+	}
+}
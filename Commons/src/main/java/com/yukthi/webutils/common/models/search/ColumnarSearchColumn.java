@@ -0,0 +1,213 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * Values of single column of columnar search results. Based on encoding, only one of
+ * values, dictionary (along with indexes) or numbers will be populated.
+ * @author akiran
+ */
+@JsonInclude(Include.NON_NULL)
+public class ColumnarSearchColumn
+{
+	/**
+	 * Encoding of the column values.
+	 */
+	private SearchColumnEncoding encoding;
+	
+	/**
+	 * Values of the column, used in plain encoding.
+	 */
+	private List<String> values;
+	
+	/**
+	 * Distinct values of the column, used in dictionary encoding.
+	 */
+	private List<String> dictionary;
+	
+	/**
+	 * Dictionary index of each row value, -1 for null values. Used in dictionary encoding.
+	 */
+	private int indexes[];
+	
+	/**
+	 * Numeric values of the column, used in integer and date (epoch milliseconds) encodings.
+	 */
+	private List<Long> numbers;
+	
+	/**
+	 * Instantiates a new columnar search column.
+	 */
+	public ColumnarSearchColumn()
+	{}
+	
+	/**
+	 * Instantiates a new columnar search column.
+	 *
+	 * @param encoding the encoding
+	 */
+	public ColumnarSearchColumn(SearchColumnEncoding encoding)
+	{
+		this.encoding = encoding;
+	}
+
+	/**
+	 * Gets the encoding of the column values.
+	 *
+	 * @return the encoding of the column values
+	 */
+	public SearchColumnEncoding getEncoding()
+	{
+		return encoding;
+	}
+
+	/**
+	 * Sets the encoding of the column values.
+	 *
+	 * @param encoding the new encoding of the column values
+	 */
+	public void setEncoding(SearchColumnEncoding encoding)
+	{
+		this.encoding = encoding;
+	}
+
+	/**
+	 * Gets the values of the column, used in plain encoding.
+	 *
+	 * @return the values of the column
+	 */
+	public List<String> getValues()
+	{
+		return values;
+	}
+
+	/**
+	 * Sets the values of the column, used in plain encoding.
+	 *
+	 * @param values the new values of the column
+	 */
+	public void setValues(List<String> values)
+	{
+		this.values = values;
+	}
+
+	/**
+	 * Gets the distinct values of the column, used in dictionary encoding.
+	 *
+	 * @return the distinct values of the column
+	 */
+	public List<String> getDictionary()
+	{
+		return dictionary;
+	}
+
+	/**
+	 * Sets the distinct values of the column, used in dictionary encoding.
+	 *
+	 * @param dictionary the new distinct values of the column
+	 */
+	public void setDictionary(List<String> dictionary)
+	{
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Gets the dictionary index of each row value.
+	 *
+	 * @return the dictionary index of each row value
+	 */
+	public int[] getIndexes()
+	{
+		return indexes;
+	}
+
+	/**
+	 * Sets the dictionary index of each row value.
+	 *
+	 * @param indexes the new dictionary index of each row value
+	 */
+	public void setIndexes(int[] indexes)
+	{
+		this.indexes = indexes;
+	}
+
+	/**
+	 * Gets the numeric values of the column, used in integer and date encodings.
+	 *
+	 * @return the numeric values of the column
+	 */
+	public List<Long> getNumbers()
+	{
+		return numbers;
+	}
+
+	/**
+	 * Sets the numeric values of the column, used in integer and date encodings.
+	 *
+	 * @param numbers the new numeric values of the column
+	 */
+	public void setNumbers(List<Long> numbers)
+	{
+		this.numbers = numbers;
+	}
+	
+	/**
+	 * Decodes the value at specified row into string form, as it would be present in row based results.
+	 * @param row Row index
+	 * @param dateFormat Format to be used for date values
+	 * @return Decoded value
+	 */
+	public String getValue(int row, DateFormat dateFormat)
+	{
+		switch(encoding)
+		{
+			case DICTIONARY:
+			{
+				int index = indexes[row];
+				return (index < 0) ? null : dictionary.get(index);
+			}
+			case INTEGER:
+			{
+				Long value = numbers.get(row);
+				return (value == null) ? null : value.toString();
+			}
+			case DATE:
+			{
+				Long value = numbers.get(row);
+				return (value == null) ? null : dateFormat.format(new Date(value));
+			}
+			default:
+			{
+				return values.get(row);
+			}
+		}
+	}
+}
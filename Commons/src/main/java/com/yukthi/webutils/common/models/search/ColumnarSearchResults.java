@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Search results in columnar form. Used when client requests columnar result format.
+ * @author akiran
+ */
+public class ColumnarSearchResults
+{
+	/**
+	 * Number of rows in the results.
+	 */
+	private int rowCount;
+	
+	/**
+	 * Pattern to be used for formatting date columns.
+	 */
+	private String datePattern;
+	
+	/**
+	 * Time zone id to be used for formatting date columns.
+	 */
+	private String timeZone;
+	
+	/**
+	 * Columns of the results, in search column order.
+	 */
+	private List<ColumnarSearchColumn> columns;
+	
+	/**
+	 * Instantiates a new columnar search results.
+	 */
+	public ColumnarSearchResults()
+	{}
+
+	/**
+	 * Gets the number of rows in the results.
+	 *
+	 * @return the number of rows in the results
+	 */
+	public int getRowCount()
+	{
+		return rowCount;
+	}
+
+	/**
+	 * Sets the number of rows in the results.
+	 *
+	 * @param rowCount the new number of rows in the results
+	 */
+	public void setRowCount(int rowCount)
+	{
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * Gets the pattern to be used for formatting date columns.
+	 *
+	 * @return the pattern to be used for formatting date columns
+	 */
+	public String getDatePattern()
+	{
+		return datePattern;
+	}
+
+	/**
+	 * Sets the pattern to be used for formatting date columns.
+	 *
+	 * @param datePattern the new pattern to be used for formatting date columns
+	 */
+	public void setDatePattern(String datePattern)
+	{
+		this.datePattern = datePattern;
+	}
+
+	/**
+	 * Gets the time zone id to be used for formatting date columns.
+	 *
+	 * @return the time zone id to be used for formatting date columns
+	 */
+	public String getTimeZone()
+	{
+		return timeZone;
+	}
+
+	/**
+	 * Sets the time zone id to be used for formatting date columns.
+	 *
+	 * @param timeZone the new time zone id to be used for formatting date columns
+	 */
+	public void setTimeZone(String timeZone)
+	{
+		this.timeZone = timeZone;
+	}
+
+	/**
+	 * Gets the columns of the results.
+	 *
+	 * @return the columns of the results
+	 */
+	public List<ColumnarSearchColumn> getColumns()
+	{
+		return columns;
+	}
+
+	/**
+	 * Sets the columns of the results.
+	 *
+	 * @param columns the new columns of the results
+	 */
+	public void setColumns(List<ColumnarSearchColumn> columns)
+	{
+		this.columns = columns;
+	}
+	
+	/**
+	 * Adds specified column.
+	 * @param column Column to be added
+	 */
+	public void addColumn(ColumnarSearchColumn column)
+	{
+		if(columns == null)
+		{
+			columns = new ArrayList<>();
+		}
+		
+		columns.add(column);
+	}
+	
+	/**
+	 * Decodes the columnar results into search rows, with same values as row based results.
+	 * @return Decoded rows
+	 */
+	public List<SearchRow> toRows()
+	{
+		List<SearchRow> rows = new ArrayList<>(rowCount);
+		
+		if(rowCount == 0)
+		{
+			return rows;
+		}
+		
+		SimpleDateFormat dateFormat = (datePattern != null) ? new SimpleDateFormat(datePattern) : null;
+		
+		if(dateFormat != null && timeZone != null)
+		{
+			dateFormat.setTimeZone(TimeZone.getTimeZone(timeZone));
+		}
+		
+		int columnCount = (columns == null) ? 0 : columns.size();
+		List<String> values = null;
+		
+		for(int row = 0; row < rowCount; row++)
+		{
+			values = new ArrayList<>(columnCount);
+			
+			for(int col = 0; col < columnCount; col++)
+			{
+				values.add(columns.get(col).getValue(row, dateFormat));
+			}
+			
+			rows.add(new SearchRow(values));
+		}
+		
+		return rows;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import com.yukthi.webutils.common.annotations.Model;
+
+/**
+ * Request to execute multiple search queries in single request.
+ * @author akiran
+ */
+@Model
+public class ExecuteSearchBatchRequest
+{
+	/**
+	 * Search queries to be executed.
+	 */
+	@NotNull
+	@Size(min = 1)
+	private List<SearchBatchEntry> entries;
+	
+	/**
+	 * Instantiates a new execute search batch request.
+	 */
+	public ExecuteSearchBatchRequest()
+	{}
+
+	/**
+	 * Instantiates a new execute search batch request.
+	 *
+	 * @param entries the entries
+	 */
+	public ExecuteSearchBatchRequest(List<SearchBatchEntry> entries)
+	{
+		this.entries = entries;
+	}
+
+	/**
+	 * Gets the search queries to be executed.
+	 *
+	 * @return the search queries to be executed
+	 */
+	public List<SearchBatchEntry> getEntries()
+	{
+		return entries;
+	}
+
+	/**
+	 * Sets the search queries to be executed.
+	 *
+	 * @param entries the new search queries to be executed
+	 */
+	public void setEntries(List<SearchBatchEntry> entries)
+	{
+		this.entries = entries;
+	}
+	
+	/**
+	 * Adds specified entry.
+	 * @param entry Entry to be added
+	 */
+	public void addEntry(SearchBatchEntry entry)
+	{
+		if(entries == null)
+		{
+			entries = new ArrayList<>();
+		}
+		
+		entries.add(entry);
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import java.util.List;
+
+import com.yukthi.webutils.common.models.BaseResponse;
+
+/**
+ * Response of search batch execution. Responses will be in the same order as request entries. Failure of
+ * an entry is indicated by code and message of corresponding response, without failing other entries.
+ * @author akiran
+ */
+public class ExecuteSearchBatchResponse extends BaseResponse
+{
+	/**
+	 * Responses of the search queries.
+	 */
+	private List<ExecuteSearchResponse> responses;
+	
+	/**
+	 * Instantiates a new execute search batch response.
+	 */
+	public ExecuteSearchBatchResponse()
+	{}
+
+	/**
+	 * Instantiates a new execute search batch response.
+	 *
+	 * @param responses the responses
+	 */
+	public ExecuteSearchBatchResponse(List<ExecuteSearchResponse> responses)
+	{
+		this.responses = responses;
+	}
+
+	/**
+	 * Gets the responses of the search queries.
+	 *
+	 * @return the responses of the search queries
+	 */
+	public List<ExecuteSearchResponse> getResponses()
+	{
+		return responses;
+	}
+
+	/**
+	 * Sets the responses of the search queries.
+	 *
+	 * @param responses the new responses of the search queries
+	 */
+	public void setResponses(List<ExecuteSearchResponse> responses)
+	{
+		this.responses = responses;
+	}
+}
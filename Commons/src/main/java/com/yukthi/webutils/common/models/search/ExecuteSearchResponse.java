@@ -54,6 +54,22 @@ public class ExecuteSearchResponse extends BaseResponse
 	 */
 	private long totalCount;
 	
+	/**
+	 * Token to be used to fetch next page, in keyset pagination. Null if there are no more pages.
+	 */
+	private String nextPageToken;
+	
+	/**
+	 * Status of total count. Null, if count is not fetched.
+	 */
+	private SearchCountStatus countStatus;
+	
+	/**
+	 * Search results in columnar form. Populated instead of search results, when columnar
+	 * result format is requested.
+	 */
+	private ColumnarSearchResults columnarResults;
+	
 	/**
 	 * Instantiates a new execute search response.
 	 */
@@ -167,4 +183,64 @@ public class ExecuteSearchResponse extends BaseResponse
 	{
 		this.totalCount = totalCount;
 	}
+
+	/**
+	 * Gets the token to be used to fetch next page, in keyset pagination.
+	 *
+	 * @return the token to be used to fetch next page
+	 */
+	public String getNextPageToken()
+	{
+		return nextPageToken;
+	}
+
+	/**
+	 * Sets the token to be used to fetch next page, in keyset pagination.
+	 *
+	 * @param nextPageToken the new token to be used to fetch next page
+	 */
+	public void setNextPageToken(String nextPageToken)
+	{
+		this.nextPageToken = nextPageToken;
+	}
+
+	/**
+	 * Gets the status of total count.
+	 *
+	 * @return the status of total count
+	 */
+	public SearchCountStatus getCountStatus()
+	{
+		return countStatus;
+	}
+
+	/**
+	 * Sets the status of total count.
+	 *
+	 * @param countStatus the new status of total count
+	 */
+	public void setCountStatus(SearchCountStatus countStatus)
+	{
+		this.countStatus = countStatus;
+	}
+
+	/**
+	 * Gets the search results in columnar form.
+	 *
+	 * @return the search results in columnar form
+	 */
+	public ColumnarSearchResults getColumnarResults()
+	{
+		return columnarResults;
+	}
+
+	/**
+	 * Sets the search results in columnar form.
+	 *
+	 * @param columnarResults the new search results in columnar form
+	 */
+	public void setColumnarResults(ColumnarSearchResults columnarResults)
+	{
+		this.columnarResults = columnarResults;
+	}
 }
@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import javax.validation.constraints.NotNull;
+
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.webutils.common.annotations.Model;
+
+/**
+ * Condition on an extended field, to be applied during search execution. Conditions on indexed extended fields 
+ * of numeric, date and boolean types are evaluated using typed values, so that range conditions compare 
+ * values (instead of strings).
+ * 
+ * @author akiran
+ */
+@Model
+public class ExtendedFieldCondition
+{
+	/**
+	 * Name of the extension under which field is defined.
+	 */
+	@NotNull
+	private String extensionName;
+	
+	/**
+	 * Name of the extended field.
+	 */
+	@NotNull
+	private String fieldName;
+	
+	/**
+	 * Operator to be used for comparison. Supported operators - EQ, LT, LE, GT, GE.
+	 */
+	private Operator operator = Operator.EQ;
+	
+	/**
+	 * Value to compare with, in the same format as extended field values.
+	 */
+	@NotNull
+	private String value;
+	
+	/**
+	 * Instantiates a new extended field condition.
+	 */
+	public ExtendedFieldCondition()
+	{}
+
+	/**
+	 * Instantiates a new extended field condition.
+	 *
+	 * @param extensionName the extension name
+	 * @param fieldName the field name
+	 * @param operator the operator
+	 * @param value the value
+	 */
+	public ExtendedFieldCondition(String extensionName, String fieldName, Operator operator, String value)
+	{
+		this.extensionName = extensionName;
+		this.fieldName = fieldName;
+		this.operator = operator;
+		this.value = value;
+	}
+
+	/**
+	 * Gets the name of the extension under which field is defined.
+	 *
+	 * @return the name of the extension under which field is defined
+	 */
+	public String getExtensionName()
+	{
+		return extensionName;
+	}
+
+	/**
+	 * Sets the name of the extension under which field is defined.
+	 *
+	 * @param extensionName the new name of the extension under which field is defined
+	 */
+	public void setExtensionName(String extensionName)
+	{
+		this.extensionName = extensionName;
+	}
+
+	/**
+	 * Gets the name of the extended field.
+	 *
+	 * @return the name of the extended field
+	 */
+	public String getFieldName()
+	{
+		return fieldName;
+	}
+
+	/**
+	 * Sets the name of the extended field.
+	 *
+	 * @param fieldName the new name of the extended field
+	 */
+	public void setFieldName(String fieldName)
+	{
+		this.fieldName = fieldName;
+	}
+
+	/**
+	 * Gets the operator to be used for comparison.
+	 *
+	 * @return the operator to be used for comparison
+	 */
+	public Operator getOperator()
+	{
+		return operator;
+	}
+
+	/**
+	 * Sets the operator to be used for comparison.
+	 *
+	 * @param operator the new operator to be used for comparison
+	 */
+	public void setOperator(Operator operator)
+	{
+		this.operator = operator;
+	}
+
+	/**
+	 * Gets the value to compare with, in the same format as extended field values.
+	 *
+	 * @return the value to compare with, in the same format as extended field values
+	 */
+	public String getValue()
+	{
+		return value;
+	}
+
+	/**
+	 * Sets the value to compare with, in the same format as extended field values.
+	 *
+	 * @param value the new value to compare with, in the same format as extended field values
+	 */
+	public void setValue(String value)
+	{
+		this.value = value;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return extensionName + "." + fieldName + " " + operator + " " + value;
+	}
+}
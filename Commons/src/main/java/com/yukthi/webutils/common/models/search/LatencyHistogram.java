@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+/**
+ * Latency histogram of a search execution phase. Bucket i counts executions which took at most bucketBounds[i] millis
+ * (and more than bucketBounds[i - 1]). Last bucket count, which is one more than bounds, counts executions exceeding
+ * the last bound.
+ * @author akiran
+ */
+public class LatencyHistogram
+{
+	/**
+	 * Number of recorded executions.
+	 */
+	private long count;
+	
+	/**
+	 * Total time (in millis) of recorded executions.
+	 */
+	private long totalMillis;
+	
+	/**
+	 * Maximum time (in millis) of recorded executions.
+	 */
+	private long maxMillis;
+	
+	/**
+	 * Upper bounds (in millis) of histogram buckets.
+	 */
+	private long[] bucketBounds;
+	
+	/**
+	 * Number of executions in each bucket.
+	 */
+	private long[] bucketCounts;
+	
+	/**
+	 * Instantiates a new latency histogram.
+	 */
+	public LatencyHistogram()
+	{}
+
+	/**
+	 * Gets the number of recorded executions.
+	 *
+	 * @return the number of recorded executions
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Sets the number of recorded executions.
+	 *
+	 * @param count the new number of recorded executions
+	 */
+	public void setCount(long count)
+	{
+		this.count = count;
+	}
+
+	/**
+	 * Gets the total time (in millis) of recorded executions.
+	 *
+	 * @return the total time (in millis) of recorded executions
+	 */
+	public long getTotalMillis()
+	{
+		return totalMillis;
+	}
+
+	/**
+	 * Sets the total time (in millis) of recorded executions.
+	 *
+	 * @param totalMillis the new total time (in millis) of recorded executions
+	 */
+	public void setTotalMillis(long totalMillis)
+	{
+		this.totalMillis = totalMillis;
+	}
+
+	/**
+	 * Gets the maximum time (in millis) of recorded executions.
+	 *
+	 * @return the maximum time (in millis) of recorded executions
+	 */
+	public long getMaxMillis()
+	{
+		return maxMillis;
+	}
+
+	/**
+	 * Sets the maximum time (in millis) of recorded executions.
+	 *
+	 * @param maxMillis the new maximum time (in millis) of recorded executions
+	 */
+	public void setMaxMillis(long maxMillis)
+	{
+		this.maxMillis = maxMillis;
+	}
+
+	/**
+	 * Gets the upper bounds (in millis) of histogram buckets.
+	 *
+	 * @return the upper bounds (in millis) of histogram buckets
+	 */
+	public long[] getBucketBounds()
+	{
+		return bucketBounds;
+	}
+
+	/**
+	 * Sets the upper bounds (in millis) of histogram buckets.
+	 *
+	 * @param bucketBounds the new upper bounds (in millis) of histogram buckets
+	 */
+	public void setBucketBounds(long[] bucketBounds)
+	{
+		this.bucketBounds = bucketBounds;
+	}
+
+	/**
+	 * Gets the number of executions in each bucket.
+	 *
+	 * @return the number of executions in each bucket
+	 */
+	public long[] getBucketCounts()
+	{
+		return bucketCounts;
+	}
+
+	/**
+	 * Sets the number of executions in each bucket.
+	 *
+	 * @param bucketCounts the new number of executions in each bucket
+	 */
+	public void setBucketCounts(long[] bucketCounts)
+	{
+		this.bucketCounts = bucketCounts;
+	}
+}
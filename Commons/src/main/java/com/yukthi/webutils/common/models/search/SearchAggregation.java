@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Aggregation to be computed on search results.
+ * @author akiran
+ */
+public class SearchAggregation
+{
+	/**
+	 * Aggregate function to compute.
+	 */
+	@NotNull
+	private AggregateFunction function;
+	
+	/**
+	 * Result field on which function should be computed. Optional for count.
+	 */
+	private String field;
+	
+	/**
+	 * Instantiates a new search aggregation.
+	 */
+	public SearchAggregation()
+	{}
+
+	/**
+	 * Instantiates a new search aggregation.
+	 *
+	 * @param function the aggregate function to compute
+	 * @param field the result field on which function should be computed. Optional for count
+	 */
+	public SearchAggregation(AggregateFunction function, String field)
+	{
+		this.function = function;
+		this.field = field;
+	}
+
+	/**
+	 * Gets the aggregate function to compute.
+	 *
+	 * @return the aggregate function to compute
+	 */
+	public AggregateFunction getFunction()
+	{
+		return function;
+	}
+
+	/**
+	 * Sets the aggregate function to compute.
+	 *
+	 * @param function the new aggregate function to compute
+	 */
+	public void setFunction(AggregateFunction function)
+	{
+		this.function = function;
+	}
+
+	/**
+	 * Gets the result field on which function should be computed. Optional for count.
+	 *
+	 * @return the result field on which function should be computed. Optional for count
+	 */
+	public String getField()
+	{
+		return field;
+	}
+
+	/**
+	 * Sets the result field on which function should be computed. Optional for count.
+	 *
+	 * @param field the new result field on which function should be computed. Optional for count
+	 */
+	public void setField(String field)
+	{
+		this.field = field;
+	}
+
+	/**
+	 * Gets the label of this aggregation, like SUM(salary).
+	 *
+	 * @return the label of this aggregation
+	 */
+	@JsonIgnore
+	public String getLabel()
+	{
+		return function + "(" + (field != null ? field : "*") + ")";
+	}
+}
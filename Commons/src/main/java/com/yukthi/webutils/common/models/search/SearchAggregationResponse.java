@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import java.util.List;
+
+import com.yukthi.webutils.common.models.BaseResponse;
+
+/**
+ * Response of search aggregation action.
+ * @author akiran
+ */
+public class SearchAggregationResponse extends BaseResponse
+{
+	/**
+	 * Fields by which results are grouped.
+	 */
+	private List<String> groupByFields;
+	
+	/**
+	 * Aggregations computed for each group.
+	 */
+	private List<SearchAggregation> aggregations;
+	
+	/**
+	 * Aggregated groups.
+	 */
+	private List<AggregateGroup> groups;
+	
+	/**
+	 * Total number of results aggregated.
+	 */
+	private long rowCount;
+	
+	/**
+	 * Instantiates a new search aggregation response.
+	 */
+	public SearchAggregationResponse()
+	{}
+
+	/**
+	 * Gets the fields by which results are grouped.
+	 *
+	 * @return the fields by which results are grouped
+	 */
+	public List<String> getGroupByFields()
+	{
+		return groupByFields;
+	}
+
+	/**
+	 * Sets the fields by which results are grouped.
+	 *
+	 * @param groupByFields the new fields by which results are grouped
+	 */
+	public void setGroupByFields(List<String> groupByFields)
+	{
+		this.groupByFields = groupByFields;
+	}
+
+	/**
+	 * Gets the aggregations computed for each group.
+	 *
+	 * @return the aggregations computed for each group
+	 */
+	public List<SearchAggregation> getAggregations()
+	{
+		return aggregations;
+	}
+
+	/**
+	 * Sets the aggregations computed for each group.
+	 *
+	 * @param aggregations the new aggregations computed for each group
+	 */
+	public void setAggregations(List<SearchAggregation> aggregations)
+	{
+		this.aggregations = aggregations;
+	}
+
+	/**
+	 * Gets the aggregated groups.
+	 *
+	 * @return the aggregated groups
+	 */
+	public List<AggregateGroup> getGroups()
+	{
+		return groups;
+	}
+
+	/**
+	 * Sets the aggregated groups.
+	 *
+	 * @param groups the new aggregated groups
+	 */
+	public void setGroups(List<AggregateGroup> groups)
+	{
+		this.groups = groups;
+	}
+
+	/**
+	 * Gets the total number of results aggregated.
+	 *
+	 * @return the total number of results aggregated
+	 */
+	public long getRowCount()
+	{
+		return rowCount;
+	}
+
+	/**
+	 * Sets the total number of results aggregated.
+	 *
+	 * @param rowCount the new total number of results aggregated
+	 */
+	public void setRowCount(long rowCount)
+	{
+		this.rowCount = rowCount;
+	}
+}
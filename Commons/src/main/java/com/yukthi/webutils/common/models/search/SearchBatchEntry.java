@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.yukthi.webutils.common.SearchExecutionModel;
+import com.yukthi.webutils.common.annotations.Model;
+
+/**
+ * Single search query execution, part of search batch.
+ * @author akiran
+ */
+@Model
+public class SearchBatchEntry
+{
+	/**
+	 * Name of the search query to execute.
+	 */
+	private String queryName;
+	
+	/**
+	 * Execution params of the query, including query json.
+	 */
+	private SearchExecutionModel searchExecutionModel;
+	
+	/**
+	 * Query object, used by client to populate query json.
+	 */
+	@JsonIgnore
+	private Object query;
+	
+	/**
+	 * Instantiates a new search batch entry.
+	 */
+	public SearchBatchEntry()
+	{}
+	
+	/**
+	 * Instantiates a new search batch entry.
+	 *
+	 * @param queryName the query name
+	 * @param query the query object
+	 * @param searchExecutionModel the search execution model
+	 */
+	public SearchBatchEntry(String queryName, Object query, SearchExecutionModel searchExecutionModel)
+	{
+		this.queryName = queryName;
+		this.query = query;
+		this.searchExecutionModel = searchExecutionModel;
+	}
+
+	/**
+	 * Gets the name of the search query to execute.
+	 *
+	 * @return the name of the search query to execute
+	 */
+	public String getQueryName()
+	{
+		return queryName;
+	}
+
+	/**
+	 * Sets the name of the search query to execute.
+	 *
+	 * @param queryName the new name of the search query to execute
+	 */
+	public void setQueryName(String queryName)
+	{
+		this.queryName = queryName;
+	}
+
+	/**
+	 * Gets the execution params of the query.
+	 *
+	 * @return the execution params of the query
+	 */
+	public SearchExecutionModel getSearchExecutionModel()
+	{
+		return searchExecutionModel;
+	}
+
+	/**
+	 * Sets the execution params of the query.
+	 *
+	 * @param searchExecutionModel the new execution params of the query
+	 */
+	public void setSearchExecutionModel(SearchExecutionModel searchExecutionModel)
+	{
+		this.searchExecutionModel = searchExecutionModel;
+	}
+
+	/**
+	 * Gets the query object, used by client to populate query json.
+	 *
+	 * @return the query object
+	 */
+	@JsonIgnore
+	public Object getQuery()
+	{
+		return query;
+	}
+
+	/**
+	 * Sets the query object, used by client to populate query json.
+	 *
+	 * @param query the new query object
+	 */
+	@JsonIgnore
+	public void setQuery(Object query)
+	{
+		this.query = query;
+	}
+}
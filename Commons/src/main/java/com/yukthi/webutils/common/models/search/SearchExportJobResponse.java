@@ -0,0 +1,265 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import com.yukthi.webutils.common.models.BaseResponse;
+
+/**
+ * Response with status and progress of asynchronous search export job. Once completed, exported file
+ * can be downloaded using file id.
+ * @author akiran
+ */
+public class SearchExportJobResponse extends BaseResponse
+{
+	/**
+	 * Id of the export job.
+	 */
+	private String jobId;
+
+	/**
+	 * Name of the query being exported.
+	 */
+	private String queryName;
+
+	/**
+	 * Status of the export job.
+	 */
+	private SearchExportJobStatus status;
+
+	/**
+	 * Number of rows exported so far.
+	 */
+	private long rowsDone;
+
+	/**
+	 * Total number of rows to be exported, -1 if unknown.
+	 */
+	private long totalRows = -1;
+
+	/**
+	 * Time (in millis) elapsed since export started.
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * Estimated time (in millis) required to complete the export, -1 if unknown.
+	 */
+	private long etaMillis = -1;
+
+	/**
+	 * Id of exported file, available once export is completed.
+	 */
+	private Long fileId;
+
+	/**
+	 * Error message, if export failed.
+	 */
+	private String errorMessage;
+
+	/**
+	 * Instantiates a new search export job response.
+	 */
+	public SearchExportJobResponse()
+	{}
+
+	/**
+	 * Gets the id of the export job.
+	 *
+	 * @return the id of the export job
+	 */
+	public String getJobId()
+	{
+		return jobId;
+	}
+
+	/**
+	 * Sets the id of the export job.
+	 *
+	 * @param jobId the new id of the export job
+	 */
+	public void setJobId(String jobId)
+	{
+		this.jobId = jobId;
+	}
+
+	/**
+	 * Gets the name of the query being exported.
+	 *
+	 * @return the name of the query being exported
+	 */
+	public String getQueryName()
+	{
+		return queryName;
+	}
+
+	/**
+	 * Sets the name of the query being exported.
+	 *
+	 * @param queryName the new name of the query being exported
+	 */
+	public void setQueryName(String queryName)
+	{
+		this.queryName = queryName;
+	}
+
+	/**
+	 * Gets the status of the export job.
+	 *
+	 * @return the status of the export job
+	 */
+	public SearchExportJobStatus getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * Sets the status of the export job.
+	 *
+	 * @param status the new status of the export job
+	 */
+	public void setStatus(SearchExportJobStatus status)
+	{
+		this.status = status;
+	}
+
+	/**
+	 * Gets the number of rows exported so far.
+	 *
+	 * @return the number of rows exported so far
+	 */
+	public long getRowsDone()
+	{
+		return rowsDone;
+	}
+
+	/**
+	 * Sets the number of rows exported so far.
+	 *
+	 * @param rowsDone the new number of rows exported so far
+	 */
+	public void setRowsDone(long rowsDone)
+	{
+		this.rowsDone = rowsDone;
+	}
+
+	/**
+	 * Gets the total number of rows to be exported, -1 if unknown.
+	 *
+	 * @return the total number of rows to be exported, -1 if unknown
+	 */
+	public long getTotalRows()
+	{
+		return totalRows;
+	}
+
+	/**
+	 * Sets the total number of rows to be exported, -1 if unknown.
+	 *
+	 * @param totalRows the new total number of rows to be exported, -1 if unknown
+	 */
+	public void setTotalRows(long totalRows)
+	{
+		this.totalRows = totalRows;
+	}
+
+	/**
+	 * Gets the time (in millis) elapsed since export started.
+	 *
+	 * @return the time (in millis) elapsed since export started
+	 */
+	public long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+
+	/**
+	 * Sets the time (in millis) elapsed since export started.
+	 *
+	 * @param elapsedMillis the new time (in millis) elapsed since export started
+	 */
+	public void setElapsedMillis(long elapsedMillis)
+	{
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * Gets the estimated time (in millis) required to complete the export, -1 if unknown.
+	 *
+	 * @return the estimated time (in millis) required to complete the export, -1 if unknown
+	 */
+	public long getEtaMillis()
+	{
+		return etaMillis;
+	}
+
+	/**
+	 * Sets the estimated time (in millis) required to complete the export, -1 if unknown.
+	 *
+	 * @param etaMillis the new estimated time (in millis) required to complete the export, -1 if unknown
+	 */
+	public void setEtaMillis(long etaMillis)
+	{
+		this.etaMillis = etaMillis;
+	}
+
+	/**
+	 * Gets the id of exported file, available once export is completed.
+	 *
+	 * @return the id of exported file, available once export is completed
+	 */
+	public Long getFileId()
+	{
+		return fileId;
+	}
+
+	/**
+	 * Sets the id of exported file, available once export is completed.
+	 *
+	 * @param fileId the new id of exported file, available once export is completed
+	 */
+	public void setFileId(Long fileId)
+	{
+		this.fileId = fileId;
+	}
+
+	/**
+	 * Gets the error message, if export failed.
+	 *
+	 * @return the error message, if export failed
+	 */
+	public String getErrorMessage()
+	{
+		return errorMessage;
+	}
+
+	/**
+	 * Sets the error message, if export failed.
+	 *
+	 * @param errorMessage the new error message, if export failed
+	 */
+	public void setErrorMessage(String errorMessage)
+	{
+		this.errorMessage = errorMessage;
+	}
+}
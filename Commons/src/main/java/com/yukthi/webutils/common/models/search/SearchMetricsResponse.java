@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import java.util.List;
+
+import com.yukthi.webutils.common.models.BaseResponse;
+
+/**
+ * Response of search metrics fetch action.
+ * @author akiran
+ */
+public class SearchMetricsResponse extends BaseResponse
+{
+	/**
+	 * Metrics of search queries.
+	 */
+	private List<SearchQueryMetrics> queries;
+	
+	/**
+	 * Recent slow query executions, latest first.
+	 */
+	private List<SlowSearchQuery> slowQueries;
+	
+	/**
+	 * Statistics of search related caches.
+	 */
+	private List<CacheStatistics> caches;
+	
+	/**
+	 * Instantiates a new search metrics response.
+	 */
+	public SearchMetricsResponse()
+	{}
+
+	/**
+	 * Gets the metrics of search queries.
+	 *
+	 * @return the metrics of search queries
+	 */
+	public List<SearchQueryMetrics> getQueries()
+	{
+		return queries;
+	}
+
+	/**
+	 * Sets the metrics of search queries.
+	 *
+	 * @param queries the new metrics of search queries
+	 */
+	public void setQueries(List<SearchQueryMetrics> queries)
+	{
+		this.queries = queries;
+	}
+
+	/**
+	 * Gets the recent slow query executions, latest first.
+	 *
+	 * @return the recent slow query executions, latest first
+	 */
+	public List<SlowSearchQuery> getSlowQueries()
+	{
+		return slowQueries;
+	}
+
+	/**
+	 * Sets the recent slow query executions, latest first.
+	 *
+	 * @param slowQueries the new recent slow query executions, latest first
+	 */
+	public void setSlowQueries(List<SlowSearchQuery> slowQueries)
+	{
+		this.slowQueries = slowQueries;
+	}
+
+	/**
+	 * Gets the statistics of search related caches.
+	 *
+	 * @return the statistics of search related caches
+	 */
+	public List<CacheStatistics> getCaches()
+	{
+		return caches;
+	}
+
+	/**
+	 * Sets the statistics of search related caches.
+	 *
+	 * @param caches the new statistics of search related caches
+	 */
+	public void setCaches(List<CacheStatistics> caches)
+	{
+		this.caches = caches;
+	}
+}
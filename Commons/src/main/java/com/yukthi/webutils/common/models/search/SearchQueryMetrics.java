@@ -0,0 +1,264 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import java.util.Map;
+
+/**
+ * Execution metrics of a search query.
+ * @author akiran
+ */
+public class SearchQueryMetrics
+{
+	/**
+	 * Name of the search query.
+	 */
+	private String queryName;
+	
+	/**
+	 * Number of executions, excluding the ones served from result cache.
+	 */
+	private long executionCount;
+	
+	/**
+	 * Number of executions served from result cache.
+	 */
+	private long cachedCount;
+	
+	/**
+	 * Number of failed executions.
+	 */
+	private long failureCount;
+	
+	/**
+	 * Number of executions which exceeded slow query threshold.
+	 */
+	private long slowCount;
+	
+	/**
+	 * Total number of rows returned.
+	 */
+	private long totalRows;
+	
+	/**
+	 * Maximum number of rows returned by single execution.
+	 */
+	private long maxRows;
+	
+	/**
+	 * Latency histograms of execution phases, keyed by phase name.
+	 */
+	private Map<String, LatencyHistogram> latencies;
+	
+	/**
+	 * Number of executions per requested page range.
+	 */
+	private Map<String, Long> pageDistribution;
+	
+	/**
+	 * Instantiates a new search query metrics.
+	 */
+	public SearchQueryMetrics()
+	{}
+
+	/**
+	 * Gets the name of the search query.
+	 *
+	 * @return the name of the search query
+	 */
+	public String getQueryName()
+	{
+		return queryName;
+	}
+
+	/**
+	 * Sets the name of the search query.
+	 *
+	 * @param queryName the new name of the search query
+	 */
+	public void setQueryName(String queryName)
+	{
+		this.queryName = queryName;
+	}
+
+	/**
+	 * Gets the number of executions, excluding the ones served from result cache.
+	 *
+	 * @return the number of executions, excluding the ones served from result cache
+	 */
+	public long getExecutionCount()
+	{
+		return executionCount;
+	}
+
+	/**
+	 * Sets the number of executions, excluding the ones served from result cache.
+	 *
+	 * @param executionCount the new number of executions, excluding the ones served from result cache
+	 */
+	public void setExecutionCount(long executionCount)
+	{
+		this.executionCount = executionCount;
+	}
+
+	/**
+	 * Gets the number of executions served from result cache.
+	 *
+	 * @return the number of executions served from result cache
+	 */
+	public long getCachedCount()
+	{
+		return cachedCount;
+	}
+
+	/**
+	 * Sets the number of executions served from result cache.
+	 *
+	 * @param cachedCount the new number of executions served from result cache
+	 */
+	public void setCachedCount(long cachedCount)
+	{
+		this.cachedCount = cachedCount;
+	}
+
+	/**
+	 * Gets the number of failed executions.
+	 *
+	 * @return the number of failed executions
+	 */
+	public long getFailureCount()
+	{
+		return failureCount;
+	}
+
+	/**
+	 * Sets the number of failed executions.
+	 *
+	 * @param failureCount the new number of failed executions
+	 */
+	public void setFailureCount(long failureCount)
+	{
+		this.failureCount = failureCount;
+	}
+
+	/**
+	 * Gets the number of executions which exceeded slow query threshold.
+	 *
+	 * @return the number of executions which exceeded slow query threshold
+	 */
+	public long getSlowCount()
+	{
+		return slowCount;
+	}
+
+	/**
+	 * Sets the number of executions which exceeded slow query threshold.
+	 *
+	 * @param slowCount the new number of executions which exceeded slow query threshold
+	 */
+	public void setSlowCount(long slowCount)
+	{
+		this.slowCount = slowCount;
+	}
+
+	/**
+	 * Gets the total number of rows returned.
+	 *
+	 * @return the total number of rows returned
+	 */
+	public long getTotalRows()
+	{
+		return totalRows;
+	}
+
+	/**
+	 * Sets the total number of rows returned.
+	 *
+	 * @param totalRows the new total number of rows returned
+	 */
+	public void setTotalRows(long totalRows)
+	{
+		this.totalRows = totalRows;
+	}
+
+	/**
+	 * Gets the maximum number of rows returned by single execution.
+	 *
+	 * @return the maximum number of rows returned by single execution
+	 */
+	public long getMaxRows()
+	{
+		return maxRows;
+	}
+
+	/**
+	 * Sets the maximum number of rows returned by single execution.
+	 *
+	 * @param maxRows the new maximum number of rows returned by single execution
+	 */
+	public void setMaxRows(long maxRows)
+	{
+		this.maxRows = maxRows;
+	}
+
+	/**
+	 * Gets the latency histograms of execution phases, keyed by phase name.
+	 *
+	 * @return the latency histograms of execution phases, keyed by phase name
+	 */
+	public Map<String, LatencyHistogram> getLatencies()
+	{
+		return latencies;
+	}
+
+	/**
+	 * Sets the latency histograms of execution phases, keyed by phase name.
+	 *
+	 * @param latencies the new latency histograms of execution phases, keyed by phase name
+	 */
+	public void setLatencies(Map<String, LatencyHistogram> latencies)
+	{
+		this.latencies = latencies;
+	}
+
+	/**
+	 * Gets the number of executions per requested page range.
+	 *
+	 * @return the number of executions per requested page range
+	 */
+	public Map<String, Long> getPageDistribution()
+	{
+		return pageDistribution;
+	}
+
+	/**
+	 * Sets the number of executions per requested page range.
+	 *
+	 * @param pageDistribution the new number of executions per requested page range
+	 */
+	public void setPageDistribution(Map<String, Long> pageDistribution)
+	{
+		this.pageDistribution = pageDistribution;
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.common.models.search;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Details of a search query execution which exceeded slow query threshold.
+ * @author akiran
+ */
+public class SlowSearchQuery
+{
+	/**
+	 * Name of the search query.
+	 */
+	private String queryName;
+	
+	/**
+	 * Time at which the execution completed.
+	 */
+	private Date executedOn;
+	
+	/**
+	 * Total time (in millis) taken by the execution.
+	 */
+	private long totalMillis;
+	
+	/**
+	 * Time (in millis) taken by each phase of the execution.
+	 */
+	private Map<String, Long> phaseMillis;
+	
+	/**
+	 * Hash of normalized conditions of the query, which can be used to group executions with same conditions
+	 * without exposing condition values.
+	 */
+	private String conditionsHash;
+	
+	/**
+	 * Requested page number, or keyset for keyset pagination.
+	 */
+	private String page;
+	
+	/**
+	 * Number of rows returned.
+	 */
+	private int rowCount;
+	
+	/**
+	 * Instantiates a new slow search query.
+	 */
+	public SlowSearchQuery()
+	{}
+
+	/**
+	 * Gets the name of the search query.
+	 *
+	 * @return the name of the search query
+	 */
+	public String getQueryName()
+	{
+		return queryName;
+	}
+
+	/**
+	 * Sets the name of the search query.
+	 *
+	 * @param queryName the new name of the search query
+	 */
+	public void setQueryName(String queryName)
+	{
+		this.queryName = queryName;
+	}
+
+	/**
+	 * Gets the time at which the execution completed.
+	 *
+	 * @return the time at which the execution completed
+	 */
+	public Date getExecutedOn()
+	{
+		return executedOn;
+	}
+
+	/**
+	 * Sets the time at which the execution completed.
+	 *
+	 * @param executedOn the new time at which the execution completed
+	 */
+	public void setExecutedOn(Date executedOn)
+	{
+		this.executedOn = executedOn;
+	}
+
+	/**
+	 * Gets the total time (in millis) taken by the execution.
+	 *
+	 * @return the total time (in millis) taken by the execution
+	 */
+	public long getTotalMillis()
+	{
+		return totalMillis;
+	}
+
+	/**
+	 * Sets the total time (in millis) taken by the execution.
+	 *
+	 * @param totalMillis the new total time (in millis) taken by the execution
+	 */
+	public void setTotalMillis(long totalMillis)
+	{
+		this.totalMillis = totalMillis;
+	}
+
+	/**
+	 * Gets the time (in millis) taken by each phase of the execution.
+	 *
+	 * @return the time (in millis) taken by each phase of the execution
+	 */
+	public Map<String, Long> getPhaseMillis()
+	{
+		return phaseMillis;
+	}
+
+	/**
+	 * Sets the time (in millis) taken by each phase of the execution.
+	 *
+	 * @param phaseMillis the new time (in millis) taken by each phase of the execution
+	 */
+	public void setPhaseMillis(Map<String, Long> phaseMillis)
+	{
+		this.phaseMillis = phaseMillis;
+	}
+
+	/**
+	 * Gets the hash of normalized conditions of the query.
+	 *
+	 * @return the hash of normalized conditions of the query
+	 */
+	public String getConditionsHash()
+	{
+		return conditionsHash;
+	}
+
+	/**
+	 * Sets the hash of normalized conditions of the query.
+	 *
+	 * @param conditionsHash the new hash of normalized conditions of the query
+	 */
+	public void setConditionsHash(String conditionsHash)
+	{
+		this.conditionsHash = conditionsHash;
+	}
+
+	/**
+	 * Gets the requested page number, or keyset for keyset pagination.
+	 *
+	 * @return the requested page number, or keyset for keyset pagination
+	 */
+	public String getPage()
+	{
+		return page;
+	}
+
+	/**
+	 * Sets the requested page number, or keyset for keyset pagination.
+	 *
+	 * @param page the new requested page number, or keyset for keyset pagination
+	 */
+	public void setPage(String page)
+	{
+		this.page = page;
+	}
+
+	/**
+	 * Gets the number of rows returned.
+	 *
+	 * @return the number of rows returned
+	 */
+	public int getRowCount()
+	{
+		return rowCount;
+	}
+
+	/**
+	 * Sets the number of rows returned.
+	 *
+	 * @param rowCount the new number of rows returned
+	 */
+	public void setRowCount(int rowCount)
+	{
+		this.rowCount = rowCount;
+	}
+}
@@ -0,0 +1,666 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils;
+
+/**
+ * Search related configurations. Can be customized by web-applications using
+ * {@link WebutilsConfiguration#setSearchConfiguration(SearchConfiguration)}.
+ * 
+ * @author akiran
+ */
+public class SearchConfiguration
+{
+	/**
+	 * Number of records fetched from repository in single chunk during export of search results.
+	 */
+	private int exportChunkSize = 1000;
+	
+	/**
+	 * Number of threads used to execute search count queries, concurrently with result queries.
+	 */
+	private int countThreadCount = 4;
+	
+	/**
+	 * Maximum number of count queries which can wait for a thread. When queue is full, counts are
+	 * returned as unknown.
+	 */
+	private int countQueueSize = 100;
+	
+	/**
+	 * Time (in millis) to wait for count query. If count is not available by this time, count will
+	 * be returned as unknown.
+	 */
+	private long countTimeoutMillis = 5000;
+	
+	/**
+	 * Maximum number of entries maintained by count cache.
+	 */
+	private int countCacheSize = 1000;
+	
+	/**
+	 * Maximum number of search results maintained by result cache.
+	 */
+	private int resultCacheSize = 500;
+	
+	/**
+	 * Interval (in millis) at which result cache version of an entity type is verified against database, to
+	 * detect modifications done by other nodes.
+	 */
+	private long resultCacheVersionCheckMillis = 5000;
+	
+	/**
+	 * Maximum number of resolved search settings maintained by settings cache.
+	 */
+	private int settingsCacheSize = 1000;
+	
+	/**
+	 * Time (in seconds) for which resolved search settings are cached.
+	 */
+	private int settingsCacheSeconds = 1800;
+	
+	/**
+	 * Number of threads used to execute queries of search batches.
+	 */
+	private int batchThreadCount = 8;
+	
+	/**
+	 * Maximum number of batch queries which can wait for a thread. When queue is full, queries are executed on
+	 * request thread.
+	 */
+	private int batchQueueSize = 100;
+	
+	/**
+	 * Maximum number of queries allowed in single search batch.
+	 */
+	private int batchMaxEntries = 20;
+	
+	/**
+	 * Time (in millis) to wait for completion of all queries of a search batch. Queries not completed by this time
+	 * are cancelled and returned as failed.
+	 */
+	private long batchTimeoutMillis = 30000;
+	
+	/**
+	 * Search executions taking more than this time (in millis) are logged as slow queries, along with
+	 * hash of their conditions. Zero disables slow query logging.
+	 */
+	private long slowQueryMillis = 1000;
+	
+	/**
+	 * Number of recent slow query executions maintained for metrics endpoint.
+	 */
+	private int slowQueryHistorySize = 50;
+	
+	/**
+	 * Flag indicating if search metrics can be fetched via search metrics endpoint.
+	 */
+	private boolean metricsEndpointEnabled = false;
+	
+	/**
+	 * Maximum number of groups allowed in search aggregation results.
+	 */
+	private int aggregationMaxGroups = 10000;
+	
+	/**
+	 * Maximum number of asynchronous exports that can run concurrently for single user space.
+	 */
+	private int asyncExportMaxPerSpace = 2;
+	
+	/**
+	 * Maximum number of asynchronous exports that can run concurrently across all user spaces.
+	 */
+	private int asyncExportMaxRunning = 4;
+	
+	/**
+	 * Time (in minutes) for which status of finished asynchronous exports is maintained.
+	 */
+	private int asyncExportStatusMinutes = 60;
+	
+	/**
+	 * Time (in minutes) after which unfinished asynchronous exports, without any progress, are considered
+	 * abandoned and are marked as failed.
+	 */
+	private int asyncExportStaleMinutes = 30;
+
+	/**
+	 * Gets the number of records fetched from repository in single chunk during export of search results.
+	 *
+	 * @return the number of records fetched from repository in single chunk during export of search results
+	 */
+	public int getExportChunkSize()
+	{
+		return exportChunkSize;
+	}
+
+	/**
+	 * Sets the number of records fetched from repository in single chunk during export of search results.
+	 *
+	 * @param exportChunkSize the new number of records fetched from repository in single chunk during export of search results
+	 */
+	public void setExportChunkSize(int exportChunkSize)
+	{
+		if(exportChunkSize <= 0)
+		{
+			throw new IllegalArgumentException("Export chunk size should be greater than zero - " + exportChunkSize);
+		}
+		
+		this.exportChunkSize = exportChunkSize;
+	}
+
+	/**
+	 * Gets the number of threads used to execute search count queries.
+	 *
+	 * @return the number of threads used to execute search count queries
+	 */
+	public int getCountThreadCount()
+	{
+		return countThreadCount;
+	}
+
+	/**
+	 * Sets the number of threads used to execute search count queries.
+	 *
+	 * @param countThreadCount the new number of threads used to execute search count queries
+	 */
+	public void setCountThreadCount(int countThreadCount)
+	{
+		if(countThreadCount <= 0)
+		{
+			throw new IllegalArgumentException("Count thread count should be greater than zero - " + countThreadCount);
+		}
+		
+		this.countThreadCount = countThreadCount;
+	}
+
+	/**
+	 * Gets the maximum number of count queries which can wait for a thread.
+	 *
+	 * @return the maximum number of count queries which can wait for a thread
+	 */
+	public int getCountQueueSize()
+	{
+		return countQueueSize;
+	}
+
+	/**
+	 * Sets the maximum number of count queries which can wait for a thread.
+	 *
+	 * @param countQueueSize the new maximum number of count queries which can wait for a thread
+	 */
+	public void setCountQueueSize(int countQueueSize)
+	{
+		if(countQueueSize <= 0)
+		{
+			throw new IllegalArgumentException("Count queue size should be greater than zero - " + countQueueSize);
+		}
+		
+		this.countQueueSize = countQueueSize;
+	}
+
+	/**
+	 * Gets the time (in millis) to wait for count query.
+	 *
+	 * @return the time (in millis) to wait for count query
+	 */
+	public long getCountTimeoutMillis()
+	{
+		return countTimeoutMillis;
+	}
+
+	/**
+	 * Sets the time (in millis) to wait for count query.
+	 *
+	 * @param countTimeoutMillis the new time (in millis) to wait for count query
+	 */
+	public void setCountTimeoutMillis(long countTimeoutMillis)
+	{
+		if(countTimeoutMillis <= 0)
+		{
+			throw new IllegalArgumentException("Count timeout should be greater than zero - " + countTimeoutMillis);
+		}
+		
+		this.countTimeoutMillis = countTimeoutMillis;
+	}
+
+	/**
+	 * Gets the maximum number of entries maintained by count cache.
+	 *
+	 * @return the maximum number of entries maintained by count cache
+	 */
+	public int getCountCacheSize()
+	{
+		return countCacheSize;
+	}
+
+	/**
+	 * Sets the maximum number of entries maintained by count cache.
+	 *
+	 * @param countCacheSize the new maximum number of entries maintained by count cache
+	 */
+	public void setCountCacheSize(int countCacheSize)
+	{
+		if(countCacheSize <= 0)
+		{
+			throw new IllegalArgumentException("Count cache size should be greater than zero - " + countCacheSize);
+		}
+		
+		this.countCacheSize = countCacheSize;
+	}
+
+	/**
+	 * Gets the maximum number of search results maintained by result cache.
+	 *
+	 * @return the maximum number of search results maintained by result cache
+	 */
+	public int getResultCacheSize()
+	{
+		return resultCacheSize;
+	}
+
+	/**
+	 * Sets the maximum number of search results maintained by result cache.
+	 *
+	 * @param resultCacheSize the new maximum number of search results maintained by result cache
+	 */
+	public void setResultCacheSize(int resultCacheSize)
+	{
+		if(resultCacheSize <= 0)
+		{
+			throw new IllegalArgumentException("Result cache size should be greater than zero - " + resultCacheSize);
+		}
+		
+		this.resultCacheSize = resultCacheSize;
+	}
+
+	/**
+	 * Gets the interval (in millis) at which result cache version of an entity type is verified against database.
+	 *
+	 * @return the interval (in millis) at which result cache version of an entity type is verified against database
+	 */
+	public long getResultCacheVersionCheckMillis()
+	{
+		return resultCacheVersionCheckMillis;
+	}
+
+	/**
+	 * Sets the interval (in millis) at which result cache version of an entity type is verified against database. Zero
+	 * results in verification on every access.
+	 *
+	 * @param resultCacheVersionCheckMillis the new interval (in millis) at which result cache version of an entity type is verified against database
+	 */
+	public void setResultCacheVersionCheckMillis(long resultCacheVersionCheckMillis)
+	{
+		if(resultCacheVersionCheckMillis < 0)
+		{
+			throw new IllegalArgumentException("Result cache version check interval can not be negative - " + resultCacheVersionCheckMillis);
+		}
+		
+		this.resultCacheVersionCheckMillis = resultCacheVersionCheckMillis;
+	}
+
+	/**
+	 * Gets the maximum number of resolved search settings maintained by settings cache.
+	 *
+	 * @return the maximum number of resolved search settings maintained by settings cache
+	 */
+	public int getSettingsCacheSize()
+	{
+		return settingsCacheSize;
+	}
+
+	/**
+	 * Sets the maximum number of resolved search settings maintained by settings cache.
+	 *
+	 * @param settingsCacheSize the new maximum number of resolved search settings maintained by settings cache
+	 */
+	public void setSettingsCacheSize(int settingsCacheSize)
+	{
+		if(settingsCacheSize <= 0)
+		{
+			throw new IllegalArgumentException("Settings cache size should be greater than zero - " + settingsCacheSize);
+		}
+		
+		this.settingsCacheSize = settingsCacheSize;
+	}
+
+	/**
+	 * Gets the time (in seconds) for which resolved search settings are cached.
+	 *
+	 * @return the time (in seconds) for which resolved search settings are cached
+	 */
+	public int getSettingsCacheSeconds()
+	{
+		return settingsCacheSeconds;
+	}
+
+	/**
+	 * Sets the time (in seconds) for which resolved search settings are cached.
+	 *
+	 * @param settingsCacheSeconds the new time (in seconds) for which resolved search settings are cached
+	 */
+	public void setSettingsCacheSeconds(int settingsCacheSeconds)
+	{
+		if(settingsCacheSeconds <= 0)
+		{
+			throw new IllegalArgumentException("Settings cache time should be greater than zero - " + settingsCacheSeconds);
+		}
+		
+		this.settingsCacheSeconds = settingsCacheSeconds;
+	}
+
+	/**
+	 * Gets the number of threads used to execute queries of search batches.
+	 *
+	 * @return the number of threads used to execute queries of search batches
+	 */
+	public int getBatchThreadCount()
+	{
+		return batchThreadCount;
+	}
+
+	/**
+	 * Sets the number of threads used to execute queries of search batches.
+	 *
+	 * @param batchThreadCount the new number of threads used to execute queries of search batches
+	 */
+	public void setBatchThreadCount(int batchThreadCount)
+	{
+		if(batchThreadCount <= 0)
+		{
+			throw new IllegalArgumentException("Batch thread count should be greater than zero - " + batchThreadCount);
+		}
+		
+		this.batchThreadCount = batchThreadCount;
+	}
+
+	/**
+	 * Gets the maximum number of batch queries which can wait for a thread.
+	 *
+	 * @return the maximum number of batch queries which can wait for a thread
+	 */
+	public int getBatchQueueSize()
+	{
+		return batchQueueSize;
+	}
+
+	/**
+	 * Sets the maximum number of batch queries which can wait for a thread.
+	 *
+	 * @param batchQueueSize the new maximum number of batch queries which can wait for a thread
+	 */
+	public void setBatchQueueSize(int batchQueueSize)
+	{
+		if(batchQueueSize <= 0)
+		{
+			throw new IllegalArgumentException("Batch queue size should be greater than zero - " + batchQueueSize);
+		}
+		
+		this.batchQueueSize = batchQueueSize;
+	}
+
+	/**
+	 * Gets the maximum number of queries allowed in single search batch.
+	 *
+	 * @return the maximum number of queries allowed in single search batch
+	 */
+	public int getBatchMaxEntries()
+	{
+		return batchMaxEntries;
+	}
+
+	/**
+	 * Sets the maximum number of queries allowed in single search batch.
+	 *
+	 * @param batchMaxEntries the new maximum number of queries allowed in single search batch
+	 */
+	public void setBatchMaxEntries(int batchMaxEntries)
+	{
+		if(batchMaxEntries <= 0)
+		{
+			throw new IllegalArgumentException("Batch max entries should be greater than zero - " + batchMaxEntries);
+		}
+		
+		this.batchMaxEntries = batchMaxEntries;
+	}
+
+	/**
+	 * Gets the time (in millis) to wait for completion of all queries of a search batch.
+	 *
+	 * @return the time (in millis) to wait for completion of all queries of a search batch
+	 */
+	public long getBatchTimeoutMillis()
+	{
+		return batchTimeoutMillis;
+	}
+
+	/**
+	 * Sets the time (in millis) to wait for completion of all queries of a search batch.
+	 *
+	 * @param batchTimeoutMillis the new time (in millis) to wait for completion of all queries of a search batch
+	 */
+	public void setBatchTimeoutMillis(long batchTimeoutMillis)
+	{
+		if(batchTimeoutMillis <= 0)
+		{
+			throw new IllegalArgumentException("Batch timeout should be greater than zero - " + batchTimeoutMillis);
+		}
+		
+		this.batchTimeoutMillis = batchTimeoutMillis;
+	}
+
+	/**
+	 * Gets the time (in millis) beyond which search executions are logged as slow queries.
+	 *
+	 * @return the time (in millis) beyond which search executions are logged as slow queries
+	 */
+	public long getSlowQueryMillis()
+	{
+		return slowQueryMillis;
+	}
+
+	/**
+	 * Sets the time (in millis) beyond which search executions are logged as slow queries. Zero disables slow query logging.
+	 *
+	 * @param slowQueryMillis the new time (in millis) beyond which search executions are logged as slow queries
+	 */
+	public void setSlowQueryMillis(long slowQueryMillis)
+	{
+		if(slowQueryMillis < 0)
+		{
+			throw new IllegalArgumentException("Slow query time can not be negative - " + slowQueryMillis);
+		}
+		
+		this.slowQueryMillis = slowQueryMillis;
+	}
+
+	/**
+	 * Gets the number of recent slow query executions maintained for metrics endpoint.
+	 *
+	 * @return the number of recent slow query executions maintained for metrics endpoint
+	 */
+	public int getSlowQueryHistorySize()
+	{
+		return slowQueryHistorySize;
+	}
+
+	/**
+	 * Sets the number of recent slow query executions maintained for metrics endpoint.
+	 *
+	 * @param slowQueryHistorySize the new number of recent slow query executions maintained for metrics endpoint
+	 */
+	public void setSlowQueryHistorySize(int slowQueryHistorySize)
+	{
+		if(slowQueryHistorySize < 0)
+		{
+			throw new IllegalArgumentException("Slow query history size can not be negative - " + slowQueryHistorySize);
+		}
+		
+		this.slowQueryHistorySize = slowQueryHistorySize;
+	}
+
+	/**
+	 * Checks if search metrics can be fetched via search metrics endpoint.
+	 *
+	 * @return true, if search metrics endpoint is enabled
+	 */
+	public boolean isMetricsEndpointEnabled()
+	{
+		return metricsEndpointEnabled;
+	}
+
+	/**
+	 * Sets whether search metrics can be fetched via search metrics endpoint.
+	 *
+	 * @param metricsEndpointEnabled the new metrics endpoint enabled flag
+	 */
+	public void setMetricsEndpointEnabled(boolean metricsEndpointEnabled)
+	{
+		this.metricsEndpointEnabled = metricsEndpointEnabled;
+	}
+
+	/**
+	 * Gets the maximum number of groups allowed in search aggregation results.
+	 *
+	 * @return the maximum number of groups allowed in search aggregation results
+	 */
+	public int getAggregationMaxGroups()
+	{
+		return aggregationMaxGroups;
+	}
+
+	/**
+	 * Sets the maximum number of groups allowed in search aggregation results.
+	 *
+	 * @param aggregationMaxGroups the new maximum number of groups allowed in search aggregation results
+	 */
+	public void setAggregationMaxGroups(int aggregationMaxGroups)
+	{
+		if(aggregationMaxGroups <= 0)
+		{
+			throw new IllegalArgumentException("Aggregation max groups should be greater than zero - " + aggregationMaxGroups);
+		}
+		
+		this.aggregationMaxGroups = aggregationMaxGroups;
+	}
+
+	/**
+	 * Gets the maximum number of asynchronous exports that can run concurrently for single user space.
+	 *
+	 * @return the maximum number of asynchronous exports that can run concurrently for single user space
+	 */
+	public int getAsyncExportMaxPerSpace()
+	{
+		return asyncExportMaxPerSpace;
+	}
+
+	/**
+	 * Sets the maximum number of asynchronous exports that can run concurrently for single user space.
+	 *
+	 * @param asyncExportMaxPerSpace the new maximum number of asynchronous exports that can run concurrently for single user space
+	 */
+	public void setAsyncExportMaxPerSpace(int asyncExportMaxPerSpace)
+	{
+		if(asyncExportMaxPerSpace <= 0)
+		{
+			throw new IllegalArgumentException("Async export max per space should be greater than zero - " + asyncExportMaxPerSpace);
+		}
+		
+		this.asyncExportMaxPerSpace = asyncExportMaxPerSpace;
+	}
+
+	/**
+	 * Gets the maximum number of asynchronous exports that can run concurrently across all user spaces.
+	 *
+	 * @return the maximum number of asynchronous exports that can run concurrently across all user spaces
+	 */
+	public int getAsyncExportMaxRunning()
+	{
+		return asyncExportMaxRunning;
+	}
+
+	/**
+	 * Sets the maximum number of asynchronous exports that can run concurrently across all user spaces.
+	 *
+	 * @param asyncExportMaxRunning the new maximum number of asynchronous exports that can run concurrently across all user spaces
+	 */
+	public void setAsyncExportMaxRunning(int asyncExportMaxRunning)
+	{
+		if(asyncExportMaxRunning <= 0)
+		{
+			throw new IllegalArgumentException("Async export max running should be greater than zero - " + asyncExportMaxRunning);
+		}
+		
+		this.asyncExportMaxRunning = asyncExportMaxRunning;
+	}
+
+	/**
+	 * Gets the time (in minutes) for which status of finished asynchronous exports is maintained.
+	 *
+	 * @return the time (in minutes) for which status of finished asynchronous exports is maintained
+	 */
+	public int getAsyncExportStatusMinutes()
+	{
+		return asyncExportStatusMinutes;
+	}
+
+	/**
+	 * Sets the time (in minutes) for which status of finished asynchronous exports is maintained.
+	 *
+	 * @param asyncExportStatusMinutes the new time (in minutes) for which status of finished asynchronous exports is maintained
+	 */
+	public void setAsyncExportStatusMinutes(int asyncExportStatusMinutes)
+	{
+		if(asyncExportStatusMinutes <= 0)
+		{
+			throw new IllegalArgumentException("Async export status minutes should be greater than zero - " + asyncExportStatusMinutes);
+		}
+		
+		this.asyncExportStatusMinutes = asyncExportStatusMinutes;
+	}
+
+	/**
+	 * Gets the time (in minutes) after which unfinished asynchronous exports, without any progress, are considered abandoned.
+	 *
+	 * @return the time (in minutes) after which unfinished asynchronous exports, without any progress, are considered abandoned
+	 */
+	public int getAsyncExportStaleMinutes()
+	{
+		return asyncExportStaleMinutes;
+	}
+
+	/**
+	 * Sets the time (in minutes) after which unfinished asynchronous exports, without any progress, are considered abandoned.
+	 *
+	 * @param asyncExportStaleMinutes the new time (in minutes) after which unfinished asynchronous exports, without any progress, are considered abandoned
+	 */
+	public void setAsyncExportStaleMinutes(int asyncExportStaleMinutes)
+	{
+		if(asyncExportStaleMinutes <= 0)
+		{
+			throw new IllegalArgumentException("Async export stale minutes should be greater than zero - " + asyncExportStaleMinutes);
+		}
+		
+		this.asyncExportStaleMinutes = asyncExportStaleMinutes;
+	}
+}
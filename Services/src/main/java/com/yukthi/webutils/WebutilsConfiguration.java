@@ -97,6 +97,50 @@ public class WebutilsConfiguration
 	 */
 	private Map<String, String> appConfigurations = new HashMap<>();
 	
+	/**
+	 * Search related configurations.
+	 */
+	private SearchConfiguration searchConfiguration = new SearchConfiguration();
+	
+	/**
+	 * Maximum number of extensions whose metadata (fields, column mappings) is cached in memory.
+	 */
+	private int extensionCacheSize = 500;
+	
+	/**
+	 * Interval (in millis) at which extension metadata version of a user space is verified against database, to
+	 * detect changes done by other nodes.
+	 */
+	private long extensionVersionCheckMillis = 5000;
+	
+	/**
+	 * Maximum number of entities fetched for a condition on indexed extended field. Broader conditions are evaluated
+	 * only against entities matching narrower conditions (or regular conditions) of the search. Search request is rejected
+	 * only when none of the conditions is narrower than this.
+	 */
+	private int extensionIndexMaxMatches = 10000;
+	
+	/**
+	 * Directory in which file contents should be maintained. When not specified (and no custom content store
+	 * is configured), file contents are maintained in db.
+	 */
+	private String fileStoreDirectory;
+	
+	/**
+	 * Number of files moved from db to content store in single transaction during content migration.
+	 */
+	private int fileMigrationBatchSize = 50;
+	
+	/**
+	 * Time (in seconds) for which clients can cache fetched files without revalidation.
+	 */
+	private int fileCacheMaxAgeSeconds = 3600;
+	
+	/**
+	 * Time (in minutes) for which unreferenced file contents are retained, before they are removed.
+	 */
+	private int fileContentGcGraceMinutes = 60;
+	
 	/**
 	 * Validte.
 	 */
@@ -338,4 +382,200 @@ public class WebutilsConfiguration
 	{
 		this.appConfigurations = appConfigurations;
 	}
+
+	/**
+	 * Gets the search related configurations.
+	 *
+	 * @return the search related configurations
+	 */
+	public SearchConfiguration getSearchConfiguration()
+	{
+		return searchConfiguration;
+	}
+
+	/**
+	 * Sets the search related configurations.
+	 *
+	 * @param searchConfiguration the new search related configurations
+	 */
+	public void setSearchConfiguration(SearchConfiguration searchConfiguration)
+	{
+		if(searchConfiguration == null)
+		{
+			throw new IllegalArgumentException("Search configuration can not be null");
+		}
+		
+		this.searchConfiguration = searchConfiguration;
+	}
+
+	/**
+	 * Gets the maximum number of extensions whose metadata is cached in memory.
+	 *
+	 * @return the maximum number of extensions whose metadata is cached in memory
+	 */
+	public int getExtensionCacheSize()
+	{
+		return extensionCacheSize;
+	}
+
+	/**
+	 * Sets the maximum number of extensions whose metadata is cached in memory.
+	 *
+	 * @param extensionCacheSize the new maximum number of extensions whose metadata is cached in memory
+	 */
+	public void setExtensionCacheSize(int extensionCacheSize)
+	{
+		if(extensionCacheSize <= 0)
+		{
+			throw new IllegalArgumentException("Extension cache size should be greater than zero - " + extensionCacheSize);
+		}
+		
+		this.extensionCacheSize = extensionCacheSize;
+	}
+
+	/**
+	 * Gets the interval (in millis) at which extension metadata version is verified against database.
+	 *
+	 * @return the interval (in millis) at which extension metadata version is verified against database
+	 */
+	public long getExtensionVersionCheckMillis()
+	{
+		return extensionVersionCheckMillis;
+	}
+
+	/**
+	 * Sets the interval (in millis) at which extension metadata version is verified against database. Zero
+	 * results in verification on every access.
+	 *
+	 * @param extensionVersionCheckMillis the new interval (in millis) at which extension metadata version is verified against database
+	 */
+	public void setExtensionVersionCheckMillis(long extensionVersionCheckMillis)
+	{
+		if(extensionVersionCheckMillis < 0)
+		{
+			throw new IllegalArgumentException("Extension version check millis can not be negative - " + extensionVersionCheckMillis);
+		}
+		
+		this.extensionVersionCheckMillis = extensionVersionCheckMillis;
+	}
+
+	/**
+	 * Gets the maximum number of entities that can match a condition on indexed extended field.
+	 *
+	 * @return the maximum number of entities that can match a condition on indexed extended field
+	 */
+	public int getExtensionIndexMaxMatches()
+	{
+		return extensionIndexMaxMatches;
+	}
+
+	/**
+	 * Sets the maximum number of entities that can match a condition on indexed extended field.
+	 *
+	 * @param extensionIndexMaxMatches the new maximum number of entities that can match a condition on indexed extended field
+	 */
+	public void setExtensionIndexMaxMatches(int extensionIndexMaxMatches)
+	{
+		if(extensionIndexMaxMatches <= 0)
+		{
+			throw new IllegalArgumentException("Extension index max matches should be greater than zero - " + extensionIndexMaxMatches);
+		}
+		
+		this.extensionIndexMaxMatches = extensionIndexMaxMatches;
+	}
+
+	/**
+	 * Gets the directory in which file contents should be maintained.
+	 *
+	 * @return the directory in which file contents should be maintained
+	 */
+	public String getFileStoreDirectory()
+	{
+		return fileStoreDirectory;
+	}
+
+	/**
+	 * Sets the directory in which file contents should be maintained.
+	 *
+	 * @param fileStoreDirectory the new directory in which file contents should be maintained
+	 */
+	public void setFileStoreDirectory(String fileStoreDirectory)
+	{
+		this.fileStoreDirectory = fileStoreDirectory;
+	}
+
+	/**
+	 * Gets the number of files moved from db to content store in single transaction during content migration.
+	 *
+	 * @return the number of files moved from db to content store in single transaction during content migration
+	 */
+	public int getFileMigrationBatchSize()
+	{
+		return fileMigrationBatchSize;
+	}
+
+	/**
+	 * Sets the number of files moved from db to content store in single transaction during content migration.
+	 *
+	 * @param fileMigrationBatchSize the new number of files moved from db to content store in single transaction during content migration
+	 */
+	public void setFileMigrationBatchSize(int fileMigrationBatchSize)
+	{
+		if(fileMigrationBatchSize <= 0)
+		{
+			throw new IllegalArgumentException("File migration batch size should be greater than zero - " + fileMigrationBatchSize);
+		}
+		
+		this.fileMigrationBatchSize = fileMigrationBatchSize;
+	}
+
+	/**
+	 * Gets the time (in seconds) for which clients can cache fetched files without revalidation.
+	 *
+	 * @return the time (in seconds) for which clients can cache fetched files without revalidation
+	 */
+	public int getFileCacheMaxAgeSeconds()
+	{
+		return fileCacheMaxAgeSeconds;
+	}
+
+	/**
+	 * Sets the time (in seconds) for which clients can cache fetched files without revalidation.
+	 *
+	 * @param fileCacheMaxAgeSeconds the new time (in seconds) for which clients can cache fetched files without revalidation
+	 */
+	public void setFileCacheMaxAgeSeconds(int fileCacheMaxAgeSeconds)
+	{
+		if(fileCacheMaxAgeSeconds < 0)
+		{
+			throw new IllegalArgumentException("File cache max age can not be negative - " + fileCacheMaxAgeSeconds);
+		}
+		
+		this.fileCacheMaxAgeSeconds = fileCacheMaxAgeSeconds;
+	}
+
+	/**
+	 * Gets the time (in minutes) for which unreferenced file contents are retained, before they are removed.
+	 *
+	 * @return the time (in minutes) for which unreferenced file contents are retained, before they are removed
+	 */
+	public int getFileContentGcGraceMinutes()
+	{
+		return fileContentGcGraceMinutes;
+	}
+
+	/**
+	 * Sets the time (in minutes) for which unreferenced file contents are retained, before they are removed.
+	 *
+	 * @param fileContentGcGraceMinutes the new time (in minutes) for which unreferenced file contents are retained, before they are removed
+	 */
+	public void setFileContentGcGraceMinutes(int fileContentGcGraceMinutes)
+	{
+		if(fileContentGcGraceMinutes < 0)
+		{
+			throw new IllegalArgumentException("File content gc grace minutes can not be negative - " + fileContentGcGraceMinutes);
+		}
+		
+		this.fileContentGcGraceMinutes = fileContentGcGraceMinutes;
+	}
 }
@@ -59,6 +59,40 @@ public class WebutilsContext
 		return context;
 	}
 	
+	/**
+	 * Sets specified context as context of current thread. Used to propagate request context to worker threads.
+	 * @param context Context to set, null to remove current thread context
+	 * @return Context which was set earlier on current thread, if any
+	 */
+	public synchronized static WebutilsContext setContext(WebutilsContext context)
+	{
+		WebutilsContext prevContext = threadLocal.get();
+		
+		if(context == null)
+		{
+			threadLocal.remove();
+		}
+		else
+		{
+			threadLocal.set(context);
+		}
+		
+		return prevContext;
+	}
+	
+	/**
+	 * Creates copy of this context, with copy of attributes. Changes to attributes of copy will not affect
+	 * this context.
+	 * @return Copy of this context
+	 */
+	public WebutilsContext copy()
+	{
+		WebutilsContext copy = new WebutilsContext();
+		copy.attributeMap.putAll(attributeMap);
+		
+		return copy;
+	}
+	
 	/**
 	 * Adds attribute object with specified name
 	 * @param name Name of the attribute
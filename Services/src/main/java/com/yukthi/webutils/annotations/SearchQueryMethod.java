@@ -64,5 +64,22 @@ public @interface SearchQueryMethod
 	 */
 	@SuppressWarnings("rawtypes")
 	public Class<? extends ISearchResultCustomizer> customizer() default ISearchResultCustomizer.class;
+	
+	/**
+	 * Time (in seconds) for which result counts of this query should be cached. Counts are cached
+	 * by condition values and user space. Zero (default) disables count caching.
+	 * 
+	 * @return Time (in seconds) for which counts should be cached
+	 */
+	public int countCacheSeconds() default 0;
+	
+	/**
+	 * Time (in seconds) for which search results of this query should be cached. Results are cached by
+	 * condition values, page, user search settings and user space. Cached results are invalidated when
+	 * entities of this query are modified. Zero (default) disables result caching.
+	 * 
+	 * @return Time (in seconds) for which results should be cached
+	 */
+	public int resultCacheSeconds() default 0;
 }
 
@@ -69,6 +69,7 @@ import com.yukthi.webutils.repository.ExtensionEntity;
 import com.yukthi.webutils.repository.ExtensionFieldEntity;
 import com.yukthi.webutils.security.ISecurityService;
 import com.yukthi.webutils.security.UnauthorizedException;
+import com.yukthi.webutils.services.ExtensionFieldValueService;
 import com.yukthi.webutils.services.ExtensionService;
 import com.yukthi.webutils.utils.WebUtils;
 
@@ -143,6 +144,13 @@ public class ExtensionController extends BaseController implements IExtensionCon
 			}
 		}
 
+		//only typed fields can be indexed
+		if(extensionField.isIndexed() && !ExtensionFieldValueService.isIndexable(extensionField.getType()))
+		{
+			logger.error("Indexing is requested for field of unsupported type - {}", extensionField.getType());
+			throw new InvalidRequestParameterException("Indexing is supported only for integer, decimal, date and boolean fields. Specified type - {}", extensionField.getType());
+		}
+
 		//for string fields ensure proper length is specified
 		if(extensionField.getType() == ExtensionFieldType.STRING || extensionField.getType() == ExtensionFieldType.MULTI_LINE_STRING)
 		{
@@ -30,9 +30,12 @@ import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_IN
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_UPLOAD;
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.PARAM_ID;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Date;
 import java.util.UUID;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
@@ -44,6 +47,7 @@ import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
+import com.yukthi.webutils.WebutilsConfiguration;
 import com.yukthi.webutils.annotations.ActionName;
 import com.yukthi.webutils.annotations.AttachmentsExpected;
 import com.yukthi.webutils.annotations.NoAuthentication;
@@ -51,7 +55,7 @@ import com.yukthi.webutils.common.FileInfo;
 import com.yukthi.webutils.common.IWebUtilsCommonConstants;
 import com.yukthi.webutils.common.models.BasicSaveResponse;
 import com.yukthi.webutils.common.models.UploadTempFileRequest;
-import com.yukthi.webutils.repository.file.FileEntity;
+import com.yukthi.webutils.repository.file.FileMetadata;
 import com.yukthi.webutils.security.ISecurityService;
 import com.yukthi.webutils.security.UnauthorizedException;
 import com.yukthi.webutils.services.FileService;
@@ -79,6 +83,18 @@ public class FileController
 	@Autowired
 	private ISecurityService securityService;
 	
+	/**
+	 * Configuration used to fetch file cache settings.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * Current http servlet request, used to fetch range and conditional headers.
+	 */
+	@Autowired
+	private HttpServletRequest request;
+	
 	/**
 	 * Current http servlet response.
 	 */
@@ -102,44 +118,76 @@ public class FileController
 	}
 	
 	/**
-	 * @param id
-	 * @param response
-	 * @return
-	 * @throws IOException
+	 * Builds strong entity tag for specified file. As file content never changes once saved (new file is
+	 * created on content change), id, version and content hash uniquely identify the content.
+	 * @param metadata File details
+	 * @return Entity tag including quotes
 	 */
-	private FileInfo getFileInfo(long id, boolean secured, HttpServletResponse response) throws IOException
+	private String buildEntityTag(FileMetadata metadata)
 	{
-		FileEntity fileEntity = null;
+		StringBuilder entityTag = new StringBuilder("\"");
+		entityTag.append(metadata.getId()).append('-').append(metadata.getVersion());
 		
-		if(secured)
-		{
-			fileEntity = fileService.getFileEntity(id);
-		}
-		else
+		if(metadata.getContentHash() != null)
 		{
-			fileEntity = fileService.getFileEntity(id, false);
+			entityTag.append('-').append(metadata.getContentHash());
 		}
 		
+		return entityTag.append('"').toString();
+	}
+	
+	/**
+	 * Fetches the file with specified id, after authorization check, and sends it on response. Range requests
+	 * are supported, so that partial content can be fetched. Conditional requests are validated using
+	 * file details alone, so that content is not read when client copy is still valid.
+	 * @param id Id of the file to send
+	 * @param secured Whether the file is secured file
+	 * @param asAttachment If true, file will be sent as attachment
+	 * @throws IOException If error response could not be sent
+	 */
+	private void sendFile(long id, boolean secured, boolean asAttachment) throws IOException
+	{
+		FileMetadata metadata = fileService.getFileMetadata(id, secured);
+		
 		//if file is not found
-		if(fileEntity == null)
+		if(metadata == null)
 		{
 			response.sendError(HttpServletResponse.SC_NOT_FOUND);
-			return null;
+			return;
 		}
 		
 		//check authorization of current user
-		if(secured && !securityService.isAuthorized(fileEntity))
+		if(secured && !securityService.isAuthorized(metadata.toFileEntity()))
 		{
-			//delete the temp file that was created during db read
-			fileEntity.getFile().delete();
-
 			throw new UnauthorizedException("Current user is not authorized to access file with id - {}", id);
 		}
 		
-		FileInfo fileInfo = WebUtils.convertBean(fileEntity, FileInfo.class);
-		fileInfo.setFile(fileEntity.getFile());
+		//files are never modified after creation, new file is created on content change
+		Date lastModified = (metadata.getUpdatedOn() != null) ? metadata.getUpdatedOn() : metadata.getCreatedOn();
+		String entityTag = buildEntityTag(metadata);
+		
+		WebAttachmentUtils.setCacheHeaders(response, entityTag, lastModified, secured, webutilsConfiguration.getFileCacheMaxAgeSeconds());
+		
+		if(WebAttachmentUtils.isNotModified(request, entityTag, lastModified))
+		{
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		
+		//content is fetched only after authorization and cache validation
+		File content = fileService.fetchContent(metadata);
+		
+		//if file is deleted in between
+		if(content == null)
+		{
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		
+		FileInfo fileInfo = WebUtils.convertBean(metadata, FileInfo.class);
+		fileInfo.setFile(content);
 		
-		return fileInfo;
+		WebAttachmentUtils.sendFile(request, response, fileInfo, asAttachment, fileService.isTemporaryContent(metadata), entityTag, lastModified);
 	}
 
 	/**
@@ -151,14 +199,7 @@ public class FileController
 	@RequestMapping(value = "/fetch/{" + PARAM_ID + "}", method = RequestMethod.GET)
 	public void fetchFile(@PathVariable(PARAM_ID) long id) throws IOException
 	{
-		FileInfo fileInfo = getFileInfo(id, true, response);
-
-		if(fileInfo == null)
-		{
-			return;
-		}
-
-		WebAttachmentUtils.sendFile(response, fileInfo, false, true);
+		sendFile(id, true, false);
 	}
 
 	/**
@@ -169,14 +210,7 @@ public class FileController
 	@RequestMapping(value = "/download/{" + PARAM_ID + "}", method = RequestMethod.GET)
 	public void fetchFileAsAttachment(@PathVariable(PARAM_ID) long id) throws IOException
 	{
-		FileInfo fileInfo = getFileInfo(id, true, response);
-
-		if(fileInfo == null)
-		{
-			return;
-		}
-
-		WebAttachmentUtils.sendFile(response, fileInfo, true, true);
+		sendFile(id, true, true);
 	}
 
 	/**
@@ -189,14 +223,7 @@ public class FileController
 	@RequestMapping(value = "/fetch/insecure/{" + PARAM_ID + "}", method = RequestMethod.GET)
 	public void fetchInsecureFile(@PathVariable(PARAM_ID) long id) throws IOException
 	{
-		FileInfo fileInfo = getFileInfo(id, false, response);
-
-		if(fileInfo == null)
-		{
-			return;
-		}
-
-		WebAttachmentUtils.sendFile(response, fileInfo, false, true);
+		sendFile(id, false, false);
 	}
 
 	/**
@@ -208,13 +235,6 @@ public class FileController
 	@RequestMapping(value = "/download/insecure/{" + PARAM_ID + "}", method = RequestMethod.GET)
 	public void fetchInsecureFileAsAttachment(@PathVariable(PARAM_ID) long id) throws IOException
 	{
-		FileInfo fileInfo = getFileInfo(id, false, response);
-
-		if(fileInfo == null)
-		{
-			return;
-		}
-
-		WebAttachmentUtils.sendFile(response, fileInfo, true, true);
+		sendFile(id, false, true);
 	}
 }
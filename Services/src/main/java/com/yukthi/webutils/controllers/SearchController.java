@@ -24,13 +24,21 @@
 package com.yukthi.webutils.controllers;
 
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_PREFIX_SEARCH;
+import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_AGGREGATE;
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_EXECUTE;
+import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_EXECUTE_BATCH;
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_EXPORT;
+import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_EXPORT_ASYNC;
+import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_FETCH_EXPORT_STATUS;
+import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_FETCH_METRICS;
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_FETCH_QUERY_DEF;
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.ACTION_TYPE_FETCH_RESULT_DEF;
+import static com.yukthi.webutils.common.IWebUtilsActionConstants.PARAM_ID;
 import static com.yukthi.webutils.common.IWebUtilsActionConstants.PARAM_NAME;
 
-import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
@@ -39,25 +47,38 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.yukthi.excel.exporter.ExcelExporter;
 import com.yukthi.webutils.InvalidRequestParameterException;
-import com.yukthi.webutils.SearchExcelDataReport;
+import com.yukthi.webutils.WebutilsConfiguration;
 import com.yukthi.webutils.annotations.ActionName;
-import com.yukthi.webutils.common.FileInfo;
+import com.yukthi.webutils.common.ExportFormat;
 import com.yukthi.webutils.common.IWebUtilsCommonConstants;
+import com.yukthi.webutils.common.SearchAggregationModel;
 import com.yukthi.webutils.common.SearchExecutionModel;
 import com.yukthi.webutils.common.controllers.ISearchController;
 import com.yukthi.webutils.common.models.ModelDefResponse;
 import com.yukthi.webutils.common.models.def.ModelDef;
+import com.yukthi.webutils.common.models.search.ExecuteSearchBatchRequest;
+import com.yukthi.webutils.common.models.search.ExecuteSearchBatchResponse;
 import com.yukthi.webutils.common.models.search.ExecuteSearchResponse;
+import com.yukthi.webutils.common.models.search.SearchAggregationResponse;
+import com.yukthi.webutils.common.models.search.SearchBatchEntry;
+import com.yukthi.webutils.common.models.search.SearchExportJobResponse;
+import com.yukthi.webutils.common.models.search.SearchMetricsResponse;
+import com.yukthi.webutils.security.ISecurityService;
+import com.yukthi.webutils.services.SearchBatchService;
+import com.yukthi.webutils.services.SearchExportService;
+import com.yukthi.webutils.services.SearchMetricsService;
 import com.yukthi.webutils.services.SearchService;
 import com.yukthi.webutils.services.ValidationService;
+import com.yukthi.webutils.services.search.ISearchExportWriter;
+import com.yukthi.webutils.services.search.SearchExportWriterFactory;
 import com.yukthi.webutils.utils.WebAttachmentUtils;
 
 /**
@@ -77,16 +98,26 @@ public class SearchController extends BaseController implements ISearchControlle
 	@Autowired
 	private ValidationService validationService;
 	
+	@Autowired
+	private SearchBatchService searchBatchService;
+	
+	@Autowired
+	private SearchMetricsService searchMetricsService;
+	
+	@Autowired
+	private SearchExportService searchExportService;
+	
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	@Autowired
+	private ISecurityService securityService;
+	
 	private ObjectMapper objectMapper = new ObjectMapper();
 	
 	@Autowired
 	private HttpServletResponse response;
 	
-	/**
-	 * Used to export search results in excel format
-	 */
-	private ExcelExporter excelExporter = new ExcelExporter();
-	
 	//default block
 	{
 		objectMapper.setDateFormat(IWebUtilsCommonConstants.DEFAULT_DATE_FORMAT);
@@ -120,33 +151,46 @@ public class SearchController extends BaseController implements ISearchControlle
 		return new ModelDefResponse( searchService.getSearhResultDefinition(queryName) );
 	}
 	
-	/* (non-Javadoc)
-	 * @see com.yukthi.webutils.controllers.ISearchController#executeSearch(java.lang.String, com.yukthi.webutils.common.SearchExecutionModel)
+	/**
+	 * Converts specified query json into query object of specified query and validates it.
+	 * @param queryName Name of the query
+	 * @param queryModelJson Query json to convert
+	 * @return Validated query object, null if query json is not specified
 	 */
-	@Override
-	@ActionName(ACTION_TYPE_EXECUTE)
-	@ResponseBody
-	@RequestMapping(value = "/execute/{" + PARAM_NAME + "}", method = RequestMethod.GET)
-	public ExecuteSearchResponse executeSearch(@PathVariable(PARAM_NAME) String queryName, @Valid SearchExecutionModel searchExecutionModel) throws Exception
+	private Object parseQuery(String queryName, String queryModelJson) throws Exception
 	{
-		logger.trace("executeSearch is called for query - {}", queryName);
-		
 		Class<?> queryType = searchService.getSearchQueryType(queryName);
 		Object query = null;
 		
-		if(searchExecutionModel.getQueryModelJson() != null)
+		if(queryModelJson != null)
 		{
 			try
 			{
-				query = objectMapper.readValue(searchExecutionModel.getQueryModelJson(), queryType);
+				query = objectMapper.readValue(queryModelJson, queryType);
 			}catch(Exception ex)
 			{
-				throw new InvalidRequestParameterException(ex, "Failed to convert input json to {}. Input json - ", queryType.getName(), searchExecutionModel.getQueryModelJson());
+				throw new InvalidRequestParameterException(ex, "Failed to convert input json to {}. Input json - ", queryType.getName(), queryModelJson);
 			}
 		}
 		
 		validationService.validate(query);
 		
+		return query;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.controllers.ISearchController#executeSearch(java.lang.String, com.yukthi.webutils.common.SearchExecutionModel)
+	 */
+	@Override
+	@ActionName(ACTION_TYPE_EXECUTE)
+	@ResponseBody
+	@RequestMapping(value = "/execute/{" + PARAM_NAME + "}", method = RequestMethod.GET)
+	public ExecuteSearchResponse executeSearch(@PathVariable(PARAM_NAME) String queryName, @Valid SearchExecutionModel searchExecutionModel) throws Exception
+	{
+		logger.trace("executeSearch is called for query - {}", queryName);
+		
+		Object query = parseQuery(queryName, searchExecutionModel.getQueryModelJson());
+		
 		return searchService.executeSearch(queryName, query, searchExecutionModel);
 	}
 
@@ -161,30 +205,120 @@ public class SearchController extends BaseController implements ISearchControlle
 	{
 		logger.trace("executeSearch is called for query - {}", queryName);
 		
-		Class<?> queryType = searchService.getSearchQueryType(queryName);
-		Object query = null;
+		Object query = parseQuery(queryName, searchExecutionModel.getQueryModelJson());
+		
+		ModelDef searchResultDef = searchService.getSearhResultDefinition(queryName);
+		
+		ExportFormat exportFormat = searchExecutionModel.getExportFormat();
 		
-		if(searchExecutionModel.getQueryModelJson() != null)
+		if(exportFormat == null)
 		{
-			try
-			{
-				query = objectMapper.readValue(searchExecutionModel.getQueryModelJson(), queryType);
-			}catch(Exception ex)
+			exportFormat = ExportFormat.EXCEL;
+		}
+		
+		//stream the results directly to response, chunk by chunk
+		WebAttachmentUtils.prepareAttachmentResponse(response, searchResultDef.getLabel() + SearchExportWriterFactory.getFileExtension(exportFormat), 
+				SearchExportWriterFactory.getMimeType(exportFormat));
+		
+		OutputStream os = response.getOutputStream();
+		ISearchExportWriter exportWriter = SearchExportWriterFactory.newWriter(exportFormat, os);
+		
+		searchService.exportSearch(queryName, query, searchExecutionModel.getExtendedConditions(), exportWriter);
+		os.flush();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.common.controllers.ISearchController#exportSearchAsync(java.lang.String, com.yukthi.webutils.common.SearchExecutionModel)
+	 */
+	@Override
+	@ActionName(ACTION_TYPE_EXPORT_ASYNC)
+	@ResponseBody
+	@RequestMapping(value = "/export/async/{" + PARAM_NAME + "}", method = RequestMethod.POST)
+	public SearchExportJobResponse exportSearchAsync(@PathVariable(PARAM_NAME) String queryName, @Valid @RequestBody SearchExecutionModel searchExecutionModel) throws Exception
+	{
+		logger.trace("exportSearchAsync is called for query - {}", queryName);
+		
+		Object query = parseQuery(queryName, searchExecutionModel.getQueryModelJson());
+		
+		return searchExportService.submitExport(queryName, query, searchExecutionModel.getExtendedConditions(), searchExecutionModel.getExportFormat());
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.common.controllers.ISearchController#fetchExportStatus(java.lang.String)
+	 */
+	@Override
+	@ActionName(ACTION_TYPE_FETCH_EXPORT_STATUS)
+	@ResponseBody
+	@RequestMapping(value = "/export/status/{" + PARAM_ID + "}", method = RequestMethod.GET)
+	public SearchExportJobResponse fetchExportStatus(@PathVariable(PARAM_ID) String jobId)
+	{
+		logger.trace("fetchExportStatus is called for job - {}", jobId);
+		
+		return searchExportService.getStatus(jobId);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.common.controllers.ISearchController#executeSearchBatch(com.yukthi.webutils.common.models.search.ExecuteSearchBatchRequest)
+	 */
+	@Override
+	@ActionName(ACTION_TYPE_EXECUTE_BATCH)
+	@ResponseBody
+	@RequestMapping(value = "/execute/batch", method = RequestMethod.POST)
+	public ExecuteSearchBatchResponse executeSearchBatch(@Valid @RequestBody ExecuteSearchBatchRequest request) throws Exception
+	{
+		logger.trace("executeSearchBatch is called with {} queries", request.getEntries().size());
+		
+		//parse and validate all queries upfront, so that invalid requests are rejected before execution
+		List<Object> queries = new ArrayList<>(request.getEntries().size());
+		
+		for(SearchBatchEntry entry : request.getEntries())
+		{
+			if(entry.getSearchExecutionModel() == null)
 			{
-				throw new InvalidRequestParameterException(ex, "Failed to convert input json to {}. Input json - ", queryType.getName(), searchExecutionModel.getQueryModelJson());
+				entry.setSearchExecutionModel(new SearchExecutionModel());
 			}
+			
+			validationService.validate(entry.getSearchExecutionModel());
+			queries.add(parseQuery(entry.getQueryName(), entry.getSearchExecutionModel().getQueryModelJson()));
 		}
 		
-		validationService.validate(query);
+		return new ExecuteSearchBatchResponse(searchBatchService.executeBatch(request.getEntries(), queries));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.common.controllers.ISearchController#fetchSearchMetrics()
+	 */
+	@Override
+	@ActionName(ACTION_TYPE_FETCH_METRICS)
+	@ResponseBody
+	@RequestMapping(value = "/metrics", method = RequestMethod.GET)
+	public SearchMetricsResponse fetchSearchMetrics() throws Exception
+	{
+		logger.trace("fetchSearchMetrics is called");
 		
-		ModelDef searchResultDef = searchService.getSearhResultDefinition(queryName);
-		ExecuteSearchResponse results = searchService.executeSearch(queryName, query, new SearchExecutionModel(1, false, true));
+		//when disabled, endpoint is treated as non-existing one
+		if(!webutilsConfiguration.getSearchConfiguration().isMetricsEndpointEnabled())
+		{
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return null;
+		}
+		
+		return searchMetricsService.getMetrics(securityService.getUserSpaceIdentity());
+	}
 
-		SearchExcelDataReport searchExcelDataReport = new SearchExcelDataReport("Results", results);
-		File tempFile = File.createTempFile(queryName, ".xls");
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.common.controllers.ISearchController#aggregateSearch(java.lang.String, com.yukthi.webutils.common.SearchAggregationModel)
+	 */
+	@Override
+	@ActionName(ACTION_TYPE_AGGREGATE)
+	@ResponseBody
+	@RequestMapping(value = "/aggregate/{" + PARAM_NAME + "}", method = RequestMethod.POST)
+	public SearchAggregationResponse aggregateSearch(@PathVariable(PARAM_NAME) String queryName, @Valid @RequestBody SearchAggregationModel aggregationModel) throws Exception
+	{
+		logger.trace("aggregateSearch is called for query - {}", queryName);
 		
-		excelExporter.generateExcelSheet(tempFile.getPath(), searchExcelDataReport);
+		Object query = parseQuery(queryName, aggregationModel.getQueryModelJson());
 		
-		WebAttachmentUtils.sendFile(response, new FileInfo(searchResultDef.getLabel() + ".xls", tempFile, WebAttachmentUtils.MIME_MS_EXCEL_FILE), true, true);
+		return searchService.aggregateSearch(queryName, query, aggregationModel);
 	}
 }
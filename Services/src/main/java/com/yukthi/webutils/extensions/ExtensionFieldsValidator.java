@@ -0,0 +1,264 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.extensions;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.validation.Errors;
+
+import com.yukthi.webutils.repository.ExtensionFieldEntity;
+
+/**
+ * Validator of extended field values of an extension, compiled once from the extension fields. Field checks
+ * are prepared upfront (thread-safe date formatter, lov value sets etc.), so that validation of values does not
+ * allocate unless validation fails. Instances are immutable and thread safe.
+ * 
+ * @author akiran
+ */
+public class ExtensionFieldsValidator
+{
+	/**
+	 * Check to be performed on non-blank value of a field.
+	 */
+	private static interface IValueCheck
+	{
+		/**
+		 * Checks if specified value is valid.
+		 * @param value Value to check
+		 * @return True if valid
+		 */
+		public boolean isValid(String value);
+	}
+	
+	/**
+	 * Compiled validation details of single field.
+	 */
+	private static class FieldValidator
+	{
+		/**
+		 * Name of the field.
+		 */
+		private final String name;
+		
+		/**
+		 * Flag indicating field is mandatory.
+		 */
+		private final boolean required;
+		
+		/**
+		 * Check of field value.
+		 */
+		private final IValueCheck check;
+		
+		/**
+		 * Instantiates a new field validator.
+		 *
+		 * @param name the name
+		 * @param required the required flag
+		 * @param check the value check
+		 */
+		public FieldValidator(String name, boolean required, IValueCheck check)
+		{
+			this.name = name;
+			this.required = required;
+			this.check = check;
+		}
+	}
+	
+	/**
+	 * Compiled field validators.
+	 */
+	private final FieldValidator fieldValidators[];
+	
+	/**
+	 * Instantiates a new extension fields validator.
+	 *
+	 * @param fieldValidators the field validators
+	 */
+	private ExtensionFieldsValidator(FieldValidator fieldValidators[])
+	{
+		this.fieldValidators = fieldValidators;
+	}
+	
+	/**
+	 * Compiles validator for specified extension fields.
+	 * @param fields Extension fields
+	 * @param datePattern Date pattern to be used for date fields
+	 * @return Compiled validator
+	 */
+	public static ExtensionFieldsValidator compile(List<ExtensionFieldEntity> fields, String datePattern)
+	{
+		List<FieldValidator> fieldValidators = new ArrayList<>(fields.size());
+		DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(datePattern);
+		
+		for(ExtensionFieldEntity field : fields)
+		{
+			fieldValidators.add(new FieldValidator(field.getName(), field.isRequired(), compileCheck(field, dateFormatter)));
+		}
+		
+		return new ExtensionFieldsValidator(fieldValidators.toArray(new FieldValidator[0]));
+	}
+	
+	/**
+	 * Compiles value check for specified field.
+	 * @param field Field for which check needs to be compiled
+	 * @param dateFormatter Formatter to be used for date fields
+	 * @return Value check
+	 */
+	private static IValueCheck compileCheck(ExtensionFieldEntity field, final DateTimeFormatter dateFormatter)
+	{
+		switch(field.getType())
+		{
+			case INTEGER:
+			{
+				return value -> isDigits(value, 0, value.length());
+			}
+			case DECIMAL:
+			{
+				return value -> 
+				{
+					int dotIdx = value.indexOf('.');
+					
+					if(dotIdx < 0)
+					{
+						return isDigits(value, 0, value.length());
+					}
+					
+					return isDigits(value, 0, dotIdx) && isDigits(value, dotIdx + 1, value.length());
+				};
+			}
+			case BOOLEAN:
+			{
+				return value -> "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value);
+			}
+			case DATE:
+			{
+				return value -> 
+				{
+					try
+					{
+						dateFormatter.parse(value);
+						return true;
+					}catch(DateTimeParseException ex)
+					{
+						return false;
+					}
+				};
+			}
+			case LIST_OF_VALUES:
+			{
+				final Set<String> lovValues = (field.getLovValues() != null) ? new HashSet<>(field.getLovValues()) : new HashSet<String>();
+				return value -> lovValues.contains(value);
+			}
+			default:
+			{
+				final int maxLength = field.getMaxLength();
+				return value -> value.length() <= maxLength;
+			}
+		}
+	}
+	
+	/**
+	 * Checks if specified range of the string is non-empty and has only digits.
+	 * @param value String to check
+	 * @param from Start index (inclusive)
+	 * @param to End index (exclusive)
+	 * @return True if the range has only digits
+	 */
+	private static boolean isDigits(String value, int from, int to)
+	{
+		if(from >= to)
+		{
+			return false;
+		}
+		
+		char ch = 0;
+		
+		for(int i = from; i < to; i++)
+		{
+			ch = value.charAt(i);
+			
+			if(ch < '0' || ch > '9')
+			{
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Validates specified extended field values and rejects specified errors for invalid values.
+	 * @param values Extended field values mapping field name to value, can be null
+	 * @param errors Errors to which validation errors should be added
+	 */
+	public void validate(Map<String, String> values, Errors errors)
+	{
+		int matchedCount = 0;
+		String value = null;
+		
+		//loop through the fields and validate the values
+		for(FieldValidator field : fieldValidators)
+		{
+			if(values != null && values.containsKey(field.name))
+			{
+				matchedCount++;
+				value = values.get(field.name);
+			}
+			else
+			{
+				value = null;
+			}
+			
+			//ignore null and blank values, but ensure values are provided for all mandatory fields
+			if(StringUtils.isBlank(value))
+			{
+				if(field.required)
+				{
+					errors.reject("extended.required.field.missing", new String[]{field.name}, "No value specified for mandatory field - " + field.name);
+				}
+				
+				continue;
+			}
+			
+			//ensure proper value provided according to data type
+			if(!field.check.isValid(value))
+			{
+				errors.reject("extended.invalid.value", new String[]{field.name}, "Invalid value specified for field - " + field.name);
+			}
+		}
+		
+		if(values != null && values.size() > matchedCount)
+		{
+			errors.reject("extended.extra.field", "Extra fields specified for extension");
+		}
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.extensions;
+
+/**
+ * SPI to create and drop database indexes on extension columns of extendable entities. Applications 
+ * which need searchable extension fields to be indexed should provide implementation of this interface 
+ * as spring bean. Methods are invoked from background jobs and should be tolerant to index already existing (during 
+ * creation) or not existing (during removal).
+ * 
+ * @author akiran
+ */
+public interface IExtensionIndexManager
+{
+	/**
+	 * Creates index with specified name on specified extension column of specified entity.
+	 * @param entityType Extendable entity type
+	 * @param columnName Extension column name
+	 * @param indexName Name of the index to be created
+	 * @throws Exception If index creation fails
+	 */
+	public void createIndex(Class<?> entityType, String columnName, String indexName) throws Exception;
+	
+	/**
+	 * Drops index with specified name from specified extension column of specified entity.
+	 * @param entityType Extendable entity type
+	 * @param columnName Extension column name
+	 * @param indexName Name of the index to be dropped
+	 * @throws Exception If index removal fails
+	 */
+	public void dropIndex(Class<?> entityType, String columnName, String indexName) throws Exception;
+}
@@ -120,6 +120,19 @@ public class ExtensionFieldEntity extends WebutilsEntity
 	 */
 	private int maxLength;
 	
+	/**
+	 * Indicates typed values of this field are maintained in indexed value store.
+	 */
+	@NotUpdateable
+	@Column(name = "IS_INDEXED")
+	private boolean indexed = false;
+	
+	/**
+	 * Indicates field can be used in search conditions, for which database index is maintained on extension column.
+	 */
+	@Column(name = "IS_SEARCHABLE")
+	private boolean searchable = false;
+	
 	/**
 	 * Instantiates a new extension field entity.
 	 */
@@ -348,4 +361,44 @@ public class ExtensionFieldEntity extends WebutilsEntity
 	{
 		this.maxLength = maxLength;
 	}
+
+	/**
+	 * Checks if typed values of this field are maintained in indexed value store.
+	 *
+	 * @return true, if typed values of this field are maintained in indexed value store
+	 */
+	public boolean isIndexed()
+	{
+		return indexed;
+	}
+
+	/**
+	 * Sets whether typed values of this field are maintained in indexed value store.
+	 *
+	 * @param indexed the new indexed flag
+	 */
+	public void setIndexed(boolean indexed)
+	{
+		this.indexed = indexed;
+	}
+
+	/**
+	 * Checks if field can be used in search conditions.
+	 *
+	 * @return true, if field can be used in search conditions
+	 */
+	public boolean isSearchable()
+	{
+		return searchable;
+	}
+
+	/**
+	 * Sets whether field can be used in search conditions.
+	 *
+	 * @param searchable the new searchable flag
+	 */
+	public void setSearchable(boolean searchable)
+	{
+		this.searchable = searchable;
+	}
 }
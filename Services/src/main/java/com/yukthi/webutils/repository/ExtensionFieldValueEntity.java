@@ -0,0 +1,270 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import com.yukthi.persistence.annotations.DataType;
+import com.yukthi.persistence.annotations.DataTypeMapping;
+import com.yukthi.persistence.annotations.DeleteWithParent;
+import com.yukthi.persistence.annotations.Index;
+import com.yukthi.persistence.annotations.Indexes;
+import com.yukthi.persistence.annotations.NotUpdateable;
+import com.yukthi.persistence.annotations.UniqueConstraint;
+import com.yukthi.persistence.annotations.UniqueConstraints;
+
+/**
+ * Typed value of an indexed extension field. Extended field values are stored as strings in extended columns 
+ * of the entities, on which range conditions would result in lexical comparisons and full scans. For indexed
+ * fields, values are additionally maintained in this table in typed (and indexed) columns, so that conditions on 
+ * them can be evaluated as indexed range scans. Only one of the value columns, based on the field type, is populated.
+ * 
+ * @author akiran
+ */
+@Table(name = "EXTENSION_FIELD_VALUES")
+@UniqueConstraints({
+	@UniqueConstraint(name = "EXT_VAL_FIELD_ENTITY", fields = {"field", "entityId"})
+	})
+@Indexes({
+	@Index(name = "EXT_VAL_LONG_IDX", fields = {"field", "longValue"}),
+	@Index(name = "EXT_VAL_DECIMAL_IDX", fields = {"field", "decimalValue"}),
+	@Index(name = "EXT_VAL_DATE_IDX", fields = {"field", "dateValue"}),
+	@Index(name = "EXT_VAL_BOOLEAN_IDX", fields = {"field", "booleanValue"}),
+	@Index(name = "EXT_VAL_ENTITY_IDX", fields = {"entityType", "entityId"})
+	})
+public class ExtensionFieldValueEntity extends WebutilsEntity
+{
+	/**
+	 * Extension field to which this value belongs.
+	 */
+	@NotUpdateable
+	@ManyToOne
+	@Column(name = "FIELD_ID", nullable = false)
+	@DeleteWithParent
+	private ExtensionFieldEntity field;
+	
+	/**
+	 * Type of the entity to which this value belongs.
+	 */
+	@NotUpdateable
+	@Column(name = "ENTITY_TYPE", nullable = false, length = 250)
+	private String entityType;
+	
+	/**
+	 * Id of the entity to which this value belongs.
+	 */
+	@NotUpdateable
+	@Column(name = "ENTITY_ID", nullable = false)
+	private Long entityId;
+	
+	/**
+	 * Value of integer field.
+	 */
+	@Column(name = "LONG_VALUE")
+	private Long longValue;
+	
+	/**
+	 * Value of decimal field. Maintained as big decimal, so that values are stored and compared without precision loss.
+	 */
+	@Column(name = "DECIMAL_VALUE", precision = 38, scale = 12)
+	private BigDecimal decimalValue;
+	
+	/**
+	 * Value of date field.
+	 */
+	@Column(name = "DATE_VALUE")
+	@DataTypeMapping(type = DataType.DATE)
+	private Date dateValue;
+	
+	/**
+	 * Value of boolean field.
+	 */
+	@Column(name = "BOOLEAN_VALUE")
+	private Boolean booleanValue;
+	
+	/**
+	 * Instantiates a new extension field value entity.
+	 */
+	public ExtensionFieldValueEntity()
+	{}
+
+	/**
+	 * Instantiates a new extension field value entity.
+	 *
+	 * @param field the field
+	 * @param entityType the entity type
+	 * @param entityId the entity id
+	 */
+	public ExtensionFieldValueEntity(ExtensionFieldEntity field, String entityType, Long entityId)
+	{
+		this.field = field;
+		this.entityType = entityType;
+		this.entityId = entityId;
+	}
+
+	/**
+	 * Gets the extension field to which this value belongs.
+	 *
+	 * @return the extension field to which this value belongs
+	 */
+	public ExtensionFieldEntity getField()
+	{
+		return field;
+	}
+
+	/**
+	 * Sets the extension field to which this value belongs.
+	 *
+	 * @param field the new extension field to which this value belongs
+	 */
+	public void setField(ExtensionFieldEntity field)
+	{
+		this.field = field;
+	}
+
+	/**
+	 * Gets the type of the entity to which this value belongs.
+	 *
+	 * @return the type of the entity to which this value belongs
+	 */
+	public String getEntityType()
+	{
+		return entityType;
+	}
+
+	/**
+	 * Sets the type of the entity to which this value belongs.
+	 *
+	 * @param entityType the new type of the entity to which this value belongs
+	 */
+	public void setEntityType(String entityType)
+	{
+		this.entityType = entityType;
+	}
+
+	/**
+	 * Gets the id of the entity to which this value belongs.
+	 *
+	 * @return the id of the entity to which this value belongs
+	 */
+	public Long getEntityId()
+	{
+		return entityId;
+	}
+
+	/**
+	 * Sets the id of the entity to which this value belongs.
+	 *
+	 * @param entityId the new id of the entity to which this value belongs
+	 */
+	public void setEntityId(Long entityId)
+	{
+		this.entityId = entityId;
+	}
+
+	/**
+	 * Gets the value of integer field.
+	 *
+	 * @return the value of integer field
+	 */
+	public Long getLongValue()
+	{
+		return longValue;
+	}
+
+	/**
+	 * Sets the value of integer field.
+	 *
+	 * @param longValue the new value of integer field
+	 */
+	public void setLongValue(Long longValue)
+	{
+		this.longValue = longValue;
+	}
+
+	/**
+	 * Gets the value of decimal field.
+	 *
+	 * @return the value of decimal field
+	 */
+	public BigDecimal getDecimalValue()
+	{
+		return decimalValue;
+	}
+
+	/**
+	 * Sets the value of decimal field.
+	 *
+	 * @param decimalValue the new value of decimal field
+	 */
+	public void setDecimalValue(BigDecimal decimalValue)
+	{
+		this.decimalValue = decimalValue;
+	}
+
+	/**
+	 * Gets the value of date field.
+	 *
+	 * @return the value of date field
+	 */
+	public Date getDateValue()
+	{
+		return dateValue;
+	}
+
+	/**
+	 * Sets the value of date field.
+	 *
+	 * @param dateValue the new value of date field
+	 */
+	public void setDateValue(Date dateValue)
+	{
+		this.dateValue = dateValue;
+	}
+
+	/**
+	 * Gets the value of boolean field.
+	 *
+	 * @return the value of boolean field
+	 */
+	public Boolean getBooleanValue()
+	{
+		return booleanValue;
+	}
+
+	/**
+	 * Sets the value of boolean field.
+	 *
+	 * @param booleanValue the new value of boolean field
+	 */
+	public void setBooleanValue(Boolean booleanValue)
+	{
+		this.booleanValue = booleanValue;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository;
+
+import javax.persistence.Column;
+import javax.persistence.Table;
+
+import com.yukthi.persistence.annotations.DataType;
+import com.yukthi.persistence.annotations.DataTypeMapping;
+import com.yukthi.persistence.annotations.NotUpdateable;
+import com.yukthi.persistence.annotations.UniqueConstraint;
+import com.yukthi.persistence.annotations.UniqueConstraints;
+
+/**
+ * Database index maintained on extension column of an extendable entity. Extension columns are shared by all extensions
+ * (and user spaces) of an entity type, so an index is maintained as long as at least one searchable field uses the column.
+ * 
+ * @author akiran
+ */
+@Table(name = "EXTENSION_INDEXES")
+@UniqueConstraints({
+	@UniqueConstraint(name = "EXT_IDX_ENTITY_COL", fields = {"entityType", "columnName"})
+	})
+public class ExtensionIndexEntity extends WebutilsEntity
+{
+	/**
+	 * Extendable entity type on whose table index is maintained.
+	 */
+	@NotUpdateable
+	@Column(name = "ENTITY_TYPE", nullable = false, length = 250)
+	private String entityType;
+	
+	/**
+	 * Extension column on which index is maintained.
+	 */
+	@NotUpdateable
+	@Column(name = "COLUMN_NAME", nullable = false, length = 50)
+	private String columnName;
+	
+	/**
+	 * Name of the database index.
+	 */
+	@NotUpdateable
+	@Column(name = "INDEX_NAME", nullable = false, length = 50)
+	private String indexName;
+	
+	/**
+	 * Status of the index.
+	 */
+	@Column(name = "STATUS", nullable = false, length = 20)
+	@DataTypeMapping(type = DataType.STRING)
+	private ExtensionIndexStatus status;
+	
+	/**
+	 * Error message of last failed operation.
+	 */
+	@Column(name = "ERROR_MESSAGE", length = 1000)
+	private String errorMessage;
+	
+	/**
+	 * Instantiates a new extension index entity.
+	 */
+	public ExtensionIndexEntity()
+	{}
+
+	/**
+	 * Instantiates a new extension index entity.
+	 *
+	 * @param entityType the entity type
+	 * @param columnName the column name
+	 * @param indexName the index name
+	 */
+	public ExtensionIndexEntity(String entityType, String columnName, String indexName)
+	{
+		this.entityType = entityType;
+		this.columnName = columnName;
+		this.indexName = indexName;
+	}
+
+	/**
+	 * Gets the extendable entity type on whose table index is maintained.
+	 *
+	 * @return the extendable entity type on whose table index is maintained
+	 */
+	public String getEntityType()
+	{
+		return entityType;
+	}
+
+	/**
+	 * Sets the extendable entity type on whose table index is maintained.
+	 *
+	 * @param entityType the new extendable entity type on whose table index is maintained
+	 */
+	public void setEntityType(String entityType)
+	{
+		this.entityType = entityType;
+	}
+
+	/**
+	 * Gets the extension column on which index is maintained.
+	 *
+	 * @return the extension column on which index is maintained
+	 */
+	public String getColumnName()
+	{
+		return columnName;
+	}
+
+	/**
+	 * Sets the extension column on which index is maintained.
+	 *
+	 * @param columnName the new extension column on which index is maintained
+	 */
+	public void setColumnName(String columnName)
+	{
+		this.columnName = columnName;
+	}
+
+	/**
+	 * Gets the name of the database index.
+	 *
+	 * @return the name of the database index
+	 */
+	public String getIndexName()
+	{
+		return indexName;
+	}
+
+	/**
+	 * Sets the name of the database index.
+	 *
+	 * @param indexName the new name of the database index
+	 */
+	public void setIndexName(String indexName)
+	{
+		this.indexName = indexName;
+	}
+
+	/**
+	 * Gets the status of the index.
+	 *
+	 * @return the status of the index
+	 */
+	public ExtensionIndexStatus getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * Sets the status of the index.
+	 *
+	 * @param status the new status of the index
+	 */
+	public void setStatus(ExtensionIndexStatus status)
+	{
+		this.status = status;
+	}
+
+	/**
+	 * Gets the error message of last failed operation.
+	 *
+	 * @return the error message of last failed operation
+	 */
+	public String getErrorMessage()
+	{
+		return errorMessage;
+	}
+
+	/**
+	 * Sets the error message of last failed operation.
+	 *
+	 * @param errorMessage the new error message of last failed operation
+	 */
+	public void setErrorMessage(String errorMessage)
+	{
+		this.errorMessage = errorMessage;
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository;
+
+import javax.persistence.Column;
+import javax.persistence.Table;
+
+import com.yukthi.persistence.annotations.UniqueConstraint;
+import com.yukthi.persistence.annotations.UniqueConstraints;
+
+/**
+ * Maintains version stamp of extension metadata (extensions and extension fields) of a user space. Stamp
+ * is changed whenever extension metadata of the space is modified, which is used by nodes to detect and invalidate
+ * stale cached metadata.
+ * 
+ * @author akiran
+ */
+@Table(name = "EXTENSION_VERSIONS")
+@UniqueConstraints({
+	@UniqueConstraint(name = "EXT_VER_SPACE", fields = {"spaceIdentity"})
+	})
+public class ExtensionVersionEntity extends WebutilsEntity
+{
+	/**
+	 * Current version stamp of extension metadata.
+	 */
+	@Column(name = "STAMP", nullable = false)
+	private Long stamp;
+	
+	/**
+	 * Instantiates a new extension version entity.
+	 */
+	public ExtensionVersionEntity()
+	{}
+
+	/**
+	 * Gets the current version stamp of extension metadata.
+	 *
+	 * @return the current version stamp of extension metadata
+	 */
+	public Long getStamp()
+	{
+		return stamp;
+	}
+
+	/**
+	 * Sets the current version stamp of extension metadata.
+	 *
+	 * @param stamp the new current version stamp of extension metadata
+	 */
+	public void setStamp(Long stamp)
+	{
+		this.stamp = stamp;
+	}
+}
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Set;
 
 import com.yukthi.persistence.repository.annotations.Condition;
+import com.yukthi.persistence.repository.annotations.CountFunction;
 import com.yukthi.persistence.repository.annotations.Field;
 import com.yukthi.persistence.repository.annotations.OrderBy;
 import com.yukthi.persistence.repository.search.SearchQuery;
@@ -107,4 +108,24 @@ public interface IExtensionFieldRepository extends IWebutilsRepository<Extension
 	@RestrictBySpace
 	@Field("columnName")
 	public Set<String> fetchUsedColumnNames(@Condition("extension.id") long extensionId);
+	
+	/**
+	 * Fetches target entity type of the extension of specified field.
+	 * @param id Field id
+	 * @return Target entity type
+	 */
+	@Field("extension.targetEntityType")
+	public String fetchTargetEntityType(@Condition("id") long id);
+	
+	/**
+	 * Fetches number of fields (across all user spaces) which are using specified column of specified entity type
+	 * with specified searchable flag.
+	 * @param entityType Target entity type
+	 * @param columnName Extension column name
+	 * @param searchable Searchable flag
+	 * @return Number of matching fields
+	 */
+	@CountFunction
+	public int fetchSearchableFieldCount(@Condition("extension.targetEntityType") String entityType, @Condition("columnName") String columnName, 
+			@Condition("searchable") boolean searchable);
 }
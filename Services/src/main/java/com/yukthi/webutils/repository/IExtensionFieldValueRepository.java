@@ -0,0 +1,61 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.yukthi.persistence.repository.annotations.Condition;
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.persistence.repository.search.SearchQuery;
+
+/**
+ * Repository for typed values of indexed extension fields.
+ * @author akiran
+ */
+public interface IExtensionFieldValueRepository extends IWebutilsRepository<ExtensionFieldValueEntity>
+{
+	/**
+	 * Deletes values of specified fields of specified entity.
+	 * @param fieldIds Fields whose values needs to be deleted
+	 * @param entityId Entity whose values needs to be deleted
+	 * @return Number of values deleted
+	 */
+	public int deleteFieldValues(@Condition(value = "field.id", op = Operator.IN) Collection<Long> fieldIds, @Condition("entityId") Long entityId);
+	
+	/**
+	 * Deletes all indexed values of specified entity.
+	 * @param entityType Type of the entity
+	 * @param entityId Entity whose values needs to be deleted
+	 * @return Number of values deleted
+	 */
+	public int deleteEntityValues(@Condition("entityType") String entityType, @Condition("entityId") Long entityId);
+	
+	/**
+	 * Fetches entities whose indexed values matches with specified query conditions.
+	 * @param searchQuery Query with conditions on field and typed value columns
+	 * @return Matching entity ids
+	 */
+	public List<ExtensionFieldValueMatch> searchMatchingEntities(SearchQuery searchQuery);
+}
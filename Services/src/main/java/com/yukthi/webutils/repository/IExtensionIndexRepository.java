@@ -0,0 +1,51 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository;
+
+import com.yukthi.persistence.repository.annotations.Condition;
+import com.yukthi.persistence.repository.annotations.Field;
+
+/**
+ * Repository for indexes maintained on extension columns.
+ * @author akiran
+ */
+public interface IExtensionIndexRepository extends IWebutilsRepository<ExtensionIndexEntity>
+{
+	/**
+	 * Fetches index maintained on specified column of specified entity type.
+	 * @param entityType Entity type
+	 * @param columnName Extension column name
+	 * @return Matching index, if any
+	 */
+	public ExtensionIndexEntity findIndex(@Condition("entityType") String entityType, @Condition("columnName") String columnName);
+	
+	/**
+	 * Updates status of specified index.
+	 * @param id Index id
+	 * @param status New status
+	 * @param errorMessage Error message, if any
+	 * @return True, if update was successful
+	 */
+	public boolean updateStatus(@Condition("id") Long id, @Field("status") ExtensionIndexStatus status, @Field("errorMessage") String errorMessage);
+}
@@ -0,0 +1,50 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository;
+
+import com.yukthi.persistence.repository.annotations.Condition;
+import com.yukthi.persistence.repository.annotations.Field;
+
+/**
+ * Repository for search result cache version stamps.
+ * @author akiran
+ */
+public interface ISearchCacheVersionRepository extends IWebutilsRepository<SearchCacheVersionEntity>
+{
+	/**
+	 * Fetches current version stamp of specified entity type.
+	 * @param entityType Entity type for which stamp needs to be fetched
+	 * @return Current stamp, null if entities of the type are never modified
+	 */
+	@Field("stamp")
+	public Long fetchStamp(@Condition("entityType") String entityType);
+	
+	/**
+	 * Updates version stamp of specified entity type.
+	 * @param entityType Entity type for which stamp needs to be updated
+	 * @param stamp New stamp
+	 * @return True, if stamp record exists and is updated
+	 */
+	public boolean updateStamp(@Condition("entityType") String entityType, @Field("stamp") Long stamp);
+}
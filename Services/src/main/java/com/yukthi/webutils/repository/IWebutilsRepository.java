@@ -1,11 +1,15 @@
 package com.yukthi.webutils.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import com.yukthi.persistence.ICrudRepository;
 import com.yukthi.persistence.repository.annotations.Condition;
 import com.yukthi.persistence.repository.annotations.ExtendedFieldNames;
+import com.yukthi.persistence.repository.annotations.Operator;
 import com.yukthi.persistence.repository.annotations.SearchResult;
+import com.yukthi.persistence.repository.search.SearchQuery;
 
 /**
  * Defines common repository methods with limitations on space.
@@ -22,6 +26,14 @@ public interface IWebutilsRepository<E extends WebutilsEntity> extends ICrudRepo
 	 */
 	public E findByIdAndUserSpace(@Condition("id") Object id, @Condition("spaceIdentity") String spaceIdentity);
 	
+	/**
+	 * Fetches entities with specified ids, restricting to specified space identity.
+	 * @param ids entity ids.
+	 * @param spaceIdentity Space identity string to which search should be restricted.
+	 * @return Matching entities.
+	 */
+	public List<E> findByIdsAndUserSpace(@Condition(value = "id", op = Operator.IN) Collection<Long> ids, @Condition("spaceIdentity") String spaceIdentity);
+	
 	/**
 	 * Fetches extended fields for specified entity id.
 	 * @param id Entity id for which extended fields needs to be fetched.
@@ -31,6 +43,23 @@ public interface IWebutilsRepository<E extends WebutilsEntity> extends ICrudRepo
 	@SearchResult
 	public ExtensionFieldsData fetchExtendedFields(@Condition("id") Object id, @ExtendedFieldNames Set<String> fieldNames);
 	
+	/**
+	 * Fetches extended fields of specified entities in single query.
+	 * @param ids Entity ids for which extended fields needs to be fetched.
+	 * @param fieldNames Extended field names to fetch
+	 * @return Extended fields of the entities, with entity ids.
+	 */
+	@SearchResult
+	public List<ExtensionFieldsData> fetchExtendedFieldsOfEntities(@Condition(value = "id", op = Operator.IN) Collection<Long> ids, @ExtendedFieldNames Set<String> fieldNames);
+	
+	/**
+	 * Fetches ids of entities matching specified query conditions. Used to evaluate conditions without fetching 
+	 * full results.
+	 * @param searchQuery Query with conditions on entity fields
+	 * @return Ids of matching entities
+	 */
+	public List<EntityIdResult> searchIds(SearchQuery searchQuery);
+	
 	/**
 	 * Updates the specified entity restricting to specified space identity.
 	 * @param entity Entity to update.
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository;
+
+import javax.persistence.Column;
+import javax.persistence.Table;
+
+import com.yukthi.persistence.annotations.UniqueConstraint;
+import com.yukthi.persistence.annotations.UniqueConstraints;
+
+/**
+ * Maintains version stamp of cached search results of an entity type. Stamp is changed whenever
+ * entities of the type are modified, which is used by nodes to detect and invalidate stale cached results.
+ * 
+ * @author akiran
+ */
+@Table(name = "SEARCH_CACHE_VERSIONS")
+@UniqueConstraints({
+	@UniqueConstraint(name = "SRCH_CACHE_VER_TYPE", fields = {"entityType"})
+	})
+public class SearchCacheVersionEntity extends WebutilsEntity
+{
+	/**
+	 * Entity type whose results version is maintained.
+	 */
+	@Column(name = "ENTITY_TYPE", length = 250, nullable = false)
+	private String entityType;
+	
+	/**
+	 * Current version stamp of search results.
+	 */
+	@Column(name = "STAMP", nullable = false)
+	private Long stamp;
+	
+	/**
+	 * Instantiates a new search cache version entity.
+	 */
+	public SearchCacheVersionEntity()
+	{}
+
+	/**
+	 * Gets the entity type whose results version is maintained.
+	 *
+	 * @return the entity type whose results version is maintained
+	 */
+	public String getEntityType()
+	{
+		return entityType;
+	}
+
+	/**
+	 * Sets the entity type whose results version is maintained.
+	 *
+	 * @param entityType the new entity type whose results version is maintained
+	 */
+	public void setEntityType(String entityType)
+	{
+		this.entityType = entityType;
+	}
+
+	/**
+	 * Gets the current version stamp of search results.
+	 *
+	 * @return the current version stamp of search results
+	 */
+	public Long getStamp()
+	{
+		return stamp;
+	}
+
+	/**
+	 * Sets the current version stamp of search results.
+	 *
+	 * @param stamp the new current version stamp of search results
+	 */
+	public void setStamp(Long stamp)
+	{
+		this.stamp = stamp;
+	}
+}
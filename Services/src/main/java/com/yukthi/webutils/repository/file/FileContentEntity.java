@@ -0,0 +1,188 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.file;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Table;
+
+import com.yukthi.persistence.annotations.DataType;
+import com.yukthi.persistence.annotations.DataTypeMapping;
+import com.yukthi.persistence.annotations.Index;
+import com.yukthi.persistence.annotations.Indexes;
+import com.yukthi.persistence.annotations.NotUpdateable;
+import com.yukthi.persistence.annotations.UniqueConstraint;
+import com.yukthi.persistence.annotations.UniqueConstraints;
+import com.yukthi.webutils.repository.WebutilsEntity;
+
+/**
+ * Content maintained in content store, shared by all files (across user spaces) having same content. Files
+ * refer to the content by content key. References are not counted on this record, they are counted from
+ * file records when needed. Release time is maintained, so that released contents which are no more referred by any
+ * file are removed by background sweep.
+ * 
+ * @author akiran
+ */
+@Table(name = "FILE_CONTENT")
+@UniqueConstraints({
+	@UniqueConstraint(name = "FILE_CONTENT_KEY", fields = {"contentKey"})
+	})
+@Indexes({
+	@Index(name = "FILE_CONTENT_HASH_IDX", fields = {"contentHash"}),
+	@Index(name = "FILE_CONTENT_RELEASED_IDX", fields = {"releasedOn"})
+	})
+public class FileContentEntity extends WebutilsEntity
+{
+	/**
+	 * SHA-256 hash (hex) of the content. Null for contents stored before deduplication, which are recorded
+	 * only when they are released. Hash is not unique, as same content stored concurrently can result in multiple
+	 * records, each of which can be reused.
+	 */
+	@NotUpdateable
+	@Column(name = "CONTENT_HASH", length = 100)
+	private String contentHash;
+	
+	/**
+	 * Key of the content in content store.
+	 */
+	@NotUpdateable
+	@Column(name = "CONTENT_KEY", nullable = false, length = 100)
+	private String contentKey;
+	
+	/**
+	 * Size of the content in bytes.
+	 */
+	@NotUpdateable
+	@Column(name = "SIZE_IN_BYTES", nullable = false)
+	private long sizeInBytes;
+	
+	/**
+	 * Time at which a reference to this content was last released. Null if content is not released after it
+	 * was last acquired.
+	 */
+	@Column(name = "RELEASED_ON")
+	@DataTypeMapping(type = DataType.DATE_TIME)
+	private Date releasedOn;
+	
+	/**
+	 * Instantiates a new file content entity.
+	 */
+	public FileContentEntity()
+	{}
+
+	/**
+	 * Instantiates a new file content entity.
+	 *
+	 * @param contentHash the content hash
+	 * @param contentKey the content key
+	 * @param sizeInBytes the size in bytes
+	 */
+	public FileContentEntity(String contentHash, String contentKey, long sizeInBytes)
+	{
+		this.contentHash = contentHash;
+		this.contentKey = contentKey;
+		this.sizeInBytes = sizeInBytes;
+	}
+
+	/**
+	 * Gets the SHA-256 hash (hex) of the content.
+	 *
+	 * @return the SHA-256 hash (hex) of the content
+	 */
+	public String getContentHash()
+	{
+		return contentHash;
+	}
+
+	/**
+	 * Sets the SHA-256 hash (hex) of the content.
+	 *
+	 * @param contentHash the new SHA-256 hash (hex) of the content
+	 */
+	public void setContentHash(String contentHash)
+	{
+		this.contentHash = contentHash;
+	}
+
+	/**
+	 * Gets the key of the content in content store.
+	 *
+	 * @return the key of the content in content store
+	 */
+	public String getContentKey()
+	{
+		return contentKey;
+	}
+
+	/**
+	 * Sets the key of the content in content store.
+	 *
+	 * @param contentKey the new key of the content in content store
+	 */
+	public void setContentKey(String contentKey)
+	{
+		this.contentKey = contentKey;
+	}
+
+	/**
+	 * Gets the size of the content in bytes.
+	 *
+	 * @return the size of the content in bytes
+	 */
+	public long getSizeInBytes()
+	{
+		return sizeInBytes;
+	}
+
+	/**
+	 * Sets the size of the content in bytes.
+	 *
+	 * @param sizeInBytes the new size of the content in bytes
+	 */
+	public void setSizeInBytes(long sizeInBytes)
+	{
+		this.sizeInBytes = sizeInBytes;
+	}
+
+	/**
+	 * Gets the time at which a reference to this content was last released.
+	 *
+	 * @return the time at which a reference to this content was last released
+	 */
+	public Date getReleasedOn()
+	{
+		return releasedOn;
+	}
+
+	/**
+	 * Sets the time at which a reference to this content was last released.
+	 *
+	 * @param releasedOn the new time at which a reference to this content was last released
+	 */
+	public void setReleasedOn(Date releasedOn)
+	{
+		this.releasedOn = releasedOn;
+	}
+}
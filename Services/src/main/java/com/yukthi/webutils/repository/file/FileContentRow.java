@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.file;
+
+import com.yukthi.persistence.repository.annotations.Field;
+
+/**
+ * Search result bean to fetch file id along with its content key, without loading file content.
+ * @author akiran
+ */
+public class FileContentRow
+{
+	/**
+	 * Id of the file.
+	 */
+	@Field("id")
+	private long id;
+	
+	/**
+	 * Content store key of the file. Null, if content is maintained in db.
+	 */
+	@Field("contentKey")
+	private String contentKey;
+
+	/**
+	 * Gets the id of the file.
+	 *
+	 * @return the id of the file
+	 */
+	public long getId()
+	{
+		return id;
+	}
+
+	/**
+	 * Sets the id of the file.
+	 *
+	 * @param id the new id of the file
+	 */
+	public void setId(long id)
+	{
+		this.id = id;
+	}
+
+	/**
+	 * Gets the content store key of the file.
+	 *
+	 * @return the content store key of the file
+	 */
+	public String getContentKey()
+	{
+		return contentKey;
+	}
+
+	/**
+	 * Sets the content store key of the file.
+	 *
+	 * @param contentKey the new content store key of the file
+	 */
+	public void setContentKey(String contentKey)
+	{
+		this.contentKey = contentKey;
+	}
+}
@@ -41,7 +41,8 @@ import com.yukthi.webutils.repository.WebutilsEntity;
  * @author akiran
  */
 @Indexes({
-	@Index(name = "FILE_OWNER_IDX", fields = {"ownerEntityType", "ownerEntityId"})
+	@Index(name = "FILE_OWNER_IDX", fields = {"ownerEntityType", "ownerEntityId"}),
+	@Index(name = "FILE_CONTENT_KEY_IDX", fields = {"contentKey"})
 	})
 @Table(name = "FILE_ENTITY")
 public class FileEntity extends WebutilsEntity
@@ -53,12 +54,24 @@ public class FileEntity extends WebutilsEntity
 	private String fileName;
 
 	/**
-	 * File content
+	 * File content. Null when the content is maintained in external content store.
 	 */
 	@DataTypeMapping(type = DataType.BLOB)
-	@Column(name = "FILE", nullable = false)
+	@Column(name = "FILE")
 	private File file;
 	
+	/**
+	 * Key of the content in external content store. Null, if content is maintained in db.
+	 */
+	@Column(name = "CONTENT_KEY", length = 100)
+	private String contentKey;
+	
+	/**
+	 * SHA-256 hash (hex) of the file content. Null for files saved before hashes were maintained.
+	 */
+	@Column(name = "CONTENT_HASH", length = 100)
+	private String contentHash;
+	
 	/**
 	 * Size of the file in MB
 	 */
@@ -183,6 +196,46 @@ public class FileEntity extends WebutilsEntity
 		this.file = file;
 	}
 
+	/**
+	 * Gets the key of the content in external content store.
+	 *
+	 * @return the key of the content in external content store
+	 */
+	public String getContentKey()
+	{
+		return contentKey;
+	}
+
+	/**
+	 * Sets the key of the content in external content store.
+	 *
+	 * @param contentKey the new key of the content in external content store
+	 */
+	public void setContentKey(String contentKey)
+	{
+		this.contentKey = contentKey;
+	}
+
+	/**
+	 * Gets the SHA-256 hash (hex) of the file content.
+	 *
+	 * @return the SHA-256 hash (hex) of the file content
+	 */
+	public String getContentHash()
+	{
+		return contentHash;
+	}
+
+	/**
+	 * Sets the SHA-256 hash (hex) of the file content.
+	 *
+	 * @param contentHash the new SHA-256 hash (hex) of the file content
+	 */
+	public void setContentHash(String contentHash)
+	{
+		this.contentHash = contentHash;
+	}
+
 	/**
 	 * Gets the size of the file in MB.
 	 *
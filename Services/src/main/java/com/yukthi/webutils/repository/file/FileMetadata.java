@@ -0,0 +1,580 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.file;
+
+import java.util.Date;
+
+import com.yukthi.persistence.repository.annotations.Field;
+import com.yukthi.webutils.repository.UserEntity;
+import com.yukthi.webutils.utils.WebUtils;
+
+/**
+ * Search result bean to fetch file details without loading file content. Used to serve conditional
+ * requests and authorization checks without reading the content.
+ * @author akiran
+ */
+public class FileMetadata
+{
+	/**
+	 * Id of the file.
+	 */
+	@Field("id")
+	private Long id;
+	
+	/**
+	 * Version of the file.
+	 */
+	@Field("version")
+	private Integer version;
+	
+	/**
+	 * Name of the file.
+	 */
+	@Field("fileName")
+	private String fileName;
+	
+	/**
+	 * Content type of the file.
+	 */
+	@Field("contentType")
+	private String contentType;
+	
+	/**
+	 * Size of the file.
+	 */
+	@Field("sizeInMb")
+	private long sizeInMb;
+	
+	/**
+	 * Content store key of the file.
+	 */
+	@Field("contentKey")
+	private String contentKey;
+	
+	/**
+	 * Hash of the file content.
+	 */
+	@Field("contentHash")
+	private String contentHash;
+	
+	/**
+	 * Owner entity type.
+	 */
+	@Field("ownerEntityType")
+	private String ownerEntityType;
+	
+	/**
+	 * Owner entity field name.
+	 */
+	@Field("ownerEntityField")
+	private String ownerEntityField;
+	
+	/**
+	 * Owner entity id.
+	 */
+	@Field("ownerEntityId")
+	private Long ownerEntityId;
+	
+	/**
+	 * Custom attribute 1.
+	 */
+	@Field("customAttribute1")
+	private String customAttribute1;
+	
+	/**
+	 * Custom attribute 2.
+	 */
+	@Field("customAttribute2")
+	private String customAttribute2;
+	
+	/**
+	 * Custom attribute 3.
+	 */
+	@Field("customAttribute3")
+	private String customAttribute3;
+	
+	/**
+	 * Custom attribute 4.
+	 */
+	@Field("customAttribute4")
+	private String customAttribute4;
+	
+	/**
+	 * Custom attribute 5.
+	 */
+	@Field("customAttribute5")
+	private String customAttribute5;
+	
+	/**
+	 * Space identity of the file.
+	 */
+	@Field("spaceIdentity")
+	private String spaceIdentity;
+	
+	/**
+	 * Time at which file is created.
+	 */
+	@Field("createdOn")
+	private Date createdOn;
+	
+	/**
+	 * Id of the user who created the file.
+	 */
+	@Field("createdBy.id")
+	private Long createdById;
+	
+	/**
+	 * Time at which file is last updated.
+	 */
+	@Field("updatedOn")
+	private Date updatedOn;
+	
+	/**
+	 * Id of the user who last updated the file.
+	 */
+	@Field("updatedBy.id")
+	private Long updatedById;
+
+	/**
+	 * Gets the id of the file.
+	 *
+	 * @return the id of the file
+	 */
+	public Long getId()
+	{
+		return id;
+	}
+
+	/**
+	 * Sets the id of the file.
+	 *
+	 * @param id the new id of the file
+	 */
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	/**
+	 * Gets the version of the file.
+	 *
+	 * @return the version of the file
+	 */
+	public Integer getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * Sets the version of the file.
+	 *
+	 * @param version the new version of the file
+	 */
+	public void setVersion(Integer version)
+	{
+		this.version = version;
+	}
+
+	/**
+	 * Gets the name of the file.
+	 *
+	 * @return the name of the file
+	 */
+	public String getFileName()
+	{
+		return fileName;
+	}
+
+	/**
+	 * Sets the name of the file.
+	 *
+	 * @param fileName the new name of the file
+	 */
+	public void setFileName(String fileName)
+	{
+		this.fileName = fileName;
+	}
+
+	/**
+	 * Gets the content type of the file.
+	 *
+	 * @return the content type of the file
+	 */
+	public String getContentType()
+	{
+		return contentType;
+	}
+
+	/**
+	 * Sets the content type of the file.
+	 *
+	 * @param contentType the new content type of the file
+	 */
+	public void setContentType(String contentType)
+	{
+		this.contentType = contentType;
+	}
+
+	/**
+	 * Gets the size of the file.
+	 *
+	 * @return the size of the file
+	 */
+	public long getSizeInMb()
+	{
+		return sizeInMb;
+	}
+
+	/**
+	 * Sets the size of the file.
+	 *
+	 * @param sizeInMb the new size of the file
+	 */
+	public void setSizeInMb(long sizeInMb)
+	{
+		this.sizeInMb = sizeInMb;
+	}
+
+	/**
+	 * Gets the content store key of the file.
+	 *
+	 * @return the content store key of the file
+	 */
+	public String getContentKey()
+	{
+		return contentKey;
+	}
+
+	/**
+	 * Sets the content store key of the file.
+	 *
+	 * @param contentKey the new content store key of the file
+	 */
+	public void setContentKey(String contentKey)
+	{
+		this.contentKey = contentKey;
+	}
+
+	/**
+	 * Gets the hash of the file content.
+	 *
+	 * @return the hash of the file content
+	 */
+	public String getContentHash()
+	{
+		return contentHash;
+	}
+
+	/**
+	 * Sets the hash of the file content.
+	 *
+	 * @param contentHash the new hash of the file content
+	 */
+	public void setContentHash(String contentHash)
+	{
+		this.contentHash = contentHash;
+	}
+
+	/**
+	 * Gets the owner entity type.
+	 *
+	 * @return the owner entity type
+	 */
+	public String getOwnerEntityType()
+	{
+		return ownerEntityType;
+	}
+
+	/**
+	 * Sets the owner entity type.
+	 *
+	 * @param ownerEntityType the new owner entity type
+	 */
+	public void setOwnerEntityType(String ownerEntityType)
+	{
+		this.ownerEntityType = ownerEntityType;
+	}
+
+	/**
+	 * Gets the owner entity field name.
+	 *
+	 * @return the owner entity field name
+	 */
+	public String getOwnerEntityField()
+	{
+		return ownerEntityField;
+	}
+
+	/**
+	 * Sets the owner entity field name.
+	 *
+	 * @param ownerEntityField the new owner entity field name
+	 */
+	public void setOwnerEntityField(String ownerEntityField)
+	{
+		this.ownerEntityField = ownerEntityField;
+	}
+
+	/**
+	 * Gets the owner entity id.
+	 *
+	 * @return the owner entity id
+	 */
+	public Long getOwnerEntityId()
+	{
+		return ownerEntityId;
+	}
+
+	/**
+	 * Sets the owner entity id.
+	 *
+	 * @param ownerEntityId the new owner entity id
+	 */
+	public void setOwnerEntityId(Long ownerEntityId)
+	{
+		this.ownerEntityId = ownerEntityId;
+	}
+
+	/**
+	 * Gets the custom attribute 1.
+	 *
+	 * @return the custom attribute 1
+	 */
+	public String getCustomAttribute1()
+	{
+		return customAttribute1;
+	}
+
+	/**
+	 * Sets the custom attribute 1.
+	 *
+	 * @param customAttribute1 the new custom attribute 1
+	 */
+	public void setCustomAttribute1(String customAttribute1)
+	{
+		this.customAttribute1 = customAttribute1;
+	}
+
+	/**
+	 * Gets the custom attribute 2.
+	 *
+	 * @return the custom attribute 2
+	 */
+	public String getCustomAttribute2()
+	{
+		return customAttribute2;
+	}
+
+	/**
+	 * Sets the custom attribute 2.
+	 *
+	 * @param customAttribute2 the new custom attribute 2
+	 */
+	public void setCustomAttribute2(String customAttribute2)
+	{
+		this.customAttribute2 = customAttribute2;
+	}
+
+	/**
+	 * Gets the custom attribute 3.
+	 *
+	 * @return the custom attribute 3
+	 */
+	public String getCustomAttribute3()
+	{
+		return customAttribute3;
+	}
+
+	/**
+	 * Sets the custom attribute 3.
+	 *
+	 * @param customAttribute3 the new custom attribute 3
+	 */
+	public void setCustomAttribute3(String customAttribute3)
+	{
+		this.customAttribute3 = customAttribute3;
+	}
+
+	/**
+	 * Gets the custom attribute 4.
+	 *
+	 * @return the custom attribute 4
+	 */
+	public String getCustomAttribute4()
+	{
+		return customAttribute4;
+	}
+
+	/**
+	 * Sets the custom attribute 4.
+	 *
+	 * @param customAttribute4 the new custom attribute 4
+	 */
+	public void setCustomAttribute4(String customAttribute4)
+	{
+		this.customAttribute4 = customAttribute4;
+	}
+
+	/**
+	 * Gets the custom attribute 5.
+	 *
+	 * @return the custom attribute 5
+	 */
+	public String getCustomAttribute5()
+	{
+		return customAttribute5;
+	}
+
+	/**
+	 * Sets the custom attribute 5.
+	 *
+	 * @param customAttribute5 the new custom attribute 5
+	 */
+	public void setCustomAttribute5(String customAttribute5)
+	{
+		this.customAttribute5 = customAttribute5;
+	}
+
+	/**
+	 * Gets the space identity of the file.
+	 *
+	 * @return the space identity of the file
+	 */
+	public String getSpaceIdentity()
+	{
+		return spaceIdentity;
+	}
+
+	/**
+	 * Sets the space identity of the file.
+	 *
+	 * @param spaceIdentity the new space identity of the file
+	 */
+	public void setSpaceIdentity(String spaceIdentity)
+	{
+		this.spaceIdentity = spaceIdentity;
+	}
+
+	/**
+	 * Gets the time at which file is created.
+	 *
+	 * @return the time at which file is created
+	 */
+	public Date getCreatedOn()
+	{
+		return createdOn;
+	}
+
+	/**
+	 * Sets the time at which file is created.
+	 *
+	 * @param createdOn the new time at which file is created
+	 */
+	public void setCreatedOn(Date createdOn)
+	{
+		this.createdOn = createdOn;
+	}
+
+	/**
+	 * Gets the time at which file is last updated.
+	 *
+	 * @return the time at which file is last updated
+	 */
+	public Date getUpdatedOn()
+	{
+		return updatedOn;
+	}
+
+	/**
+	 * Sets the time at which file is last updated.
+	 *
+	 * @param updatedOn the new time at which file is last updated
+	 */
+	public void setUpdatedOn(Date updatedOn)
+	{
+		this.updatedOn = updatedOn;
+	}
+
+	/**
+	 * Gets the id of the user who created the file.
+	 *
+	 * @return the id of the user who created the file
+	 */
+	public Long getCreatedById()
+	{
+		return createdById;
+	}
+
+	/**
+	 * Sets the id of the user who created the file.
+	 *
+	 * @param createdById the new id of the user who created the file
+	 */
+	public void setCreatedById(Long createdById)
+	{
+		this.createdById = createdById;
+	}
+
+	/**
+	 * Gets the id of the user who last updated the file.
+	 *
+	 * @return the id of the user who last updated the file
+	 */
+	public Long getUpdatedById()
+	{
+		return updatedById;
+	}
+
+	/**
+	 * Sets the id of the user who last updated the file.
+	 *
+	 * @param updatedById the new id of the user who last updated the file
+	 */
+	public void setUpdatedById(Long updatedById)
+	{
+		this.updatedById = updatedById;
+	}
+	
+	/**
+	 * Converts these details into file entity, without content, which can be used for authorization checks. 
+	 * Creating and updating users are populated with their ids alone.
+	 * @return File entity with these details
+	 */
+	public FileEntity toFileEntity()
+	{
+		FileEntity fileEntity = WebUtils.convertBean(this, FileEntity.class);
+		
+		if(createdById != null)
+		{
+			fileEntity.setCreatedBy(new UserEntity(createdById));
+		}
+		
+		if(updatedById != null)
+		{
+			fileEntity.setUpdatedBy(new UserEntity(updatedById));
+		}
+		
+		return fileEntity;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.file;
+
+import java.util.Date;
+import java.util.List;
+
+import com.yukthi.persistence.repository.annotations.Condition;
+import com.yukthi.persistence.repository.annotations.Field;
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.persistence.repository.search.SearchQuery;
+import com.yukthi.webutils.repository.IWebutilsRepository;
+
+/**
+ * Repository for shared file contents.
+ * @author akiran
+ */
+public interface IFileContentRepository extends IWebutilsRepository<FileContentEntity>
+{
+	/**
+	 * Fetches contents with specified hash.
+	 * @param contentHash Content hash
+	 * @return Matching contents
+	 */
+	public List<FileContentEntity> findByContentHash(@Condition("contentHash") String contentHash);
+	
+	/**
+	 * Fetches content with specified content store key.
+	 * @param contentKey Content store key
+	 * @return Matching content, if any
+	 */
+	public FileContentEntity findByContentKey(@Condition("contentKey") String contentKey);
+	
+	/**
+	 * Updates release time of specified content. Used with null release time, to mark content as referenced.
+	 * @param id Id of the content
+	 * @param releasedOn Release time to set
+	 * @return True, if content exists and is updated
+	 */
+	public boolean updateReleasedOn(@Condition("id") long id, @Field("releasedOn") Date releasedOn);
+	
+	/**
+	 * Updates release time of content with specified content store key.
+	 * @param contentKey Content store key
+	 * @param releasedOn Release time to set
+	 * @return True, if content exists and is updated
+	 */
+	public boolean updateReleasedOnByKey(@Condition("contentKey") String contentKey, @Field("releasedOn") Date releasedOn);
+	
+	/**
+	 * Clears release time of specified content, only if it was not modified after it was read. Used by sweep for
+	 * released contents which are still referred.
+	 * @param id Id of the content
+	 * @param currentReleasedOn Release time read by sweep
+	 * @param releasedOn Release time to set, expected to be null
+	 * @return True, if update was successful
+	 */
+	public boolean clearReleasedOn(@Condition("id") long id, @Condition("releasedOn") Date currentReleasedOn, 
+			@Field("releasedOn") Date releasedOn);
+	
+	/**
+	 * Deletes specified content, only if it was released before specified time. Content acquired in the
+	 * mean time will have release time cleared and will not be deleted.
+	 * @param id Id of the content
+	 * @param releasedBefore Time before which content should have been released
+	 * @return Number of contents deleted
+	 */
+	public int deleteReleased(@Condition("id") long id, @Condition(value = "releasedOn", op = Operator.LT) Date releasedBefore);
+	
+	/**
+	 * Fetches contents matching with specified query.
+	 * @param searchQuery Query to execute
+	 * @return Matching contents
+	 */
+	public List<FileContentEntity> searchContents(SearchQuery searchQuery);
+}
@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.file;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Store to maintain file contents outside of database. When a content store is configured, {@link FileEntity}
+ * maintains only file metadata along with the key of the content in this store.
+ * @author akiran
+ */
+public interface IFileContentStore
+{
+	/**
+	 * Stores content of specified file and returns the key with which content can be fetched later.
+	 * Specified file is not modified by this method.
+	 * @param content File whose content needs to be stored.
+	 * @return Key of the stored content.
+	 * @throws IOException If content could not be stored.
+	 */
+	public String store(File content) throws IOException;
+	
+	/**
+	 * Fetches the file holding content with specified key. Returned file is owned by the store and should be
+	 * treated as read-only by callers (should not be modified or deleted).
+	 * @param contentKey Key of the content to fetch.
+	 * @return File holding the content, null if no content exists with specified key.
+	 * @throws IOException If content could not be fetched.
+	 */
+	public File fetch(String contentKey) throws IOException;
+	
+	/**
+	 * Deletes the content with specified key.
+	 * @param contentKey Key of the content to delete.
+	 * @return True, if content was found and deleted.
+	 * @throws IOException If content could not be deleted.
+	 */
+	public boolean delete(String contentKey) throws IOException;
+	
+	/**
+	 * Directory in which uploaded files should be received, so that the store can take over their content
+	 * cheaply (for example, without copying). Default implementation returns null, indicating default temp directory
+	 * should be used.
+	 * @return Staging directory, can be null
+	 */
+	public default File getStagingDirectory()
+	{
+		return null;
+	}
+}
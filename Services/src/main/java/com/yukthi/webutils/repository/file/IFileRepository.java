@@ -23,6 +23,8 @@
 
 package com.yukthi.webutils.repository.file;
 
+import java.io.File;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -32,6 +34,7 @@ import com.yukthi.persistence.repository.annotations.Field;
 import com.yukthi.persistence.repository.annotations.MethodConditions;
 import com.yukthi.persistence.repository.annotations.Operator;
 import com.yukthi.persistence.repository.annotations.SearchResult;
+import com.yukthi.persistence.repository.search.SearchQuery;
 import com.yukthi.webutils.common.FileInfo;
 import com.yukthi.webutils.repository.IWebutilsRepository;
 
@@ -57,6 +60,15 @@ public interface IFileRepository extends IWebutilsRepository<FileEntity>
 	 */
 	@SearchResult
 	public FileInfo fetchFileInfo(@Condition("id") long id, @Condition("spaceIdentity") String spaceIdentity);
+	
+	/**
+	 * Fetches file details, without content, for specified id.
+	 * @param id Id for which details needs to be fetched
+	 * @param spaceIdentity Space to which operation should be restricted
+	 * @return Matching file details
+	 */
+	@SearchResult
+	public FileMetadata fetchFileMetadata(@Condition("id") long id, @Condition("spaceIdentity") String spaceIdentity);
 
 	/**
 	 * Fetches file information list based on specified owner details.
@@ -81,6 +93,39 @@ public interface IFileRepository extends IWebutilsRepository<FileEntity>
 	public FileEntity fetchEntityByOwner(@Condition("ownerEntityType") String ownerEntityType, 
 			@Condition("ownerEntityField") String ownerEntityField, @Condition("ownerEntityId") Long ownerEntityId, @Condition("spaceIdentity") String spaceIdentity);
 
+	/**
+	 * Fetches file details, without content, based on specified owner details.
+	 * @param ownerEntityType Owner entity type
+	 * @param ownerEntityField Owner entity field
+	 * @param ownerEntityId Owner entity id
+	 * @param spaceIdentity Space to which operation should be restricted
+	 * @return Matching file details
+	 */
+	@SearchResult
+	public FileMetadata fetchMetadataByOwner(@Condition("ownerEntityType") String ownerEntityType, 
+			@Condition("ownerEntityField") String ownerEntityField, @Condition("ownerEntityId") Long ownerEntityId, @Condition("spaceIdentity") String spaceIdentity);
+	
+	/**
+	 * Fetches file details, without content, of specified owners. Used to read files of multiple entities in bulk.
+	 * @param ownerEntityType Owner entity type
+	 * @param ownerEntityField Owner entity field
+	 * @param ownerEntityIds Owner entity ids
+	 * @param spaceIdentity Space to which operation should be restricted
+	 * @return Matching file details
+	 */
+	@SearchResult
+	public List<FileMetadata> fetchMetadataByOwners(@Condition("ownerEntityType") String ownerEntityType, 
+			@Condition("ownerEntityField") String ownerEntityField, @Condition(value = "ownerEntityId", op = Operator.IN) Collection<Long> ownerEntityIds, 
+			@Condition("spaceIdentity") String spaceIdentity);
+	
+	/**
+	 * Fetches content of specified file maintained in db, into temp file. Other columns are not read.
+	 * @param id Id of the file
+	 * @return Temp file with content, null if file does not exist or content is not maintained in db
+	 */
+	@Field("file")
+	public File fetchContent(@Condition("id") long id);
+
 	/**
 	 * Fetches file ids of specified owner.
 	 * @param ownerEntityType Owner entity type
@@ -138,4 +183,61 @@ public interface IFileRepository extends IWebutilsRepository<FileEntity>
 	 */
 	@MethodConditions(conditions = @DefaultCondition(field = "ownerEntityId", value = "0"))
 	public void deleteTempFiles(@Condition(value = "createdOn", op = Operator.GE) Date createdAfter);
+	
+	/**
+	 * Fetches content store key of specified file.
+	 * @param id Id of the file
+	 * @return Content key, null if content is maintained in db
+	 */
+	@Field("contentKey")
+	public String fetchContentKey(@Condition("id") long id);
+	
+	/**
+	 * Fetches content store keys of files of specified owner.
+	 * @param ownerEntityType Owner entity type
+	 * @param ownerEntityField Owner entity field
+	 * @param ownerEntityId Owner entity id
+	 * @param spaceIdentity Space to which operation should be restricted
+	 * @return Content keys of matching files (null for files whose content is in db)
+	 */
+	@Field("contentKey")
+	public List<String> fetchContentKeysByOwner(@Condition("ownerEntityType") String ownerEntityType, 
+			@Condition("ownerEntityField") String ownerEntityField, @Condition("ownerEntityId") Long ownerEntityId, @Condition("spaceIdentity") String spaceIdentity);
+	
+	/**
+	 * Fetches content store keys of temp files which are created after specified date and time.
+	 * @param createdAfter Date/time after which temp files created should be fetched.
+	 * @return Content keys of matching files (null for files whose content is in db)
+	 */
+	@Field("contentKey")
+	@MethodConditions(conditions = @DefaultCondition(field = "ownerEntityId", value = "0"))
+	public List<String> fetchTempFileContentKeys(@Condition(value = "createdOn", op = Operator.GE) Date createdAfter);
+	
+	/**
+	 * Fetches content keys of files referring to any of specified contents, across user spaces. Key is
+	 * returned once per referring file, so that references of a batch of contents are counted in single query.
+	 * @param contentKeys Content store keys
+	 * @return Content keys of referring files
+	 */
+	@Field("contentKey")
+	public List<String> fetchReferredContentKeys(@Condition(value = "contentKey", op = Operator.IN) Collection<String> contentKeys);
+	
+	/**
+	 * Fetches id and content key of files matching with specified query. Used to scan files without
+	 * loading their content.
+	 * @param searchQuery Query to execute
+	 * @return Matching file rows
+	 */
+	public List<FileContentRow> searchContentRows(SearchQuery searchQuery);
+	
+	/**
+	 * Updates content key, content hash and db content of specified file.
+	 * @param id Id of the file
+	 * @param contentKey Content key to set
+	 * @param contentHash Content hash to set
+	 * @param file Db content to set, null to clear db content
+	 * @return True if update was successful
+	 */
+	public boolean updateContentKey(@Condition("id") long id, @Field("contentKey") String contentKey, 
+			@Field("contentHash") String contentHash, @Field("file") File file);
 }
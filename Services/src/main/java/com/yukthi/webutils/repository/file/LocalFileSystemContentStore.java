@@ -0,0 +1,248 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.yukthi.utils.exceptions.InvalidConfigurationException;
+import com.yukthi.utils.exceptions.InvalidStateException;
+
+/**
+ * Content store which maintains file contents on local (or mounted) file system. Contents are sharded into
+ * two levels of sub-directories based on key prefix (ab/cd/abcd...), so that no single directory grows too big.
+ * Content is first written to a temp file in target directory and then moved to final name atomically, so that
+ * partially written content is never visible. Files received in staging directory are hard linked into the store,
+ * instead of copying the content.
+ * @author akiran
+ */
+public class LocalFileSystemContentStore implements IFileContentStore
+{
+	private static Logger logger = LogManager.getLogger(LocalFileSystemContentStore.class);
+	
+	/**
+	 * Number of key characters used for single shard directory name.
+	 */
+	private static final int SHARD_NAME_LENGTH = 2;
+	
+	/**
+	 * Pattern of valid content keys. Used to ensure keys cannot be used to access files outside the store.
+	 */
+	private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{32}");
+	
+	/**
+	 * Name of the staging directory under root directory.
+	 */
+	private static final String STAGING_DIRECTORY = "staging";
+	
+	/**
+	 * Root directory under which contents are maintained.
+	 */
+	private final File rootDirectory;
+	
+	/**
+	 * Directory in which uploaded files are received, on same file system as contents.
+	 */
+	private final File stagingDirectory;
+	
+	/**
+	 * Instantiates a new local file system content store.
+	 *
+	 * @param rootDirectory Root directory under which contents should be maintained. Will be created if does not exist.
+	 */
+	public LocalFileSystemContentStore(File rootDirectory)
+	{
+		if(!rootDirectory.exists() && !rootDirectory.mkdirs())
+		{
+			throw new InvalidConfigurationException("Failed to create file store directory - {}", rootDirectory.getPath());
+		}
+		
+		if(!rootDirectory.isDirectory())
+		{
+			throw new InvalidConfigurationException("Specified file store path is not a directory - {}", rootDirectory.getPath());
+		}
+		
+		this.rootDirectory = rootDirectory;
+		this.stagingDirectory = new File(rootDirectory, STAGING_DIRECTORY);
+		
+		if(!stagingDirectory.exists() && !stagingDirectory.mkdirs())
+		{
+			throw new InvalidConfigurationException("Failed to create file store staging directory - {}", stagingDirectory.getPath());
+		}
+	}
+	
+	/**
+	 * Gets the root directory under which contents are maintained.
+	 *
+	 * @return the root directory under which contents are maintained
+	 */
+	public File getRootDirectory()
+	{
+		return rootDirectory;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.repository.file.IFileContentStore#getStagingDirectory()
+	 */
+	@Override
+	public File getStagingDirectory()
+	{
+		return stagingDirectory;
+	}
+	
+	/**
+	 * Links specified staged file into specified temp path, and ensures content reached the disk.
+	 * @param content Staged file
+	 * @param tempFile Temp path to link
+	 * @return True if linking was successful. False if linking is not supported, in which case content should be copied.
+	 */
+	private boolean linkStagedFile(File content, Path tempFile)
+	{
+		if(!stagingDirectory.equals(content.getAbsoluteFile().getParentFile()))
+		{
+			return false;
+		}
+		
+		try
+		{
+			Files.createLink(tempFile, content.toPath());
+			
+			try(FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE))
+			{
+				channel.force(true);
+			}
+			
+			return true;
+		} catch(IOException | UnsupportedOperationException ex)
+		{
+			logger.debug("Failed to link staged file {}. Content will be copied. Error: {}", content.getPath(), ex.getMessage());
+			return false;
+		}
+	}
+	
+	/**
+	 * Copies content of specified file into specified temp path, and ensures content reached the disk.
+	 * @param content File to copy
+	 * @param tempFile Temp file to write
+	 * @throws IOException If copy fails
+	 */
+	private void copyContent(File content, Path tempFile) throws IOException
+	{
+		try(FileChannel source = FileChannel.open(content.toPath(), StandardOpenOption.READ);
+			FileChannel dest = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			long size = source.size();
+			long position = 0;
+			
+			while(position < size)
+			{
+				position += dest.transferFrom(source, position, size - position);
+			}
+			
+			//ensure content reached the disk before making it visible
+			dest.force(true);
+		}
+	}
+	
+	/**
+	 * Converts specified content key into target file path.
+	 * @param contentKey Content key to convert
+	 * @return File in which content is maintained
+	 */
+	private File toFile(String contentKey)
+	{
+		if(contentKey == null || !KEY_PATTERN.matcher(contentKey).matches())
+		{
+			throw new InvalidStateException("Invalid content key specified - {}", contentKey);
+		}
+		
+		File shardDirectory = new File(rootDirectory, contentKey.substring(0, SHARD_NAME_LENGTH));
+		shardDirectory = new File(shardDirectory, contentKey.substring(SHARD_NAME_LENGTH, SHARD_NAME_LENGTH * 2));
+		
+		return new File(shardDirectory, contentKey);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.repository.file.IFileContentStore#store(java.io.File)
+	 */
+	@Override
+	public String store(File content) throws IOException
+	{
+		String contentKey = UUID.randomUUID().toString().replace("-", "");
+		Path target = toFile(contentKey).toPath();
+		Path shardDirectory = target.getParent();
+		
+		Files.createDirectories(shardDirectory);
+		
+		//write to temp file in target directory, so that final move does not cross file systems
+		Path tempFile = shardDirectory.resolve(contentKey + ".tmp");
+		
+		try
+		{
+			if(!linkStagedFile(content, tempFile))
+			{
+				copyContent(content, tempFile);
+			}
+			
+			Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+		} catch(IOException | RuntimeException ex)
+		{
+			Files.deleteIfExists(tempFile);
+			throw ex;
+		}
+		
+		logger.trace("Stored content of file {} with key - {}", content.getPath(), contentKey);
+		return contentKey;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.repository.file.IFileContentStore#fetch(java.lang.String)
+	 */
+	@Override
+	public File fetch(String contentKey) throws IOException
+	{
+		File file = toFile(contentKey);
+		return file.exists() ? file : null;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.repository.file.IFileContentStore#delete(java.lang.String)
+	 */
+	@Override
+	public boolean delete(String contentKey) throws IOException
+	{
+		logger.trace("Deleting content with key - {}", contentKey);
+		return Files.deleteIfExists(toFile(contentKey).toPath());
+	}
+}
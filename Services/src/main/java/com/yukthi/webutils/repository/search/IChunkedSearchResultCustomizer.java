@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search result customizer which processes results in chunks of bounded size, so that customizers can
+ * batch their lookups (for example, single query to enrich a chunk of rows). Rows can be enriched or
+ * filtered. Chunked customizers are applied to both search execution and streaming export, in which case
+ * each export chunk is customized separately, without materializing complete results.
+ *
+ * @param <T> Search result type
+ * @author akiran
+ */
+public interface IChunkedSearchResultCustomizer<T> extends ISearchResultCustomizer<T>
+{
+	/**
+	 * Default maximum number of results passed in single chunk.
+	 */
+	public int DEFAULT_CHUNK_SIZE = 500;
+	
+	/**
+	 * Maximum number of results to be passed in single chunk.
+	 * @return Maximum chunk size
+	 */
+	public default int getChunkSize()
+	{
+		return DEFAULT_CHUNK_SIZE;
+	}
+	
+	/**
+	 * Customizes specified chunk of results. Returned list can have lesser results than input, if
+	 * customizer filters the results.
+	 * 
+	 * @param chunk Chunk of results
+	 * @return Customized chunk
+	 */
+	public List<T> customizeChunk(List<T> chunk);
+	
+	/**
+	 * Splits specified results into chunks of {@link #getChunkSize()} and customizes chunk by chunk.
+	 * 
+	 * @param results Results to customize
+	 * @return Customized results
+	 */
+	@Override
+	public default List<T> customize(List<T> results)
+	{
+		int chunkSize = getChunkSize();
+		
+		if(results == null || results.size() <= chunkSize)
+		{
+			return (results == null) ? null : customizeChunk(results);
+		}
+		
+		List<T> customizedResults = new ArrayList<>(results.size());
+		List<T> customizedChunk = null;
+		
+		for(int from = 0; from < results.size(); from += chunkSize)
+		{
+			customizedChunk = customizeChunk(results.subList(from, Math.min(from + chunkSize, results.size())));
+			
+			if(customizedChunk != null)
+			{
+				customizedResults.addAll(customizedChunk);
+			}
+		}
+		
+		return customizedResults;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.search;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import com.yukthi.persistence.repository.annotations.Condition;
+import com.yukthi.persistence.repository.annotations.CountFunction;
+import com.yukthi.persistence.repository.annotations.Field;
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.webutils.common.models.search.SearchExportJobStatus;
+import com.yukthi.webutils.repository.IWebutilsRepository;
+
+/**
+ * Repository for asynchronous search export state.
+ * @author akiran
+ */
+public interface ISearchExportJobRepository extends IWebutilsRepository<SearchExportJobEntity>
+{
+	/**
+	 * Fetches export with specified job id.
+	 * @param jobId Job id
+	 * @return Matching export, if any
+	 */
+	public SearchExportJobEntity findByJobId(@Condition("jobId") String jobId);
+	
+	/**
+	 * Counts exports with specified statuses across all user spaces.
+	 * @param statuses Statuses to match
+	 * @return Number of matching exports
+	 */
+	@CountFunction
+	public int countByStatus(@Condition(value = "status", op = Operator.IN) Collection<SearchExportJobStatus> statuses);
+	
+	/**
+	 * Counts exports of specified user space with specified statuses.
+	 * @param spaceIdentity User space
+	 * @param statuses Statuses to match
+	 * @return Number of matching exports
+	 */
+	@CountFunction
+	public int countBySpaceAndStatus(@Condition("spaceIdentity") String spaceIdentity, 
+			@Condition(value = "status", op = Operator.IN) Collection<SearchExportJobStatus> statuses);
+	
+	/**
+	 * Marks specified export as running, only if it is still queued.
+	 * @param jobId Job id
+	 * @param currentStatus Expected current status
+	 * @param status New status
+	 * @param startedOn Start time
+	 * @param heartbeatOn Heartbeat time
+	 * @return True, if export was queued and is updated
+	 */
+	public boolean updateStarted(@Condition("jobId") String jobId, @Condition("status") SearchExportJobStatus currentStatus, 
+			@Field("status") SearchExportJobStatus status, @Field("startedOn") Date startedOn, @Field("heartbeatOn") Date heartbeatOn);
+	
+	/**
+	 * Updates progress of specified export, only if it is in specified status.
+	 * @param jobId Job id
+	 * @param currentStatus Expected current status
+	 * @param rowsDone Rows exported so far
+	 * @param totalRows Total rows to be exported
+	 * @param heartbeatOn Heartbeat time
+	 * @return True, if export is in expected status and is updated
+	 */
+	public boolean updateProgress(@Condition("jobId") String jobId, @Condition("status") SearchExportJobStatus currentStatus, 
+			@Field("rowsDone") long rowsDone, @Field("totalRows") long totalRows, @Field("heartbeatOn") Date heartbeatOn);
+	
+	/**
+	 * Updates final state of specified export, only if it is in specified status. So that exports expired
+	 * as abandoned are not marked as completed.
+	 * @param jobId Job id
+	 * @param currentStatus Expected current status
+	 * @param status Final status
+	 * @param rowsDone Rows exported
+	 * @param fileId Exported file id, null in case of failure
+	 * @param errorMessage Error message in case of failure
+	 * @param finishedOn Finish time
+	 * @return True, if export is in expected status and is updated
+	 */
+	public boolean updateFinished(@Condition("jobId") String jobId, @Condition("status") SearchExportJobStatus currentStatus, 
+			@Field("status") SearchExportJobStatus status, @Field("rowsDone") long rowsDone, 
+			@Field("fileId") Long fileId, @Field("errorMessage") String errorMessage, @Field("finishedOn") Date finishedOn);
+	
+	/**
+	 * Marks unfinished exports, which did not record progress since specified time, as failed. So that
+	 * abandoned exports do not hold concurrency slots.
+	 * @param statuses Unfinished statuses
+	 * @param heartbeatBefore Exports without heartbeat after this time are expired
+	 * @param status Status to set
+	 * @param errorMessage Error message to set
+	 * @param finishedOn Finish time to set
+	 * @return Number of exports expired
+	 */
+	public int expireAbandoned(@Condition(value = "status", op = Operator.IN) Collection<SearchExportJobStatus> statuses, 
+			@Condition(value = "heartbeatOn", op = Operator.LT) Date heartbeatBefore, 
+			@Field("status") SearchExportJobStatus status, @Field("errorMessage") String errorMessage, @Field("finishedOn") Date finishedOn);
+	
+	/**
+	 * Fetches exports finished before specified time.
+	 * @param finishedBefore Time before which exports should have finished
+	 * @return Matching exports
+	 */
+	public List<SearchExportJobEntity> findFinishedBefore(@Condition(value = "finishedOn", op = Operator.LT) Date finishedBefore);
+}
@@ -5,6 +5,12 @@ import java.util.List;
 /**
  * The Interface ISearchResultCustomizer method can be used to 
  * customize the searchResults.
+ * 
+ * Customizers are resolved once per search query and shared across executions. If a spring bean of customizer type
+ * is defined, the bean is used (prototype scoped beans are fetched for every execution). Otherwise a single instance is
+ * created and autowired. Hence, customizers (other than prototype beans) should be thread safe.
+ * 
+ * To process results in chunks, use {@link IChunkedSearchResultCustomizer}.
  *
  * @param <T> the generic type
  */
@@ -0,0 +1,357 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.search;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Table;
+
+import com.yukthi.persistence.annotations.DataType;
+import com.yukthi.persistence.annotations.DataTypeMapping;
+import com.yukthi.persistence.annotations.Index;
+import com.yukthi.persistence.annotations.Indexes;
+import com.yukthi.persistence.annotations.NotUpdateable;
+import com.yukthi.persistence.annotations.UniqueConstraint;
+import com.yukthi.persistence.annotations.UniqueConstraints;
+import com.yukthi.webutils.common.ExportFormat;
+import com.yukthi.webutils.common.models.search.SearchExportJobStatus;
+import com.yukthi.webutils.repository.WebutilsEntity;
+
+/**
+ * State of an asynchronous search export. State is persisted, so that status of the export can be fetched
+ * from any node and concurrency limits are applied across nodes.
+ * 
+ * @author akiran
+ */
+@Table(name = "SEARCH_EXPORT_JOBS")
+@UniqueConstraints({
+	@UniqueConstraint(name = "SRCH_EXP_JOB_ID", fields = {"jobId"})
+	})
+@Indexes({
+	@Index(name = "SRCH_EXP_JOB_STATUS_IDX", fields = {"status", "heartbeatOn"})
+	})
+public class SearchExportJobEntity extends WebutilsEntity
+{
+	/**
+	 * Id of the export job, shared with clients.
+	 */
+	@NotUpdateable
+	@Column(name = "JOB_ID", nullable = false, length = 50)
+	private String jobId;
+	
+	/**
+	 * Name of the query being exported.
+	 */
+	@NotUpdateable
+	@Column(name = "QUERY_NAME", nullable = false, length = 100)
+	private String queryName;
+	
+	/**
+	 * Format of the export.
+	 */
+	@NotUpdateable
+	@Column(name = "EXPORT_FORMAT", length = 50)
+	@DataTypeMapping(type = DataType.STRING)
+	private ExportFormat exportFormat;
+	
+	/**
+	 * Current status of the export.
+	 */
+	@Column(name = "STATUS", nullable = false, length = 50)
+	@DataTypeMapping(type = DataType.STRING)
+	private SearchExportJobStatus status;
+	
+	/**
+	 * Number of rows exported so far.
+	 */
+	@Column(name = "ROWS_DONE", nullable = false)
+	private long rowsDone;
+	
+	/**
+	 * Total number of rows to export, -1 if not known yet.
+	 */
+	@Column(name = "TOTAL_ROWS", nullable = false)
+	private long totalRows = -1;
+	
+	/**
+	 * Time when export started.
+	 */
+	@Column(name = "STARTED_ON")
+	@DataTypeMapping(type = DataType.DATE_TIME)
+	private Date startedOn;
+	
+	/**
+	 * Time when export is finished.
+	 */
+	@Column(name = "FINISHED_ON")
+	@DataTypeMapping(type = DataType.DATE_TIME)
+	private Date finishedOn;
+	
+	/**
+	 * Time when progress of the export was last recorded. Unfinished exports without progress for long time 
+	 * are considered abandoned.
+	 */
+	@Column(name = "HEARTBEAT_ON")
+	@DataTypeMapping(type = DataType.DATE_TIME)
+	private Date heartbeatOn;
+	
+	/**
+	 * Id of the exported file.
+	 */
+	@Column(name = "FILE_ID")
+	private Long fileId;
+	
+	/**
+	 * Error message, if export failed.
+	 */
+	@Column(name = "ERROR_MESSAGE", length = 1000)
+	private String errorMessage;
+	
+	/**
+	 * Instantiates a new search export job entity.
+	 */
+	public SearchExportJobEntity()
+	{}
+
+	/**
+	 * Gets the id of the export job, shared with clients.
+	 *
+	 * @return the id of the export job, shared with clients
+	 */
+	public String getJobId()
+	{
+		return jobId;
+	}
+
+	/**
+	 * Sets the id of the export job, shared with clients.
+	 *
+	 * @param jobId the new id of the export job, shared with clients
+	 */
+	public void setJobId(String jobId)
+	{
+		this.jobId = jobId;
+	}
+
+	/**
+	 * Gets the name of the query being exported.
+	 *
+	 * @return the name of the query being exported
+	 */
+	public String getQueryName()
+	{
+		return queryName;
+	}
+
+	/**
+	 * Sets the name of the query being exported.
+	 *
+	 * @param queryName the new name of the query being exported
+	 */
+	public void setQueryName(String queryName)
+	{
+		this.queryName = queryName;
+	}
+
+	/**
+	 * Gets the format of the export.
+	 *
+	 * @return the format of the export
+	 */
+	public ExportFormat getExportFormat()
+	{
+		return exportFormat;
+	}
+
+	/**
+	 * Sets the format of the export.
+	 *
+	 * @param exportFormat the new format of the export
+	 */
+	public void setExportFormat(ExportFormat exportFormat)
+	{
+		this.exportFormat = exportFormat;
+	}
+
+	/**
+	 * Gets the current status of the export.
+	 *
+	 * @return the current status of the export
+	 */
+	public SearchExportJobStatus getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * Sets the current status of the export.
+	 *
+	 * @param status the new current status of the export
+	 */
+	public void setStatus(SearchExportJobStatus status)
+	{
+		this.status = status;
+	}
+
+	/**
+	 * Gets the number of rows exported so far.
+	 *
+	 * @return the number of rows exported so far
+	 */
+	public long getRowsDone()
+	{
+		return rowsDone;
+	}
+
+	/**
+	 * Sets the number of rows exported so far.
+	 *
+	 * @param rowsDone the new number of rows exported so far
+	 */
+	public void setRowsDone(long rowsDone)
+	{
+		this.rowsDone = rowsDone;
+	}
+
+	/**
+	 * Gets the total number of rows to export, -1 if not known yet.
+	 *
+	 * @return the total number of rows to export, -1 if not known yet
+	 */
+	public long getTotalRows()
+	{
+		return totalRows;
+	}
+
+	/**
+	 * Sets the total number of rows to export, -1 if not known yet.
+	 *
+	 * @param totalRows the new total number of rows to export, -1 if not known yet
+	 */
+	public void setTotalRows(long totalRows)
+	{
+		this.totalRows = totalRows;
+	}
+
+	/**
+	 * Gets the time when export started.
+	 *
+	 * @return the time when export started
+	 */
+	public Date getStartedOn()
+	{
+		return startedOn;
+	}
+
+	/**
+	 * Sets the time when export started.
+	 *
+	 * @param startedOn the new time when export started
+	 */
+	public void setStartedOn(Date startedOn)
+	{
+		this.startedOn = startedOn;
+	}
+
+	/**
+	 * Gets the time when export is finished.
+	 *
+	 * @return the time when export is finished
+	 */
+	public Date getFinishedOn()
+	{
+		return finishedOn;
+	}
+
+	/**
+	 * Sets the time when export is finished.
+	 *
+	 * @param finishedOn the new time when export is finished
+	 */
+	public void setFinishedOn(Date finishedOn)
+	{
+		this.finishedOn = finishedOn;
+	}
+
+	/**
+	 * Gets the time when progress of the export was last recorded.
+	 *
+	 * @return the time when progress of the export was last recorded
+	 */
+	public Date getHeartbeatOn()
+	{
+		return heartbeatOn;
+	}
+
+	/**
+	 * Sets the time when progress of the export was last recorded.
+	 *
+	 * @param heartbeatOn the new time when progress of the export was last recorded
+	 */
+	public void setHeartbeatOn(Date heartbeatOn)
+	{
+		this.heartbeatOn = heartbeatOn;
+	}
+
+	/**
+	 * Gets the id of the exported file.
+	 *
+	 * @return the id of the exported file
+	 */
+	public Long getFileId()
+	{
+		return fileId;
+	}
+
+	/**
+	 * Sets the id of the exported file.
+	 *
+	 * @param fileId the new id of the exported file
+	 */
+	public void setFileId(Long fileId)
+	{
+		this.fileId = fileId;
+	}
+
+	/**
+	 * Gets the error message, if export failed.
+	 *
+	 * @return the error message, if export failed
+	 */
+	public String getErrorMessage()
+	{
+		return errorMessage;
+	}
+
+	/**
+	 * Sets the error message, if export failed.
+	 *
+	 * @param errorMessage the new error message, if export failed
+	 */
+	public void setErrorMessage(String errorMessage)
+	{
+		this.errorMessage = errorMessage;
+	}
+}
@@ -23,6 +23,13 @@
 
 package com.yukthi.webutils.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.annotation.PostConstruct;
 
 import org.apache.logging.log4j.LogManager;
@@ -86,6 +93,18 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 	@Autowired
 	protected ImageService imageService;
 	
+	/**
+	 * Used to invalidate cached search results, when entities are modified.
+	 */
+	@Autowired
+	protected SearchResultCacheService searchResultCacheService;
+	
+	/**
+	 * Used to maintain typed values of indexed extension fields.
+	 */
+	@Autowired
+	protected ExtensionFieldValueService extensionFieldValueService;
+	
 	/**
 	 * Repository type.
 	 */
@@ -145,6 +164,9 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 	 */
 	public void save(E entity, Object model)
 	{
+		//invalidation of modified results is repeated after outer transaction (if any) completes
+		searchResultCacheService.beginTransaction();
+		
 		try(ITransaction transaction = repository.newOrExistingTransaction())
 		{
 			logger.trace("Trying to save entity - {}", entity);
@@ -171,6 +193,12 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 				throw new InvalidStateException("Failed to save entity");
 			}
 			
+			//maintain typed values of indexed extension fields
+			if(model != null && (model instanceof IExtendableModel))
+			{
+				extensionFieldValueService.saveValues((IExtendableModel) model, entityType, entity.getId(), entity.getSpaceIdentity());
+			}
+			
 			//save files specified on model
 			if(model != null)
 			{
@@ -179,6 +207,7 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 			}
 			
 			transaction.commit();
+			searchResultCacheService.invalidate(entityType);
 		}catch(Exception ex)
 		{
 			logger.error("An error occurred while saving entity - " + entity, ex);
@@ -189,6 +218,9 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 			}
 			
 			throw new IllegalStateException("An error occurred while saving entity - " + entity, ex);
+		}finally
+		{
+			searchResultCacheService.endTransaction();
 		}
 	}
 	
@@ -217,6 +249,9 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 	{
 		WebUtils.validateEntityForUpdate(entity);
 		
+		//invalidation of modified results is repeated after outer transaction (if any) completes
+		searchResultCacheService.beginTransaction();
+		
 		try(ITransaction transaction = repository.newOrExistingTransaction())
 		{
 			logger.trace("Trying to update entity - {}", entity);
@@ -230,7 +265,8 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 				extensionService.mapExtendedFieldsToEntity( (IExtendableModel) model, (WebutilsExtendableEntity) entity );
 			}
 
-			boolean res = repository.updateByUserSpace(entity, getUserSpace(entity, model));
+			String userSpace = getUserSpace(entity, model);
+			boolean res = repository.updateByUserSpace(entity, userSpace);
 			
 			if(!res)
 			{
@@ -238,6 +274,12 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 				throw new InvalidStateException("Failed to update entity");
 			}
 			
+			//maintain typed values of indexed extension fields
+			if(model != null && (model instanceof IExtendableModel))
+			{
+				extensionFieldValueService.saveValues((IExtendableModel) model, entityType, entity.getId(), userSpace);
+			}
+			
 			//save files specified on model
 			if(model != null)
 			{
@@ -246,6 +288,7 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 			}
 
 			transaction.commit();
+			searchResultCacheService.invalidate(entityType);
 		}catch(Exception ex)
 		{
 			logger.error("An error occurred while updating entity - " + entity, ex);
@@ -256,6 +299,9 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 			}
 			
 			throw new IllegalStateException("An error occurred while updating entity - " + entity, ex);
+		}finally
+		{
+			searchResultCacheService.endTransaction();
 		}
 	}
 	
@@ -295,6 +341,56 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 		return model;
 	}
 	
+	/**
+	 * Fetches entities with specified ids as models with full information like - extensions, files, images etc. 
+	 * Extension fields of all entities are fetched in bulk.
+	 * @param ids Entity ids to be fetched
+	 * @param modelType Corresponding entity's model type which can hold extension fields
+	 * @param <M> Model type
+	 * @return Converted models with extension fields, in order of specified ids. Ids which are not found are ignored
+	 * and duplicate ids result in single model.
+	 */
+	public <M> List<M> fetchFullModels(Collection<Long> ids, Class<M> modelType)
+	{
+		if(ids == null || ids.isEmpty())
+		{
+			return new ArrayList<>();
+		}
+		
+		List<E> entities = repository.findByIdsAndUserSpace(ids, securityService.getUserSpaceIdentity());
+		
+		logger.trace("Entity fetch full models for {} ids resulted in {} entities", ids.size(), (entities != null) ? entities.size() : 0);
+		
+		if(entities == null || entities.isEmpty())
+		{
+			return new ArrayList<>();
+		}
+		
+		//db does not guarantee the order of IN query results, so order the entities as per input ids
+		Map<Long, E> idToEntity = new HashMap<>();
+		
+		for(E entity : entities)
+		{
+			idToEntity.put(entity.getId(), entity);
+		}
+		
+		List<E> orderedEntities = new ArrayList<>(idToEntity.size());
+		E entity = null;
+		
+		for(Long id : ids)
+		{
+			//remove, so that duplicate ids are added only once
+			entity = idToEntity.remove(id);
+			
+			if(entity != null)
+			{
+				orderedEntities.add(entity);
+			}
+		}
+		
+		return toModels(orderedEntities, modelType);
+	}
+	
 	/**
 	 * Converts the specified entity into specified model-type's model and populates.
 	 * the extension fields and file, image fields as required.
@@ -310,20 +406,55 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 			return null;
 		}
 		
-		M model = WebUtils.convertBean(entity, modelType);
+		return toModels(Collections.singletonList(entity), modelType).get(0);
+	}
+
+	/**
+	 * Converts the specified entities into specified model-type's models, similar to {@link #toModel(WebutilsEntity, Class)}.
+	 * Extension fields, files and images of all the entities are fetched in bulk, instead of queries per entity.
+	 * @param entities Entities to be converted
+	 * @param modelType Model type
+	 * @param <M> Model type
+	 * @return Converted models, in entity order
+	 */
+	protected <M> List<M> toModels(Collection<E> entities, Class<M> modelType)
+	{
+		if(entities == null || entities.isEmpty())
+		{
+			return new ArrayList<>();
+		}
+		
+		List<M> models = new ArrayList<>(entities.size());
+		List<Long> ids = new ArrayList<>(entities.size());
+		List<Long> extendableIds = new ArrayList<>();
+		List<IExtendableModel> extendableModels = new ArrayList<>();
+		M model = null;
 		
-		if(model instanceof IExtendableModel)
+		for(E entity : entities)
 		{
-			extensionService.mapExtendedFieldsToModel( repository, entity.getId(), (IExtendableModel) model); 
+			model = WebUtils.convertBean(entity, modelType);
+			models.add(model);
+			ids.add(entity.getId());
+			
+			if(model instanceof IExtendableModel)
+			{
+				extendableIds.add(entity.getId());
+				extendableModels.add((IExtendableModel) model);
+			}
 		}
-
+		
+		if(!extendableModels.isEmpty())
+		{
+			extensionService.mapExtendedFieldsToModels(repository, extendableIds, extendableModels);
+		}
+		
 		//fetch file information
-		fileService.readFilesForModel(model, entityType, entity.getId());
+		fileService.readFilesForModels(models, entityType, ids);
 		
 		//fetch image information
-		imageService.readImagesForModel(model, entityType, entity.getId());
+		imageService.readImagesForModels(models, entityType, ids);
 		
-		return model;
+		return models;
 	}
 
 	/**
@@ -345,6 +476,9 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 	 */
 	public boolean deleteById(long id)
 	{
+		//invalidation of modified results is repeated after outer transaction (if any) completes
+		searchResultCacheService.beginTransaction();
+		
 		try(ITransaction transaction = repository.newOrExistingTransaction())
 		{
 			boolean res = repository.deleteByIdAndUserSpace(id, securityService.getUserSpaceIdentity());
@@ -354,7 +488,14 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 			//Delete files
 			fileService.delete(entityType, null, id);
 			
+			//Delete typed values of indexed extension fields
+			if(res && WebutilsExtendableEntity.class.isAssignableFrom(entityType))
+			{
+				extensionFieldValueService.deleteValues(entityType, id);
+			}
+			
 			transaction.commit();
+			searchResultCacheService.invalidate(entityType);
 			
 			return res;
 		}catch(Exception ex)
@@ -367,6 +508,9 @@ public abstract class BaseCrudService<E extends WebutilsEntity, R extends IWebut
 			}
 			
 			throw new IllegalStateException("An error occurred while deleting entity with id - " + id, ex);
+		}finally
+		{
+			searchResultCacheService.endTransaction();
 		}
 	}
 	
@@ -0,0 +1,548 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.yukthi.persistence.repository.RepositoryFactory;
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.persistence.repository.search.SearchCondition;
+import com.yukthi.persistence.repository.search.SearchQuery;
+import com.yukthi.webutils.InvalidRequestParameterException;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.common.IExtendableModel;
+import com.yukthi.webutils.common.extensions.ExtensionFieldType;
+import com.yukthi.webutils.common.models.search.ExtendedFieldCondition;
+import com.yukthi.webutils.repository.EntityIdResult;
+import com.yukthi.webutils.repository.ExtensionEntity;
+import com.yukthi.webutils.repository.ExtensionFieldEntity;
+import com.yukthi.webutils.repository.ExtensionFieldValueEntity;
+import com.yukthi.webutils.repository.ExtensionFieldValueMatch;
+import com.yukthi.webutils.repository.IExtensionFieldValueRepository;
+import com.yukthi.webutils.repository.IWebutilsRepository;
+import com.yukthi.webutils.security.ISecurityService;
+import com.yukthi.webutils.services.search.ExtendedSearchConditions;
+
+/**
+ * Maintains typed values of indexed extension fields and evaluates extended field conditions 
+ * of search queries. Conditions on indexed fields are evaluated against typed value store (as indexed
+ * range scans) and converted into entity id conditions, in chunks of limited size. Conditions on other fields 
+ * are applied on extended columns directly.
+ * 
+ * @author akiran
+ */
+@Service
+public class ExtensionFieldValueService
+{
+	private static Logger logger = LogManager.getLogger(ExtensionFieldValueService.class);
+	
+	/**
+	 * Operators supported in extended field conditions.
+	 */
+	private static final Set<Operator> SUPPORTED_OPERATORS = new HashSet<>(Arrays.asList(Operator.EQ, Operator.LT, Operator.LE, Operator.GT, Operator.GE));
+	
+	/**
+	 * Maximum number of ids used in single IN condition. Kept well below database limits on IN lists and statement parameters.
+	 */
+	private static final int ID_CHUNK_SIZE = 500;
+	
+	/**
+	 * Used to fetch value repository.
+	 */
+	@Autowired
+	private RepositoryFactory repositoryFactory;
+	
+	/**
+	 * Used to fetch extension fields.
+	 */
+	@Autowired
+	private ExtensionService extensionService;
+	
+	/**
+	 * Used to fetch current user space.
+	 */
+	@Autowired
+	private ISecurityService securityService;
+	
+	/**
+	 * Used to fetch date format and index limits.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * Repository for typed values.
+	 */
+	private IExtensionFieldValueRepository valueRepository;
+	
+	/**
+	 * Fetches repositories from autowired repository factory.
+	 */
+	@PostConstruct
+	private void init()
+	{
+		this.valueRepository = repositoryFactory.getRepository(IExtensionFieldValueRepository.class);
+	}
+	
+	/**
+	 * Checks if fields of specified type can be indexed.
+	 * @param type Field type to check
+	 * @return True, if values of the type can be maintained in typed value store
+	 */
+	public static boolean isIndexable(ExtensionFieldType type)
+	{
+		return (type == ExtensionFieldType.INTEGER || type == ExtensionFieldType.DECIMAL || 
+				type == ExtensionFieldType.DATE || type == ExtensionFieldType.BOOLEAN);
+	}
+	
+	/**
+	 * Fetches name of the value column to be used for specified field type.
+	 * @param type Field type
+	 * @return Value column (field) name
+	 */
+	private static String getValueField(ExtensionFieldType type)
+	{
+		switch(type)
+		{
+			case INTEGER:
+				return "longValue";
+			case DECIMAL:
+				return "decimalValue";
+			case DATE:
+				return "dateValue";
+			default:
+				return "booleanValue";
+		}
+	}
+	
+	/**
+	 * Converts specified string value of the field into typed value.
+	 * @param field Field whose value is being converted
+	 * @param value Value to convert
+	 * @return Typed value
+	 */
+	private Object toTypedValue(ExtensionFieldEntity field, String value)
+	{
+		try
+		{
+			switch(field.getType())
+			{
+				case INTEGER:
+					return Long.parseLong(value);
+				case DECIMAL:
+					return new BigDecimal(value.trim());
+				case DATE:
+				{
+					//date format is cloned as it is not thread safe
+					SimpleDateFormat dateFormat = (SimpleDateFormat) webutilsConfiguration.getDateFormat().clone();
+					return dateFormat.parse(value);
+				}
+				default:
+					return Boolean.parseBoolean(value);
+			}
+		}catch(NumberFormatException | ParseException ex)
+		{
+			throw new InvalidRequestParameterException(ex, "Invalid value '{}' specified for extended field - {}", value, field.getName());
+		}
+	}
+	
+	/**
+	 * Saves typed values of indexed fields from specified model. Existing values of the entity are replaced.
+	 * @param model Model with extended field values
+	 * @param entityType Type of the entity being saved
+	 * @param entityId Id of the entity being saved
+	 * @param spaceIdentity Space under which entity is being saved
+	 */
+	public void saveValues(IExtendableModel model, Class<?> entityType, long entityId, String spaceIdentity)
+	{
+		String extensionName = extensionService.getExtensionName(model);
+		List<ExtensionFieldEntity> indexedFields = new ArrayList<>();
+		List<Long> fieldIds = new ArrayList<>();
+		
+		for(ExtensionFieldEntity field : extensionService.getExtensionFields(extensionName))
+		{
+			if(field.isIndexed())
+			{
+				indexedFields.add(field);
+				fieldIds.add(field.getId());
+			}
+		}
+		
+		if(indexedFields.isEmpty())
+		{
+			return;
+		}
+		
+		logger.trace("Saving indexed values of {} fields of entity {} with id - {}", indexedFields.size(), entityType.getName(), entityId);
+		
+		valueRepository.deleteFieldValues(fieldIds, entityId);
+		
+		Map<String, String> values = model.getExtendedFields();
+		ExtensionFieldValueEntity valueEntity = null;
+		String value = null;
+		Object typedValue = null;
+		
+		for(ExtensionFieldEntity field : indexedFields)
+		{
+			value = (values != null) ? values.get(field.getName()) : null;
+			
+			//null values are not maintained
+			if(StringUtils.isBlank(value))
+			{
+				continue;
+			}
+			
+			valueEntity = new ExtensionFieldValueEntity(field, entityType.getName(), entityId);
+			valueEntity.setSpaceIdentity(spaceIdentity);
+			typedValue = toTypedValue(field, value);
+			
+			switch(field.getType())
+			{
+				case INTEGER:
+					valueEntity.setLongValue((Long) typedValue);
+					break;
+				case DECIMAL:
+					valueEntity.setDecimalValue((BigDecimal) typedValue);
+					break;
+				case DATE:
+					valueEntity.setDateValue((Date) typedValue);
+					break;
+				default:
+					valueEntity.setBooleanValue((Boolean) typedValue);
+			}
+			
+			valueRepository.save(valueEntity);
+		}
+	}
+	
+	/**
+	 * Deletes all typed values of specified entity.
+	 * @param entityType Type of the entity
+	 * @param entityId Id of the entity
+	 */
+	public void deleteValues(Class<?> entityType, long entityId)
+	{
+		int count = valueRepository.deleteEntityValues(entityType.getName(), entityId);
+		logger.trace("Deleted {} indexed values of entity {} with id - {}", count, entityType.getName(), entityId);
+	}
+	
+	/**
+	 * Fetches extension field for specified condition, after ensuring the field is defined for specified entity type.
+	 * @param entityType Entity type being searched
+	 * @param condition Condition whose field needs to be fetched
+	 * @return Matching field
+	 */
+	private ExtensionFieldEntity getConditionField(Class<?> entityType, ExtendedFieldCondition condition)
+	{
+		ExtensionEntity extension = extensionService.getExtensionEntity(condition.getExtensionName());
+		
+		if(extension != null && entityType.getName().equals(extension.getTargetEntityType()))
+		{
+			for(ExtensionFieldEntity field : extensionService.getExtensionFields(condition.getExtensionName()))
+			{
+				if(field.getName().equals(condition.getFieldName()))
+				{
+					return field;
+				}
+			}
+		}
+		
+		throw new InvalidRequestParameterException("Invalid extended field specified in condition - {}.{}", condition.getExtensionName(), condition.getFieldName());
+	}
+	
+	/**
+	 * Indexed field condition being evaluated.
+	 */
+	private static class IndexedCondition
+	{
+		/**
+		 * Indexed field.
+		 */
+		private ExtensionFieldEntity field;
+		
+		/**
+		 * Operator to use.
+		 */
+		private Operator operator;
+		
+		/**
+		 * Typed value to compare with.
+		 */
+		private Object typedValue;
+		
+		/**
+		 * Condition being evaluated, used for error messages.
+		 */
+		private ExtendedFieldCondition condition;
+
+		/**
+		 * Instantiates a new indexed condition.
+		 *
+		 * @param field the field
+		 * @param operator the operator
+		 * @param typedValue the typed value
+		 * @param condition the condition
+		 */
+		private IndexedCondition(ExtensionFieldEntity field, Operator operator, Object typedValue, ExtendedFieldCondition condition)
+		{
+			this.field = field;
+			this.operator = operator;
+			this.typedValue = typedValue;
+			this.condition = condition;
+		}
+	}
+	
+	/**
+	 * Converts specified extended field conditions into repository search conditions for specified entity type. Conditions
+	 * on indexed fields are evaluated against typed value store and result in chunks of matching entity ids.
+	 * 
+	 * Conditions whose matches exceed configured limit (see {@link WebutilsConfiguration#getExtensionIndexMaxMatches()}) are
+	 * not rejected, instead they are evaluated only against entities matching narrower conditions. When all indexed conditions are 
+	 * broad, entities matching regular conditions of the search (if narrow enough) are used as candidates. Only when none of the
+	 * conditions is narrow, the request is rejected.
+	 * 
+	 * @param entityType Entity type being searched
+	 * @param conditions Extended field conditions. Can be null
+	 * @param repository Repository of the entity, used to fetch candidates using regular conditions. Can be null
+	 * @param baseQuery Query with regular conditions of the search, used to fetch candidates. Can be null
+	 * @return Repository conditions to be added to the search query
+	 */
+	public ExtendedSearchConditions toSearchConditions(Class<?> entityType, List<ExtendedFieldCondition> conditions, 
+			IWebutilsRepository<?> repository, SearchQuery baseQuery)
+	{
+		List<SearchCondition> searchConditions = new ArrayList<>();
+		
+		if(conditions == null || conditions.isEmpty())
+		{
+			return new ExtendedSearchConditions(searchConditions, null);
+		}
+		
+		List<IndexedCondition> indexedConditions = new ArrayList<>();
+		ExtensionFieldEntity field = null;
+		
+		for(ExtendedFieldCondition condition : conditions)
+		{
+			Operator operator = (condition.getOperator() != null) ? condition.getOperator() : Operator.EQ;
+			
+			if(!SUPPORTED_OPERATORS.contains(operator))
+			{
+				throw new InvalidRequestParameterException("Unsupported operator '{}' specified in extended field condition - {}", operator, condition);
+			}
+			
+			field = getConditionField(entityType, condition);
+			
+			//non indexed fields are compared against extended columns
+			if(!field.isIndexed())
+			{
+				searchConditions.add(new SearchCondition("extendedFields." + field.getColumnName(), operator, condition.getValue()));
+				continue;
+			}
+			
+			indexedConditions.add(new IndexedCondition(field, operator, toTypedValue(field, condition.getValue()), condition));
+		}
+		
+		if(indexedConditions.isEmpty())
+		{
+			return new ExtendedSearchConditions(searchConditions, null);
+		}
+		
+		Set<Long> matchingIds = null;
+		List<IndexedCondition> broadConditions = new ArrayList<>();
+		Set<Long> fieldMatches = null;
+		
+		//evaluate narrow conditions using index and intersect their matches
+		for(IndexedCondition indexedCondition : indexedConditions)
+		{
+			//once no entity matches, further evaluation is not needed
+			if(matchingIds != null && matchingIds.isEmpty())
+			{
+				break;
+			}
+			
+			fieldMatches = fetchMatchingIds(indexedCondition);
+			
+			if(fieldMatches == null)
+			{
+				broadConditions.add(indexedCondition);
+				continue;
+			}
+			
+			if(matchingIds == null)
+			{
+				matchingIds = fieldMatches;
+			}
+			else
+			{
+				matchingIds.retainAll(fieldMatches);
+			}
+		}
+		
+		//if all conditions are broad, use entities matching regular conditions as candidates
+		if(matchingIds == null)
+		{
+			matchingIds = fetchCandidateIds(repository, baseQuery, searchConditions, indexedConditions.get(0).condition);
+		}
+		
+		//evaluate broad conditions only against current matches
+		for(IndexedCondition indexedCondition : broadConditions)
+		{
+			if(matchingIds.isEmpty())
+			{
+				break;
+			}
+			
+			matchingIds = filterMatchingIds(indexedCondition, matchingIds);
+		}
+		
+		return new ExtendedSearchConditions(searchConditions, ExtendedSearchConditions.toChunks(matchingIds, ID_CHUNK_SIZE));
+	}
+	
+	/**
+	 * Creates query on typed value store for specified condition.
+	 * @param indexedCondition Condition to be evaluated
+	 * @return Typed value store query
+	 */
+	private SearchQuery newValueQuery(IndexedCondition indexedCondition)
+	{
+		SearchQuery query = new SearchQuery();
+		query.addCondition(new SearchCondition("field.id", Operator.EQ, indexedCondition.field.getId()));
+		query.addCondition(new SearchCondition(getValueField(indexedCondition.field.getType()), indexedCondition.operator, indexedCondition.typedValue));
+		query.addCondition(new SearchCondition("spaceIdentity", Operator.EQ, securityService.getUserSpaceIdentity()));
+		
+		return query;
+	}
+	
+	/**
+	 * Fetches ids of entities whose typed value of specified field matches with specified condition.
+	 * @param indexedCondition Condition to be evaluated
+	 * @return Matching entity ids, null if more than configured number of entities match the condition
+	 */
+	private Set<Long> fetchMatchingIds(IndexedCondition indexedCondition)
+	{
+		int maxMatches = webutilsConfiguration.getExtensionIndexMaxMatches();
+		
+		SearchQuery query = newValueQuery(indexedCondition);
+		query.setResultsLimit(maxMatches + 1);
+		
+		List<ExtensionFieldValueMatch> matches = valueRepository.searchMatchingEntities(query);
+		
+		if(matches.size() > maxMatches)
+		{
+			logger.debug("More than {} entities matched extended field condition, it will be evaluated against other matches - {}", maxMatches, indexedCondition.condition);
+			return null;
+		}
+		
+		Set<Long> ids = new HashSet<>();
+		
+		for(ExtensionFieldValueMatch match : matches)
+		{
+			ids.add(match.getEntityId());
+		}
+		
+		return ids;
+	}
+	
+	/**
+	 * Filters specified candidate ids to the ones whose typed value of specified field matches with specified condition. Candidates
+	 * are checked in chunks of limited size, so that the typed value index is used without scanning all values of a broad condition.
+	 * @param indexedCondition Condition to be evaluated
+	 * @param candidateIds Candidate entity ids
+	 * @return Matching entity ids
+	 */
+	private Set<Long> filterMatchingIds(IndexedCondition indexedCondition, Set<Long> candidateIds)
+	{
+		Set<Long> ids = new HashSet<>();
+		SearchQuery query = null;
+		
+		for(List<Long> chunk : ExtendedSearchConditions.toChunks(candidateIds, ID_CHUNK_SIZE))
+		{
+			query = newValueQuery(indexedCondition);
+			query.addCondition(new SearchCondition("entityId", Operator.IN, chunk));
+			
+			for(ExtensionFieldValueMatch match : valueRepository.searchMatchingEntities(query))
+			{
+				ids.add(match.getEntityId());
+			}
+		}
+		
+		return ids;
+	}
+	
+	/**
+	 * Fetches ids of entities matching regular conditions of the search, to be used as candidates for broad indexed conditions.
+	 * @param repository Repository of the entity
+	 * @param baseQuery Query with regular conditions
+	 * @param extendedConditions Conditions on non-indexed extended columns
+	 * @param condition Broad condition being evaluated, used for error messages
+	 * @return Candidate ids
+	 */
+	private Set<Long> fetchCandidateIds(IWebutilsRepository<?> repository, SearchQuery baseQuery, List<SearchCondition> extendedConditions, ExtendedFieldCondition condition)
+	{
+		int maxMatches = webutilsConfiguration.getExtensionIndexMaxMatches();
+		List<EntityIdResult> candidates = null;
+		
+		if(repository != null && baseQuery != null)
+		{
+			for(SearchCondition searchCondition : extendedConditions)
+			{
+				baseQuery.addCondition(searchCondition);
+			}
+			
+			baseQuery.setResultsLimit(maxMatches + 1);
+			candidates = repository.searchIds(baseQuery);
+		}
+		
+		if(candidates == null || candidates.size() > maxMatches)
+		{
+			throw new InvalidRequestParameterException("More than {} entities matched extended field condition - {}. Specify more restrictive conditions", 
+					maxMatches, condition);
+		}
+		
+		Set<Long> ids = new HashSet<>();
+		
+		for(EntityIdResult candidate : candidates)
+		{
+			ids.add(candidate.getId());
+		}
+		
+		return ids;
+	}
+}
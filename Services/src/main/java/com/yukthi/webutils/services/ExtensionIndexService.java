@@ -0,0 +1,229 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.yukthi.persistence.repository.RepositoryFactory;
+import com.yukthi.webutils.extensions.IExtensionIndexManager;
+import com.yukthi.webutils.repository.ExtensionIndexEntity;
+import com.yukthi.webutils.repository.ExtensionIndexStatus;
+import com.yukthi.webutils.repository.IExtensionFieldRepository;
+import com.yukthi.webutils.repository.IExtensionIndexRepository;
+import com.yukthi.webutils.services.job.JobService;
+
+/**
+ * Maintains database indexes on extension columns used by searchable extension fields. Whenever searchable
+ * flag of a field changes (or searchable field is added/deleted), a background job is submitted which creates
+ * or drops the index on the column as required, using configured {@link IExtensionIndexManager}.
+ * 
+ * @author akiran
+ */
+@Service
+public class ExtensionIndexService
+{
+	private static Logger logger = LogManager.getLogger(ExtensionIndexService.class);
+	
+	/**
+	 * Separator used between entity type and column name in index key.
+	 */
+	private static final String KEY_SEPARATOR = "|";
+	
+	/**
+	 * Maximum length of error message stored on index.
+	 */
+	private static final int MAX_ERROR_LENGTH = 1000;
+	
+	/**
+	 * Used to fetch repositories.
+	 */
+	@Autowired
+	private RepositoryFactory repositoryFactory;
+	
+	/**
+	 * Used to submit index jobs.
+	 */
+	@Autowired
+	private JobService jobService;
+	
+	/**
+	 * Application provided index manager. If not provided, indexes are not maintained.
+	 */
+	@Autowired(required = false)
+	private IExtensionIndexManager indexManager;
+	
+	/**
+	 * Repository to maintain index details.
+	 */
+	private IExtensionIndexRepository indexRepository;
+	
+	/**
+	 * Repository to check searchable fields.
+	 */
+	private IExtensionFieldRepository extensionFieldRepository;
+	
+	/**
+	 * Fetches repositories from autowired repository factory.
+	 */
+	@PostConstruct
+	private void init()
+	{
+		this.indexRepository = repositoryFactory.getRepository(IExtensionIndexRepository.class);
+		this.extensionFieldRepository = repositoryFactory.getRepository(IExtensionFieldRepository.class);
+		
+		if(indexManager == null)
+		{
+			logger.warn("No extension index manager is configured. Indexes will not be maintained for searchable extension fields");
+		}
+	}
+	
+	/**
+	 * Builds index name for specified column of specified entity type.
+	 * @param entityType Entity type
+	 * @param columnName Extension column name
+	 * @return Index name
+	 */
+	public static String toIndexName(String entityType, String columnName)
+	{
+		return "EXT_IDX_" + Integer.toHexString(entityType.hashCode()).toUpperCase() + "_" + columnName;
+	}
+	
+	/**
+	 * Submits background job to create or drop index on specified column of specified entity type, 
+	 * based on current searchable fields using the column.
+	 * @param entityType Entity type
+	 * @param columnName Extension column name
+	 */
+	public void scheduleSync(String entityType, String columnName)
+	{
+		if(indexManager == null)
+		{
+			return;
+		}
+		
+		logger.debug("Submitting index sync job for extension column {} of entity - {}", columnName, entityType);
+		jobService.submitJob("extension-index-" + UUID.randomUUID(), ExtensionIndexJob.class, entityType + KEY_SEPARATOR + columnName);
+	}
+	
+	/**
+	 * Creates or drops index on the column represented by specified key, based on current searchable fields using the column. 
+	 * Invoked from background job.
+	 * 
+	 * @param indexKey Index key, in the form of entity-type|column-name
+	 */
+	public synchronized void syncIndex(String indexKey)
+	{
+		int sepIdx = indexKey.lastIndexOf(KEY_SEPARATOR);
+		String entityType = indexKey.substring(0, sepIdx);
+		String columnName = indexKey.substring(sepIdx + 1);
+		
+		Class<?> entityClass = null;
+		
+		try
+		{
+			entityClass = Class.forName(entityType);
+		}catch(ClassNotFoundException ex)
+		{
+			logger.error("Ignoring index sync for extension column {} of invalid entity type - {}", columnName, entityType);
+			return;
+		}
+		
+		boolean required = extensionFieldRepository.fetchSearchableFieldCount(entityType, columnName, true) > 0;
+		ExtensionIndexEntity index = indexRepository.findIndex(entityType, columnName);
+		
+		if(required)
+		{
+			createIndex(entityClass, columnName, index);
+		}
+		else if(index != null)
+		{
+			dropIndex(entityClass, index);
+		}
+	}
+	
+	/**
+	 * Creates index on specified column, if not already active.
+	 * @param entityType Entity type
+	 * @param columnName Extension column name
+	 * @param index Existing index details, if any
+	 */
+	private void createIndex(Class<?> entityType, String columnName, ExtensionIndexEntity index)
+	{
+		if(index != null && index.getStatus() == ExtensionIndexStatus.ACTIVE)
+		{
+			return;
+		}
+		
+		if(index == null)
+		{
+			index = new ExtensionIndexEntity(entityType.getName(), columnName, toIndexName(entityType.getName(), columnName));
+			index.setStatus(ExtensionIndexStatus.BUILDING);
+			indexRepository.save(index);
+		}
+		else
+		{
+			indexRepository.updateStatus(index.getId(), ExtensionIndexStatus.BUILDING, null);
+		}
+		
+		logger.info("Creating index {} on extension column {} of entity - {}", index.getIndexName(), columnName, entityType.getName());
+		
+		try
+		{
+			indexManager.createIndex(entityType, columnName, index.getIndexName());
+			indexRepository.updateStatus(index.getId(), ExtensionIndexStatus.ACTIVE, null);
+		}catch(Exception ex)
+		{
+			logger.error("An error occurred while creating index {} on extension column {} of entity - {}", index.getIndexName(), columnName, entityType.getName(), ex);
+			indexRepository.updateStatus(index.getId(), ExtensionIndexStatus.FAILED, StringUtils.abbreviate(ex.getMessage(), MAX_ERROR_LENGTH));
+		}
+	}
+	
+	/**
+	 * Drops specified index.
+	 * @param entityType Entity type
+	 * @param index Index to drop
+	 */
+	private void dropIndex(Class<?> entityType, ExtensionIndexEntity index)
+	{
+		logger.info("Dropping index {} on extension column {} of entity - {}", index.getIndexName(), index.getColumnName(), entityType.getName());
+		
+		try
+		{
+			indexManager.dropIndex(entityType, index.getColumnName(), index.getIndexName());
+			indexRepository.deleteById(index.getId());
+		}catch(Exception ex)
+		{
+			logger.error("An error occurred while dropping index {} on extension column {} of entity - {}", index.getIndexName(), index.getColumnName(), entityType.getName(), ex);
+			indexRepository.updateStatus(index.getId(), ExtensionIndexStatus.FAILED, StringUtils.abbreviate(ex.getMessage(), MAX_ERROR_LENGTH));
+		}
+	}
+}
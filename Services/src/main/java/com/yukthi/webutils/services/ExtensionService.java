@@ -24,11 +24,16 @@
 package com.yukthi.webutils.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 
@@ -44,6 +49,7 @@ import com.yukthi.utils.exceptions.InvalidConfigurationException;
 import com.yukthi.utils.exceptions.InvalidStateException;
 import com.yukthi.webutils.IWebUtilsInternalConstants;
 import com.yukthi.webutils.ServiceException;
+import com.yukthi.webutils.WebutilsConfiguration;
 import com.yukthi.webutils.annotations.ExtendableEntity;
 import com.yukthi.webutils.annotations.LovMethod;
 import com.yukthi.webutils.common.IExtendableModel;
@@ -51,14 +57,18 @@ import com.yukthi.webutils.common.annotations.ExtendableModel;
 import com.yukthi.webutils.common.extensions.LovOption;
 import com.yukthi.webutils.controllers.IExtensionContextProvider;
 import com.yukthi.webutils.extensions.ExtensionEntityDetails;
+import com.yukthi.webutils.extensions.ExtensionFieldsValidator;
 import com.yukthi.webutils.repository.ExtensionEntity;
 import com.yukthi.webutils.repository.ExtensionFieldEntity;
 import com.yukthi.webutils.repository.ExtensionFieldsData;
+import com.yukthi.webutils.repository.ExtensionVersionEntity;
 import com.yukthi.webutils.repository.IExtensionFieldRepository;
 import com.yukthi.webutils.repository.IExtensionRepository;
+import com.yukthi.webutils.repository.IExtensionVersionRepository;
 import com.yukthi.webutils.repository.IWebutilsRepository;
 import com.yukthi.webutils.repository.WebutilsExtendableEntity;
 import com.yukthi.webutils.security.ISecurityService;
+import com.yukthi.webutils.utils.LruCache;
 import com.yukthi.webutils.utils.WebUtils;
 
 /**
@@ -80,6 +90,64 @@ public class ExtensionService
 	 */
 	private static final long DEF_OWNER_ID = 0L;
 	
+	/**
+	 * Max time for which extension metadata is cached, even if no modification is detected.
+	 */
+	private static final long METADATA_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+	
+	/**
+	 * Max number of entities whose extended fields are fetched in single query during bulk fetch.
+	 */
+	private static final int BULK_FETCH_SIZE = 500;
+	
+	/**
+	 * Cached metadata of an extension.
+	 */
+	private static class ExtensionMetadata
+	{
+		/**
+		 * Extension entity, null if extension does not exist.
+		 */
+		private ExtensionEntity extension;
+		
+		/**
+		 * Fields of the extension.
+		 */
+		private List<ExtensionFieldEntity> fields;
+		
+		/**
+		 * Column names used by the fields.
+		 */
+		private Set<String> columnNames;
+		
+		/**
+		 * Validator compiled for the fields.
+		 */
+		private ExtensionFieldsValidator validator;
+	}
+	
+	/**
+	 * Version of extension metadata of a user space, as known to this node.
+	 */
+	private static class SpaceVersion
+	{
+		/**
+		 * Version stamp last read from database.
+		 */
+		private volatile long stamp;
+		
+		/**
+		 * Time when stamp was last verified against database.
+		 */
+		private volatile long checkedOn;
+		
+		/**
+		 * Local version of extension fields of the space, incremented whenever cached metadata of the space
+		 * is invalidated. Used by caches which depend on extension fields.
+		 */
+		private AtomicLong fieldsVersion = new AtomicLong(0);
+	}
+	
 	/**
 	 * Used to fetch repository instances.
 	 */
@@ -130,6 +198,33 @@ public class ExtensionService
 	@Autowired
 	private IExtensionContextProvider extensionContextProvider;
 	
+	/**
+	 * Used to fetch extension cache configuration.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * Used to maintain indexes on extension columns of searchable fields.
+	 */
+	@Autowired
+	private ExtensionIndexService extensionIndexService;
+	
+	/**
+	 * To persist and read extension metadata version stamps.
+	 */
+	private IExtensionVersionRepository extensionVersionRepository;
+	
+	/**
+	 * Cache of extension metadata, keyed by space and extension name.
+	 */
+	private LruCache<String, ExtensionMetadata> metadataCache;
+	
+	/**
+	 * Extension metadata versions of user spaces.
+	 */
+	private Map<String, SpaceVersion> spaceVersions = new ConcurrentHashMap<>();
+	
 	/**
 	 * Fetches repositories from autowired repository factory.
 	 */
@@ -138,6 +233,9 @@ public class ExtensionService
 	{
 		this.extensionRepository = repositoryFactory.getRepository(IExtensionRepository.class);
 		this.extensionFieldRepository = repositoryFactory.getRepository(IExtensionFieldRepository.class);
+		this.extensionVersionRepository = repositoryFactory.getRepository(IExtensionVersionRepository.class);
+		
+		this.metadataCache = new LruCache<>("extension-metadata", webutilsConfiguration.getExtensionCacheSize());
 		
 		//load extension points
 		Set<Class<?>> extendableTypes = classScannerService.getClassesWithAnnotation(ExtendableEntity.class);
@@ -162,6 +260,175 @@ public class ExtensionService
 		}
 	}
 	
+	/**
+	 * Fetches current version of extension fields of current user space. Version changes whenever an extension field
+	 * of the space is added, updated or deleted (on this or other node).
+	 * @return Current extension fields version of current space
+	 */
+	public long getExtensionFieldsVersion()
+	{
+		return getExtensionFieldsVersion(String.valueOf(securityService.getUserSpaceIdentity()));
+	}
+	
+	/**
+	 * Fetches current version of extension fields of specified space. Before returning the version, space version 
+	 * stamp is verified (at configured interval), so that modifications from other nodes are reflected.
+	 * @param spaceIdentity Space whose version is needed
+	 * @return Current extension fields version of the space
+	 */
+	public long getExtensionFieldsVersion(String spaceIdentity)
+	{
+		return checkSpaceVersion(spaceIdentity).fieldsVersion.get();
+	}
+	
+	/**
+	 * Fetches metadata of specified extension under current user space, from cache if available. Before
+	 * using cache, version of space metadata is verified (at configured interval) so that modifications
+	 * from other nodes are detected.
+	 * @param extensionName Extension name
+	 * @return Extension metadata
+	 */
+	private ExtensionMetadata getMetadata(String extensionName)
+	{
+		String spaceIdentity = String.valueOf(securityService.getUserSpaceIdentity());
+		SpaceVersion spaceVersion = checkSpaceVersion(spaceIdentity);
+		
+		String cacheKey = spaceIdentity + "|" + extensionName;
+		ExtensionMetadata metadata = metadataCache.get(cacheKey);
+		
+		if(metadata != null)
+		{
+			return metadata;
+		}
+		
+		// version is captured before loading, so that metadata loaded during modification is not cached
+		long version = spaceVersion.fieldsVersion.get();
+		
+		metadata = new ExtensionMetadata();
+		metadata.extension = extensionRepository.findExtensionByName(extensionName);
+		
+		List<ExtensionFieldEntity> fields = (metadata.extension != null) ? extensionFieldRepository.findExtensionFields(extensionName) : null;
+		fields = (fields != null) ? fields : new ArrayList<ExtensionFieldEntity>();
+		
+		Set<String> columnNames = new LinkedHashSet<>();
+		
+		for(ExtensionFieldEntity field : fields)
+		{
+			columnNames.add(field.getColumnName());
+			
+			// lov values are computed lazily, compute them before sharing the field
+			field.getLovValues();
+		}
+		
+		metadata.fields = Collections.unmodifiableList(fields);
+		metadata.columnNames = Collections.unmodifiableSet(columnNames);
+		metadata.validator = ExtensionFieldsValidator.compile(fields, webutilsConfiguration.getDateFormat().toPattern());
+		
+		if(version == spaceVersion.fieldsVersion.get())
+		{
+			metadataCache.put(cacheKey, metadata, METADATA_TTL_MILLIS);
+		}
+		
+		return metadata;
+	}
+	
+	/**
+	 * Verifies metadata version stamp of specified space against database, if configured interval is elapsed
+	 * since last verification. If stamp is changed, cached metadata of the space is invalidated.
+	 * @param spaceIdentity Space to verify
+	 * @return Version of the space
+	 */
+	private SpaceVersion checkSpaceVersion(String spaceIdentity)
+	{
+		long now = System.currentTimeMillis();
+		SpaceVersion spaceVersion = spaceVersions.get(spaceIdentity);
+		
+		if(spaceVersion != null && (now - spaceVersion.checkedOn) < webutilsConfiguration.getExtensionVersionCheckMillis())
+		{
+			return spaceVersion;
+		}
+		
+		Long stamp = extensionVersionRepository.fetchStamp(spaceIdentity);
+		long stampValue = (stamp != null) ? stamp : 0;
+		
+		if(spaceVersion == null)
+		{
+			spaceVersion = new SpaceVersion();
+			spaceVersion.stamp = stampValue;
+			spaceVersion.checkedOn = now;
+			
+			SpaceVersion existing = spaceVersions.putIfAbsent(spaceIdentity, spaceVersion);
+			
+			if(existing == null)
+			{
+				return spaceVersion;
+			}
+			
+			spaceVersion = existing;
+		}
+		
+		spaceVersion.checkedOn = now;
+		
+		if(spaceVersion.stamp != stampValue)
+		{
+			logger.debug("Extension metadata of space '{}' is modified by other node. Invalidating cached metadata", spaceIdentity);
+			
+			spaceVersion.stamp = stampValue;
+			invalidateSpace(spaceIdentity, spaceVersion);
+		}
+		
+		return spaceVersion;
+	}
+	
+	/**
+	 * Removes cached metadata of specified space and increments its version, so that dependent caches
+	 * of the space (only) are invalidated.
+	 * @param spaceIdentity Space whose metadata should be removed
+	 * @param spaceVersion Version of the space
+	 */
+	private void invalidateSpace(final String spaceIdentity, SpaceVersion spaceVersion)
+	{
+		spaceVersion.fieldsVersion.incrementAndGet();
+		metadataCache.removeIf(key -> key.startsWith(spaceIdentity + "|"));
+	}
+	
+	/**
+	 * Should be invoked whenever extension metadata of current space is modified. Invalidates
+	 * cached metadata of current space and updates the space version stamp, so that other nodes can detect the change.
+	 */
+	private void markModified()
+	{
+		String spaceIdentity = String.valueOf(securityService.getUserSpaceIdentity());
+		long stamp = UUID.randomUUID().getMostSignificantBits();
+		
+		try
+		{
+			if(!extensionVersionRepository.updateStamp(spaceIdentity, stamp))
+			{
+				ExtensionVersionEntity versionEntity = new ExtensionVersionEntity();
+				versionEntity.setSpaceIdentity(spaceIdentity);
+				versionEntity.setStamp(stamp);
+				
+				try
+				{
+					extensionVersionRepository.save(versionEntity);
+				}catch(RuntimeException ex)
+				{
+					// stamp record might have been created by other node concurrently
+					extensionVersionRepository.updateStamp(spaceIdentity, stamp);
+				}
+			}
+		}catch(RuntimeException ex)
+		{
+			logger.error("An error occurred while updating extension metadata version of space - {}", spaceIdentity, ex);
+		}
+		
+		SpaceVersion spaceVersion = spaceVersions.computeIfAbsent(spaceIdentity, key -> new SpaceVersion());
+		spaceVersion.stamp = stamp;
+		
+		invalidateSpace(spaceIdentity, spaceVersion);
+	}
+	
 	/**
 	 * Fetches extensions as LOV list. This method returns extensions which are current user
 	 * is authorized for.
@@ -211,7 +478,7 @@ public class ExtensionService
 	{
 		logger.trace("Fetching extension entity - [Name: {}]", name);
 		
-		return extensionRepository.findExtensionByName(name);
+		return getMetadata(name).extension;
 	}
 	
 	/**
@@ -261,10 +528,13 @@ public class ExtensionService
 		{
 			throw new ServiceException("Failed to save extension - {}", extension);
 		}
+		
+		markModified();
 	}
 	
 	/**
-	 * Fetches extension fields for specified extension name.
+	 * Fetches extension fields for specified extension name. Fields are served from cache and returned
+	 * list and fields should not be modified.
 	 * @param extensionName Specified extension name
 	 * @return List of extension fields
 	 */
@@ -272,7 +542,19 @@ public class ExtensionService
 	{
 		logger.trace("Fetching extension fields for extension - {}", extensionName);
 		
-		return extensionFieldRepository.findExtensionFields(extensionName);
+		return getMetadata(extensionName).fields;
+	}
+	
+	/**
+	 * Fetches validator of extended field values for specified extension name. Validator is compiled
+	 * once and cached along with extension fields.
+	 * @param extensionName Extension name
+	 * @return Validator for extended fields, null if extension does not exist
+	 */
+	public ExtensionFieldsValidator getFieldsValidator(String extensionName)
+	{
+		ExtensionMetadata metadata = getMetadata(extensionName);
+		return (metadata.extension != null) ? metadata.validator : null;
 	}
 	
 	/**
@@ -376,6 +658,13 @@ public class ExtensionService
 		{
 			throw new ServiceException("Failed to save extension field entity.");
 		}
+		
+		markModified();
+		
+		if(extensionFieldEntity.isSearchable())
+		{
+			extensionIndexService.scheduleSync(extensionFieldRepository.fetchTargetEntityType(extensionFieldEntity.getId()), columnName);
+		}
 	}
 	
 	/**
@@ -390,10 +679,20 @@ public class ExtensionService
 		
 		userService.populateTrackingFieldForUpdate(extensionFieldEntity);
 		
+		ExtensionFieldEntity existingField = extensionFieldRepository.findById(extensionFieldEntity.getId());
+		
 		if(!extensionFieldRepository.update(extensionFieldEntity))
 		{
 			throw new ServiceException("Failed to update extension field details");
 		}
+		
+		markModified();
+		
+		//if searchable flag is changed, create/drop index accordingly
+		if(existingField != null && existingField.isSearchable() != extensionFieldEntity.isSearchable())
+		{
+			extensionIndexService.scheduleSync(extensionFieldRepository.fetchTargetEntityType(existingField.getId()), existingField.getColumnName());
+		}
 	}
 	
 	/**
@@ -414,10 +713,21 @@ public class ExtensionService
 	{
 		logger.trace("Deleting extension field with id - {}", extensionFieldId);
 		
+		ExtensionFieldEntity existingField = extensionFieldRepository.findById(extensionFieldId);
+		String targetEntityType = (existingField != null && existingField.isSearchable()) ? extensionFieldRepository.fetchTargetEntityType(extensionFieldId) : null;
+		
 		if(!extensionFieldRepository.deleteById(extensionFieldId))
 		{
 			throw new ServiceException("Failed to delete extension field with id '{}'", extensionFieldId);
 		}
+		
+		markModified();
+		
+		//drop index, if no other searchable field is using the column
+		if(targetEntityType != null)
+		{
+			extensionIndexService.scheduleSync(targetEntityType, existingField.getColumnName());
+		}
 	}
 	
 	/**
@@ -428,16 +738,18 @@ public class ExtensionService
 	{
 		logger.trace("Deleting all extensions");
 		extensionFieldRepository.deleteAll();
+		
+		markModified();
+		metadataCache.clear();
 	}
 	
 	/**
-	 * Maps data from specified model to entity.
-	 * @param model model from which extended field data needs to be mapped.
-	 * @param entity Entity to which extended field data needs to be set.
+	 * Fetches extension name of specified model.
+	 * @param model Model whose extension name is needed
+	 * @return Extension name
 	 */
-	public void mapExtendedFieldsToEntity(IExtendableModel model, WebutilsExtendableEntity entity)
+	public String getExtensionName(Object model)
 	{
-		//fetch extension name of the model
 		String extensionName = extensionContextProvider.getExtensionName(model);
 		
 		//if context provider is not able to provide the name, fall back to default way of fetching
@@ -447,6 +759,19 @@ public class ExtensionService
 			extensionName = extendableModel.name();
 		}
 		
+		return extensionName;
+	}
+	
+	/**
+	 * Maps data from specified model to entity.
+	 * @param model model from which extended field data needs to be mapped.
+	 * @param entity Entity to which extended field data needs to be set.
+	 */
+	public void mapExtendedFieldsToEntity(IExtendableModel model, WebutilsExtendableEntity entity)
+	{
+		//fetch extension name of the model
+		String extensionName = getExtensionName(model);
+		
 		//get extended field details
 		List<ExtensionFieldEntity> fields = getExtensionFields(extensionName);
 		
@@ -474,31 +799,102 @@ public class ExtensionService
 	public void mapExtendedFieldsToModel(IWebutilsRepository<?> repository, long entityId, IExtendableModel model)
 	{
 		//fetch extension name of the model
-		String extensionName = extensionContextProvider.getExtensionName(model);
+		String extensionName = getExtensionName(model);
 		
-		//if context provider is not able to provide the name, fall back to default way of fetching
-		if(extensionName == null)
+		//get extended field details
+		ExtensionMetadata metadata = getMetadata(extensionName);
+		List<ExtensionFieldEntity> fields = metadata.fields;
+		
+		if(fields.isEmpty())
 		{
-			ExtendableModel extendableModel = model.getClass().getAnnotation(ExtendableModel.class);
-			extensionName = extendableModel.name();
+			return;
 		}
 		
-		//get extended field details
-		List<ExtensionFieldEntity> fields = getExtensionFields(extensionName);
+		//fetch extension field data
+		ExtensionFieldsData extensionFieldsData = repository.fetchExtendedFields(entityId, metadata.columnNames);
 		
-		if(fields == null || fields.isEmpty())
+		setExtendedFields(model, fields, extensionFieldsData.getExtendedFields());
+	}
+	
+	/**
+	 * Maps the data from specified entities to corresponding models. Extended fields of the entities are fetched
+	 * using single query per extension (and per {@link #BULK_FETCH_SIZE} entities), instead of one query per entity.
+	 * @param repository Repository to be used for fetching extended field values
+	 * @param entityIds Ids of entities from which extended data needs to be fetched
+	 * @param models Models to which extended fields needs to be mapped, in entity id order
+	 */
+	public void mapExtendedFieldsToModels(IWebutilsRepository<?> repository, List<Long> entityIds, List<? extends IExtendableModel> models)
+	{
+		if(entityIds.size() != models.size())
 		{
-			return;
+			throw new InvalidArgumentException("Number of entity ids {} and models {} are not matching", entityIds.size(), models.size());
 		}
 		
-		//build extension field names and fetch extension field data
-		Set<String> extendedFieldNames = new HashSet<>(); 
-		fields.stream().map(extFld -> extFld.getColumnName()).forEach(name -> extendedFieldNames.add(name));
+		//group the models by extension, as different models can belong to different extensions
+		Map<String, Map<Long, IExtendableModel>> extensionToModels = new HashMap<>();
+		Map<Long, IExtendableModel> idToModel = null;
+		String extensionName = null;
+		
+		for(int i = 0; i < models.size(); i++)
+		{
+			extensionName = getExtensionName(models.get(i));
+			idToModel = extensionToModels.get(extensionName);
+			
+			if(idToModel == null)
+			{
+				idToModel = new HashMap<>();
+				extensionToModels.put(extensionName, idToModel);
+			}
+			
+			idToModel.put(entityIds.get(i), models.get(i));
+		}
 		
-		ExtensionFieldsData extensionFieldsData = repository.fetchExtendedFields(entityId, extendedFieldNames);
+		ExtensionMetadata metadata = null;
+		List<Long> ids = null;
+		List<ExtensionFieldsData> extensionFieldsDataLst = null;
+		IExtendableModel model = null;
 		
-		//get extended field data, maps from column name to value
-		Map<String, String> extFieldData = extensionFieldsData.getExtendedFields();
+		for(Map.Entry<String, Map<Long, IExtendableModel>> entry : extensionToModels.entrySet())
+		{
+			metadata = getMetadata(entry.getKey());
+			
+			if(metadata.fields.isEmpty())
+			{
+				continue;
+			}
+			
+			ids = new ArrayList<>(entry.getValue().keySet());
+			
+			for(int from = 0; from < ids.size(); from += BULK_FETCH_SIZE)
+			{
+				extensionFieldsDataLst = repository.fetchExtendedFieldsOfEntities(ids.subList(from, Math.min(from + BULK_FETCH_SIZE, ids.size())), metadata.columnNames);
+				
+				if(extensionFieldsDataLst == null)
+				{
+					continue;
+				}
+				
+				for(ExtensionFieldsData data : extensionFieldsDataLst)
+				{
+					model = entry.getValue().get(data.getId());
+					
+					if(model != null)
+					{
+						setExtendedFields(model, metadata.fields, data.getExtendedFields());
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Sets extended field values fetched from db on specified model.
+	 * @param model Model on which values should be set
+	 * @param fields Extension fields of the model
+	 * @param extFieldData Extended field values fetched from db, mapping column name to value
+	 */
+	private void setExtendedFields(IExtendableModel model, List<ExtensionFieldEntity> fields, Map<String, String> extFieldData)
+	{
 		Map<String, String> modelExtFieldData = new HashMap<>();
 		
 		//set data mapping name to value
@@ -521,6 +917,8 @@ public class ExtensionService
 		{
 			throw new InvalidStateException("Failed to update extension '{}' to name - {}", extensionId, newName);
 		}
+		
+		markModified();
 	}
 	
 	/**
@@ -529,6 +927,24 @@ public class ExtensionService
 	 */
 	public void deleteExtension(long id)
 	{
+		ExtensionEntity extension = extensionRepository.findById(id);
+		List<ExtensionFieldEntity> fields = (extension != null) ? extensionFieldRepository.findExtensionFieldsByExtensionId(id) : null;
+		
 		extensionRepository.deleteById(id);
+		markModified();
+		
+		if(fields == null)
+		{
+			return;
+		}
+		
+		//drop indexes of searchable fields, if no other searchable field is using the columns
+		for(ExtensionFieldEntity field : fields)
+		{
+			if(field.isSearchable())
+			{
+				extensionIndexService.scheduleSync(extension.getTargetEntityType(), field.getColumnName());
+			}
+		}
 	}
 }
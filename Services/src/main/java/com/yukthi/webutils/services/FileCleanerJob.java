@@ -25,8 +25,6 @@ package com.yukthi.webutils.services;
 
 import java.util.Date;
 
-import javax.annotation.PostConstruct;
-
 import org.apache.commons.lang3.time.DateUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -34,9 +32,7 @@ import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import com.yukthi.persistence.repository.RepositoryFactory;
 import com.yukthi.webutils.annotations.CronJob;
-import com.yukthi.webutils.repository.file.IFileRepository;
 import com.yukthi.webutils.services.job.IJob;
 
 /**
@@ -54,24 +50,10 @@ public class FileCleanerJob implements IJob
 	private static final int HOUR_12 = 12;
 	
 	/**
-	 * Repository factory to get file repository.
+	 * File service to delete temp files along with their content.
 	 */
 	@Autowired
-	private RepositoryFactory repositoryFactory;
-	
-	/**
-	 * File repository to delete temp files.
-	 */
-	private IFileRepository fileRepository;
-	
-	/**
-	 * Post constructor to get file repository.
-	 */
-	@PostConstruct
-	private void init()
-	{
-		fileRepository = repositoryFactory.getRepository(IFileRepository.class);
-	}
+	private FileService fileService;
 	
 	/* (non-Javadoc)
 	 * @see com.yukthi.webutils.services.job.IJob#execute(java.lang.Object, org.quartz.JobExecutionContext)
@@ -85,6 +67,6 @@ public class FileCleanerJob implements IJob
 		Date createdAfter = new Date();
 		createdAfter = DateUtils.addHours(createdAfter, -HOUR_12);
 		
-		fileRepository.deleteTempFiles(createdAfter);
+		fileService.deleteTempFiles(createdAfter);
 	}
 }
@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.yukthi.webutils.annotations.CronJob;
+import com.yukthi.webutils.services.job.IJob;
+
+/**
+ * Job to remove file contents which are no more referred by any file. Expected to run once every day.
+ * @author akiran
+ */
+@CronJob(name = "File Content Cleaner", cronExpression = "0 30 23 * * ?")
+public class FileContentCleanerJob implements IJob
+{
+	private static Logger logger = LogManager.getLogger(FileContentCleanerJob.class);
+	
+	/**
+	 * Service to remove unreferenced contents.
+	 */
+	@Autowired
+	private FileContentService fileContentService;
+	
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.job.IJob#execute(java.lang.Object, org.quartz.JobExecutionContext)
+	 */
+	@Override
+	public void execute(Object jobData, JobExecutionContext context) throws JobExecutionException
+	{
+		if(fileContentService.getContentStore() == null)
+		{
+			return;
+		}
+		
+		logger.debug("Removing unreferenced file contents");
+		fileContentService.collectGarbage();
+		
+		logger.info("File content statistics - {}", fileContentService.getStatistics());
+	}
+}
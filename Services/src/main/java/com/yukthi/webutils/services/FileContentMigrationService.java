@@ -0,0 +1,230 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.yukthi.persistence.ITransaction;
+import com.yukthi.persistence.OrderByField;
+import com.yukthi.persistence.repository.RepositoryFactory;
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.persistence.repository.annotations.OrderByType;
+import com.yukthi.persistence.repository.search.SearchCondition;
+import com.yukthi.persistence.repository.search.SearchQuery;
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.repository.file.FileContentRow;
+import com.yukthi.webutils.repository.file.IFileRepository;
+import com.yukthi.webutils.services.job.JobService;
+import com.yukthi.webutils.utils.WebAttachmentUtils;
+
+/**
+ * Service to move file contents, maintained in db, to configured content store. Files are scanned in
+ * id order in batches (without loading content) and content of each batch is moved in single transaction, so
+ * that migration can be run on live system and can be resumed after failures.
+ * @author akiran
+ */
+@Service
+public class FileContentMigrationService
+{
+	private static Logger logger = LogManager.getLogger(FileContentMigrationService.class);
+	
+	/**
+	 * Repository factory to fetch file repository.
+	 */
+	@Autowired
+	private RepositoryFactory repositoryFactory;
+	
+	/**
+	 * Service to store deduplicated contents.
+	 */
+	@Autowired
+	private FileContentService fileContentService;
+	
+	/**
+	 * Job service to run migration in background.
+	 */
+	@Autowired
+	private JobService jobService;
+	
+	/**
+	 * Configuration used to fetch migration batch size.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * File repository.
+	 */
+	private IFileRepository repository;
+	
+	/**
+	 * Post construct method to fetch repository.
+	 */
+	@PostConstruct
+	private void init()
+	{
+		repository = repositoryFactory.getRepository(IFileRepository.class);
+	}
+	
+	/**
+	 * Submits a background job to migrate file contents from db to content store.
+	 */
+	public void submitMigration()
+	{
+		if(fileContentService.getContentStore() == null)
+		{
+			throw new InvalidStateException("No file content store is configured to migrate file contents");
+		}
+		
+		jobService.submitJob("file-content-migration-" + UUID.randomUUID(), FileContentMigrationJob.class, null);
+	}
+	
+	/**
+	 * Moves contents of all files maintained in db to configured content store.
+	 * @return Number of files migrated
+	 */
+	public synchronized long migrate()
+	{
+		if(fileContentService.getContentStore() == null)
+		{
+			throw new InvalidStateException("No file content store is configured to migrate file contents");
+		}
+		
+		int batchSize = webutilsConfiguration.getFileMigrationBatchSize();
+		long lastId = 0;
+		long migratedCount = 0;
+		List<FileContentRow> rows = null;
+		
+		logger.info("Starting migration of file contents to content store with batch size - {}", batchSize);
+		
+		while(true)
+		{
+			rows = fetchBatch(lastId, batchSize);
+			
+			if(rows == null || rows.isEmpty())
+			{
+				break;
+			}
+			
+			migratedCount += migrateBatch(rows);
+			lastId = rows.get(rows.size() - 1).getId();
+			
+			logger.debug("Migrated {} file(s) till file id - {}", migratedCount, lastId);
+			
+			if(rows.size() < batchSize)
+			{
+				break;
+			}
+		}
+		
+		logger.info("Completed migration of file contents to content store. Number of files migrated - {}", migratedCount);
+		return migratedCount;
+	}
+	
+	/**
+	 * Fetches next batch of file rows (without content) after specified id.
+	 * @param lastId Id after which rows should be fetched
+	 * @param batchSize Maximum number of rows to fetch
+	 * @return Rows in id order
+	 */
+	private List<FileContentRow> fetchBatch(long lastId, int batchSize)
+	{
+		SearchQuery query = new SearchQuery();
+		query.addCondition(new SearchCondition("id", Operator.GT, lastId));
+		query.setOrderByFields(Arrays.asList(new OrderByField("id", OrderByType.ASC)));
+		query.setResultsLimit(batchSize);
+		
+		return repository.searchContentRows(query);
+	}
+	
+	/**
+	 * Moves content of specified files, which are still maintained in db, to content store in single transaction.
+	 * Contents are deduplicated against already stored contents. On failure, content records and file references
+	 * are rolled back along with the transaction.
+	 * @param rows Rows to migrate
+	 * @return Number of files migrated
+	 */
+	private int migrateBatch(List<FileContentRow> rows)
+	{
+		int migratedCount = 0;
+		File content = null;
+		String contentHash = null, contentKey = null;
+		
+		try(ITransaction transaction = repository.newOrExistingTransaction())
+		{
+			for(FileContentRow row : rows)
+			{
+				//ignore files which are already migrated
+				if(row.getContentKey() != null)
+				{
+					continue;
+				}
+				
+				//only content column is read, into temp file
+				content = repository.fetchContent(row.getId());
+				
+				//ignore files deleted concurrently
+				if(content == null)
+				{
+					continue;
+				}
+				
+				try
+				{
+					contentHash = WebAttachmentUtils.computeContentHash(content);
+					contentKey = fileContentService.acquire(content, contentHash, content.length());
+				} finally
+				{
+					//delete the temp file that was created during db read
+					content.delete();
+				}
+				
+				if(!repository.updateContentKey(row.getId(), contentKey, contentHash, null))
+				{
+					throw new InvalidStateException("Failed to update content key of file - {}", row.getId());
+				}
+				
+				migratedCount++;
+			}
+			
+			transaction.commit();
+		} catch(Exception ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while migrating file contents to content store");
+		}
+		
+		return migratedCount;
+	}
+}
@@ -0,0 +1,383 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.yukthi.persistence.OrderByField;
+import com.yukthi.persistence.repository.RepositoryFactory;
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.persistence.repository.annotations.OrderByType;
+import com.yukthi.persistence.repository.search.SearchCondition;
+import com.yukthi.persistence.repository.search.SearchQuery;
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.repository.file.FileContentEntity;
+import com.yukthi.webutils.repository.file.IFileContentRepository;
+import com.yukthi.webutils.repository.file.IFileContentStore;
+import com.yukthi.webutils.repository.file.IFileRepository;
+import com.yukthi.webutils.repository.file.LocalFileSystemContentStore;
+
+/**
+ * Manages file contents in content store. Contents are addressed by their hash, so that same content
+ * uploaded multiple times (across records and user spaces) is stored only once. Released contents which are no
+ * more referred by any file are removed by {@link FileContentCleanerJob}.
+ * <BR><BR>
+ * Acquire and release are executed as part of caller transaction, hence they do not maintain counters (which would
+ * need read-modify-write retries, which do not work within single transaction). Instead every statement is a single
+ * row insert or unconditional update, and references are counted from file records by the sweep, which considers
+ * only committed state.
+ * @author akiran
+ */
+@Service
+public class FileContentService
+{
+	private static Logger logger = LogManager.getLogger(FileContentService.class);
+	
+	/**
+	 * Number of contents fetched in single query during sweeps.
+	 */
+	private static final int SCAN_BATCH_SIZE = 100;
+	
+	/**
+	 * Repository factory to fetch content repository.
+	 */
+	@Autowired
+	private RepositoryFactory repositoryFactory;
+	
+	/**
+	 * Configuration used to fetch file store settings.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * Optional content store to maintain file contents outside db. If not configured and file store directory
+	 * is configured, local file system store will be used. If neither is configured, contents are maintained in db.
+	 */
+	@Autowired(required = false)
+	private IFileContentStore contentStore;
+	
+	/**
+	 * Content repository.
+	 */
+	private IFileContentRepository repository;
+	
+	/**
+	 * File repository, used to count references to contents.
+	 */
+	private IFileRepository fileRepository;
+	
+	/**
+	 * Post construct method to initialize repository and content store.
+	 */
+	@PostConstruct
+	private void init()
+	{
+		this.repository = repositoryFactory.getRepository(IFileContentRepository.class);
+		this.fileRepository = repositoryFactory.getRepository(IFileRepository.class);
+		
+		if(contentStore == null && webutilsConfiguration.getFileStoreDirectory() != null)
+		{
+			contentStore = new LocalFileSystemContentStore(new File(webutilsConfiguration.getFileStoreDirectory()));
+			logger.info("Using local file system content store with directory - {}", webutilsConfiguration.getFileStoreDirectory());
+		}
+	}
+	
+	/**
+	 * Gets the content store being used. Null if file contents are maintained in db.
+	 *
+	 * @return the content store being used
+	 */
+	public IFileContentStore getContentStore()
+	{
+		return contentStore;
+	}
+	
+	/**
+	 * Acquires a reference to the content with specified hash. If content with same hash is already stored, it is
+	 * marked as referenced and its key is returned. Otherwise specified file is stored as new content.
+	 * <BR>
+	 * Marking content as referenced, clears its release time. This update locks the content record till caller
+	 * transaction completes, so that concurrent sweep can not remove the content. If the content got removed
+	 * before the update, content is stored again.
+	 * @param content File with content
+	 * @param contentHash SHA-256 hash (hex) of the content
+	 * @param size Size of the content in bytes
+	 * @return Key of the content in content store
+	 */
+	public String acquire(File content, String contentHash, long size)
+	{
+		if(contentStore == null)
+		{
+			throw new InvalidStateException("No file content store is configured");
+		}
+		
+		for(FileContentEntity existing : repository.findByContentHash(contentHash))
+		{
+			if(repository.updateReleasedOn(existing.getId(), null))
+			{
+				logger.trace("Reusing existing content {} for hash - {}", existing.getContentKey(), contentHash);
+				return existing.getContentKey();
+			}
+		}
+		
+		String contentKey = null;
+		
+		try
+		{
+			contentKey = contentStore.store(content);
+		} catch(IOException ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while storing file content - {}", content.getPath());
+		}
+		
+		//as hash is not unique, concurrent store of same content results in separate records instead of failure
+		try
+		{
+			repository.save(new FileContentEntity(contentHash, contentKey, size));
+		} catch(RuntimeException ex)
+		{
+			//new content is not yet referred by any file
+			deleteFromStore(contentKey);
+			throw ex;
+		}
+		
+		logger.trace("Stored new content {} for hash - {}", contentKey, contentHash);
+		return contentKey;
+	}
+	
+	/**
+	 * Releases references to specified contents. Contents are never deleted from the store as part of release, 
+	 * as release happens within caller transaction which might still get rolled back. Released contents are
+	 * removed by background sweep after grace period, if they are no more referred by any file. Contents 
+	 * stored before deduplication (which do not have content record) are recorded as released contents, so that
+	 * they are removed by the same sweep.
+	 * @param contentKeys Keys of the contents to release. Null keys are ignored.
+	 */
+	public void release(Collection<String> contentKeys)
+	{
+		if(contentStore == null || contentKeys == null)
+		{
+			return;
+		}
+		
+		Date releasedOn = new Date();
+		
+		for(String contentKey : contentKeys)
+		{
+			if(contentKey == null)
+			{
+				continue;
+			}
+			
+			if(repository.updateReleasedOnByKey(contentKey, releasedOn))
+			{
+				logger.trace("Released content - {}", contentKey);
+				continue;
+			}
+			
+			//content stored before deduplication, record it as released. If the transaction gets
+			// rolled back, the record gets rolled back as well and content is retained
+			recordReleased(contentKey, releasedOn);
+		}
+	}
+	
+	/**
+	 * Records content stored before deduplication as released content, so that it gets removed by sweep. As
+	 * the hash of such content is not known, the record will not be used for deduplication.
+	 * @param contentKey Key of the content to record
+	 * @param releasedOn Release time
+	 */
+	private void recordReleased(String contentKey, Date releasedOn)
+	{
+		File file = null;
+		
+		try
+		{
+			file = contentStore.fetch(contentKey);
+		} catch(IOException ex)
+		{
+			logger.warn("Failed to fetch size of content with key - " + contentKey, ex);
+		}
+		
+		FileContentEntity content = new FileContentEntity(null, contentKey, (file != null) ? file.length() : 0);
+		content.setReleasedOn(releasedOn);
+		
+		repository.save(content);
+		logger.trace("Recorded content {} stored before deduplication as released", contentKey);
+	}
+	
+	/**
+	 * Deletes specified content from content store. Failures are only logged, as left over content
+	 * does not affect functionality.
+	 * @param contentKey Key of the content to delete
+	 */
+	private void deleteFromStore(String contentKey)
+	{
+		try
+		{
+			contentStore.delete(contentKey);
+		} catch(Exception ex)
+		{
+			logger.warn("Failed to delete content with key - " + contentKey, ex);
+		}
+	}
+	
+	/**
+	 * Counts files referring to specified contents, across user spaces, using single query for the batch.
+	 * @param contents Contents whose references needs to be counted
+	 * @return Number of references by content key. Contents without references are not included.
+	 */
+	private Map<String, Integer> countReferences(List<FileContentEntity> contents)
+	{
+		Map<String, Integer> references = new HashMap<>();
+		
+		if(contents.isEmpty())
+		{
+			return references;
+		}
+		
+		List<String> contentKeys = contents.stream().map(FileContentEntity::getContentKey).collect(Collectors.toList());
+		
+		for(String contentKey : fileRepository.fetchReferredContentKeys(contentKeys))
+		{
+			references.merge(contentKey, 1, Integer::sum);
+		}
+		
+		return references;
+	}
+	
+	/**
+	 * Removes released contents which are not referenced by any file, for at least configured grace period. Released
+	 * contents which are still referred are marked as referenced again.
+	 * <BR>
+	 * References are counted from committed file records. Content being acquired concurrently either has its release 
+	 * time cleared (or locked by the acquiring transaction) and hence is not deleted, or is stored again by the acquirer 
+	 * when the record is already deleted.
+	 * @return Number of contents removed
+	 */
+	public int collectGarbage()
+	{
+		if(contentStore == null)
+		{
+			return 0;
+		}
+		
+		Date releasedBefore = DateUtils.addMinutes(new Date(), -webutilsConfiguration.getFileContentGcGraceMinutes());
+		List<FileContentEntity> contents = null;
+		Map<String, Integer> references = null;
+		int deletedCount = 0;
+		long lastId = 0;
+		
+		logger.debug("Removing contents released before - {}", releasedBefore);
+		
+		do
+		{
+			SearchQuery query = new SearchQuery();
+			query.addCondition(new SearchCondition("releasedOn", Operator.LT, releasedBefore));
+			query.addCondition(new SearchCondition("id", Operator.GT, lastId));
+			query.setOrderByFields(Arrays.asList(new OrderByField("id", OrderByType.ASC)));
+			query.setResultsLimit(SCAN_BATCH_SIZE);
+			
+			contents = repository.searchContents(query);
+			references = countReferences(contents);
+			
+			for(FileContentEntity content : contents)
+			{
+				lastId = content.getId();
+				
+				if(references.containsKey(content.getContentKey()))
+				{
+					//content is still referred, skip it in further sweeps, unless it is released again in the mean time
+					repository.clearReleasedOn(content.getId(), content.getReleasedOn(), null);
+					continue;
+				}
+				
+				//delete only if content is not acquired again in the mean time
+				if(repository.deleteReleased(content.getId(), releasedBefore) > 0)
+				{
+					deleteFromStore(content.getContentKey());
+					deletedCount++;
+				}
+			}
+		} while(contents.size() >= SCAN_BATCH_SIZE);
+		
+		logger.info("Number of unreferenced file contents removed - {}", deletedCount);
+		return deletedCount;
+	}
+	
+	/**
+	 * Computes statistics of stored contents, which indicate effectiveness of deduplication.
+	 * @return Content statistics
+	 */
+	public FileContentStatistics getStatistics()
+	{
+		long contentCount = 0, referenceCount = 0, storedBytes = 0, referencedBytes = 0;
+		long lastId = 0;
+		int contentReferences = 0;
+		List<FileContentEntity> contents = null;
+		Map<String, Integer> references = null;
+		
+		do
+		{
+			SearchQuery query = new SearchQuery();
+			query.addCondition(new SearchCondition("id", Operator.GT, lastId));
+			query.setOrderByFields(Arrays.asList(new OrderByField("id", OrderByType.ASC)));
+			query.setResultsLimit(SCAN_BATCH_SIZE);
+			
+			contents = repository.searchContents(query);
+			references = countReferences(contents);
+			
+			for(FileContentEntity content : contents)
+			{
+				contentReferences = references.getOrDefault(content.getContentKey(), 0);
+				
+				contentCount++;
+				referenceCount += contentReferences;
+				storedBytes += content.getSizeInBytes();
+				referencedBytes += content.getSizeInBytes() * contentReferences;
+				lastId = content.getId();
+			}
+		} while(contents.size() >= SCAN_BATCH_SIZE);
+		
+		return new FileContentStatistics(contentCount, referenceCount, storedBytes, referencedBytes);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+/**
+ * Statistics of shared file contents, used to report effectiveness of content deduplication.
+ * @author akiran
+ */
+public class FileContentStatistics
+{
+	/**
+	 * Number of unique contents stored.
+	 */
+	private long contentCount;
+	
+	/**
+	 * Number of files referring to stored contents.
+	 */
+	private long referenceCount;
+	
+	/**
+	 * Total size of unique contents stored.
+	 */
+	private long storedBytes;
+	
+	/**
+	 * Total size of files referring to stored contents.
+	 */
+	private long referencedBytes;
+	
+	/**
+	 * Instantiates a new file content statistics.
+	 *
+	 * @param contentCount the content count
+	 * @param referenceCount the reference count
+	 * @param storedBytes the stored bytes
+	 * @param referencedBytes the referenced bytes
+	 */
+	public FileContentStatistics(long contentCount, long referenceCount, long storedBytes, long referencedBytes)
+	{
+		this.contentCount = contentCount;
+		this.referenceCount = referenceCount;
+		this.storedBytes = storedBytes;
+		this.referencedBytes = referencedBytes;
+	}
+
+	/**
+	 * Gets the number of unique contents stored.
+	 *
+	 * @return the number of unique contents stored
+	 */
+	public long getContentCount()
+	{
+		return contentCount;
+	}
+
+	/**
+	 * Gets the number of files referring to stored contents.
+	 *
+	 * @return the number of files referring to stored contents
+	 */
+	public long getReferenceCount()
+	{
+		return referenceCount;
+	}
+
+	/**
+	 * Gets the total size of unique contents stored.
+	 *
+	 * @return the total size of unique contents stored
+	 */
+	public long getStoredBytes()
+	{
+		return storedBytes;
+	}
+
+	/**
+	 * Gets the total size of files referring to stored contents.
+	 *
+	 * @return the total size of files referring to stored contents
+	 */
+	public long getReferencedBytes()
+	{
+		return referencedBytes;
+	}
+
+	/**
+	 * Gets the deduplication ratio, which is ratio of size of all files to size actually stored. A ratio of 1
+	 * indicates no duplicates were found.
+	 *
+	 * @return the deduplication ratio
+	 */
+	public double getDeduplicationRatio()
+	{
+		return (storedBytes == 0) ? 1 : ((double) referencedBytes / storedBytes);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder(super.toString());
+		builder.append("[");
+
+		builder.append("Contents: ").append(contentCount);
+		builder.append(",").append("References: ").append(referenceCount);
+		builder.append(",").append("Stored bytes: ").append(storedBytes);
+		builder.append(",").append("Referenced bytes: ").append(referencedBytes);
+		builder.append(",").append("Dedup ratio: ").append(String.format("%.2f", getDeduplicationRatio()));
+
+		builder.append("]");
+		return builder.toString();
+	}
+}
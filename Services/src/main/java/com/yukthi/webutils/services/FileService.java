@@ -23,11 +23,18 @@
 
 package com.yukthi.webutils.services;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.PostConstruct;
 
@@ -44,8 +51,12 @@ import com.yukthi.webutils.common.models.def.FieldDef;
 import com.yukthi.webutils.common.models.def.FieldType;
 import com.yukthi.webutils.common.models.def.ModelDef;
 import com.yukthi.webutils.repository.file.FileEntity;
+import com.yukthi.webutils.repository.file.FileMetadata;
+import com.yukthi.webutils.repository.file.IFileContentStore;
 import com.yukthi.webutils.repository.file.IFileRepository;
 import com.yukthi.webutils.security.ISecurityService;
+import com.yukthi.webutils.utils.UploadedFileInfo;
+import com.yukthi.webutils.utils.WebAttachmentUtils;
 import com.yukthi.webutils.utils.WebUtils;
 
 /**
@@ -57,6 +68,11 @@ public class FileService
 {
 	private static Logger logger = LogManager.getLogger(FileService.class);
 	
+	/**
+	 * Maximum number of owners whose files are fetched in single query.
+	 */
+	private static final int BULK_FETCH_SIZE = 500;
+	
 	/**
 	 * Autowired repository factory, used to fetch repository.
 	 */
@@ -80,6 +96,12 @@ public class FileService
 	 */
 	@Autowired
 	private ModelDetailsService modelDetailsService;
+	
+	/**
+	 * Service to maintain deduplicated contents in content store.
+	 */
+	@Autowired
+	private FileContentService fileContentService;
 
 	/**
 	 * File repository.
@@ -95,6 +117,146 @@ public class FileService
 		this.repository = repositoryFactory.getRepository(IFileRepository.class);
 	}
 	
+	/**
+	 * Gets the content store being used. Null if file contents are maintained in db.
+	 *
+	 * @return the content store being used
+	 */
+	public IFileContentStore getContentStore()
+	{
+		return fileContentService.getContentStore();
+	}
+	
+	/**
+	 * Moves content of specified entity to content store, if content store is configured. If same content
+	 * is already stored, existing content is reused. On success content key is set on entity and db content is cleared.
+	 * @param fileEntity Entity whose content needs to be stored, with content hash and size populated
+	 * @return Content key, null if content store is not configured
+	 */
+	private String storeContent(FileEntity fileEntity)
+	{
+		if(fileContentService.getContentStore() == null)
+		{
+			return null;
+		}
+		
+		String contentKey = fileContentService.acquire(fileEntity.getFile(), fileEntity.getContentHash(), fileEntity.getSizeInMb());
+		
+		fileEntity.setContentKey(contentKey);
+		fileEntity.setFile(null);
+		
+		return contentKey;
+	}
+	
+	/**
+	 * Sets the file content on specified entity from content store, if the entity content is maintained
+	 * in content store. Store content is copied into a temp file, so that (like content read from db) the
+	 * file set on entity is owned by the caller and store content is not modified or deleted accidentally.
+	 * @param fileEntity Entity whose content needs to be loaded, can be null
+	 * @return Specified entity
+	 */
+	private FileEntity loadContent(FileEntity fileEntity)
+	{
+		if(fileEntity == null || fileEntity.getContentKey() == null)
+		{
+			return fileEntity;
+		}
+		
+		fileEntity.setFile(copyToTempFile(fileEntity.getId(), fetchFromStore(fileEntity.getId(), fileEntity.getContentKey())));
+		return fileEntity;
+	}
+	
+	/**
+	 * Copies specified content store file into a temp file, which is owned by the caller.
+	 * @param id Id of the file, used for temp file name and error messages
+	 * @param storeFile File holding the content, owned by the store
+	 * @return Temp file with the content
+	 */
+	private File copyToTempFile(Long id, File storeFile)
+	{
+		File tempFile = null;
+		
+		try
+		{
+			tempFile = File.createTempFile("file-" + id + "-", ".tmp");
+			Files.copy(storeFile.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch(IOException ex)
+		{
+			if(tempFile != null)
+			{
+				tempFile.delete();
+			}
+			
+			throw new InvalidStateException(ex, "An error occurred while copying content of file - {}", id);
+		}
+		
+		return tempFile;
+	}
+	
+	/**
+	 * Fetches the file holding content with specified key from content store.
+	 * @param id Id of the file, used for error messages
+	 * @param contentKey Content key of the file
+	 * @return File holding the content, owned by the store
+	 */
+	private File fetchFromStore(Long id, String contentKey)
+	{
+		IFileContentStore contentStore = fileContentService.getContentStore();
+		
+		if(contentStore == null)
+		{
+			throw new InvalidStateException("File {} is maintained in content store, but no content store is configured", id);
+		}
+		
+		File file = null;
+		
+		try
+		{
+			file = contentStore.fetch(contentKey);
+		} catch(IOException ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while fetching content of file - {}", id);
+		}
+		
+		if(file == null)
+		{
+			throw new InvalidStateException("Content of file {} is missing in content store. Content key - {}", id, contentKey);
+		}
+		
+		return file;
+	}
+	
+	/**
+	 * Fetches content of the file with specified details. Expected to be invoked only after authorization
+	 * checks are done using details. For files maintained in content store, no db query is executed and returned
+	 * file is owned by the store (should not be modified or deleted). For files maintained in db, only the
+	 * content column is read into a temp file, which should be deleted by caller once used.
+	 * @param metadata Details of the file whose content needs to be fetched
+	 * @return File holding the content, null if file is deleted
+	 * @see #isTemporaryContent(FileMetadata)
+	 */
+	public File fetchContent(FileMetadata metadata)
+	{
+		if(metadata.getContentKey() != null)
+		{
+			return fetchFromStore(metadata.getId(), metadata.getContentKey());
+		}
+		
+		logger.trace("Fetching content of file {} from db", metadata.getId());
+		return repository.fetchContent(metadata.getId());
+	}
+	
+	/**
+	 * Checks if the content file returned by {@link #fetchContent(FileMetadata)} for specified file is a temp
+	 * file, which should be deleted by caller once used.
+	 * @param metadata File details
+	 * @return True, if content is fetched into temp file
+	 */
+	public boolean isTemporaryContent(FileMetadata metadata)
+	{
+		return (metadata.getContentKey() == null);
+	}
+	
 	/**
 	 * Saves single file of specified owner. If no new file content is specified as part of file info
 	 * old file will be retained.
@@ -184,7 +346,7 @@ public class FileService
 		//existing ids are which are not mentioned as part of input list should be deleted
 		for(Long id : idsToRemove)
 		{
-			repository.deleteById(id);
+			this.delete(id);
 		}
 	}
 
@@ -287,7 +449,20 @@ public class FileService
 		userService.populateTrackingFieldForCreate(fileEntity);
 
 		//set extra file info
-		fileEntity.setSizeInMb(fileEntity.getFile().length());
+		//for uploaded files, size and hash are computed while receiving the content
+		if(file instanceof UploadedFileInfo)
+		{
+			UploadedFileInfo uploadedFile = (UploadedFileInfo) file;
+			
+			fileEntity.setSizeInMb(uploadedFile.getContentLength());
+			fileEntity.setContentHash(uploadedFile.getContentHash());
+		}
+		else
+		{
+			fileEntity.setSizeInMb(fileEntity.getFile().length());
+			fileEntity.setContentHash(WebAttachmentUtils.computeContentHash(fileEntity.getFile()));
+		}
+		
 		fileEntity.setVersion(1);
 		fileEntity.setOwnerEntityType(ownerEntityType.getName());
 		fileEntity.setOwnerEntityField(ownerEntityField);
@@ -298,10 +473,22 @@ public class FileService
 		//get security customization
 		securityService.addSecurityCustomization(fileEntity);
 		
-		boolean res = repository.save(fileEntity);
+		String contentKey = storeContent(fileEntity);
+		boolean res = false;
+		
+		try
+		{
+			res = repository.save(fileEntity);
+		} catch(RuntimeException ex)
+		{
+			fileContentService.release(Collections.singletonList(contentKey));
+			throw ex;
+		}
 		
 		if(!res)
 		{
+			fileContentService.release(Collections.singletonList(contentKey));
+			
 			logger.error("Failed to save file - {}", fileEntity);
 			throw new InvalidStateException("Failed to save file - {}", fileEntity);
 		}
@@ -317,7 +504,6 @@ public class FileService
 	 * @param entityType Owner entity type
 	 * @param ownerId Owner id
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void readFilesForModel(Object model, Class<?> entityType, Long ownerId)
 	{
 		if(model == null || ownerId == null)
@@ -325,9 +511,73 @@ public class FileService
 			return;
 		}
 		
-		logger.trace("Trying to save files specified on model - {} under ownership - {}, {}", model, entityType, ownerId);
+		readFilesForModels(Collections.singletonList(model), entityType, Collections.singletonList(ownerId));
+	}
+	
+	/**
+	 * Fetches file information of specified owners in bulk, using IN queries of limited size.
+	 * @param entityType Owner entity type
+	 * @param field Owner field
+	 * @param ownerIds Owner ids
+	 * @return File information grouped by owner id
+	 */
+	public Map<Long, List<FileInfo>> fetchFilesByOwners(Class<?> entityType, String field, Collection<Long> ownerIds)
+	{
+		Map<Long, List<FileInfo>> ownerToFiles = new HashMap<>();
 		
-		Class<?> modelType = model.getClass();
+		if(ownerIds == null || ownerIds.isEmpty())
+		{
+			return ownerToFiles;
+		}
+		
+		List<Long> idList = new ArrayList<>(ownerIds);
+		String spaceIdentity = securityService.getUserSpaceIdentity();
+		List<FileMetadata> metadataList = null;
+		List<FileInfo> files = null;
+		
+		for(int i = 0; i < idList.size(); i += BULK_FETCH_SIZE)
+		{
+			metadataList = repository.fetchMetadataByOwners(entityType.getName(), field, 
+					new ArrayList<>(idList.subList(i, Math.min(i + BULK_FETCH_SIZE, idList.size()))), spaceIdentity);
+			
+			if(metadataList == null)
+			{
+				continue;
+			}
+			
+			for(FileMetadata metadata : metadataList)
+			{
+				files = ownerToFiles.get(metadata.getOwnerEntityId());
+				
+				if(files == null)
+				{
+					files = new ArrayList<>();
+					ownerToFiles.put(metadata.getOwnerEntityId(), files);
+				}
+				
+				files.add(WebUtils.convertBean(metadata, FileInfo.class));
+			}
+		}
+		
+		return ownerToFiles;
+	}
+	
+	/**
+	 * Reads file information of specified models (of same type) in bulk and sets them on the models. Files of 
+	 * each file field are fetched for all the models together, instead of query per model.
+	 * @param models Models for which file information needs to be fetched
+	 * @param entityType Owner entity type
+	 * @param ownerIds Owner ids, in model order
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void readFilesForModels(List<?> models, Class<?> entityType, List<Long> ownerIds)
+	{
+		if(models == null || models.isEmpty())
+		{
+			return;
+		}
+		
+		Class<?> modelType = models.get(0).getClass();
 		
 		//fetch model details
 		ModelDef modelDef = modelDetailsService.getModelDef(modelType);
@@ -335,14 +585,16 @@ public class FileService
 		//if specified model is not marked as Model, ignore
 		if(modelDef == null)
 		{
-			logger.trace("Specified model {} is not marked as @Model", model.getClass().getName());
+			logger.trace("Specified model {} is not marked as @Model", modelType.getName());
 			return;
 		}
 
 		Field field = null;
+		Map<Long, List<FileInfo>> ownerToFiles = null;
 		List<FileInfo> filesFromDb = null;
+		Object model = null;
 
-		//loop through fields and save file information from file fields
+		//loop through fields and set file information on file fields
 		for(FieldDef fieldDef : modelDef.getFields())
 		{
 			//ignore non file fields
@@ -351,15 +603,15 @@ public class FileService
 				continue;
 			}
 			
-			//fetch files from db
-			filesFromDb = repository.fetchByOwner(entityType.getName(), fieldDef.getName(), ownerId, securityService.getUserSpaceIdentity());
+			//fetch files of all owners from db
+			ownerToFiles = fetchFilesByOwners(entityType, fieldDef.getName(), ownerIds);
 			
-			if(filesFromDb == null || filesFromDb.isEmpty())
+			if(ownerToFiles.isEmpty())
 			{
 				continue;
 			}
 			
-			logger.debug("Saving file(s) specified on model field - {}.{}", model.getClass().getName(), fieldDef.getName()); 
+			logger.debug("Setting file(s) on model field - {}.{}", modelType.getName(), fieldDef.getName()); 
 
 			//set the files on field
 			try
@@ -367,20 +619,31 @@ public class FileService
 				field = modelType.getDeclaredField(fieldDef.getName());
 				field.setAccessible(true);
 
-				if(fieldDef.isMultiValued())
+				for(int i = 0; i < models.size(); i++)
 				{
-					Collection<Object> resCollection = (Collection) fieldDef.getCompatibleCollectionType().newInstance();
-					resCollection.addAll(filesFromDb);
+					model = models.get(i);
+					filesFromDb = ownerToFiles.get(ownerIds.get(i));
 					
-					field.set(model, resCollection);
-				}
-				else
-				{
-					field.set(model, filesFromDb.get(0));
+					if(model == null || filesFromDb == null)
+					{
+						continue;
+					}
+					
+					if(fieldDef.isMultiValued())
+					{
+						Collection<Object> resCollection = (Collection) fieldDef.getCompatibleCollectionType().newInstance();
+						resCollection.addAll(filesFromDb);
+						
+						field.set(model, resCollection);
+					}
+					else
+					{
+						field.set(model, filesFromDb.get(0));
+					}
 				}
 			}catch(Exception ex)
 			{
-				throw new InvalidStateException(ex, "An error occurred while setting file information to field - {}.{}", model.getClass().getName(), field.getName());
+				throw new InvalidStateException(ex, "An error occurred while setting file information to field - {}.{}", modelType.getName(), fieldDef.getName());
 			}
 		}
 	}
@@ -418,8 +681,14 @@ public class FileService
 	{
 		logger.trace("Deleting file with id - {}", id);
 		
+		String contentKey = repository.fetchContentKey(id);
 		boolean res = repository.deleteById(id);
 		
+		if(res)
+		{
+			fileContentService.release(Collections.singletonList(contentKey));
+		}
+		
 		return res;
 	}
 	
@@ -434,26 +703,50 @@ public class FileService
 	{
 		logger.trace("Deleting file matching with owner - {}, {}, {}", ownerEntityType.getName(), ownerEntityField, ownerEntityId);
 		
-		int count = repository.deleteByOwner(ownerEntityType.getName(), ownerEntityField, ownerEntityId, securityService.getUserSpaceIdentity());
+		String spaceIdentity = securityService.getUserSpaceIdentity();
+		List<String> contentKeys = (fileContentService.getContentStore() != null) ? 
+				repository.fetchContentKeysByOwner(ownerEntityType.getName(), ownerEntityField, ownerEntityId, spaceIdentity) : null;
+		
+		int count = repository.deleteByOwner(ownerEntityType.getName(), ownerEntityField, ownerEntityId, spaceIdentity);
 		
 		logger.debug("Number of files deleted - " + count);
 		
+		if(count > 0)
+		{
+			fileContentService.release(contentKeys);
+		}
+		
 		return (count > 0);
 	}
+	
+	/**
+	 * Deletes temp files which are created after specified date and time, along with their contents.
+	 * @param createdAfter Date/time after which temp files created should be deleted.
+	 */
+	public void deleteTempFiles(Date createdAfter)
+	{
+		List<String> contentKeys = (fileContentService.getContentStore() != null) ? repository.fetchTempFileContentKeys(createdAfter) : null;
+		
+		repository.deleteTempFiles(createdAfter);
+		fileContentService.release(contentKeys);
+	}
 
 	/**
-	 * Fetches file entity for specified id.
+	 * Fetches file entity for specified id. File set on returned entity is a temp file (even when the content
+	 * is maintained in content store), which should be deleted by caller once used. To serve the content without
+	 * copying it, use {@link #getFileMetadata(Long, boolean)} and {@link #fetchContent(FileMetadata)} instead.
 	 * @param id Id of the file to be fetched
 	 * @return Matching file entity
 	 */
 	public FileEntity getFileEntity(Long id)
 	{
 		logger.trace("Fetching file content for id - {}", id);
-		return repository.findByIdAndUserSpace(id, securityService.getUserSpaceIdentity());
+		return loadContent(repository.findByIdAndUserSpace(id, securityService.getUserSpaceIdentity()));
 	}
 
 	/**
-	 * Fetches file entity based on id and secured flag.
+	 * Fetches file entity based on id and secured flag. File set on returned entity is a temp file, which 
+	 * should be deleted by caller once used.
 	 * @param id Id of the file to be fetched.
 	 * @param secured Specifies whether the file is secured file or not.
 	 * @return Matching file.
@@ -461,29 +754,58 @@ public class FileService
 	public FileEntity getFileEntity(Long id, boolean secured)
 	{
 		logger.trace("Fetching file content for id - {} and security flag - {}", id, secured);
-		return repository.findByIdAndUserSpace(id, secured ? securityService.getUserSpaceIdentity() : "");
+		return loadContent(repository.findByIdAndUserSpace(id, secured ? securityService.getUserSpaceIdentity() : ""));
+	}
+	
+	/**
+	 * Fetches file details, without loading the content, based on id and secured flag.
+	 * @param id Id of the file to be fetched.
+	 * @param secured Specifies whether the file is secured file or not.
+	 * @return Matching file details.
+	 */
+	public FileMetadata getFileMetadata(Long id, boolean secured)
+	{
+		logger.trace("Fetching file metadata for id - {} and security flag - {}", id, secured);
+		return repository.fetchFileMetadata(id, secured ? securityService.getUserSpaceIdentity() : "");
 	}
 	
 	/**
-	 * Fetches file entity with specified ownership details.
+	 * Fetches file with specified ownership details. File details are fetched first without content and content
+	 * is fetched only when file exists. File set on returned info is a temp file (even when the content is maintained 
+	 * in content store), which should be deleted by caller once used.
 	 * @param entityType Entity owner type
 	 * @param field Entity field with which file is associated
 	 * @param ownerId Entity owner id.
-	 * @return Matching file entity.
+	 * @return Matching file information along with content.
+	 * @see #fetchContent(FileMetadata)
 	 */
 	public FileInfo getFileByOwner(Class<?> entityType, String field, Long ownerId)
 	{
-		FileEntity file = repository.fetchEntityByOwner(entityType.getName(), field, ownerId, securityService.getUserSpaceIdentity());
+		FileMetadata metadata = repository.fetchMetadataByOwner(entityType.getName(), field, ownerId, securityService.getUserSpaceIdentity());
 		
-		if(file == null)
+		if(metadata == null)
+		{
+			return null;
+		}
+		
+		File content = fetchContent(metadata);
+		
+		//if file is deleted in between
+		if(content == null)
 		{
 			return null;
 		}
 		
-		FileInfo fileInfo = WebUtils.convertBean(file, FileInfo.class);
-		fileInfo.setFile(file.getFile());
+		//store content is shared, so caller gets its own copy
+		if(!isTemporaryContent(metadata))
+		{
+			content = copyToTempFile(metadata.getId(), content);
+		}
+		
+		FileInfo fileInfo = WebUtils.convertBean(metadata, FileInfo.class);
+		fileInfo.setFile(content);
 		
 		return fileInfo;
 	}
 }
- 
\ No newline at end of file
+ 
@@ -1,7 +1,9 @@
 package com.yukthi.webutils.services;
 
 import java.lang.reflect.Field;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.PostConstruct;
 
@@ -48,6 +50,12 @@ public class ImageService
 	 */
 	@Autowired
 	private ISecurityService securityService;
+	
+	/**
+	 * File service used to delete existing images along with their content.
+	 */
+	@Autowired
+	private FileService fileService;
 
 	/**
 	 * File repository.
@@ -132,7 +140,7 @@ public class ImageService
 					continue;
 				}
 
-				repository.deleteByOwner(entityType.getName(), field.getName(), ownerId, securityService.getUserSpaceIdentity());
+				fileService.delete(entityType, field.getName(), ownerId);
 				repository.updateToPermanentFile(imageInfo.getFileId(), entityType.getName(), field.getName(), ownerId, securityService.getUserSpaceIdentity());
 			}
 			
@@ -157,9 +165,24 @@ public class ImageService
 			return;
 		}
 		
-		logger.trace("Trying to save files specified on model - {} under ownership - {}, {}", model, entityType, ownerId);
+		readImagesForModels(Collections.singletonList(model), entityType, Collections.singletonList(ownerId));
+	}
+	
+	/**
+	 * Reads the images of specified models (of same type) in bulk into the model fields from db. Images of 
+	 * each image field are fetched for all the models together, instead of query per model.
+	 * @param models Models into which image information needs to be read.
+	 * @param entityType Entity type whose ownership should be used.
+	 * @param ownerIds Entity ids to be used, in model order.
+	 */
+	public void readImagesForModels(List<?> models, Class<?> entityType, List<Long> ownerIds)
+	{
+		if(models == null || models.isEmpty())
+		{
+			return;
+		}
 		
-		Class<?> modelType = model.getClass();
+		Class<?> modelType = models.get(0).getClass();
 		
 		//fetch model details
 		ModelDef modelDef = modelDetailsService.getModelDef(modelType);
@@ -167,42 +190,55 @@ public class ImageService
 		//if specified model is not marked as Model, ignore
 		if(modelDef == null)
 		{
-			logger.trace("Specified model {} is not marked as @Model ", model.getClass().getName());
+			logger.trace("Specified model {} is not marked as @Model ", modelType.getName());
 			return;
 		}
 
 		Field field = null;
+		Map<Long, List<FileInfo>> ownerToFiles = null;
 		List<FileInfo> filesFromDb = null;
+		Object model = null;
 
-		//loop through fields and save image information to image fields
+		//loop through fields and set image information on image fields
 		for(FieldDef fieldDef : modelDef.getFields())
 		{
-			//ignore non file fields
+			//ignore non image fields
 			if(fieldDef.getFieldType() != FieldType.IMAGE)
 			{
 				continue;
 			}
 			
-			//fetch files from db
-			filesFromDb = repository.fetchByOwner(entityType.getName(), fieldDef.getName(), ownerId, securityService.getUserSpaceIdentity());
+			//fetch images of all owners from db
+			ownerToFiles = fileService.fetchFilesByOwners(entityType, fieldDef.getName(), ownerIds);
 			
-			if(filesFromDb == null || filesFromDb.isEmpty())
+			if(ownerToFiles.isEmpty())
 			{
 				continue;
 			}
 			
-			logger.debug("Setting image on model field - {}.{}", model.getClass().getName(), fieldDef.getName()); 
+			logger.debug("Setting image on model field - {}.{}", modelType.getName(), fieldDef.getName()); 
 
-			//set the files on field
+			//set the images on field
 			try
 			{
 				field = modelType.getDeclaredField(fieldDef.getName());
 				field.setAccessible(true);
 
-				field.set(model, new ImageInfo( filesFromDb.get(0).getId() ));
+				for(int i = 0; i < models.size(); i++)
+				{
+					model = models.get(i);
+					filesFromDb = ownerToFiles.get(ownerIds.get(i));
+					
+					if(model == null || filesFromDb == null || filesFromDb.isEmpty())
+					{
+						continue;
+					}
+					
+					field.set(model, new ImageInfo( filesFromDb.get(0).getId() ));
+				}
 			}catch(Exception ex)
 			{
-				throw new InvalidStateException(ex, "An error occurred while setting file information to field - {}.{}", model.getClass().getName(), field.getName());
+				throw new InvalidStateException(ex, "An error occurred while setting file information to field - {}.{}", modelType.getName(), fieldDef.getName());
 			}
 		}
 	}
@@ -0,0 +1,251 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.yukthi.webutils.InvalidRequestParameterException;
+import com.yukthi.webutils.SearchConfiguration;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.WebutilsContext;
+import com.yukthi.webutils.common.IWebUtilsCommonConstants;
+import com.yukthi.webutils.common.models.search.ExecuteSearchResponse;
+import com.yukthi.webutils.common.models.search.SearchBatchEntry;
+import com.yukthi.webutils.security.UnauthorizedException;
+import com.yukthi.webutils.utils.DetachedRequestAttributes;
+
+/**
+ * Executes multiple search queries in parallel, on a bounded pool. Request attributes (used to fetch current user) and
+ * webutils context of the calling thread are propagated to the pool threads. Pool threads never access the live
+ * servlet request, instead each query gets its own detached copy of request attributes. So a query which continues
+ * after batch timeout (cancellation does not stop jdbc calls), can not see the attributes of a recycled request.
+ * 
+ * @author akiran
+ */
+@Service
+public class SearchBatchService
+{
+	private static Logger logger = LogManager.getLogger(SearchBatchService.class);
+	
+	/**
+	 * Used to execute the search queries.
+	 */
+	@Autowired
+	private SearchService searchService;
+	
+	/**
+	 * Used to fetch batch configuration.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * Executor used to execute batch queries.
+	 */
+	private ThreadPoolExecutor batchExecutor;
+	
+	/**
+	 * Initializes batch executor.
+	 */
+	@PostConstruct
+	private void init()
+	{
+		SearchConfiguration searchConfiguration = webutilsConfiguration.getSearchConfiguration();
+		final AtomicInteger threadIndex = new AtomicInteger(0);
+		
+		batchExecutor = new ThreadPoolExecutor(searchConfiguration.getBatchThreadCount(), searchConfiguration.getBatchThreadCount(), 
+				60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(searchConfiguration.getBatchQueueSize()), 
+				new ThreadFactory()
+				{
+					@Override
+					public Thread newThread(Runnable runnable)
+					{
+						Thread thread = new Thread(runnable, "search-batch-" + threadIndex.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, 
+				// when pool is busy, query is executed on request thread itself
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+	
+	/**
+	 * Stops batch executor.
+	 */
+	@PreDestroy
+	private void destroy()
+	{
+		batchExecutor.shutdownNow();
+	}
+	
+	/**
+	 * Executes specified batch entries in parallel and returns the responses in entry order. Failures of
+	 * individual entries are returned as error responses.
+	 * 
+	 * @param entries
+	 *            Entries to execute
+	 * @param queries
+	 *            Query objects of the entries, in entry order
+	 * @return Responses of the entries
+	 */
+	public List<ExecuteSearchResponse> executeBatch(List<SearchBatchEntry> entries, List<Object> queries)
+	{
+		SearchConfiguration searchConfiguration = webutilsConfiguration.getSearchConfiguration();
+		
+		if(entries.size() > searchConfiguration.getBatchMaxEntries())
+		{
+			throw new InvalidRequestParameterException("Number of queries in search batch {} exceeds max limit {}", entries.size(), searchConfiguration.getBatchMaxEntries());
+		}
+		
+		// capture context of request thread, which needs to be propagated
+		final WebutilsContext webutilsContext = WebutilsContext.getContext();
+		
+		List<Future<ExecuteSearchResponse>> futures = new ArrayList<>(entries.size());
+		
+		for(int i = 0; i < entries.size(); i++)
+		{
+			final SearchBatchEntry entry = entries.get(i);
+			final Object query = queries.get(i);
+			
+			// attributes are captured on request thread, as servlet request is not thread safe
+			final RequestAttributes requestAttributes = DetachedRequestAttributes.capture();
+			
+			FutureTask<ExecuteSearchResponse> task = new FutureTask<>(new Callable<ExecuteSearchResponse>()
+			{
+				@Override
+				public ExecuteSearchResponse call() throws Exception
+				{
+					// each query gets its own copy of webutils context, as context attributes are not thread safe
+					RequestAttributes prevRequestAttributes = RequestContextHolder.getRequestAttributes();
+					WebutilsContext prevContext = WebutilsContext.setContext(webutilsContext.copy());
+					RequestContextHolder.setRequestAttributes(requestAttributes);
+					
+					try
+					{
+						return searchService.executeSearch(entry.getQueryName(), query, entry.getSearchExecutionModel());
+					} finally
+					{
+						RequestContextHolder.setRequestAttributes(prevRequestAttributes);
+						WebutilsContext.setContext(prevContext);
+					}
+				}
+			});
+			
+			batchExecutor.execute(task);
+			futures.add(task);
+		}
+		
+		// collect the responses, within batch timeout
+		long deadline = System.currentTimeMillis() + searchConfiguration.getBatchTimeoutMillis();
+		List<ExecuteSearchResponse> responses = new ArrayList<>(entries.size());
+		
+		for(int i = 0; i < futures.size(); i++)
+		{
+			responses.add(awaitResponse(entries.get(i).getQueryName(), futures.get(i), deadline));
+		}
+		
+		return responses;
+	}
+	
+	/**
+	 * Waits for the response of specified query, till specified deadline. In case of error or timeout,
+	 * error response is returned.
+	 * 
+	 * @param queryName
+	 *            Name of query being executed
+	 * @param future
+	 *            Future of query execution
+	 * @param deadline
+	 *            Time till which response can be awaited
+	 * @return Query response or error response
+	 */
+	private ExecuteSearchResponse awaitResponse(String queryName, Future<ExecuteSearchResponse> future, long deadline)
+	{
+		ExecuteSearchResponse errorResponse = new ExecuteSearchResponse();
+		
+		try
+		{
+			return future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+		} catch(TimeoutException ex)
+		{
+			future.cancel(true);
+			
+			logger.warn("Search query {} of batch timed out", queryName);
+			
+			errorResponse.setCode(IWebUtilsCommonConstants.RESPONSE_CODE_UNHANDLED_SERVER_ERROR);
+			errorResponse.setMessage("Search query timed out - " + queryName);
+		} catch(InterruptedException ex)
+		{
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			
+			errorResponse.setCode(IWebUtilsCommonConstants.RESPONSE_CODE_UNHANDLED_SERVER_ERROR);
+			errorResponse.setMessage("Search query execution was interrupted - " + queryName);
+		} catch(ExecutionException ex)
+		{
+			Throwable cause = ex.getCause();
+			
+			if(cause instanceof InvalidRequestParameterException)
+			{
+				logger.debug("Search query {} of batch failed with invalid request error", queryName, cause);
+				errorResponse.setCode(IWebUtilsCommonConstants.RESPONSE_CODE_INVALID_REQUEST);
+			}
+			else if(cause instanceof UnauthorizedException)
+			{
+				logger.debug("Search query {} of batch failed with authorization error", queryName, cause);
+				errorResponse.setCode(IWebUtilsCommonConstants.RESPONSE_CODE_AUTHORIZATION_ERROR);
+			}
+			else
+			{
+				logger.error("An error occurred while executing search query {} of batch", queryName, cause);
+				errorResponse.setCode(IWebUtilsCommonConstants.RESPONSE_CODE_UNHANDLED_SERVER_ERROR);
+			}
+			
+			errorResponse.setMessage(cause.getMessage());
+		}
+		
+		return errorResponse;
+	}
+}
@@ -0,0 +1,667 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.yukthi.persistence.repository.RepositoryFactory;
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.InvalidRequestParameterException;
+import com.yukthi.webutils.SearchConfiguration;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.WebutilsContext;
+import com.yukthi.webutils.common.ExportFormat;
+import com.yukthi.webutils.common.FileInfo;
+import com.yukthi.webutils.common.models.search.ExtendedFieldCondition;
+import com.yukthi.webutils.common.models.search.SearchColumn;
+import com.yukthi.webutils.common.models.search.SearchExportJobResponse;
+import com.yukthi.webutils.common.models.search.SearchExportJobStatus;
+import com.yukthi.webutils.common.models.search.SearchRow;
+import com.yukthi.webutils.repository.search.ISearchExportJobRepository;
+import com.yukthi.webutils.repository.search.SearchExportJobEntity;
+import com.yukthi.webutils.security.ISecurityService;
+import com.yukthi.webutils.security.UnauthorizedException;
+import com.yukthi.webutils.security.UserDetails;
+import com.yukthi.webutils.services.job.JobService;
+import com.yukthi.webutils.services.search.ISearchExportWriter;
+import com.yukthi.webutils.services.search.SearchExportWriterFactory;
+import com.yukthi.webutils.utils.DetachedRequestAttributes;
+
+/**
+ * Executes search exports asynchronously, via {@link JobService}. Exported content is saved as file owned by the
+ * export job (using {@link FileService}), which can be downloaded using the file id once the export is completed. 
+ * Number of concurrent exports is limited per user space and overall, so that single space cannot starve others.
+ * <BR>
+ * State of the exports is persisted, so that status can be fetched from any node (by the submitting user) and limits 
+ * are applied across nodes. Query and request context are needed only by executing node, hence are maintained in memory. 
+ * Unfinished exports without progress for configured time are marked as failed, so that they do not hold concurrency 
+ * slots. Finished exports and their files are removed after configured retention time.
+ * 
+ * @author akiran
+ */
+@Service
+public class SearchExportService
+{
+	private static Logger logger = LogManager.getLogger(SearchExportService.class);
+	
+	/**
+	 * Minimum interval (in millis) between progress updates of an export.
+	 */
+	private static final long PROGRESS_UPDATE_MILLIS = 2000;
+	
+	/**
+	 * Statuses of exports which hold a concurrency slot.
+	 */
+	private static final List<SearchExportJobStatus> ACTIVE_STATUSES = Arrays.asList(SearchExportJobStatus.QUEUED, SearchExportJobStatus.RUNNING);
+	
+	/**
+	 * Owner field of exported files.
+	 */
+	private static final String FILE_OWNER_FIELD = "file";
+	
+	/**
+	 * Execution details of an export submitted on this node.
+	 */
+	private static class ExportJob
+	{
+		/**
+		 * Id of the job.
+		 */
+		private String id;
+		
+		/**
+		 * Name of the query being exported.
+		 */
+		private String queryName;
+		
+		/**
+		 * Query object containing conditions.
+		 */
+		private Object query;
+		
+		/**
+		 * Conditions on extended fields to be applied on the query.
+		 */
+		private List<ExtendedFieldCondition> extendedConditions;
+		
+		/**
+		 * Format of the export.
+		 */
+		private ExportFormat exportFormat;
+		
+		/**
+		 * Request attributes captured from submitting request.
+		 */
+		private RequestAttributes requestAttributes;
+		
+		/**
+		 * Webutils context captured from submitting request.
+		 */
+		private WebutilsContext webutilsContext;
+		
+		/**
+		 * Time when the job is submitted.
+		 */
+		private long submittedOn = System.currentTimeMillis();
+		
+		/**
+		 * Number of rows exported so far.
+		 */
+		private long rowsDone;
+		
+		/**
+		 * Total number of rows to export, -1 if not known yet.
+		 */
+		private long totalRows = -1;
+		
+		/**
+		 * Time when progress was last persisted.
+		 */
+		private long progressUpdatedOn;
+	}
+	
+	/**
+	 * Export writer wrapper which tracks number of rows written.
+	 */
+	private class ProgressTrackingWriter implements ISearchExportWriter
+	{
+		/**
+		 * Actual writer.
+		 */
+		private ISearchExportWriter writer;
+		
+		/**
+		 * Job whose progress needs to be tracked.
+		 */
+		private ExportJob job;
+		
+		/**
+		 * Instantiates a new progress tracking writer.
+		 *
+		 * @param writer the actual writer
+		 * @param job the job to track
+		 */
+		public ProgressTrackingWriter(ISearchExportWriter writer, ExportJob job)
+		{
+			this.writer = writer;
+			this.job = job;
+		}
+
+		/* (non-Javadoc)
+		 * @see com.yukthi.webutils.services.search.ISearchExportWriter#writeHeader(java.util.List)
+		 */
+		@Override
+		public void writeHeader(List<SearchColumn> searchColumns) throws IOException
+		{
+			writer.writeHeader(searchColumns);
+		}
+
+		/* (non-Javadoc)
+		 * @see com.yukthi.webutils.services.search.ISearchExportWriter#writeRows(java.util.List)
+		 */
+		@Override
+		public void writeRows(List<SearchRow> rows) throws IOException
+		{
+			writer.writeRows(rows);
+			job.rowsDone += rows.size();
+			
+			updateProgress(job, false);
+		}
+
+		/* (non-Javadoc)
+		 * @see com.yukthi.webutils.services.search.ISearchExportWriter#finish()
+		 */
+		@Override
+		public void finish() throws IOException
+		{
+			writer.finish();
+		}
+
+		/* (non-Javadoc)
+		 * @see com.yukthi.webutils.services.search.ISearchExportWriter#getBytesWritten()
+		 */
+		@Override
+		public long getBytesWritten()
+		{
+			return writer.getBytesWritten();
+		}
+	}
+	
+	/**
+	 * Used to execute the export.
+	 */
+	@Autowired
+	private SearchService searchService;
+	
+	/**
+	 * Used to save exported file.
+	 */
+	@Autowired
+	private FileService fileService;
+	
+	/**
+	 * Used to submit export jobs.
+	 */
+	@Autowired
+	private JobService jobService;
+	
+	/**
+	 * Used to fetch current user space.
+	 */
+	@Autowired
+	private ISecurityService securityService;
+	
+	/**
+	 * Used to track the user submitting the export.
+	 */
+	@Autowired
+	private CurrentUserService currentUserService;
+	
+	/**
+	 * Used to fetch export configuration.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * Used to fetch repository instances.
+	 */
+	@Autowired
+	private RepositoryFactory repositoryFactory;
+	
+	/**
+	 * To persist and read export state.
+	 */
+	private ISearchExportJobRepository repository;
+	
+	/**
+	 * Exports submitted on this node, which are not yet finished, by id.
+	 */
+	private Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+	
+	/**
+	 * Lock used to check concurrency limits and register the export atomically, on this node.
+	 */
+	private Object submitLock = new Object();
+	
+	/**
+	 * Fetches required repository.
+	 */
+	@PostConstruct
+	private void init()
+	{
+		repository = repositoryFactory.getRepository(ISearchExportJobRepository.class);
+	}
+	
+	/**
+	 * Ensures concurrency limits are not exceeded by active exports.
+	 * @param searchConfiguration Configuration to fetch limits
+	 * @param spaceIdentity User space of the export being submitted
+	 * @param registered Whether the export being submitted is already persisted, in which case it is part of the counts
+	 */
+	private void checkLimits(SearchConfiguration searchConfiguration, String spaceIdentity, boolean registered)
+	{
+		int own = registered ? 1 : 0;
+		
+		if(repository.countByStatus(ACTIVE_STATUSES) - own >= searchConfiguration.getAsyncExportMaxRunning())
+		{
+			throw new InvalidRequestParameterException("Maximum number of concurrent exports are in progress. Please try again later");
+		}
+		
+		int spaceActive = repository.countBySpaceAndStatus(spaceIdentity, ACTIVE_STATUSES) - own;
+		
+		if(spaceActive >= searchConfiguration.getAsyncExportMaxPerSpace())
+		{
+			throw new InvalidRequestParameterException("Maximum number of concurrent exports {} are in progress for current user space", spaceActive);
+		}
+	}
+	
+	/**
+	 * Submits export of specified query for background execution.
+	 * <BR>
+	 * Limits are verified again after persisting the export, so that exports submitted concurrently on different nodes
+	 * cannot exceed the limits. In such case, concurrent submissions may get rejected together, even if one of them
+	 * could have been accepted.
+	 * @param queryName Name of the query to export
+	 * @param query Query object containing conditions
+	 * @param extendedConditions Conditions on extended fields, can be null
+	 * @param exportFormat Format of export
+	 * @return Status of submitted export
+	 */
+	public SearchExportJobResponse submitExport(String queryName, Object query, List<ExtendedFieldCondition> extendedConditions, ExportFormat exportFormat)
+	{
+		SearchConfiguration searchConfiguration = webutilsConfiguration.getSearchConfiguration();
+		
+		expireAbandonedJobs(searchConfiguration);
+		
+		ExportJob job = new ExportJob();
+		job.id = UUID.randomUUID().toString();
+		job.queryName = queryName;
+		job.query = query;
+		job.extendedConditions = extendedConditions;
+		job.exportFormat = exportFormat;
+		
+		// actual request will not be accessible once current request is completed
+		job.requestAttributes = DetachedRequestAttributes.capture();
+		job.webutilsContext = WebutilsContext.getContext().copy();
+		
+		SearchExportJobEntity jobEntity = new SearchExportJobEntity();
+		jobEntity.setJobId(job.id);
+		jobEntity.setQueryName(queryName);
+		jobEntity.setExportFormat(exportFormat);
+		jobEntity.setStatus(SearchExportJobStatus.QUEUED);
+		jobEntity.setSpaceIdentity(securityService.getUserSpaceIdentity());
+		
+		// submitting user is tracked, so that status is accessible only to the submitter
+		currentUserService.populateTrackingFieldForCreate(jobEntity);
+		jobEntity.setHeartbeatOn(jobEntity.getCreatedOn());
+		
+		// lock avoids concurrent submissions of this node rejecting each other, while limits are applied across nodes
+		// by verifying them after persisting the export
+		synchronized(submitLock)
+		{
+			checkLimits(searchConfiguration, jobEntity.getSpaceIdentity(), false);
+			
+			if(!repository.save(jobEntity))
+			{
+				throw new InvalidStateException("Failed to save export job - {}", job.id);
+			}
+			
+			try
+			{
+				checkLimits(searchConfiguration, jobEntity.getSpaceIdentity(), true);
+			}catch(InvalidRequestParameterException ex)
+			{
+				repository.deleteById(jobEntity.getId());
+				throw ex;
+			}
+		}
+		
+		jobs.put(job.id, job);
+		
+		try
+		{
+			jobService.submitJob("search-export-" + job.id, SearchExportJob.class, job.id);
+		}catch(RuntimeException ex)
+		{
+			jobs.remove(job.id);
+			repository.updateFinished(job.id, SearchExportJobStatus.QUEUED, SearchExportJobStatus.FAILED, 0, null, "Failed to submit export", new Date());
+			throw ex;
+		}
+		
+		logger.debug("Submitted export of search query {} with job id - {}", queryName, job.id);
+		return toResponse(jobEntity);
+	}
+	
+	/**
+	 * Persists progress of specified job, if minimum interval is elapsed since last update or if forced.
+	 * Progress update also acts as heartbeat of the job. If the job is no more running (expired as abandoned), 
+	 * an exception is thrown so that export is stopped.
+	 * @param job Job whose progress should be persisted
+	 * @param force If true, progress is persisted irrespective of last update time
+	 */
+	private void updateProgress(ExportJob job, boolean force)
+	{
+		long now = System.currentTimeMillis();
+		
+		if(!force && (now - job.progressUpdatedOn) < PROGRESS_UPDATE_MILLIS)
+		{
+			return;
+		}
+		
+		job.progressUpdatedOn = now;
+		boolean updated = true;
+		
+		try
+		{
+			updated = repository.updateProgress(job.id, SearchExportJobStatus.RUNNING, job.rowsDone, job.totalRows, new Date(now));
+		}catch(RuntimeException ex)
+		{
+			// progress is informational, failure should not fail the export
+			logger.warn("An error occurred while updating progress of export job - {}", job.id, ex);
+		}
+		
+		if(!updated)
+		{
+			throw new InvalidStateException("Export job {} is no more running", job.id);
+		}
+	}
+	
+	/**
+	 * Executes export with specified job id. Invoked by {@link SearchExportJob}.
+	 * @param jobId Id of the export job
+	 */
+	void runExport(String jobId)
+	{
+		ExportJob job = jobs.remove(jobId);
+		
+		if(job == null)
+		{
+			logger.warn("Export job not found with id - {}", jobId);
+			return;
+		}
+		
+		// job might have been expired while it was waiting in queue
+		Date startedOn = new Date();
+		
+		if(!repository.updateStarted(jobId, SearchExportJobStatus.QUEUED, SearchExportJobStatus.RUNNING, startedOn, startedOn))
+		{
+			logger.warn("Ignoring export job {} as it is no more in queued state", jobId);
+			return;
+		}
+		
+		RequestAttributes prevRequestAttributes = RequestContextHolder.getRequestAttributes();
+		WebutilsContext prevContext = WebutilsContext.setContext(job.webutilsContext);
+		RequestContextHolder.setRequestAttributes(job.requestAttributes);
+		
+		File tempFile = null;
+		Long fileId = null;
+		SearchExportJobStatus status = SearchExportJobStatus.FAILED;
+		String errorMessage = null;
+		
+		try
+		{
+			// heartbeat is updated after each long running step, so that export is not considered abandoned
+			job.totalRows = searchService.countSearch(job.queryName, job.query, job.extendedConditions);
+			updateProgress(job, true);
+			
+			tempFile = File.createTempFile("search-export", SearchExportWriterFactory.getFileExtension(job.exportFormat));
+			
+			try(OutputStream os = new FileOutputStream(tempFile))
+			{
+				ISearchExportWriter writer = SearchExportWriterFactory.newWriter(job.exportFormat, os);
+				searchService.exportSearch(job.queryName, job.query, job.extendedConditions, new ProgressTrackingWriter(writer, job));
+			}
+			
+			FileInfo fileInfo = new FileInfo(job.queryName + SearchExportWriterFactory.getFileExtension(job.exportFormat), 
+					tempFile, SearchExportWriterFactory.getMimeType(job.exportFormat));
+			
+			// exported file is owned by the export job (and not a temp file), so that it is not removed by file cleaner
+			// while job status is still referring to it. It is removed along with job status, after retention time
+			updateProgress(job, true);
+			
+			SearchExportJobEntity jobEntity = repository.findByJobId(jobId);
+			fileId = fileService.save(fileInfo, SearchExportJobEntity.class, FILE_OWNER_FIELD, jobEntity.getId());
+			status = SearchExportJobStatus.COMPLETED;
+			
+			logger.debug("Completed export job {} of search query {} with {} rows", job.id, job.queryName, job.rowsDone);
+		}catch(Exception ex)
+		{
+			logger.error("An error occurred while executing export job {} of search query {}", job.id, job.queryName, ex);
+			errorMessage = ex.getMessage();
+		} finally
+		{
+			finishExport(job, status, fileId, errorMessage);
+			
+			if(tempFile != null)
+			{
+				tempFile.delete();
+			}
+			
+			RequestContextHolder.setRequestAttributes(prevRequestAttributes);
+			WebutilsContext.setContext(prevContext);
+		}
+	}
+	
+	/**
+	 * Persists final status of specified job, only if it is still running. If the job is expired (as abandoned) 
+	 * in the meantime, its expired status is retained and exported file, if any, is removed.
+	 * @param job Job being finished
+	 * @param status Final status
+	 * @param fileId Exported file id, null in case of failure
+	 * @param errorMessage Error message in case of failure
+	 */
+	private void finishExport(ExportJob job, SearchExportJobStatus status, Long fileId, String errorMessage)
+	{
+		boolean updated = false;
+		
+		try
+		{
+			updated = repository.updateFinished(job.id, SearchExportJobStatus.RUNNING, status, job.rowsDone, fileId, errorMessage, new Date());
+		}catch(RuntimeException ex)
+		{
+			logger.error("An error occurred while updating final status of export job - {}", job.id, ex);
+		}
+		
+		if(updated)
+		{
+			return;
+		}
+		
+		logger.warn("Final status of export job {} is not updated, as it is no more running", job.id);
+		
+		if(fileId != null)
+		{
+			fileService.delete(fileId);
+		}
+	}
+	
+	/**
+	 * Fetches status of specified export job. Status of the jobs submitted by other users cannot be fetched.
+	 * @param jobId Id of the export job
+	 * @return Status of the export job
+	 */
+	public SearchExportJobResponse getStatus(String jobId)
+	{
+		SearchExportJobEntity jobEntity = repository.findByJobId(jobId);
+		
+		if(jobEntity == null)
+		{
+			throw new InvalidRequestParameterException("No export job found with id - {}", jobId);
+		}
+		
+		UserDetails userDetails = currentUserService.getCurrentUserDetails();
+		Long userId = (userDetails != null) ? userDetails.getUserId() : null;
+		Long submitterId = (jobEntity.getCreatedBy() != null) ? jobEntity.getCreatedBy().getId() : null;
+		
+		if(!jobEntity.getSpaceIdentity().equals(securityService.getUserSpaceIdentity()) || !Objects.equals(userId, submitterId))
+		{
+			throw new UnauthorizedException("Current user is not authorized to access export job - {}", jobId);
+		}
+		
+		return toResponse(jobEntity);
+	}
+	
+	/**
+	 * Marks unfinished exports, which did not make progress within configured time, as failed. This releases their 
+	 * concurrency slots. Execution details of such jobs maintained on this node are also removed.
+	 * @param searchConfiguration Configuration to fetch stale time
+	 */
+	private void expireAbandonedJobs(SearchConfiguration searchConfiguration)
+	{
+		long staleTime = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(searchConfiguration.getAsyncExportStaleMinutes());
+		int count = repository.expireAbandoned(ACTIVE_STATUSES, new Date(staleTime), SearchExportJobStatus.FAILED, 
+				"Export is abandoned, as no progress is made for long time", new Date());
+		
+		if(count > 0)
+		{
+			logger.warn("Marked {} abandoned export jobs as failed", count);
+		}
+		
+		Iterator<ExportJob> it = jobs.values().iterator();
+		
+		while(it.hasNext())
+		{
+			if(it.next().submittedOn < staleTime)
+			{
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Expires abandoned exports and removes finished exports (along with their files) whose status retention 
+	 * time is elapsed. Invoked periodically by {@link SearchExportCleanerJob}.
+	 */
+	public void removeExpiredJobs()
+	{
+		SearchConfiguration searchConfiguration = webutilsConfiguration.getSearchConfiguration();
+		expireAbandonedJobs(searchConfiguration);
+		
+		long expiryTime = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(searchConfiguration.getAsyncExportStatusMinutes());
+		List<SearchExportJobEntity> expiredJobs = repository.findFinishedBefore(new Date(expiryTime));
+		
+		if(expiredJobs == null)
+		{
+			return;
+		}
+		
+		for(SearchExportJobEntity jobEntity : expiredJobs)
+		{
+			try
+			{
+				if(jobEntity.getFileId() != null)
+				{
+					fileService.delete(jobEntity.getFileId());
+				}
+				
+				repository.deleteById(jobEntity.getId());
+			}catch(RuntimeException ex)
+			{
+				logger.error("An error occurred while removing expired export job - {}", jobEntity.getJobId(), ex);
+			}
+		}
+		
+		logger.debug("Removed {} expired export jobs", expiredJobs.size());
+	}
+	
+	/**
+	 * Converts specified job state into response.
+	 * @param jobEntity Job to convert
+	 * @return Job response
+	 */
+	private SearchExportJobResponse toResponse(SearchExportJobEntity jobEntity)
+	{
+		SearchExportJobResponse response = new SearchExportJobResponse();
+		response.setJobId(jobEntity.getJobId());
+		response.setQueryName(jobEntity.getQueryName());
+		response.setStatus(jobEntity.getStatus());
+		response.setRowsDone(jobEntity.getRowsDone());
+		response.setTotalRows(jobEntity.getTotalRows());
+		response.setFileId(jobEntity.getFileId());
+		response.setErrorMessage(jobEntity.getErrorMessage());
+		
+		if(jobEntity.getStartedOn() != null)
+		{
+			long endTime = (jobEntity.getFinishedOn() != null) ? jobEntity.getFinishedOn().getTime() : System.currentTimeMillis();
+			response.setElapsedMillis(Math.max(endTime - jobEntity.getStartedOn().getTime(), 0));
+		}
+		
+		long rowsDone = jobEntity.getRowsDone();
+		long totalRows = jobEntity.getTotalRows();
+		
+		if(jobEntity.getStatus() == SearchExportJobStatus.COMPLETED)
+		{
+			response.setEtaMillis(0);
+		}
+		// eta is estimated from the rate of rows exported so far
+		else if(jobEntity.getStatus() == SearchExportJobStatus.RUNNING && rowsDone > 0 && totalRows >= rowsDone)
+		{
+			response.setEtaMillis(response.getElapsedMillis() * (totalRows - rowsDone) / rowsDone);
+		}
+		
+		return response;
+	}
+}
@@ -0,0 +1,310 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.common.models.search.CacheStatistics;
+import com.yukthi.webutils.common.models.search.SearchMetricsResponse;
+import com.yukthi.webutils.common.models.search.SearchQueryMetrics;
+import com.yukthi.webutils.common.models.search.SlowSearchQuery;
+import com.yukthi.webutils.services.search.SearchPhase;
+import com.yukthi.webutils.services.search.SearchQueryMetricsRecorder;
+import com.yukthi.webutils.utils.LruCache;
+
+/**
+ * Maintains execution metrics of search queries (latencies of execution phases, rows returned and page distribution)
+ * and logs slow executions. Slow executions are logged using logger named <code>com.yukthi.webutils.services.SearchMetricsService.slowQueries</code>,
+ * so that they can be routed separately.
+ * <BR>
+ * Condition values are not logged or exposed. Slow executions carry only a salted hash of their conditions, which
+ * can be used to group executions with same conditions, and slow query history is exposed only to users of the space
+ * in which the queries were executed.
+ * 
+ * @author akiran
+ */
+@Service
+public class SearchMetricsService
+{
+	private static Logger logger = LogManager.getLogger(SearchMetricsService.class);
+	
+	/**
+	 * Logger used to log slow query executions.
+	 */
+	private static Logger slowQueryLogger = LogManager.getLogger(SearchMetricsService.class.getName() + ".slowQueries");
+	
+	/**
+	 * Slow query execution along with space in which it was executed.
+	 */
+	private static class SlowQueryEntry
+	{
+		/**
+		 * Space identity of the user who executed the query.
+		 */
+		private String spaceIdentity;
+		
+		/**
+		 * Details of the execution.
+		 */
+		private SlowSearchQuery slowQuery;
+		
+		/**
+		 * Instantiates a new slow query entry.
+		 * @param spaceIdentity Space identity of the user who executed the query
+		 * @param slowQuery Details of the execution
+		 */
+		private SlowQueryEntry(String spaceIdentity, SlowSearchQuery slowQuery)
+		{
+			this.spaceIdentity = spaceIdentity;
+			this.slowQuery = slowQuery;
+		}
+	}
+	
+	/**
+	 * Salt used while hashing conditions, so that condition values can not be guessed from the hash.
+	 */
+	private final byte conditionsSalt[] = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+	
+	/**
+	 * Used to fetch slow query configuration.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * Metrics recorders of queries, keyed by query name.
+	 */
+	private Map<String, SearchQueryMetricsRecorder> queryMetrics = new ConcurrentHashMap<>();
+	
+	/**
+	 * Recent slow query executions, latest first.
+	 */
+	private LinkedList<SlowQueryEntry> slowQueries = new LinkedList<>();
+	
+	/**
+	 * Search related caches, whose statistics are exposed along with metrics.
+	 */
+	private List<LruCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Registers specified cache, so that its statistics are exposed along with search metrics.
+	 * @param cache Cache to register
+	 */
+	public void registerCache(LruCache<?, ?> cache)
+	{
+		caches.add(cache);
+	}
+	
+	/**
+	 * Checks if slow query logging is enabled.
+	 * @return true if enabled
+	 */
+	public boolean isSlowQueryLogEnabled()
+	{
+		return webutilsConfiguration.getSearchConfiguration().getSlowQueryMillis() > 0;
+	}
+	
+	/**
+	 * Fetches metrics recorder of specified query.
+	 * @param queryName Query name
+	 * @return Metrics recorder of the query
+	 */
+	private SearchQueryMetricsRecorder getRecorder(String queryName)
+	{
+		return queryMetrics.computeIfAbsent(queryName, SearchQueryMetricsRecorder::new);
+	}
+	
+	/**
+	 * Computes salted hash of specified conditions.
+	 * @param conditions Conditions to hash
+	 * @return Hash in hex format
+	 */
+	private String hashConditions(CharSequence conditions)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(conditionsSalt);
+			
+			byte hash[] = digest.digest(conditions.toString().getBytes(StandardCharsets.UTF_8));
+			return String.format("%016x", ByteBuffer.wrap(hash).getLong());
+		} catch(NoSuchAlgorithmException ex)
+		{
+			throw new InvalidStateException(ex, "SHA-256 digest is not supported");
+		}
+	}
+	
+	/**
+	 * Records an execution of specified query. If execution exceeds configured slow query time, it is logged
+	 * along with hash of specified conditions.
+	 * @param queryName Query name
+	 * @param spaceIdentity Space identity of the user executing the query
+	 * @param phaseMillis Time (in millis) taken by each phase, indexed by {@link SearchPhase} ordinal. Negative 
+	 * 		values indicate phase was not executed
+	 * @param rowCount Number of rows returned
+	 * @param pageNumber Page number requested, zero for keyset pagination
+	 * @param conditions Normalized conditions of the query, can be null if slow query logging is disabled
+	 */
+	public void recordExecution(String queryName, String spaceIdentity, long phaseMillis[], int rowCount, int pageNumber, CharSequence conditions)
+	{
+		long slowQueryMillis = webutilsConfiguration.getSearchConfiguration().getSlowQueryMillis();
+		long totalMillis = phaseMillis[SearchPhase.TOTAL.ordinal()];
+		boolean slow = (slowQueryMillis > 0 && totalMillis > slowQueryMillis);
+		
+		getRecorder(queryName).recordExecution(phaseMillis, rowCount, pageNumber, slow);
+		
+		if(!slow)
+		{
+			return;
+		}
+		
+		SlowSearchQuery slowQuery = new SlowSearchQuery();
+		slowQuery.setQueryName(queryName);
+		slowQuery.setExecutedOn(new Date());
+		slowQuery.setTotalMillis(totalMillis);
+		slowQuery.setConditionsHash(conditions != null ? hashConditions(conditions) : null);
+		slowQuery.setPage(pageNumber > 0 ? String.valueOf(pageNumber) : "keyset");
+		slowQuery.setRowCount(rowCount);
+		
+		Map<String, Long> phases = new LinkedHashMap<>();
+		
+		for(SearchPhase phase : SearchPhase.values())
+		{
+			if(phase != SearchPhase.TOTAL && phaseMillis[phase.ordinal()] >= 0)
+			{
+				phases.put(phase.name(), phaseMillis[phase.ordinal()]);
+			}
+		}
+		
+		slowQuery.setPhaseMillis(phases);
+		
+		slowQueryLogger.warn("Slow search query {} took {} ms [Phases: {}, Page: {}, Rows: {}, Conditions Hash: {}]", 
+				queryName, totalMillis, phases, slowQuery.getPage(), rowCount, slowQuery.getConditionsHash());
+		
+		int historySize = webutilsConfiguration.getSearchConfiguration().getSlowQueryHistorySize();
+		
+		synchronized(slowQueries)
+		{
+			slowQueries.addFirst(new SlowQueryEntry(spaceIdentity, slowQuery));
+			
+			while(slowQueries.size() > historySize)
+			{
+				slowQueries.removeLast();
+			}
+		}
+	}
+	
+	/**
+	 * Records an execution of specified query served from result cache.
+	 * @param queryName Query name
+	 */
+	public void recordCacheHit(String queryName)
+	{
+		getRecorder(queryName).recordCacheHit();
+	}
+	
+	/**
+	 * Records a failed execution of specified query.
+	 * @param queryName Query name
+	 */
+	public void recordFailure(String queryName)
+	{
+		getRecorder(queryName).recordFailure();
+	}
+	
+	/**
+	 * Fetches current metrics of all queries, recent slow queries of specified space and cache statistics.
+	 * @param spaceIdentity Space identity of the user fetching the metrics
+	 * @return Current metrics
+	 */
+	public SearchMetricsResponse getMetrics(String spaceIdentity)
+	{
+		logger.trace("Fetching search metrics");
+		
+		SearchMetricsResponse response = new SearchMetricsResponse();
+		List<SearchQueryMetrics> metrics = new ArrayList<>(queryMetrics.size());
+		
+		for(SearchQueryMetricsRecorder recorder : queryMetrics.values())
+		{
+			metrics.add(recorder.toMetrics());
+		}
+		
+		response.setQueries(metrics);
+		
+		List<SlowSearchQuery> spaceSlowQueries = new ArrayList<>();
+		
+		synchronized(slowQueries)
+		{
+			for(SlowQueryEntry entry : slowQueries)
+			{
+				if(Objects.equals(entry.spaceIdentity, spaceIdentity))
+				{
+					spaceSlowQueries.add(entry.slowQuery);
+				}
+			}
+		}
+		
+		response.setSlowQueries(spaceSlowQueries);
+		
+		List<CacheStatistics> cacheStatistics = new ArrayList<>(caches.size());
+		CacheStatistics statistics = null;
+		
+		for(LruCache<?, ?> cache : caches)
+		{
+			statistics = new CacheStatistics();
+			statistics.setName(cache.getName());
+			statistics.setSize(cache.size());
+			statistics.setMaxSize(cache.getMaxSize());
+			statistics.setHitCount(cache.getHitCount());
+			statistics.setMissCount(cache.getMissCount());
+			statistics.setEvictionCount(cache.getEvictionCount());
+			statistics.setExpiryCount(cache.getExpiryCount());
+			
+			cacheStatistics.add(statistics);
+		}
+		
+		response.setCaches(cacheStatistics);
+		return response;
+	}
+}
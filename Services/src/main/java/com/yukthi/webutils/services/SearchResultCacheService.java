@@ -0,0 +1,524 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yukthi.persistence.repository.RepositoryFactory;
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.common.models.search.ExecuteSearchResponse;
+import com.yukthi.webutils.repository.ISearchCacheVersionRepository;
+import com.yukthi.webutils.repository.SearchCacheVersionEntity;
+import com.yukthi.webutils.utils.LruCache;
+
+/**
+ * Maintains cached search results of the search queries which has result caching enabled.
+ * Cached results are invalidated when entities of the query's entity type are modified
+ * via {@link BaseCrudService}.
+ * <BR>
+ * Responses are cached in serialized form, so that each caller gets its own copy which can be modified freely.
+ * <BR>
+ * Each entity type has a local generation, which is incremented on every invalidation. Callers capture the generation 
+ * before executing the query and results are cached only if generation is not changed in the meantime, so that results
+ * read before a modification are not cached after its invalidation.
+ * <BR>
+ * Invalidations also update the entity type version stamp in database. Other nodes verify the stamp (at configured interval)
+ * and drop their cached results of the entity type, when stamp is changed.
+ * <BR>
+ * Named versions (see {@link #getVersionStamp(String)}) are maintained in the same way, for other cached data
+ * which needs to be dropped on all the nodes when modified.
+ * <BR>
+ * Modifications done within a transaction scope (see {@link #beginTransaction()}) are invalidated again when
+ * the outermost scope ends, as commit of a nested transaction is not final till the outer transaction completes.
+ * 
+ * @author akiran
+ */
+@Service
+public class SearchResultCacheService
+{
+	private static Logger logger = LogManager.getLogger(SearchResultCacheService.class);
+	
+	/**
+	 * Separator used between key parts.
+	 */
+	private static final char KEY_SEPARATOR = '|';
+	
+	/**
+	 * Used to serialize and deserialize cached responses.
+	 */
+	private static ObjectMapper objectMapper = new ObjectMapper();
+	
+	/**
+	 * Version of cached results of an entity type, as known to this node.
+	 */
+	private static class TypeVersion
+	{
+		/**
+		 * Local generation, incremented on every invalidation.
+		 */
+		private AtomicLong generation = new AtomicLong(0);
+		
+		/**
+		 * Version stamp last read from database.
+		 */
+		private volatile long stamp;
+		
+		/**
+		 * Time when stamp was last verified against database.
+		 */
+		private volatile long checkedOn;
+	}
+	
+	/**
+	 * Transaction scope of a thread, which tracks the entity types modified within the scope.
+	 */
+	private static class TransactionScope
+	{
+		/**
+		 * Number of nested scopes currently open.
+		 */
+		private int depth;
+		
+		/**
+		 * Entity types to be invalidated when outermost scope ends.
+		 */
+		private Set<Class<?>> modifiedTypes = new LinkedHashSet<>();
+	}
+	
+	/**
+	 * Used to fetch cache size.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * Used to expose cache statistics.
+	 */
+	@Autowired
+	private SearchMetricsService searchMetricsService;
+	
+	/**
+	 * Used to fetch repository instances.
+	 */
+	@Autowired
+	private RepositoryFactory repositoryFactory;
+	
+	/**
+	 * To persist and read result cache version stamps.
+	 */
+	private ISearchCacheVersionRepository searchCacheVersionRepository;
+	
+	/**
+	 * Cached search results in serialized form. Keys are prefixed with entity type name, so that results
+	 * can be invalidated by entity type.
+	 */
+	private LruCache<String, byte[]> cache;
+	
+	/**
+	 * Result versions of entity types.
+	 */
+	private Map<String, TypeVersion> typeVersions = new ConcurrentHashMap<>();
+	
+	/**
+	 * Transaction scope of current thread, null if no scope is open.
+	 */
+	private ThreadLocal<TransactionScope> transactionScope = new ThreadLocal<>();
+	
+	/**
+	 * Creates the cache.
+	 */
+	@PostConstruct
+	private void init()
+	{
+		cache = new LruCache<>("search-results", webutilsConfiguration.getSearchConfiguration().getResultCacheSize());
+		searchMetricsService.registerCache(cache);
+		
+		searchCacheVersionRepository = repositoryFactory.getRepository(ISearchCacheVersionRepository.class);
+	}
+	
+	/**
+	 * Builds cache key for specified entity type and query key.
+	 * @param entityType Entity type of the search query
+	 * @param queryKey Key representing query, its conditions and paging
+	 * @return Cache key
+	 */
+	private String toKey(Class<?> entityType, String queryKey)
+	{
+		return entityType.getName() + KEY_SEPARATOR + queryKey;
+	}
+	
+	/**
+	 * Fetches version of specified entity type. If configured interval is elapsed since last verification, 
+	 * version stamp is verified against database and cached results are invalidated if stamp is changed by other node.
+	 * @param entityType Entity type whose version is needed
+	 * @return Version of entity type
+	 */
+	private TypeVersion checkVersion(Class<?> entityType)
+	{
+		return checkVersion(entityType.getName(), entityType);
+	}
+	
+	/**
+	 * Fetches version of specified name. If configured interval is elapsed since last verification, 
+	 * version stamp is verified against database and, if stamp is changed by other node, generation is incremented
+	 * and cached results of the entity type (if any) are invalidated.
+	 * @param typeName Name of the version
+	 * @param entityType Entity type whose results are versioned by the name. Null for named versions.
+	 * @return Version of specified name
+	 */
+	private TypeVersion checkVersion(String typeName, Class<?> entityType)
+	{
+		long now = System.currentTimeMillis();
+		TypeVersion typeVersion = typeVersions.get(typeName);
+		
+		if(typeVersion != null && (now - typeVersion.checkedOn) < webutilsConfiguration.getSearchConfiguration().getResultCacheVersionCheckMillis())
+		{
+			return typeVersion;
+		}
+		
+		Long stamp = null;
+		
+		try
+		{
+			stamp = searchCacheVersionRepository.fetchStamp(typeName);
+		}catch(RuntimeException ex)
+		{
+			logger.error("An error occurred while fetching search cache version of entity type - {}", typeName, ex);
+		}
+		
+		long stampValue = (stamp != null) ? stamp : 0;
+		
+		if(typeVersion == null)
+		{
+			typeVersion = new TypeVersion();
+			typeVersion.stamp = stampValue;
+			typeVersion.checkedOn = now;
+			
+			TypeVersion existing = typeVersions.putIfAbsent(typeName, typeVersion);
+			
+			if(existing == null)
+			{
+				return typeVersion;
+			}
+			
+			typeVersion = existing;
+		}
+		
+		typeVersion.checkedOn = now;
+		
+		if(typeVersion.stamp != stampValue)
+		{
+			logger.debug("Version '{}' is modified by other node. Dropping locally cached data", typeName);
+			
+			typeVersion.stamp = stampValue;
+			
+			if(entityType == null)
+			{
+				typeVersion.generation.incrementAndGet();
+			}
+			else
+			{
+				invalidateLocal(entityType, typeVersion);
+			}
+		}
+		
+		return typeVersion;
+	}
+	
+	/**
+	 * Fetches current generation of cached results of specified entity type. This should be captured before
+	 * executing the query and should be passed while caching its results.
+	 * @param entityType Entity type of the search query
+	 * @return Current generation
+	 */
+	public long getGeneration(Class<?> entityType)
+	{
+		return checkVersion(entityType).generation.get();
+	}
+	
+	/**
+	 * Fetches cached response for specified query key. Returned response is a copy, which can be modified by caller.
+	 * @param entityType Entity type of the search query
+	 * @param queryKey Key representing query, its conditions and paging
+	 * @return Cached response, null if not found
+	 */
+	public ExecuteSearchResponse get(Class<?> entityType, String queryKey)
+	{
+		checkVersion(entityType);
+		
+		byte content[] = cache.get(toKey(entityType, queryKey));
+		
+		if(content == null)
+		{
+			return null;
+		}
+		
+		try
+		{
+			return objectMapper.readValue(content, ExecuteSearchResponse.class);
+		}catch(Exception ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while reading cached search response");
+		}
+	}
+	
+	/**
+	 * Caches copy of specified response, if entity type generation is not changed since specified generation.
+	 * @param entityType Entity type of the search query
+	 * @param queryKey Key representing query, its conditions and paging
+	 * @param response Response to cache
+	 * @param timeToLiveMillis Time (in millis) for which response should be cached
+	 * @param generation Generation of entity type, captured before executing the query
+	 * @return true if response is cached
+	 */
+	public boolean put(Class<?> entityType, String queryKey, ExecuteSearchResponse response, long timeToLiveMillis, long generation)
+	{
+		TypeVersion typeVersion = checkVersion(entityType);
+		
+		if(typeVersion.generation.get() != generation)
+		{
+			logger.trace("Ignoring stale search results of entity type - {}", entityType.getName());
+			return false;
+		}
+		
+		byte content[] = null;
+		
+		try
+		{
+			content = objectMapper.writeValueAsBytes(response);
+		}catch(Exception ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while serializing search response");
+		}
+		
+		String key = toKey(entityType, queryKey);
+		cache.put(key, content, timeToLiveMillis);
+		
+		// invalidation might have happened while caching, in which case remove the stale entry 
+		if(typeVersion.generation.get() != generation)
+		{
+			cache.remove(key);
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Removes locally cached results of specified entity type.
+	 * @param entityType Entity type whose results should be removed
+	 * @param typeVersion Version of entity type
+	 * @return Number of results removed
+	 */
+	private int invalidateLocal(Class<?> entityType, TypeVersion typeVersion)
+	{
+		// generation is incremented before removal, so that results being cached concurrently are dropped
+		typeVersion.generation.incrementAndGet();
+		
+		final String prefix = entityType.getName() + KEY_SEPARATOR;
+		return cache.removeIf(key -> key.startsWith(prefix));
+	}
+	
+	/**
+	 * Updates version stamp of specified name, so that other nodes can detect the modification.
+	 * @param typeName Entity type or name whose stamp should be updated
+	 * @param typeVersion Version of specified name
+	 */
+	private void updateStamp(String typeName, TypeVersion typeVersion)
+	{
+		long stamp = UUID.randomUUID().getMostSignificantBits();
+		
+		try
+		{
+			if(!searchCacheVersionRepository.updateStamp(typeName, stamp))
+			{
+				SearchCacheVersionEntity versionEntity = new SearchCacheVersionEntity();
+				versionEntity.setEntityType(typeName);
+				versionEntity.setStamp(stamp);
+				
+				try
+				{
+					searchCacheVersionRepository.save(versionEntity);
+				}catch(RuntimeException ex)
+				{
+					// stamp record might have been created by other node concurrently
+					searchCacheVersionRepository.updateStamp(typeName, stamp);
+				}
+			}
+		}catch(RuntimeException ex)
+		{
+			logger.error("An error occurred while updating search cache version of entity type - {}", typeName, ex);
+		}
+		
+		typeVersion.stamp = stamp;
+	}
+	
+	/**
+	 * Opens a transaction scope on current thread. Scopes can be nested and every call should be followed 
+	 * by {@link #endTransaction()} once the transaction is closed. Invalidations requested within the scope 
+	 * are repeated when the outermost scope ends, after the outer transaction is committed.
+	 */
+	public void beginTransaction()
+	{
+		TransactionScope scope = transactionScope.get();
+		
+		if(scope == null)
+		{
+			scope = new TransactionScope();
+			transactionScope.set(scope);
+		}
+		
+		scope.depth++;
+	}
+	
+	/**
+	 * Closes the transaction scope opened by {@link #beginTransaction()}. When outermost scope is closed,
+	 * cached results of the entity types modified within the scope are invalidated.
+	 */
+	public void endTransaction()
+	{
+		TransactionScope scope = transactionScope.get();
+		
+		if(scope == null)
+		{
+			throw new InvalidStateException("No search cache transaction scope is open");
+		}
+		
+		scope.depth--;
+		
+		if(scope.depth > 0)
+		{
+			return;
+		}
+		
+		transactionScope.remove();
+		
+		for(Class<?> entityType : scope.modifiedTypes)
+		{
+			invalidateCommitted(entityType);
+		}
+	}
+	
+	/**
+	 * Invalidates all the cached results of specified entity type, on this node and on other nodes. This should 
+	 * be invoked after the modification is committed. If a transaction scope is open, local results are
+	 * dropped immediately and the invalidation is repeated when outermost scope ends.
+	 * @param entityType Entity type whose results should be invalidated
+	 */
+	public void invalidate(Class<?> entityType)
+	{
+		TransactionScope scope = transactionScope.get();
+		
+		if(scope != null)
+		{
+			invalidateLocal(entityType, checkVersion(entityType));
+			scope.modifiedTypes.add(entityType);
+			return;
+		}
+		
+		invalidateCommitted(entityType);
+	}
+	
+	/**
+	 * Invalidates all the cached results of specified entity type, on this node and on other nodes.
+	 * @param entityType Entity type whose results should be invalidated
+	 */
+	private void invalidateCommitted(Class<?> entityType)
+	{
+		TypeVersion typeVersion = checkVersion(entityType);
+		int count = invalidateLocal(entityType, typeVersion);
+		updateStamp(entityType.getName(), typeVersion);
+		
+		if(count > 0)
+		{
+			logger.debug("Invalidated {} cached search results of entity type - {}", count, entityType.getName());
+		}
+	}
+	
+	/**
+	 * Invalidates cached results of specified search query. As other nodes track versions by entity type,
+	 * they drop all cached results of the entity type.
+	 * @param entityType Entity type of the search query
+	 * @param searchQueryName Search query name
+	 */
+	public void invalidate(Class<?> entityType, String searchQueryName)
+	{
+		TypeVersion typeVersion = checkVersion(entityType);
+		
+		// generation is incremented, so that in-progress executions of the query are not cached
+		typeVersion.generation.incrementAndGet();
+		
+		final String prefix = toKey(entityType, searchQueryName + KEY_SEPARATOR);
+		cache.removeIf(key -> key.startsWith(prefix));
+		
+		updateStamp(entityType.getName(), typeVersion);
+	}
+	
+	/**
+	 * Fetches current stamp of specified named version. Named versions are maintained like entity type versions 
+	 * and can be used to detect modifications of data cached on multiple nodes. Stamp is verified against database
+	 * at configured interval, so modifications done on other nodes are reflected within the interval.
+	 * @param name Name of the version, which should not be an entity type name
+	 * @return Current stamp of the version
+	 */
+	public long getVersionStamp(String name)
+	{
+		return checkVersion(name, null).stamp;
+	}
+	
+	/**
+	 * Changes stamp of specified named version, on this node and in database.
+	 * @param name Name of the version, which should not be an entity type name
+	 */
+	public void updateVersionStamp(String name)
+	{
+		TypeVersion typeVersion = checkVersion(name, null);
+		
+		typeVersion.generation.incrementAndGet();
+		updateStamp(name, typeVersion);
+	}
+	
+	/**
+	 * Fetches the underlying cache, which can be used to fetch cache statistics.
+	 * @return Underlying cache
+	 */
+	public LruCache<String, byte[]> getCache()
+	{
+		return cache;
+	}
+}
@@ -23,28 +23,41 @@
 
 package com.yukthi.webutils.services;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
-import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
 import com.yukthi.persistence.ICrudRepository;
 import com.yukthi.persistence.OrderByField;
-import com.yukthi.persistence.repository.annotations.Condition;
 import com.yukthi.persistence.repository.annotations.Operator;
 import com.yukthi.persistence.repository.annotations.OrderBy;
 import com.yukthi.persistence.repository.annotations.OrderByType;
@@ -53,27 +66,48 @@ import com.yukthi.utils.exceptions.InvalidConfigurationException;
 import com.yukthi.utils.exceptions.InvalidStateException;
 import com.yukthi.webutils.IRepositoryMethodRegistry;
 import com.yukthi.webutils.InvalidRequestParameterException;
+import com.yukthi.webutils.SearchConfiguration;
 import com.yukthi.webutils.WebutilsConfiguration;
 import com.yukthi.webutils.WebutilsContext;
 import com.yukthi.webutils.annotations.SearchQueryMethod;
 import com.yukthi.webutils.common.IExtendedSearchResult;
+import com.yukthi.webutils.common.SearchAggregationModel;
 import com.yukthi.webutils.common.SearchExecutionModel;
-import com.yukthi.webutils.common.annotations.ContextAttribute;
+import com.yukthi.webutils.common.SearchResultFormat;
 import com.yukthi.webutils.common.annotations.Model;
+import com.yukthi.webutils.common.models.def.ExtendedFieldDef;
 import com.yukthi.webutils.common.models.def.FieldType;
 import com.yukthi.webutils.common.models.def.ModelDef;
+import com.yukthi.webutils.common.models.search.ColumnarSearchResults;
 import com.yukthi.webutils.common.models.search.ExecuteSearchResponse;
+import com.yukthi.webutils.common.models.search.ExtendedFieldCondition;
+import com.yukthi.webutils.common.models.search.SearchAggregationResponse;
 import com.yukthi.webutils.common.models.search.SearchColumn;
+import com.yukthi.webutils.common.models.search.SearchCountStatus;
 import com.yukthi.webutils.common.models.search.SearchField;
 import com.yukthi.webutils.common.models.search.SearchRow;
 import com.yukthi.webutils.common.models.search.SearchSettingsColumn;
 import com.yukthi.webutils.controllers.IExtensionContextProvider;
+import com.yukthi.webutils.repository.ExtensionFieldEntity;
+import com.yukthi.webutils.repository.IWebutilsRepository;
 import com.yukthi.webutils.repository.WebutilsExtendableEntity;
 import com.yukthi.webutils.repository.search.ISearchResultCustomizer;
 import com.yukthi.webutils.repository.search.SearchSettingsEntity;
 import com.yukthi.webutils.security.ISecurityService;
 import com.yukthi.webutils.security.UnauthorizedException;
 import com.yukthi.webutils.services.dynamic.DynamicMethod;
+import com.yukthi.webutils.services.search.ColumnarSearchResultsBuilder;
+import com.yukthi.webutils.services.search.ExtendedSearchConditions;
+import com.yukthi.webutils.services.search.ISearchExportWriter;
+import com.yukthi.webutils.services.search.KeysetPageToken;
+import com.yukthi.webutils.services.search.SearchAggregator;
+import com.yukthi.webutils.services.search.SearchExportStatistics;
+import com.yukthi.webutils.services.search.SearchKeyset;
+import com.yukthi.webutils.services.search.SearchPhase;
+import com.yukthi.webutils.services.search.SearchQueryPlan;
+import com.yukthi.webutils.services.search.SearchResultComparator;
+import com.yukthi.webutils.services.search.SearchRowProjection;
+import com.yukthi.webutils.utils.LruCache;
 import com.yukthi.webutils.utils.WebUtils;
 
 /**
@@ -92,6 +126,11 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 		private ICrudRepository<?> repository;
 
 		private Class<?> queryType;
+		
+		/**
+		 * Search result type.
+		 */
+		private Class<?> resultType;
 
 		private String resultTypeModelName;
 		private String queryTypeModelName;
@@ -99,18 +138,61 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 		private OrderByField orderByFields[];
 
 		private Class<? extends ISearchResultCustomizer<?>> customizerType;
-
-		public SearchQueryDetails(Method method, ICrudRepository<?> repository, Class<?> resultType, Class<?> queryType, OrderByField orderByFields[], Class<? extends ISearchResultCustomizer<?>> customizerType)
+		
+		/**
+		 * Flag indicating customizer is resolved.
+		 */
+		private volatile boolean customizerResolved;
+		
+		/**
+		 * Shared customizer instance, null if customizer is not configured or customizer is prototype bean.
+		 */
+		private ISearchResultCustomizer<?> customizer;
+		
+		/**
+		 * Name of customizer bean, if customizer is prototype scoped bean.
+		 */
+		private String customizerBeanName;
+
+		/**
+		 * Precompiled query plan used to extract conditions from query objects.
+		 */
+		private SearchQueryPlan queryPlan;
+		
+		/**
+		 * Keyset used for keyset pagination.
+		 */
+		private SearchKeyset keyset;
+		
+		/**
+		 * Comparator used to merge results of search executed in parts. Null, if order-by fields are not available in results.
+		 */
+		private SearchResultComparator resultComparator;
+		
+		/**
+		 * Time (in millis) for which counts should be cached. Zero, if counts should not be cached.
+		 */
+		private long countCacheMillis;
+		
+		/**
+		 * Time (in millis) for which results should be cached. Zero, if results should not be cached.
+		 */
+		private long resultCacheMillis;
+
+		public SearchQueryDetails(Method method, ICrudRepository<?> repository, Class<?> resultType, Class<?> queryType, OrderByField orderByFields[], SearchKeyset keyset, Class<? extends ISearchResultCustomizer<?>> customizerType)
 		{
 			this.method = method;
 			this.repository = repository;
 
 			this.queryType = queryType;
+			this.resultType = resultType;
+			this.queryPlan = SearchQueryPlan.compile(queryType);
 
 			this.resultTypeModelName = resultType.getAnnotation(Model.class).name();
 			this.queryTypeModelName = queryType.getAnnotation(Model.class).name();
 
 			this.orderByFields = orderByFields;
+			this.keyset = keyset;
 			this.customizerType = customizerType;
 
 			if(StringUtils.isBlank(this.resultTypeModelName))
@@ -125,6 +207,100 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 		}
 	}
 
+	/**
+	 * Handler of result chunks, used while streaming complete results of a query.
+	 */
+	private static interface IResultChunkHandler
+	{
+		/**
+		 * Handles specified chunk of results.
+		 * @param results Chunk of results
+		 */
+		public void handle(List<Object> results) throws Exception;
+	}
+	
+	/**
+	 * Count of a search query, which may be computed concurrently with result query.
+	 */
+	private class SearchCount
+	{
+		/**
+		 * Future of count query. Null, if count is already available.
+		 */
+		private Future<Long> future;
+		
+		/**
+		 * Key with which count should be cached, null if caching is disabled.
+		 */
+		private String cacheKey;
+		
+		/**
+		 * Time (in millis) for which count should be cached.
+		 */
+		private long cacheMillis;
+		
+		/**
+		 * Time (in millis) till which count query can be waited for.
+		 */
+		private long deadline;
+		
+		/**
+		 * Computed count.
+		 */
+		private long count;
+		
+		/**
+		 * Status of count.
+		 */
+		private SearchCountStatus status;
+		
+		/**
+		 * Time (in millis) taken by count query, -1 if count query was not executed or did not complete.
+		 */
+		private volatile long elapsedMillis = -1;
+		
+		public SearchCount(String cacheKey)
+		{
+			this.cacheKey = cacheKey;
+		}
+		
+		/**
+		 * Waits for the count query till configured timeout. On timeout count query is cancelled and
+		 * count is marked as unknown.
+		 * @param searchQueryName Query name for logging
+		 */
+		public void await(String searchQueryName) throws Exception
+		{
+			if(future == null)
+			{
+				return;
+			}
+			
+			try
+			{
+				count = future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+				status = SearchCountStatus.EXACT;
+				
+				if(cacheKey != null)
+				{
+					countCache.put(cacheKey, count, cacheMillis);
+				}
+			} catch(TimeoutException ex)
+			{
+				logger.warn("Count query of search query {} did not complete within configured time. Returning unknown count", searchQueryName);
+				
+				future.cancel(true);
+				count = -1;
+				status = SearchCountStatus.UNKNOWN;
+			} catch(ExecutionException ex)
+			{
+				throw new InvalidStateException(ex.getCause(), "An error occurred while fetching count of search query - {}", searchQueryName);
+			}
+			
+			future = null;
+		}
+	}
+
 	/**
 	 * Search method details cache.
 	 */
@@ -159,6 +335,89 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 	 */
 	@Autowired
 	private IExtensionContextProvider extensionContextProvider;
+	
+	/**
+	 * Cache used for queries with result caching enabled.
+	 */
+	@Autowired
+	private SearchResultCacheService searchResultCacheService;
+	
+	/**
+	 * Used to fetch extension fields version, which is part of result cache key.
+	 */
+	@Autowired
+	private ExtensionService extensionService;
+	
+	/**
+	 * Used to record execution metrics of search queries.
+	 */
+	@Autowired
+	private SearchMetricsService searchMetricsService;
+	
+	/**
+	 * Used to evaluate conditions on extended fields.
+	 */
+	@Autowired
+	private ExtensionFieldValueService extensionFieldValueService;
+	
+	/**
+	 * Used to resolve search result customizers.
+	 */
+	@Autowired
+	private ApplicationContext applicationContext;
+	
+	/**
+	 * Bounded executor used to execute count queries concurrently with result queries.
+	 */
+	private ThreadPoolExecutor countExecutor;
+	
+	/**
+	 * Cache of search counts, used by queries with count caching enabled.
+	 */
+	private LruCache<String, Long> countCache;
+	
+	/**
+	 * Cache of compiled row projections, keyed by query name and settings layout.
+	 */
+	private LruCache<String, SearchRowProjection> projectionCache;
+	
+	/**
+	 * Initializes count executor and cache.
+	 */
+	@PostConstruct
+	private void init()
+	{
+		SearchConfiguration searchConfiguration = webutilsConfiguration.getSearchConfiguration();
+		final AtomicInteger threadIndex = new AtomicInteger(0);
+		
+		countExecutor = new ThreadPoolExecutor(searchConfiguration.getCountThreadCount(), searchConfiguration.getCountThreadCount(), 
+				60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(searchConfiguration.getCountQueueSize()), 
+				new ThreadFactory()
+				{
+					@Override
+					public Thread newThread(Runnable runnable)
+					{
+						Thread thread = new Thread(runnable, "search-count-" + threadIndex.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		
+		countCache = new LruCache<>("search-count", searchConfiguration.getCountCacheSize());
+		projectionCache = new LruCache<>("search-projection", searchConfiguration.getSettingsCacheSize());
+		
+		searchMetricsService.registerCache(countCache);
+		searchMetricsService.registerCache(projectionCache);
+	}
+	
+	/**
+	 * Stops count executor.
+	 */
+	@PreDestroy
+	private void destroy()
+	{
+		countExecutor.shutdownNow();
+	}
 
 	/*
 	 * (non-Javadoc)
@@ -221,6 +480,14 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 
 		OrderBy orderByAnnot = method.getAnnotation(OrderBy.class);
 		OrderByField orderByFields[] = null;
+		
+		// order-by field names and types, used to merge results of search executed in parts
+		String orderByNames[] = null;
+		OrderByType orderByTypes[] = null;
+		
+		// leading order-by field, used by keyset pagination
+		String leadingOrderField = "id";
+		OrderByType leadingOrderType = OrderByType.ASC;
 
 		if(orderByAnnot != null)
 		{
@@ -229,11 +496,21 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 			if(fieldsAnnot != null)
 			{
 				orderByFields = new OrderByField[fieldsAnnot.length];
+				orderByNames = new String[fieldsAnnot.length];
+				orderByTypes = new OrderByType[fieldsAnnot.length];
 				int idx = 0;
+				
+				if(fieldsAnnot.length > 0)
+				{
+					leadingOrderField = fieldsAnnot[0].name();
+					leadingOrderType = fieldsAnnot[0].type();
+				}
 
 				for(com.yukthi.persistence.repository.annotations.OrderByField annot : fieldsAnnot)
 				{
 					orderByFields[idx] = new OrderByField(annot.name(), annot.type());
+					orderByNames[idx] = annot.name();
+					orderByTypes[idx] = annot.type();
 					idx++;
 				}
 			}
@@ -242,6 +519,14 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 				orderByFields = new OrderByField[orderByAnnot.value().length];
 				int idx = 0;
 				String fieldNames[] = orderByAnnot.value();
+				orderByNames = fieldNames;
+				orderByTypes = new OrderByType[fieldNames.length];
+				Arrays.fill(orderByTypes, OrderByType.ASC);
+				
+				if(fieldNames.length > 0)
+				{
+					leadingOrderField = fieldNames[0];
+				}
 
 				for(String field : fieldNames)
 				{
@@ -252,15 +537,46 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 		}
 		else
 		{
-			orderByFields = new OrderByField[] { new OrderByField("id", OrderByType.ASC) };
+			orderByFields = new OrderByField[0];
+			orderByNames = new String[0];
+			orderByTypes = new OrderByType[0];
+		}
+		
+		// make ordering unique, so that rows having same values for order-by fields are returned in same order
+		//	by every query. Keyset pages (which skip rows tied with the boundary) and merged results depend on it
+		String resultOrderByNames[] = orderByNames;
+		OrderByType resultOrderByTypes[] = orderByTypes;
+		
+		if(!Arrays.asList(orderByNames).contains("id"))
+		{
+			orderByFields = Arrays.copyOf(orderByFields, orderByFields.length + 1);
+			orderByFields[orderByFields.length - 1] = new OrderByField("id", OrderByType.ASC);
+			
+			orderByNames = Arrays.copyOf(orderByNames, orderByNames.length + 1);
+			orderByNames[orderByNames.length - 1] = "id";
+			
+			orderByTypes = Arrays.copyOf(orderByTypes, orderByTypes.length + 1);
+			orderByTypes[orderByTypes.length - 1] = OrderByType.ASC;
 		}
 
 		// customizer
 
 		Class<? extends ISearchResultCustomizer> customizer = annotation.customizer();
 
+		SearchQueryDetails searchQueryDetails = new SearchQueryDetails(method, repository, returnModelType, queryModelType, orderByFields, 
+				SearchKeyset.compile(returnModelType, repository.getEntityDetails().getEntityType(), leadingOrderField, leadingOrderType), (Class) customizer);
+		searchQueryDetails.resultComparator = SearchResultComparator.compile(returnModelType, orderByNames, orderByTypes);
+		
+		// when id is not part of results, merged results are ordered only by declared fields
+		if(searchQueryDetails.resultComparator == null && resultOrderByNames != orderByNames)
+		{
+			searchQueryDetails.resultComparator = SearchResultComparator.compile(returnModelType, resultOrderByNames, resultOrderByTypes);
+		}
+		searchQueryDetails.countCacheMillis = annotation.countCacheSeconds() * 1000L;
+		searchQueryDetails.resultCacheMillis = annotation.resultCacheSeconds() * 1000L;
+
 		// register the annotation
-		nameToSearchMet.put(annotation.name(), new SearchQueryDetails(method, repository, returnModelType, queryModelType, orderByFields, (Class) customizer));
+		nameToSearchMet.put(annotation.name(), searchQueryDetails);
 	}
 
 	/*
@@ -292,7 +608,43 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 			throw new InvalidRequestParameterException("Invalid search query  name specified - " + searchQueryName);
 		}
 
-		return modelDetailsService.getModelDef(searchQueryDetails.queryTypeModelName);
+		ModelDef queryDef = modelDetailsService.getModelDef(searchQueryDetails.queryTypeModelName);
+		Class<?> entityType = searchQueryDetails.repository.getEntityDetails().getEntityType();
+		
+		if(!WebutilsExtendableEntity.class.isAssignableFrom(entityType))
+		{
+			return queryDef;
+		}
+		
+		// add searchable extended fields of current user space, on a copy as model definitions are shared
+		List<ExtendedFieldDef> extendedFieldDefs = new ArrayList<>();
+		ExtendedFieldDef extendedFieldDef = null;
+		
+		for(ExtensionFieldEntity field : extensionService.getExtensionFieldsForEntity(entityType.getName()))
+		{
+			if(!field.isSearchable() && !field.isIndexed())
+			{
+				continue;
+			}
+			
+			extendedFieldDef = new ExtendedFieldDef(field.getExtension().getName(), field.getName(), field.getLabel(), field.getType());
+			extendedFieldDef.setLovOptions(field.getLovOptions());
+			extendedFieldDef.setIndexed(field.isIndexed());
+			
+			extendedFieldDefs.add(extendedFieldDef);
+		}
+		
+		ModelDef extendedQueryDef = new ModelDef();
+		extendedQueryDef.setName(queryDef.getName());
+		extendedQueryDef.setLabel(queryDef.getLabel());
+		extendedQueryDef.setDescription(queryDef.getDescription());
+		extendedQueryDef.setFields(queryDef.getFields());
+		extendedQueryDef.setExtensionName(queryDef.getExtensionName());
+		extendedQueryDef.setDateFormat(queryDef.getDateFormat());
+		extendedQueryDef.setJsDateFormat(queryDef.getJsDateFormat());
+		extendedQueryDef.setExtendedFields(extendedFieldDefs);
+		
+		return extendedQueryDef;
 	}
 
 	/**
@@ -334,20 +686,16 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 	}
 
 	/**
-	 * Executes search query method with name specified by "searchQueryName" by
-	 * passing query-object "query". The number of results will be limited to
-	 * "resultLimit".
+	 * Fetches search query details with specified name and ensures specified query object
+	 * is compatible and current user is authorized to execute the query.
 	 * 
 	 * @param searchQueryName
-	 *            Search query name to execute
+	 *            Search query name
 	 * @param query
-	 *            Query object containing conditions
-	 * @param searchExecutionModel
-	 *            Search execution params
-	 * @return Results of search query execution
+	 *            Query object to be used
+	 * @return Matching search query details
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	public ExecuteSearchResponse executeSearch(String searchQueryName, Object query, SearchExecutionModel searchExecutionModel)
+	private SearchQueryDetails fetchAuthorizedQueryDetails(String searchQueryName, Object query)
 	{
 		// validate inputs
 		SearchQueryDetails searchQueryDetails = nameToSearchMet.get(searchQueryName);
@@ -371,92 +719,49 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 				throw new UnauthorizedException("Current user is not authorized to execute search query - {}", searchQueryName);
 			}
 		}
-
+		
+		return searchQueryDetails;
+	}
+	
+	/**
+	 * Builds repository search query with conditions, ordering and result fields. Limits are
+	 * not set on returned query.
+	 * 
+	 * @param searchQueryDetails
+	 *            Search query details
+	 * @param query
+	 *            Query object containing conditions
+	 * @param searchSettings
+	 *            Search settings to be used for result fields
+	 * @param conditionKey
+	 *            If not null, normalized conditions (including space) are appended to this builder
+	 * @return Repository search query
+	 */
+	private com.yukthi.persistence.repository.search.SearchQuery buildRepositoryQuery(SearchQueryDetails searchQueryDetails, Object query, SearchSettingsEntity searchSettings, StringBuilder conditionKey)
+	{
 		com.yukthi.persistence.repository.search.SearchQuery repoSearchQuery = new com.yukthi.persistence.repository.search.SearchQuery();
-		Field queryFields[] = searchQueryDetails.queryType.getDeclaredFields();
-		Condition condition = null;
-		Object value = null;
-		String strValue = null;
-
-		SearchCondition searchCondition = null;
-		ContextAttribute contextAttribute = null;
-		WebutilsContext context = WebutilsContext.getContext();
 
-		// loop through query object fields and extract conditions and add it
+		// extract conditions from query object using precompiled plan and add it
 		// repo search query
-		for(Field field : queryFields)
+		for(SearchCondition searchCondition : searchQueryDetails.queryPlan.buildConditions(query, WebutilsContext.getContext().getAttributeMap(), conditionKey))
 		{
-			condition = field.getAnnotation(Condition.class);
-
-			if(condition == null)
-			{
-				continue;
-			}
-
-			field.setAccessible(true);
-			contextAttribute = field.getAnnotation(ContextAttribute.class);
-
-			if(contextAttribute == null)
-			{
-				try
-				{
-					value = field.get(query);
-				} catch(Exception ex)
-				{
-					throw new InvalidStateException("An error occurred while fetching field value - {}", field.getName());
-				}
-			}
-			else
-			{
-				try
-				{
-					value = PropertyUtils.getProperty(context.getAttributeMap(), contextAttribute.value());
-				} catch(Exception ex)
-				{
-					throw new InvalidStateException(ex, "An error occurred while fetching context attribute - {}", contextAttribute.value());
-				}
-			}
-
-			// ignore nulls
-			if(value == null)
-			{
-				continue;
-			}
-
-			// ignore blank value
-			if(value instanceof String)
-			{
-				strValue = (String) value;
-
-				if(strValue.trim().length() == 0)
-				{
-					continue;
-				}
-
-				strValue = strValue.replace("*", "%");
-				value = strValue;
-			}
-
-			if(value instanceof Enum)
-			{
-				value = value.toString();
-			}
-
-			searchCondition = new SearchCondition(condition.value(), condition.op(), value);
-			searchCondition.setIgnoreCase(condition.ignoreCase());
-
 			repoSearchQuery.addCondition(searchCondition);
 		}
 
-		repoSearchQuery.addCondition(new SearchCondition("spaceIdentity", Operator.EQ, securityService.getUserSpaceIdentity()));
+		String spaceIdentity = securityService.getUserSpaceIdentity();
+		repoSearchQuery.addCondition(new SearchCondition("spaceIdentity", Operator.EQ, spaceIdentity));
+		
+		if(conditionKey != null)
+		{
+			conditionKey.append("spaceIdentity=");
+			SearchQueryPlan.appendKeyValue(conditionKey, spaceIdentity);
+		}
 
 		// set ordering
 		repoSearchQuery.setOrderByFields(Arrays.asList(searchQueryDetails.orderByFields));
 
 		///////////////////////////////////////////////////////////
 		// Add result fields
-		SearchSettingsEntity searchSettings = searchSettingsService.fetchSettings(searchQueryName);
-
 		for(SearchSettingsColumn column : searchSettings.getSearchColumns())
 		{
 			// if the field is required or displayable
@@ -483,149 +788,918 @@ public class SearchService implements IRepositoryMethodRegistry<SearchQueryMetho
 				}
 			}
 		}
+		
+		return repoSearchQuery;
+	}
+	
+	/**
+	 * Fetches customizer of specified search query, if any. Customizer is resolved on first use and reused
+	 * further, except for prototype scoped beans which are fetched for every call.
+	 * 
+	 * @param searchQueryDetails
+	 *            Search query details
+	 * @return Customizer or null, if no customizer is configured
+	 */
+	@SuppressWarnings("rawtypes")
+	private ISearchResultCustomizer getCustomizer(SearchQueryDetails searchQueryDetails)
+	{
+		if(!searchQueryDetails.customizerResolved)
+		{
+			resolveCustomizer(searchQueryDetails);
+		}
+		
+		if(searchQueryDetails.customizerBeanName != null)
+		{
+			return (ISearchResultCustomizer) applicationContext.getBean(searchQueryDetails.customizerBeanName);
+		}
+		
+		return searchQueryDetails.customizer;
+	}
+	
+	/**
+	 * Resolves customizer of specified search query. If spring bean of customizer type is available, the
+	 * bean is used. Otherwise customizer instance is created and autowired. Resolution is done lazily (instead of
+	 * during registration), as customizers may depend on beans which are not ready during repository registration.
+	 * 
+	 * @param searchQueryDetails
+	 *            Search query details
+	 */
+	@SuppressWarnings("rawtypes")
+	private synchronized void resolveCustomizer(SearchQueryDetails searchQueryDetails)
+	{
+		if(searchQueryDetails.customizerResolved)
+		{
+			return;
+		}
+		
+		Class<?> customizerType = searchQueryDetails.customizerType;
+		
+		if(!ISearchResultCustomizer.class.equals(customizerType))
+		{
+			String beanNames[] = applicationContext.getBeanNamesForType(customizerType);
+			
+			if(beanNames.length > 1)
+			{
+				throw new InvalidConfigurationException("Multiple beans found of search customizer type {}. Bean names - {}", customizerType.getName(), Arrays.toString(beanNames));
+			}
+			
+			if(beanNames.length == 1)
+			{
+				if(applicationContext.isPrototype(beanNames[0]))
+				{
+					searchQueryDetails.customizerBeanName = beanNames[0];
+				}
+				else
+				{
+					searchQueryDetails.customizer = (ISearchResultCustomizer) applicationContext.getBean(beanNames[0]);
+				}
+			}
+			else
+			{
+				searchQueryDetails.customizer = (ISearchResultCustomizer) applicationContext.getAutowireCapableBeanFactory().createBean(customizerType);
+			}
+			
+			logger.debug("Resolved search customizer {} of search query method - {}", customizerType.getName(), WebUtils.toString(searchQueryDetails.method));
+		}
+		
+		searchQueryDetails.customizerResolved = true;
+	}
 
-		// set limit on repo search query
-		int pageSize = searchExecutionModel.isFetchAll() ? -1 : searchSettings.getPageSize();
-		int pageNo = searchExecutionModel.getPageNumber();
+	/**
+	 * Executes search query method with name specified by "searchQueryName" by
+	 * passing query-object "query". The number of results will be limited to
+	 * "resultLimit".
+	 * 
+	 * @param searchQueryName
+	 *            Search query name to execute
+	 * @param query
+	 *            Query object containing conditions
+	 * @param searchExecutionModel
+	 *            Search execution params
+	 * @return Results of search query execution
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public ExecuteSearchResponse executeSearch(String searchQueryName, Object query, SearchExecutionModel searchExecutionModel)
+	{
+		long startTime = System.nanoTime();
+		SearchQueryDetails searchQueryDetails = fetchAuthorizedQueryDetails(searchQueryName, query);
+		
+		SearchSettingsEntity searchSettings = searchSettingsService.fetchSettings(searchQueryName);
+		boolean cacheResults = (searchQueryDetails.resultCacheMillis > 0) && !searchExecutionModel.isFetchAll();
+		
+		// normalized conditions are needed for count/result cache keys and for slow query log
+		boolean buildConditionKey = searchExecutionModel.isFetchCount() || cacheResults || searchMetricsService.isSlowQueryLogEnabled();
+		StringBuilder conditionKey = buildConditionKey ? new StringBuilder(searchQueryName).append('|') : null;
+		com.yukthi.persistence.repository.search.SearchQuery repoSearchQuery = buildRepositoryQuery(searchQueryDetails, query, searchSettings, conditionKey);
+		
+		// extended field conditions are part of condition key, but are evaluated only when results are not cached
+		List<ExtendedFieldCondition> extendedConditions = searchExecutionModel.getExtendedConditions();
+		
+		if(conditionKey != null && extendedConditions != null)
+		{
+			for(ExtendedFieldCondition condition : extendedConditions)
+			{
+				conditionKey.append('|').append(condition.getExtensionName()).append('.').append(condition.getFieldName());
+				conditionKey.append(' ').append(condition.getOperator()).append('=');
+				SearchQueryPlan.appendKeyValue(conditionKey, condition.getValue());
+			}
+		}
+		
+		// if result caching is enabled and results are available in cache, use them
+		Class<?> entityType = searchQueryDetails.repository.getEntityDetails().getEntityType();
+		String resultCacheKey = null;
+		long resultCacheGeneration = 0;
+		
+		if(cacheResults)
+		{
+			// generation is captured before executing query, so that results read before a concurrent modification are not cached
+			resultCacheGeneration = searchResultCacheService.getGeneration(entityType);
+			resultCacheKey = toResultCacheKey(conditionKey, searchSettings, searchExecutionModel);
+			ExecuteSearchResponse cachedResponse = searchResultCacheService.get(entityType, resultCacheKey);
+			
+			if(cachedResponse != null)
+			{
+				logger.trace("Using cached results for search query - {}", searchQueryName);
+				
+				searchMetricsService.recordCacheHit(searchQueryName);
+				return cachedResponse;
+			}
+		}
 
-		repoSearchQuery.setResultsOffset((pageNo - 1) * pageSize);
-		repoSearchQuery.setResultsLimit(pageSize);
+		ExtendedSearchConditions extendedSearchConditions = toExtendedSearchConditions(searchQueryDetails, query, searchSettings, extendedConditions);
+		
+		// when there are multiple chunks, search is executed once per chunk and main query is not used
+		extendedSearchConditions.apply(repoSearchQuery, 0);
+
+		int pageSize = searchExecutionModel.isFetchAll() ? -1 : searchSettings.getPageSize();
+		boolean keysetMode = searchExecutionModel.isKeysetPagination() && !searchExecutionModel.isFetchAll();
+		KeysetPageToken pageToken = keysetMode ? searchQueryDetails.keyset.decodeToken(searchExecutionModel.getPageToken()) : null;
+
+		// if fetch count is enabled, start count execution. Count query is built on request thread, as
+		// it depends on request context
+		SearchCount searchCount = null;
+		
+		if(searchExecutionModel.isFetchCount())
+		{
+			List<com.yukthi.persistence.repository.search.SearchQuery> countQueries = new ArrayList<>(extendedSearchConditions.getChunkCount());
+			com.yukthi.persistence.repository.search.SearchQuery countQuery = null;
+			
+			for(int i = 0; i < extendedSearchConditions.getChunkCount(); i++)
+			{
+				countQuery = buildRepositoryQuery(searchQueryDetails, query, searchSettings, null);
+				extendedSearchConditions.apply(countQuery, i);
+				countQueries.add(countQuery);
+			}
+			
+			searchCount = startCount(searchQueryDetails, countQueries, conditionKey.toString());
+		}
 
 		// execute search and return results
+		long phaseMillis[] = new long[SearchPhase.values().length];
+		Arrays.fill(phaseMillis, -1);
+		
 		try
 		{
-			List<Object> results = (List) searchQueryDetails.method.invoke(searchQueryDetails.repository, repoSearchQuery);
-			long count = 0;
-
-			// if fetch count is enabled
-			if(searchExecutionModel.isFetchCount())
+			int offset = searchExecutionModel.isFetchAll() ? 0 : (searchExecutionModel.getPageNumber() - 1) * pageSize;
+			long phaseStartTime = System.nanoTime();
+			List<Object> results = null;
+			
+			if(extendedSearchConditions.isChunked())
 			{
-				count = searchQueryDetails.repository.searchCount(repoSearchQuery);
+				results = fetchChunkedResults(searchQueryName, searchQueryDetails, query, searchSettings, extendedSearchConditions, 
+						keysetMode, pageToken, offset, pageSize);
 			}
+			else
+			{
+				// set limit on repo search query
+				if(keysetMode)
+				{
+					searchQueryDetails.keyset.applyToken(repoSearchQuery, pageToken, pageSize);
+				}
+				else
+				{
+					repoSearchQuery.setResultsOffset(offset);
+					repoSearchQuery.setResultsLimit(pageSize);
+				}
+	
+				results = (List) searchQueryDetails.method.invoke(searchQueryDetails.repository, repoSearchQuery);
+			}
+			
+			phaseMillis[SearchPhase.FETCH.ordinal()] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - phaseStartTime);
+			
+			// next page token is computed on actual repository results, before customization
+			KeysetPageToken nextPageToken = keysetMode ? searchQueryDetails.keyset.nextToken(pageToken, results, pageSize) : null;
 			
 			// instance of customizer
-			if(!ISearchResultCustomizer.class.equals(searchQueryDetails.customizerType))
+			ISearchResultCustomizer customizerResult = getCustomizer(searchQueryDetails);
+			
+			if(customizerResult != null)
 			{
-				ISearchResultCustomizer customizerResult = searchQueryDetails.customizerType.newInstance();
+				phaseStartTime = System.nanoTime();
 				results = customizerResult.customize(results);
+				phaseMillis[SearchPhase.CUSTOMIZE.ordinal()] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - phaseStartTime);
+			}
+			
+			phaseStartTime = System.nanoTime();
+			ExecuteSearchResponse response = toResponse(searchQueryName, results, searchSettings, searchExecutionModel);
+			phaseMillis[SearchPhase.TO_RESPONSE.ordinal()] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - phaseStartTime);
+			
+			if(searchCount != null)
+			{
+				searchCount.await(searchQueryName);
+				
+				response.setTotalCount(searchCount.count);
+				response.setCountStatus(searchCount.status);
+				phaseMillis[SearchPhase.COUNT.ordinal()] = searchCount.elapsedMillis;
 			}
 			
-			return toResponse(searchQueryName, results, searchSettings, searchExecutionModel, count);
+			if(nextPageToken != null)
+			{
+				response.setNextPageToken(nextPageToken.encode());
+			}
+			
+			// unknown counts are not cached, so that next request would attempt to compute count
+			if(cacheResults && response.getCountStatus() != SearchCountStatus.UNKNOWN)
+			{
+				searchResultCacheService.put(entityType, resultCacheKey, response, searchQueryDetails.resultCacheMillis, resultCacheGeneration);
+			}
+			
+			phaseMillis[SearchPhase.TOTAL.ordinal()] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+			searchMetricsService.recordExecution(searchQueryName, securityService.getUserSpaceIdentity(), phaseMillis, (results != null) ? results.size() : 0, 
+					keysetMode ? 0 : searchExecutionModel.getPageNumber(), conditionKey);
+			
+			return response;
+		} catch(InvalidRequestParameterException ex)
+		{
+			searchMetricsService.recordFailure(searchQueryName);
+			throw ex;
 		} catch(Exception ex)
 		{
+			searchMetricsService.recordFailure(searchQueryName);
 			throw new InvalidStateException(ex, "An error occurred while executing search query - {}", searchQueryName);
+		} finally
+		{
+			// ensure count is not left running, in case of errors
+			if(searchCount != null && searchCount.future != null)
+			{
+				searchCount.future.cancel(true);
+			}
 		}
 	}
-
+	
 	/**
-	 * Converts specified results into response.
+	 * Executes specified search once per chunk of ids matched by extended conditions and merges the results as per
+	 * order of the search. Each part fetches the results till the end of required page, so that the page can be picked 
+	 * from merged results.
 	 * 
 	 * @param searchQueryName
-	 *            Search query for which conversion should be done.
-	 * @param results
-	 *            Search results to be converted.
+	 *            Search query name, used for error messages
+	 * @param searchQueryDetails
+	 *            Search query details
+	 * @param query
+	 *            Query object containing conditions
+	 * @param searchSettings
+	 *            Search settings to be used
+	 * @param extendedSearchConditions
+	 *            Extended conditions with id chunks
+	 * @param keysetMode
+	 *            Whether page is identified by page token
+	 * @param pageToken
+	 *            Page token, in keyset mode
+	 * @param offset
+	 *            Offset of the page, when not in keyset mode
+	 * @param pageSize
+	 *            Page size, negative to fetch all results
+	 * @return Results of required page
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private List<Object> fetchChunkedResults(String searchQueryName, SearchQueryDetails searchQueryDetails, Object query, SearchSettingsEntity searchSettings, 
+			ExtendedSearchConditions extendedSearchConditions, boolean keysetMode, KeysetPageToken pageToken, int offset, int pageSize) throws Exception
+	{
+		if(searchQueryDetails.resultComparator == null)
+		{
+			throw new InvalidRequestParameterException("Extended field conditions matched too many entities for search query '{}', whose order-by fields are not part of results. "
+					+ "Specify more restrictive conditions", searchQueryName);
+		}
+		
+		List<List<Object>> chunkResults = new ArrayList<>(extendedSearchConditions.getChunkCount());
+		com.yukthi.persistence.repository.search.SearchQuery chunkQuery = null;
+		int skip = offset;
+		
+		for(int i = 0; i < extendedSearchConditions.getChunkCount(); i++)
+		{
+			chunkQuery = buildRepositoryQuery(searchQueryDetails, query, searchSettings, null);
+			extendedSearchConditions.apply(chunkQuery, i);
+			
+			if(keysetMode)
+			{
+				skip = searchQueryDetails.keyset.applyCondition(chunkQuery, pageToken);
+			}
+			
+			chunkQuery.setResultsOffset(0);
+			chunkQuery.setResultsLimit((pageSize < 0) ? -1 : skip + pageSize);
+			
+			chunkResults.add((List) searchQueryDetails.method.invoke(searchQueryDetails.repository, chunkQuery));
+		}
+		
+		logger.debug("Merging results of {} parts of search query - {}", chunkResults.size(), searchQueryName);
+		return searchQueryDetails.resultComparator.merge(chunkResults, skip, pageSize);
+	}
+	
+	/**
+	 * Converts specified extended field conditions into repository conditions. Conditions on indexed extended fields
+	 * are evaluated using typed value store and matching ids are split into chunks, so that IN lists stay within database limits.
+	 * 
+	 * @param searchQueryDetails
+	 *            Search query details
+	 * @param query
+	 *            Query object containing conditions
 	 * @param searchSettings
 	 *            Search settings to be used
+	 * @param extendedConditions
+	 *            Extended field conditions, can be null
+	 * @return Repository conditions to be applied on search queries
+	 */
+	@SuppressWarnings("rawtypes")
+	private ExtendedSearchConditions toExtendedSearchConditions(SearchQueryDetails searchQueryDetails, Object query, SearchSettingsEntity searchSettings, 
+			List<ExtendedFieldCondition> extendedConditions)
+	{
+		Class<?> entityType = searchQueryDetails.repository.getEntityDetails().getEntityType();
+		
+		return extensionFieldValueService.toSearchConditions(entityType, extendedConditions, 
+				(searchQueryDetails.repository instanceof IWebutilsRepository) ? (IWebutilsRepository) searchQueryDetails.repository : null,
+				(extendedConditions != null && !extendedConditions.isEmpty()) ? buildRepositoryQuery(searchQueryDetails, query, searchSettings, null) : null);
+	}
+	
+	/**
+	 * Builds result cache key for specified conditions and paging.
+	 * 
+	 * @param conditionKey
+	 *            Normalized conditions, prefixed by query name
+	 * @param searchSettings
+	 *            Search settings used for the results
 	 * @param searchExecutionModel
 	 *            Search execution params
-	 * @return Converted response.
+	 * @return Result cache key
 	 */
-	private ExecuteSearchResponse toResponse(String searchQueryName, List<Object> results, SearchSettingsEntity searchSettings, SearchExecutionModel searchExecutionModel, long count) throws Exception
+	private String toResultCacheKey(StringBuilder conditionKey, SearchSettingsEntity searchSettings, SearchExecutionModel searchExecutionModel)
 	{
-		ExecuteSearchResponse response = new ExecuteSearchResponse();
-		response.setPageNumber(searchExecutionModel.getPageNumber());
-
-		response.setTotalCount(count);
-
-		// add search result headers
-		for(SearchSettingsColumn column : searchSettings.getSearchColumns())
+		StringBuilder key = new StringBuilder(conditionKey);
+		
+		// settings are identified by id and version, default settings (which are not persisted) by page size
+		if(searchSettings.getId() != null)
 		{
-			// if the field is required or displayable
-			if(column.isRequired() || column.isDisplayed())
+			key.append("|settings=").append(searchSettings.getId()).append(':').append(searchSettings.getVersion());
+		}
+		else
+		{
+			key.append("|settings=default:").append(searchSettings.getPageSize());
+		}
+		
+		// result columns depend on extension fields of current space, whose version is verified against other nodes
+		key.append("|ext=").append(extensionService.getExtensionFieldsVersion());
+		
+		if(searchExecutionModel.isKeysetPagination())
+		{
+			key.append("|token=");
+			SearchQueryPlan.appendKeyValue(key, searchExecutionModel.getPageToken());
+		}
+		else
+		{
+			key.append("|page=").append(searchExecutionModel.getPageNumber());
+		}
+		
+		key.append("|count=").append(searchExecutionModel.isFetchCount());
+		key.append("|format=").append(searchExecutionModel.getResultFormat());
+		return key.toString();
+	}
+	
+	/**
+	 * Starts count computation of specified query. If count caching is enabled and count is
+	 * available in cache, cached count is used. Otherwise count query is submitted to count executor.
+	 * 
+	 * @param searchQueryDetails
+	 *            Search query details
+	 * @param countQueries
+	 *            Queries to be used for counting, count is sum of their counts
+	 * @param cacheKey
+	 *            Key to be used for count cache
+	 * @return Count being computed
+	 */
+	private SearchCount startCount(final SearchQueryDetails searchQueryDetails, final List<com.yukthi.persistence.repository.search.SearchQuery> countQueries, String cacheKey)
+	{
+		final SearchCount searchCount = new SearchCount(searchQueryDetails.countCacheMillis > 0 ? cacheKey : null);
+		
+		if(searchCount.cacheKey != null)
+		{
+			Long cachedCount = countCache.get(cacheKey);
+			
+			if(cachedCount != null)
 			{
-				if(column.isExtended())
+				searchCount.count = cachedCount;
+				searchCount.status = SearchCountStatus.ESTIMATED;
+				return searchCount;
+			}
+		}
+		
+		searchCount.cacheMillis = searchQueryDetails.countCacheMillis;
+		searchCount.deadline = System.currentTimeMillis() + webutilsConfiguration.getSearchConfiguration().getCountTimeoutMillis();
+		
+		try
+		{
+			searchCount.future = countExecutor.submit(new Callable<Long>()
+			{
+				@Override
+				public Long call() throws Exception
 				{
-					response.addSearchColumn(new SearchColumn("Ext_" + column.getLabel().replaceAll("\\s+", "_"), column.getLabel(), column.isDisplayed(), FieldType.STRING));
+					long startTime = System.nanoTime();
+					long count = 0;
+					
+					for(com.yukthi.persistence.repository.search.SearchQuery countQuery : countQueries)
+					{
+						count += searchQueryDetails.repository.searchCount(countQuery);
+					}
+					
+					searchCount.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+					return count;
 				}
-				else
+			});
+		} catch(RejectedExecutionException ex)
+		{
+			logger.warn("Count executor is busy. Returning unknown count for search query");
+			
+			searchCount.count = -1;
+			searchCount.status = SearchCountStatus.UNKNOWN;
+		}
+		
+		return searchCount;
+	}
+	
+	/**
+	 * Executes specified search query and streams the results to specified writer. Results are fetched
+	 * from repository in chunks of configured size (see {@link SearchConfiguration#getExportChunkSize()}) and each
+	 * chunk is written before next chunk is fetched, so that memory usage does not depend on result size.
+	 * Chunks are fetched using keyset pagination, so that later chunks are as cheap as the first one.
+	 * 
+	 * @param searchQueryName
+	 *            Search query name to execute
+	 * @param query
+	 *            Query object containing conditions
+	 * @param extendedConditions
+	 *            Conditions on extended fields, can be null
+	 * @param exportWriter
+	 *            Writer to which results should be written
+	 * @return Statistics of the export
+	 */
+	public SearchExportStatistics exportSearch(String searchQueryName, Object query, List<ExtendedFieldCondition> extendedConditions, final ISearchExportWriter exportWriter)
+	{
+		long startTime = System.currentTimeMillis();
+		SearchQueryDetails searchQueryDetails = fetchAuthorizedQueryDetails(searchQueryName, query);
+		
+		SearchSettingsEntity searchSettings = searchSettingsService.fetchSettings(searchQueryName);
+		
+		int chunkSize = webutilsConfiguration.getSearchConfiguration().getExportChunkSize();
+		final List<SearchRow> rows = new ArrayList<>(chunkSize);
+		long rowCount = 0;
+		
+		try
+		{
+			final SearchRowProjection projection = getProjection(searchQueryName, searchQueryDetails, searchSettings);
+			final DateFormat dateFormat = (DateFormat) webutilsConfiguration.getDateFormat().clone();
+			
+			ExtendedSearchConditions extendedSearchConditions = toExtendedSearchConditions(searchQueryDetails, query, searchSettings, extendedConditions);
+			
+			exportWriter.writeHeader(toSearchColumns(searchSettings));
+			
+			rowCount = streamResults(searchQueryName, searchQueryDetails, query, searchSettings, extendedSearchConditions, new IResultChunkHandler()
+			{
+				@Override
+				public void handle(List<Object> results) throws Exception
 				{
-					response.addSearchColumn(new SearchColumn(column.getPropertyName(), column.getLabel(), column.isDisplayed(), FieldType.STRING));
+					rows.clear();
+					
+					for(Object result : results)
+					{
+						rows.add(projection.project(result, extensionContextProvider, dateFormat));
+					}
+					
+					exportWriter.writeRows(rows);
 				}
+			});
+			
+			exportWriter.finish();
+		} catch(InvalidRequestParameterException ex)
+		{
+			throw ex;
+		} catch(Exception ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while exporting search query - {}", searchQueryName);
+		}
+		
+		SearchExportStatistics statistics = new SearchExportStatistics(searchQueryName, rowCount, exportWriter.getBytesWritten(), System.currentTimeMillis() - startTime);
+		logger.info("Completed export of search query {} with statistics - {}", searchQueryName, statistics);
+		
+		return statistics;
+	}
+	
+	/**
+	 * Counts the results of specified search query. Count is computed directly from repository, without using count cache.
+	 * 
+	 * @param searchQueryName
+	 *            Search query name
+	 * @param query
+	 *            Query object containing conditions
+	 * @param extendedConditions
+	 *            Conditions on extended fields, can be null
+	 * @return Number of matching results
+	 */
+	public long countSearch(String searchQueryName, Object query, List<ExtendedFieldCondition> extendedConditions)
+	{
+		SearchQueryDetails searchQueryDetails = fetchAuthorizedQueryDetails(searchQueryName, query);
+		SearchSettingsEntity searchSettings = searchSettingsService.fetchSettings(searchQueryName);
+		
+		ExtendedSearchConditions extendedSearchConditions = toExtendedSearchConditions(searchQueryDetails, query, searchSettings, extendedConditions);
+		com.yukthi.persistence.repository.search.SearchQuery countQuery = null;
+		long count = 0;
+		
+		// id chunks are disjoint, so count is sum of chunk counts
+		for(int i = 0; i < extendedSearchConditions.getChunkCount(); i++)
+		{
+			countQuery = buildRepositoryQuery(searchQueryDetails, query, searchSettings, null);
+			extendedSearchConditions.apply(countQuery, i);
+			
+			count += searchQueryDetails.repository.searchCount(countQuery);
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Fetches all results of specified query from repository in chunks of configured size (see {@link SearchConfiguration#getExportChunkSize()}),
+	 * customizes them and passes them to specified handler chunk by chunk. Chunks are fetched using keyset pagination, so
+	 * that later chunks are as cheap as the first one.
+	 * 
+	 * @param searchQueryName
+	 *            Search query name
+	 * @param searchQueryDetails
+	 *            Search query details
+	 * @param query
+	 *            Query object containing conditions
+	 * @param searchSettings
+	 *            Search settings to be used
+	 * @param extendedSearchConditions
+	 *            Repository conditions of extended fields
+	 * @param handler
+	 *            Handler to which customized chunks should be passed
+	 * @return Number of results passed to handler
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private long streamResults(String searchQueryName, SearchQueryDetails searchQueryDetails, Object query, SearchSettingsEntity searchSettings, 
+			ExtendedSearchConditions extendedSearchConditions, IResultChunkHandler handler) throws Exception
+	{
+		if(extendedSearchConditions.isChunked())
+		{
+			return streamChunkedResults(searchQueryName, searchQueryDetails, query, searchSettings, extendedSearchConditions, handler);
+		}
+		
+		int chunkSize = webutilsConfiguration.getSearchConfiguration().getExportChunkSize();
+		ISearchResultCustomizer customizer = getCustomizer(searchQueryDetails);
+		
+		com.yukthi.persistence.repository.search.SearchQuery repoSearchQuery = null;
+		KeysetPageToken pageToken = null;
+		List<Object> results = null;
+		long rowCount = 0;
+		
+		while(true)
+		{
+			// keyset conditions differ for each chunk, so fresh query is built for each chunk
+			repoSearchQuery = buildRepositoryQuery(searchQueryDetails, query, searchSettings, null);
+			extendedSearchConditions.apply(repoSearchQuery, 0);
+			searchQueryDetails.keyset.applyToken(repoSearchQuery, pageToken, chunkSize);
+			
+			results = (List) searchQueryDetails.method.invoke(searchQueryDetails.repository, repoSearchQuery);
+			
+			if(results == null || results.isEmpty())
+			{
+				break;
+			}
+			
+			pageToken = searchQueryDetails.keyset.nextToken(pageToken, results, chunkSize);
+			
+			if(customizer != null)
+			{
+				results = customizer.customize(results);
+			}
+			
+			handler.handle(results);
+			rowCount += results.size();
+			
+			// if last chunk is fetched
+			if(pageToken == null)
+			{
+				break;
 			}
 		}
-
-		if(results == null || results.isEmpty())
+		
+		return rowCount;
+	}
+	
+	/**
+	 * Streams results of specified query, whose extended field conditions are split into multiple id chunks. Each id chunk
+	 * is read using keyset pagination and the chunk results are merged in query order, so that results are streamed in
+	 * same order as unchunked query.
+	 * 
+	 * @param searchQueryName
+	 *            Search query name
+	 * @param searchQueryDetails
+	 *            Search query details
+	 * @param query
+	 *            Query object containing conditions
+	 * @param searchSettings
+	 *            Search settings to be used
+	 * @param extendedSearchConditions
+	 *            Repository conditions of extended fields
+	 * @param handler
+	 *            Handler to which customized chunks should be passed
+	 * @return Number of results passed to handler
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private long streamChunkedResults(String searchQueryName, SearchQueryDetails searchQueryDetails, Object query, SearchSettingsEntity searchSettings, 
+			ExtendedSearchConditions extendedSearchConditions, IResultChunkHandler handler) throws Exception
+	{
+		if(searchQueryDetails.resultComparator == null)
 		{
-			response.setSearchResults(new ArrayList<>());
-			return response;
+			throw new InvalidRequestParameterException("Extended field conditions matched too many entities for search query '{}', whose order-by fields are not part of results. "
+					+ "Specify more restrictive conditions", searchQueryName);
 		}
-
-		// Build the rows
-		SearchRow searchRow = null;
-		Object value = null;
-		String extensionName = null;
-
-		for(Object result : results)
+		
+		int chunkSize = webutilsConfiguration.getSearchConfiguration().getExportChunkSize();
+		ISearchResultCustomizer customizer = getCustomizer(searchQueryDetails);
+		
+		int partCount = extendedSearchConditions.getChunkCount();
+		List<LinkedList<Object>> buffers = new ArrayList<>(partCount);
+		KeysetPageToken pageTokens[] = new KeysetPageToken[partCount];
+		boolean exhausted[] = new boolean[partCount];
+		
+		com.yukthi.persistence.repository.search.SearchQuery repoSearchQuery = null;
+		List<Object> results = null;
+		long rowCount = 0;
+		
+		for(int i = 0; i < partCount; i++)
 		{
-			searchRow = new SearchRow();
-
-			for(SearchSettingsColumn column : searchSettings.getSearchColumns())
+			buffers.add(new LinkedList<>());
+		}
+		
+		while(true)
+		{
+			// next results of each part should be known, before picking next result in order
+			for(int i = 0; i < partCount; i++)
 			{
-				// ignore fields which will not be part of results
-				if(!column.isRequired() && !column.isDisplayed())
+				if(!buffers.get(i).isEmpty() || exhausted[i])
 				{
 					continue;
 				}
-
-				// if column belong to extended field
-				if(column.isExtended())
+				
+				repoSearchQuery = buildRepositoryQuery(searchQueryDetails, query, searchSettings, null);
+				extendedSearchConditions.apply(repoSearchQuery, i);
+				searchQueryDetails.keyset.applyToken(repoSearchQuery, pageTokens[i], chunkSize);
+				
+				results = (List) searchQueryDetails.method.invoke(searchQueryDetails.repository, repoSearchQuery);
+				
+				if(results == null || results.isEmpty())
 				{
-					// if it is simple extension field
-					if(!column.isMixedField())
+					exhausted[i] = true;
+					continue;
+				}
+				
+				pageTokens[i] = searchQueryDetails.keyset.nextToken(pageTokens[i], results, chunkSize);
+				exhausted[i] = (pageTokens[i] == null);
+				buffers.get(i).addAll(results);
+			}
+			
+			// pick results in order, till a part with more results in repository runs out of fetched results
+			results = new ArrayList<>(chunkSize);
+			boolean refillNeeded = false;
+			int next = -1;
+			
+			while(results.size() < chunkSize && !refillNeeded)
+			{
+				next = -1;
+				
+				for(int i = 0; i < partCount; i++)
+				{
+					if(buffers.get(i).isEmpty())
 					{
-						value = ((IExtendedSearchResult) result).getDynamicFieldValue(column.getFieldName());
+						continue;
 					}
-					// if multiple extension fields (of different extensions)
-					// point to same column
-					else
+					
+					if(next < 0 || searchQueryDetails.resultComparator.compare(buffers.get(i).getFirst(), buffers.get(next).getFirst()) < 0)
 					{
-						extensionName = extensionContextProvider.getExtensionName(result);
-
-						if(extensionName != null)
-						{
-							value = ((IExtendedSearchResult) result).getDynamicFieldValue(column.getMixedFieldName(extensionName));
-						}
-						else
-						{
-							value = ((IExtendedSearchResult) result).getDynamicFieldValue(column.getFieldName());
-						}
+						next = i;
 					}
 				}
-				// if column belong to static field
-				else
+				
+				if(next < 0)
 				{
-					value = PropertyUtils.getProperty(result, column.getPropertyName());
+					break;
 				}
-
-				if(value == null)
+				
+				results.add(buffers.get(next).removeFirst());
+				refillNeeded = buffers.get(next).isEmpty() && !exhausted[next];
+			}
+			
+			if(results.isEmpty())
+			{
+				break;
+			}
+			
+			if(customizer != null)
+			{
+				results = customizer.customize(results);
+			}
+			
+			handler.handle(results);
+			rowCount += results.size();
+		}
+		
+		return rowCount;
+	}
+	
+	/**
+	 * Computes specified aggregations on all results of specified query, grouped by specified result fields. Results 
+	 * are streamed in chunks (same as export) and only group accumulators are maintained in memory.
+	 * 
+	 * @param searchQueryName
+	 *            Search query name
+	 * @param query
+	 *            Query object containing conditions
+	 * @param aggregationModel
+	 *            Group-by fields and aggregations to compute
+	 * @return Aggregated groups
+	 */
+	public SearchAggregationResponse aggregateSearch(String searchQueryName, Object query, SearchAggregationModel aggregationModel)
+	{
+		long startTime = System.currentTimeMillis();
+		SearchQueryDetails searchQueryDetails = fetchAuthorizedQueryDetails(searchQueryName, query);
+		SearchSettingsEntity searchSettings = searchSettingsService.fetchSettings(searchQueryName);
+		
+		final SearchAggregator aggregator = new SearchAggregator(searchQueryDetails.resultType, aggregationModel.getGroupByFields(), 
+				aggregationModel.getAggregations(), webutilsConfiguration.getSearchConfiguration().getAggregationMaxGroups());
+		
+		try
+		{
+			ExtendedSearchConditions extendedSearchConditions = toExtendedSearchConditions(searchQueryDetails, query, searchSettings, 
+					aggregationModel.getExtendedConditions());
+			
+			streamResults(searchQueryName, searchQueryDetails, query, searchSettings, extendedSearchConditions, new IResultChunkHandler()
+			{
+				@Override
+				public void handle(List<Object> results) throws Exception
 				{
-					searchRow.addValue(null);
-					continue;
+					aggregator.add(results);
 				}
-
-				if(value instanceof Date)
+			});
+		} catch(InvalidRequestParameterException ex)
+		{
+			throw ex;
+		} catch(Exception ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while aggregating search query - {}", searchQueryName);
+		}
+		
+		SearchAggregationResponse response = new SearchAggregationResponse();
+		response.setGroupByFields(aggregationModel.getGroupByFields());
+		response.setAggregations(aggregationModel.getAggregations());
+		response.setGroups(aggregator.toGroups((DateFormat) webutilsConfiguration.getDateFormat().clone()));
+		response.setRowCount(aggregator.getRowCount());
+		
+		logger.debug("Aggregated {} results of search query {} into {} groups in {} ms", aggregator.getRowCount(), searchQueryName, 
+				response.getGroups().size(), System.currentTimeMillis() - startTime);
+		
+		return response;
+	}
+	
+	/**
+	 * Converts search settings into result columns.
+	 * 
+	 * @param searchSettings
+	 *            Search settings to be used
+	 * @return Result columns
+	 */
+	private List<SearchColumn> toSearchColumns(SearchSettingsEntity searchSettings)
+	{
+		List<SearchColumn> columns = new ArrayList<>();
+		
+		for(SearchSettingsColumn column : searchSettings.getSearchColumns())
+		{
+			// if the field is required or displayable
+			if(column.isRequired() || column.isDisplayed())
+			{
+				if(column.isExtended())
 				{
-					value = webutilsConfiguration.getDateFormat().format(value);
+					columns.add(new SearchColumn("Ext_" + column.getLabel().replaceAll("\\s+", "_"), column.getLabel(), column.isDisplayed(), FieldType.STRING));
 				}
+				else
+				{
+					columns.add(new SearchColumn(column.getPropertyName(), column.getLabel(), column.isDisplayed(), FieldType.STRING));
+				}
+			}
+		}
+		
+		return columns;
+	}
+
+	/**
+	 * Converts specified results into response.
+	 * 
+	 * @param searchQueryName
+	 *            Search query for which conversion should be done.
+	 * @param results
+	 *            Search results to be converted.
+	 * @param searchSettings
+	 *            Search settings to be used
+	 * @param searchExecutionModel
+	 *            Search execution params
+	 * @return Converted response.
+	 */
+	private ExecuteSearchResponse toResponse(String searchQueryName, List<Object> results, SearchSettingsEntity searchSettings, SearchExecutionModel searchExecutionModel) throws Exception
+	{
+		ExecuteSearchResponse response = new ExecuteSearchResponse();
+		response.setPageNumber(searchExecutionModel.getPageNumber());
 
-				searchRow.addValue(value.toString());
+		// add search result headers
+		for(SearchColumn column : toSearchColumns(searchSettings))
+		{
+			response.addSearchColumn(column);
+		}
+
+		if(results == null || results.isEmpty())
+		{
+			if(searchExecutionModel.getResultFormat() == SearchResultFormat.COLUMNAR)
+			{
+				response.setColumnarResults(new ColumnarSearchResults());
+				return response;
 			}
+			
+			response.setSearchResults(new ArrayList<>());
+			return response;
+		}
 
-			response.addSearchResult(searchRow);
+		// Build the rows using compiled projection. Date format is cloned, as it is not thread safe
+		SearchRowProjection projection = getProjection(searchQueryName, nameToSearchMet.get(searchQueryName), searchSettings);
+		SimpleDateFormat dateFormat = (SimpleDateFormat) webutilsConfiguration.getDateFormat().clone();
+		
+		// in columnar format, raw values are encoded column wise
+		if(searchExecutionModel.getResultFormat() == SearchResultFormat.COLUMNAR)
+		{
+			ColumnarSearchResultsBuilder builder = new ColumnarSearchResultsBuilder(projection.getColumnCount(), results.size());
+			
+			for(Object result : results)
+			{
+				builder.addRow(projection.fetchValues(result, extensionContextProvider));
+			}
+			
+			response.setColumnarResults(builder.build(dateFormat));
+			return response;
+		}
+		
+		List<SearchRow> rows = new ArrayList<>(results.size());
+		
+		for(Object result : results)
+		{
+			rows.add(projection.project(result, extensionContextProvider, dateFormat));
 		}
+		
+		response.setSearchResults(rows);
 
 		return response;
 	}
+	
+	/**
+	 * Fetches compiled row projection for specified query and settings layout. Projections are compiled once
+	 * per layout and reused.
+	 * 
+	 * @param searchQueryName
+	 *            Search query name
+	 * @param searchQueryDetails
+	 *            Search query details
+	 * @param searchSettings
+	 *            Search settings to be used
+	 * @return Compiled projection
+	 */
+	private SearchRowProjection getProjection(String searchQueryName, SearchQueryDetails searchQueryDetails, SearchSettingsEntity searchSettings)
+	{
+		String key = searchQueryName + "|" + SearchRowProjection.toLayoutKey(searchSettings.getSearchColumns());
+		SearchRowProjection projection = projectionCache.get(key);
+		
+		if(projection == null)
+		{
+			projection = SearchRowProjection.compile(searchQueryDetails.resultType, searchSettings.getSearchColumns());
+			projectionCache.put(key, projection, webutilsConfiguration.getSearchConfiguration().getSettingsCacheSeconds() * 1000L);
+		}
+		
+		return projection;
+	}
 
 	/**
 	 * Fetches entity type of a search query.
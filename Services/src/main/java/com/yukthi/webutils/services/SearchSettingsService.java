@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 
+import javax.annotation.PostConstruct;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +17,7 @@ import com.yukthi.persistence.repository.annotations.Field;
 import com.yukthi.utils.exceptions.InvalidArgumentException;
 import com.yukthi.utils.exceptions.InvalidStateException;
 import com.yukthi.validation.annotations.Required;
+import com.yukthi.webutils.WebutilsConfiguration;
 import com.yukthi.webutils.common.models.SearchSettingsModel;
 import com.yukthi.webutils.common.models.def.FieldDef;
 import com.yukthi.webutils.common.models.def.ModelDef;
@@ -24,6 +27,7 @@ import com.yukthi.webutils.repository.ExtensionFieldEntity;
 import com.yukthi.webutils.repository.UserEntity;
 import com.yukthi.webutils.repository.search.ISearchSettingsRespository;
 import com.yukthi.webutils.repository.search.SearchSettingsEntity;
+import com.yukthi.webutils.utils.LruCache;
 import com.yukthi.webutils.utils.WebUtils;
 
 /**
@@ -40,6 +44,16 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 	 */
 	private static final int DEFAULT_PAGE_SIZE = 20;
 	
+	/**
+	 * Prefix of the names of settings versions.
+	 */
+	private static final String VERSION_PREFIX = "search-settings|";
+	
+	/**
+	 * Name of the version, which is updated when all the settings are modified.
+	 */
+	private static final String ALL_SETTINGS_VERSION = VERSION_PREFIX + "*";
+	
 	/**
 	 * Current user service used to fetch current user id.
 	 */
@@ -58,6 +72,23 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 	@Autowired
 	private SearchService searchService;
 	
+	/**
+	 * Used to fetch settings cache configuration.
+	 */
+	@Autowired
+	private WebutilsConfiguration webutilsConfiguration;
+	
+	/**
+	 * Used to expose cache statistics.
+	 */
+	@Autowired
+	private SearchMetricsService searchMetricsService;
+	
+	/**
+	 * Cache of resolved settings, keyed by user, space, query, extension fields version and settings versions.
+	 */
+	private LruCache<String, SearchSettingsEntity> settingsCache;
+	
 	/**
 	 * Instantiates a search settings service.
 	 */
@@ -66,6 +97,81 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 		super(SearchSettingsEntity.class, ISearchSettingsRespository.class);
 	}
 	
+	/**
+	 * Creates settings cache.
+	 */
+	@PostConstruct
+	private void initCache()
+	{
+		settingsCache = new LruCache<>("search-settings", webutilsConfiguration.getSearchConfiguration().getSettingsCacheSize());
+		searchMetricsService.registerCache(settingsCache);
+	}
+	
+	/**
+	 * Builds settings cache key prefix for specified user and query. Full key is obtained
+	 * by appending extension fields version and settings version stamps to this prefix.
+	 * @param userId User id
+	 * @param searchQuery Search query name
+	 * @return Cache key prefix
+	 */
+	private String toCacheKeyPrefix(long userId, String searchQuery)
+	{
+		return userId + "|" + securityService.getUserSpaceIdentity() + "|" + searchQuery + "|";
+	}
+	
+	/**
+	 * Removes cached settings of current user for specified query. Settings version of the user and query
+	 * is also updated, so that other nodes drop their cached settings of the user and query.
+	 * @param searchQuery Search query name
+	 */
+	private void invalidateCachedSettings(String searchQuery)
+	{
+		long currentUserId = currentUserService.getCurrentUserDetails().getUserId();
+		final String prefix = toCacheKeyPrefix(currentUserId, searchQuery);
+		
+		settingsCache.removeIf(key -> key.startsWith(prefix));
+		searchResultCacheService.updateVersionStamp(VERSION_PREFIX + prefix);
+	}
+	
+	/**
+	 * Creates copy of specified settings, so that cached settings are not modified by callers.
+	 * @param settings Settings to copy
+	 * @return Copy of settings
+	 */
+	private SearchSettingsEntity copy(SearchSettingsEntity settings)
+	{
+		SearchSettingsEntity copy = new SearchSettingsEntity();
+		copy.setId(settings.getId());
+		copy.setVersion(settings.getVersion());
+		copy.setSpaceIdentity(settings.getSpaceIdentity());
+		copy.setCreatedBy(settings.getCreatedBy());
+		copy.setCreatedOn(settings.getCreatedOn());
+		copy.setUpdatedBy(settings.getUpdatedBy());
+		copy.setUpdatedOn(settings.getUpdatedOn());
+		copy.setUser(settings.getUser());
+		copy.setSearchQueryName(settings.getSearchQueryName());
+		copy.setPageSize(settings.getPageSize());
+		
+		if(settings.getSearchColumns() != null)
+		{
+			List<SearchSettingsColumn> columns = new ArrayList<>(settings.getSearchColumns().size());
+			SearchSettingsColumn columnCopy = null;
+			
+			for(SearchSettingsColumn column : settings.getSearchColumns())
+			{
+				columnCopy = new SearchSettingsColumn(column.getLabel(), column.isDisplayed(), column.isExtended(), 
+						(column.getFields() != null) ? new ArrayList<>(column.getFields()) : null);
+				columnCopy.setRequired(column.isRequired());
+				
+				columns.add(columnCopy);
+			}
+			
+			copy.setSearchColumns(columns);
+		}
+		
+		return copy;
+	}
+	
 	/**
 	 * Fetches all possible settings columns for specified search query.
 	 * @param searchQuery Search query name
@@ -125,11 +231,11 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 	/**
 	 * Fetches default settings of a search query.
 	 * @param searchQuery Search query name.
+	 * @param searchColumns All possible settings columns of the query.
 	 * @return Default settings
 	 */
-	private SearchSettingsEntity defaultSettings(String searchQuery)
+	private SearchSettingsEntity defaultSettings(String searchQuery, LinkedHashMap<SearchSettingsColumn, SearchSettingsColumn> searchColumns)
 	{
-		LinkedHashMap<SearchSettingsColumn, SearchSettingsColumn> searchColumns = getSettingsColumns(searchQuery);
 		SearchSettingsEntity settings = new SearchSettingsEntity();
 		
 		settings.setSearchColumns(new ArrayList<>(searchColumns.keySet()));
@@ -165,12 +271,12 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 	/**
 	 * Filters fields which are not valid any more (deleted or updated) and adds fields
 	 * which were not part of existing settings (new extension fields).
-	 * @param searchQuery Search query name
 	 * @param settings Existing settings.
+	 * @param searchColumns All possible settings columns of the query.
 	 */
-	private void filterInvalidFields(String searchQuery, SearchSettingsEntity settings)
+	private void filterInvalidFields(SearchSettingsEntity settings, LinkedHashMap<SearchSettingsColumn, SearchSettingsColumn> searchColumns)
 	{
-		LinkedHashMap<SearchSettingsColumn, SearchSettingsColumn> allSearchColumns = new LinkedHashMap<>(getSettingsColumns(searchQuery));
+		LinkedHashMap<SearchSettingsColumn, SearchSettingsColumn> allSearchColumns = new LinkedHashMap<>(searchColumns);
 		
 		List<SearchSettingsColumn> searchColumns = settings.getSearchColumns();
 		List<SearchSettingsColumn> filteredColumns = new ArrayList<>();
@@ -214,6 +320,7 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 		validateColumns(entity.getSearchQueryName(), entity);
 		
 		super.save(entity, model);
+		invalidateCachedSettings(entity.getSearchQueryName());
 	}
 
 	@Override
@@ -240,6 +347,10 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 			}
 			
 			transaction.commit();
+			invalidateCachedSettings(entity.getSearchQueryName());
+			
+			//as settings update may not change settings version, invalidate cached results explicitly
+			searchResultCacheService.invalidate(searchService.getEntityTypeOf(entity.getSearchQueryName()), entity.getSearchQueryName());
 		}catch(Exception ex)
 		{
 			logger.error("An error occurred while updating entity - " + entity, ex);
@@ -264,7 +375,9 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 	}
 	
 	/**
-	 * Fetches search settings for current user for specified search query.
+	 * Fetches search settings for current user for specified search query. Resolved settings are cached
+	 * per user, query, extension fields version and settings versions. Returned entity is a copy, which can be 
+	 * modified by caller.
 	 * @param searchQueryName Search query name.
 	 * @return Matching search settings entity of current user.
 	 */
@@ -272,18 +385,33 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 	{
 		long currentUserId = currentUserService.getCurrentUserDetails().getUserId();
 		
-		SearchSettingsEntity entity = super.repository.fetchByName(currentUserId, searchQueryName);
+		// as extension fields version and settings versions are part of key, extension field or settings changes 
+		// (on this or other nodes) would make old entries unreachable, which would eventually expire
+		String prefix = toCacheKeyPrefix(currentUserId, searchQueryName);
+		String cacheKey = prefix + extensionService.getExtensionFieldsVersion() 
+				+ "|" + searchResultCacheService.getVersionStamp(VERSION_PREFIX + prefix)
+				+ "|" + searchResultCacheService.getVersionStamp(ALL_SETTINGS_VERSION);
+		SearchSettingsEntity entity = settingsCache.get(cacheKey);
+		
+		if(entity != null)
+		{
+			return copy(entity);
+		}
+		
+		entity = super.repository.fetchByName(currentUserId, searchQueryName);
+		LinkedHashMap<SearchSettingsColumn, SearchSettingsColumn> searchColumns = getSettingsColumns(searchQueryName);
 		
 		if(entity == null)
 		{
-			entity = defaultSettings(searchQueryName);
+			entity = defaultSettings(searchQueryName, searchColumns);
 		}
 		else
 		{
-			filterInvalidFields(searchQueryName, entity);
+			filterInvalidFields(entity, searchColumns);
 		}
-
-		return entity;
+		
+		settingsCache.put(cacheKey, entity, webutilsConfiguration.getSearchConfiguration().getSettingsCacheSeconds() * 1000L);
+		return copy(entity);
 	}
 	
 	/**
@@ -293,7 +421,10 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 	public void deleteByName(String queryName)
 	{
 		long currentUserId = currentUserService.getCurrentUserDetails().getUserId();
-		super.repository.deleteByName(currentUserId, queryName);		
+		super.repository.deleteByName(currentUserId, queryName);
+		
+		invalidateCachedSettings(queryName);
+		searchResultCacheService.invalidate(searchService.getEntityTypeOf(queryName), queryName);
 	}
 
 	/**
@@ -302,5 +433,7 @@ public class SearchSettingsService extends BaseCrudService<SearchSettingsEntity,
 	public void deleteAll()
 	{
 		repository.deleteAll();
+		settingsCache.clear();
+		searchResultCacheService.updateVersionStamp(ALL_SETTINGS_VERSION);
 	}
 }
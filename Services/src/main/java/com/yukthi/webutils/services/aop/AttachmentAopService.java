@@ -23,6 +23,7 @@
 
 package com.yukthi.webutils.services.aop;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +48,8 @@ import com.yukthi.webutils.common.annotations.Model;
 import com.yukthi.webutils.common.models.def.FieldDef;
 import com.yukthi.webutils.common.models.def.FieldType;
 import com.yukthi.webutils.common.models.def.ModelDef;
+import com.yukthi.webutils.repository.file.IFileContentStore;
+import com.yukthi.webutils.services.FileService;
 import com.yukthi.webutils.services.ModelDetailsService;
 import com.yukthi.webutils.utils.WebAttachmentUtils;
 
@@ -65,6 +68,12 @@ public class AttachmentAopService
 	@Autowired
 	private ModelDetailsService modelDetailsService;
 	
+	/**
+	 * File service to fetch content store, whose staging directory is used to receive attachments.
+	 */
+	@Autowired
+	private FileService fileService;
+	
 	@PostConstruct
 	private void init()
 	{
@@ -199,29 +208,36 @@ public class AttachmentAopService
 					joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
 		}
 		
-		//get the files from request
-		Map<String, List<FileInfo>> fieldAttachments = WebAttachmentUtils.recieveImports(request);
+		//get the files from request, into staging directory of content store (if any) so that store can take
+		//	over the content without copying
+		IFileContentStore contentStore = fileService.getContentStore();
+		File stagingDirectory = (contentStore != null) ? contentStore.getStagingDirectory() : null;
 		
-		logger.debug("Found following attachments in request - {}", fieldAttachments);
+		Map<String, List<FileInfo>> fieldAttachments = WebAttachmentUtils.recieveImports(request, stagingDirectory);
 		
-		//set the attachments on the model fields as part of pre processing
-		setAttachments(joinPoint, fieldAttachments, joinPoint.getArgs(), attachmentsExpected.secured());
+		logger.debug("Found following attachments in request - {}", fieldAttachments);
 		
-		//call actual method
-		Object result = joinPoint.proceed();
-
-		//As part of post process clean temp files that were created
-		if(fieldAttachments != null)
+		try
+		{
+			//set the attachments on the model fields as part of pre processing
+			setAttachments(joinPoint, fieldAttachments, joinPoint.getArgs(), attachmentsExpected.secured());
+			
+			//call actual method
+			return joinPoint.proceed();
+		} finally
 		{
-			for(List<FileInfo> fileLst : fieldAttachments.values())
+			//As part of post process clean temp files that were created, even on failures as files may be
+			//	in persistent staging directory
+			if(fieldAttachments != null)
 			{
-				for(FileInfo fileInfo : fileLst)
+				for(List<FileInfo> fileLst : fieldAttachments.values())
 				{
-					fileInfo.getFile().delete();
+					for(FileInfo fileInfo : fileLst)
+					{
+						fileInfo.getFile().delete();
+					}
 				}
 			}
 		}
-		
-		return result;
 	}
 }
@@ -50,7 +50,7 @@ import com.yukthi.webutils.services.ClassScannerService;
 
 /**
  * Service class to load job classes and schedule them as configured. Dynamic jobs can be 
- * scheduled using {@link #scheduleJob(JobDetails)}
+ * scheduled using {@link #scheduleJob(JobDetails)} and one time jobs can be submitted using {@link #submitJob(String, Class, Object)}
  * 
  * @author akiran
  */
@@ -129,27 +129,8 @@ public class JobService
 			}
 		}
 		
-		//ensure default constructor is available for job type
-		try
-		{
-			if(!(jobDetails.getJobClass().newInstance() instanceof IJob))
-			{
-				throw new InvalidArgumentException("Invalid job type specified - {}", jobDetails.getJobClass().getName());
-			}
-		}catch(Exception ex)
-		{
-			throw new InvalidStateException(ex, "Failed to created specified job type instance - {}", jobDetails.getJobClass().getName());
-		}
-		
 		//create job instance
-		JobDetail job = JobBuilder.newJob(QuartzJobBridge.class)
-				.withIdentity(jobDetails.getName(), "defaultGroup")
-				.usingJobData(new JobDataMap(CommonUtils.toMap(
-							IJobConstants.ATTR_JOB_TYPE, jobDetails.getJobClass().getName(),
-							IJobConstants.ATTR_JOB_DETAILS, jobDataJson,
-							IJobConstants.ATTR_JOB_NAME, jobDetails.getName()
-						)))
-				.build();
+		JobDetail job = buildJob(jobDetails.getName(), jobDetails.getJobClass(), jobDataJson);
 
 		// Trigger the job to run on the next round minute
 		Trigger trigger = TriggerBuilder.newTrigger()
@@ -166,4 +147,75 @@ public class JobService
 			throw new InvalidStateException(ex, "An error occurred while scheduling job - {}", jobDetails);
 		}
 	}
+	
+	/**
+	 * Submits specified job for one time execution, which will be executed as soon as a scheduler thread
+	 * is available. Useful to execute long running operations out of request thread.
+	 * @param name Unique name of the job
+	 * @param jobClass Job type to execute
+	 * @param jobData Data to be passed to job, should be json convertible
+	 */
+	public void submitJob(String name, Class<? extends IJob> jobClass, Object jobData)
+	{
+		logger.debug("Submitting job {} of type {} for execution", name, jobClass.getName());
+		
+		String jobDataJson = null;
+		
+		if(jobData != null)
+		{
+			try
+			{
+				jobDataJson = JsonWrapper.format(jobData);
+			}catch(Exception ex)
+			{
+				throw new InvalidStateException(ex, "An error occurred wile converting job data into json - {}", jobData);
+			}
+		}
+		
+		JobDetail job = buildJob(name, jobClass, jobDataJson);
+		
+		Trigger trigger = TriggerBuilder.newTrigger()
+				.withIdentity(name + "_trigger", "defaultGroup")
+				.startNow()
+				.build();
+		
+		try
+		{
+			scheduler.scheduleJob(job, trigger);
+		}catch(Exception ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while submitting job - {}", name);
+		}
+	}
+	
+	/**
+	 * Builds quartz job which would execute specified job type via {@link QuartzJobBridge}.
+	 * @param name Name of the job
+	 * @param jobClass Job type to execute
+	 * @param jobDataJson Job data in json format
+	 * @return Quartz job
+	 */
+	private JobDetail buildJob(String name, Class<?> jobClass, String jobDataJson)
+	{
+		//ensure default constructor is available for job type
+		try
+		{
+			if(!(jobClass.newInstance() instanceof IJob))
+			{
+				throw new InvalidArgumentException("Invalid job type specified - {}", jobClass.getName());
+			}
+		}catch(Exception ex)
+		{
+			throw new InvalidStateException(ex, "Failed to created specified job type instance - {}", jobClass.getName());
+		}
+		
+		return JobBuilder.newJob(QuartzJobBridge.class)
+				.withIdentity(name, "defaultGroup")
+				.usingJobData(new JobDataMap(CommonUtils.toMap(
+							IJobConstants.ATTR_JOB_TYPE, jobClass.getName(),
+							IJobConstants.ATTR_JOB_DETAILS, jobDataJson,
+							IJobConstants.ATTR_JOB_NAME, name
+						)))
+				.build();
+	}
 }
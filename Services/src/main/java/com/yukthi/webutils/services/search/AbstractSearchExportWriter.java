@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+import com.yukthi.webutils.common.models.search.SearchColumn;
+import com.yukthi.webutils.common.models.search.SearchRow;
+
+/**
+ * Base class for export writers. Tracks bytes written to target stream and the displayable
+ * columns of the search results.
+ * 
+ * @author akiran
+ */
+public abstract class AbstractSearchExportWriter implements ISearchExportWriter
+{
+	/**
+	 * Stream to which output is written.
+	 */
+	protected CountingOutputStream outputStream;
+	
+	/**
+	 * Displayable columns of search results.
+	 */
+	protected List<SearchColumn> columns;
+	
+	/**
+	 * Indexes of displayable columns in search rows.
+	 */
+	protected int columnIndexes[];
+	
+	/**
+	 * Instantiates a new abstract search export writer.
+	 *
+	 * @param outputStream Stream to which export content should be written.
+	 */
+	public AbstractSearchExportWriter(OutputStream outputStream)
+	{
+		this.outputStream = new CountingOutputStream(outputStream);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.ISearchExportWriter#writeHeader(java.util.List)
+	 */
+	@Override
+	public void writeHeader(List<SearchColumn> searchColumns) throws IOException
+	{
+		List<SearchColumn> columns = new ArrayList<>(searchColumns.size());
+		List<Integer> indexes = new ArrayList<>(searchColumns.size());
+		int idx = 0;
+		
+		//only displayable columns are exported
+		for(SearchColumn column : searchColumns)
+		{
+			if(column.isDisplayable())
+			{
+				columns.add(column);
+				indexes.add(idx);
+			}
+			
+			idx++;
+		}
+		
+		this.columns = columns;
+		this.columnIndexes = new int[indexes.size()];
+		
+		for(int i = 0; i < columnIndexes.length; i++)
+		{
+			columnIndexes[i] = indexes.get(i);
+		}
+		
+		writeColumns(columns);
+	}
+	
+	/**
+	 * Invoked to write header with specified displayable columns.
+	 * @param columns Displayable columns.
+	 * @throws IOException Thrown if writing fails.
+	 */
+	protected abstract void writeColumns(List<SearchColumn> columns) throws IOException;
+	
+	/**
+	 * Invoked to write single row.
+	 * @param values Displayable values of the row, in the order of columns.
+	 * @throws IOException Thrown if writing fails.
+	 */
+	protected abstract void writeRow(String values[]) throws IOException;
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.ISearchExportWriter#writeRows(java.util.List)
+	 */
+	@Override
+	public void writeRows(List<SearchRow> rows) throws IOException
+	{
+		String values[] = new String[columnIndexes.length];
+		List<String> data = null;
+		
+		for(SearchRow row : rows)
+		{
+			data = row.getData();
+			
+			for(int i = 0; i < columnIndexes.length; i++)
+			{
+				values[i] = data.get(columnIndexes[i]);
+			}
+			
+			writeRow(values);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.ISearchExportWriter#getBytesWritten()
+	 */
+	@Override
+	public long getBytesWritten()
+	{
+		return outputStream.getByteCount();
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.yukthi.webutils.common.models.search.ColumnarSearchColumn;
+import com.yukthi.webutils.common.models.search.ColumnarSearchResults;
+import com.yukthi.webutils.common.models.search.SearchColumnEncoding;
+
+/**
+ * Builds columnar search results from projected column values. Encoding of each column is decided
+ * based on the values of the column:
+ * 	<ul>
+ * 		<li>Columns having only integral values are sent as numbers.</li>
+ * 		<li>Columns having only date values are sent as epoch milliseconds, which client formats.</li>
+ * 		<li>Other columns are dictionary encoded, if number of distinct values is at most half of row count. Otherwise
+ * 			values are sent as plain strings.</li>
+ * 	</ul>
+ * 
+ * @author akiran
+ */
+public class ColumnarSearchResultsBuilder
+{
+	/**
+	 * Number of columns in the results.
+	 */
+	private int columnCount;
+	
+	/**
+	 * Projected values of the rows.
+	 */
+	private List<Object[]> rows;
+	
+	/**
+	 * Instantiates a new columnar search results builder.
+	 *
+	 * @param columnCount Number of columns in the results
+	 * @param expectedRowCount Expected number of rows
+	 */
+	public ColumnarSearchResultsBuilder(int columnCount, int expectedRowCount)
+	{
+		this.columnCount = columnCount;
+		this.rows = new ArrayList<>(expectedRowCount);
+	}
+	
+	/**
+	 * Adds row with specified column values.
+	 * @param values Column values of the row
+	 */
+	public void addRow(Object values[])
+	{
+		rows.add(values);
+	}
+	
+	/**
+	 * Builds the columnar results.
+	 * @param dateFormat Date format to be used by client for date columns, and for dates present in string columns
+	 * @return Columnar results
+	 */
+	public ColumnarSearchResults build(SimpleDateFormat dateFormat)
+	{
+		ColumnarSearchResults results = new ColumnarSearchResults();
+		results.setRowCount(rows.size());
+		results.setDatePattern(dateFormat.toPattern());
+		results.setTimeZone(dateFormat.getTimeZone().getID());
+		
+		for(int col = 0; col < columnCount; col++)
+		{
+			results.addColumn(buildColumn(col, dateFormat));
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Checks if specified value is of integral type.
+	 * @param value Value to check
+	 * @return true if integral
+	 */
+	private static boolean isIntegral(Object value)
+	{
+		return (value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte);
+	}
+
+	/**
+	 * Builds encoded column for specified column index.
+	 * @param col Column index
+	 * @param dateFormat Date format to be used for dates in string columns
+	 * @return Encoded column
+	 */
+	private ColumnarSearchColumn buildColumn(int col, SimpleDateFormat dateFormat)
+	{
+		boolean integral = true, date = true;
+		Object value = null;
+		
+		for(Object row[] : rows)
+		{
+			value = row[col];
+			
+			if(value == null)
+			{
+				continue;
+			}
+			
+			integral = integral && isIntegral(value);
+			date = date && (value instanceof Date);
+			
+			if(!integral && !date)
+			{
+				break;
+			}
+		}
+		
+		// columns having only nulls are treated as integral columns, which is the most compact
+		if(integral || date)
+		{
+			ColumnarSearchColumn column = new ColumnarSearchColumn(integral ? SearchColumnEncoding.INTEGER : SearchColumnEncoding.DATE);
+			List<Long> numbers = new ArrayList<>(rows.size());
+			
+			for(Object row[] : rows)
+			{
+				value = row[col];
+				
+				if(value == null)
+				{
+					numbers.add(null);
+				}
+				else
+				{
+					numbers.add(integral ? ((Number) value).longValue() : ((Date) value).getTime());
+				}
+			}
+			
+			column.setNumbers(numbers);
+			return column;
+		}
+		
+		// build dictionary and indexes, and decide encoding based on cardinality
+		List<String> values = new ArrayList<>(rows.size());
+		Map<String, Integer> dictionaryIndexes = new HashMap<>();
+		List<String> dictionary = new ArrayList<>();
+		int indexes[] = new int[rows.size()];
+		String strValue = null;
+		Integer index = null;
+		int rowIdx = 0;
+		
+		for(Object row[] : rows)
+		{
+			strValue = SearchRowProjection.toString(row[col], dateFormat);
+			values.add(strValue);
+			
+			if(strValue == null)
+			{
+				indexes[rowIdx++] = -1;
+				continue;
+			}
+			
+			index = dictionaryIndexes.get(strValue);
+			
+			if(index == null)
+			{
+				index = dictionary.size();
+				dictionary.add(strValue);
+				dictionaryIndexes.put(strValue, index);
+			}
+			
+			indexes[rowIdx++] = index;
+		}
+		
+		if(dictionary.size() * 2 <= rows.size())
+		{
+			ColumnarSearchColumn column = new ColumnarSearchColumn(SearchColumnEncoding.DICTIONARY);
+			column.setDictionary(dictionary);
+			column.setIndexes(indexes);
+			return column;
+		}
+		
+		ColumnarSearchColumn column = new ColumnarSearchColumn(SearchColumnEncoding.PLAIN);
+		column.setValues(values);
+		return column;
+	}
+}
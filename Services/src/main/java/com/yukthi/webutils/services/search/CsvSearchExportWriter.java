@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.yukthi.webutils.common.models.search.SearchColumn;
+import com.yukthi.webutils.common.models.search.SearchRow;
+
+/**
+ * Export writer which writes search results in csv format. Values containing separators, quotes
+ * or line breaks are quoted, with embedded quotes escaped by doubling them.
+ * 
+ * @author akiran
+ */
+public class CsvSearchExportWriter extends AbstractSearchExportWriter
+{
+	/**
+	 * Line separator used for records.
+	 */
+	private static final String LINE_SEPARATOR = "\r\n";
+	
+	/**
+	 * Buffered writer used to write csv content.
+	 */
+	private Writer writer;
+	
+	/**
+	 * Instantiates a new csv search export writer.
+	 *
+	 * @param outputStream Stream to which csv content should be written.
+	 */
+	public CsvSearchExportWriter(OutputStream outputStream)
+	{
+		super(outputStream);
+		this.writer = new BufferedWriter(new OutputStreamWriter(this.outputStream, StandardCharsets.UTF_8));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.AbstractSearchExportWriter#writeColumns(java.util.List)
+	 */
+	@Override
+	protected void writeColumns(List<SearchColumn> columns) throws IOException
+	{
+		boolean first = true;
+		
+		for(SearchColumn column : columns)
+		{
+			if(!first)
+			{
+				writer.write(',');
+			}
+			
+			writeValue(column.getHeading());
+			first = false;
+		}
+		
+		writer.write(LINE_SEPARATOR);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.AbstractSearchExportWriter#writeRow(java.lang.String[])
+	 */
+	@Override
+	protected void writeRow(String[] values) throws IOException
+	{
+		for(int i = 0; i < values.length; i++)
+		{
+			if(i > 0)
+			{
+				writer.write(',');
+			}
+			
+			writeValue(values[i]);
+		}
+		
+		writer.write(LINE_SEPARATOR);
+	}
+	
+	/**
+	 * Writes single value, quoting it if required.
+	 * @param value Value to write.
+	 * @throws IOException Thrown if writing fails.
+	 */
+	private void writeValue(String value) throws IOException
+	{
+		if(value == null || value.isEmpty())
+		{
+			return;
+		}
+		
+		boolean quote = false;
+		char ch = 0;
+		
+		for(int i = 0; i < value.length(); i++)
+		{
+			ch = value.charAt(i);
+			
+			if(ch == ',' || ch == '"' || ch == '\n' || ch == '\r')
+			{
+				quote = true;
+				break;
+			}
+		}
+		
+		if(!quote)
+		{
+			writer.write(value);
+			return;
+		}
+		
+		writer.write('"');
+		writer.write(value.replace("\"", "\"\""));
+		writer.write('"');
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.ISearchExportWriter#finish()
+	 */
+	@Override
+	public void finish() throws IOException
+	{
+		writer.flush();
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.AbstractSearchExportWriter#writeRows(java.util.List)
+	 */
+	@Override
+	public void writeRows(List<SearchRow> rows) throws IOException
+	{
+		super.writeRows(rows);
+		
+		//flush every chunk, so that content is streamed to client as it is produced
+		writer.flush();
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import com.yukthi.webutils.common.models.search.SearchColumn;
+
+/**
+ * Export writer which writes search results in excel (xlsx) format. Uses streaming workbook, so that
+ * only a fixed window of rows are maintained in memory, rest of the rows are flushed to disk
+ * as they are written.
+ * 
+ * @author akiran
+ */
+public class ExcelSearchExportWriter extends AbstractSearchExportWriter
+{
+	/**
+	 * Number of rows to be maintained in memory by workbook.
+	 */
+	private static final int ROW_WINDOW_SIZE = 100;
+	
+	/**
+	 * Streaming workbook to which rows are written.
+	 */
+	private SXSSFWorkbook workbook;
+	
+	/**
+	 * Sheet to which rows are written.
+	 */
+	private Sheet sheet;
+	
+	/**
+	 * Index of next row to be written.
+	 */
+	private int rowIndex = 0;
+	
+	/**
+	 * Instantiates a new excel search export writer.
+	 *
+	 * @param sheetName Name of the sheet to be used.
+	 * @param outputStream Stream to which excel content should be written.
+	 */
+	public ExcelSearchExportWriter(String sheetName, OutputStream outputStream)
+	{
+		super(outputStream);
+		
+		this.workbook = new SXSSFWorkbook(ROW_WINDOW_SIZE);
+		this.workbook.setCompressTempFiles(true);
+		this.sheet = workbook.createSheet(sheetName);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.AbstractSearchExportWriter#writeColumns(java.util.List)
+	 */
+	@Override
+	protected void writeColumns(List<SearchColumn> columns) throws IOException
+	{
+		Font font = workbook.createFont();
+		font.setBold(true);
+		
+		CellStyle headingStyle = workbook.createCellStyle();
+		headingStyle.setFont(font);
+		
+		Row row = sheet.createRow(rowIndex++);
+		Cell cell = null;
+		int idx = 0;
+		
+		for(SearchColumn column : columns)
+		{
+			cell = row.createCell(idx++);
+			cell.setCellValue(column.getHeading());
+			cell.setCellStyle(headingStyle);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.AbstractSearchExportWriter#writeRow(java.lang.String[])
+	 */
+	@Override
+	protected void writeRow(String[] values) throws IOException
+	{
+		Row row = sheet.createRow(rowIndex++);
+		
+		for(int i = 0; i < values.length; i++)
+		{
+			row.createCell(i).setCellValue(values[i] == null ? "" : values[i]);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.ISearchExportWriter#finish()
+	 */
+	@Override
+	public void finish() throws IOException
+	{
+		try
+		{
+			workbook.write(outputStream);
+			outputStream.flush();
+		} finally
+		{
+			//delete temp files used by streaming workbook
+			workbook.dispose();
+		}
+	}
+}
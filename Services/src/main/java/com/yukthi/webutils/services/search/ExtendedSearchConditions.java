@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.persistence.repository.search.SearchCondition;
+import com.yukthi.persistence.repository.search.SearchQuery;
+
+/**
+ * Repository conditions resulting from extended field conditions of a search. Conditions on non-indexed fields are 
+ * applied as is. Conditions on indexed fields result in set of matching entity ids, which is split into chunks of
+ * limited size, so that IN lists stay within database limits (Oracle allows 1000 values per list and SQL Server 2100 
+ * parameters per statement). When there are multiple chunks, search is executed once per chunk and results are merged.
+ * 
+ * @author akiran
+ */
+public class ExtendedSearchConditions
+{
+	/**
+	 * Conditions to be applied as is.
+	 */
+	private List<SearchCondition> conditions;
+	
+	/**
+	 * Chunks of matching entity ids. Null, if search is not restricted by ids.
+	 */
+	private List<List<Long>> idChunks;
+	
+	/**
+	 * Instantiates a new extended search conditions.
+	 *
+	 * @param conditions Conditions to be applied as is
+	 * @param idChunks Chunks of matching entity ids, null if search is not restricted by ids
+	 */
+	public ExtendedSearchConditions(List<SearchCondition> conditions, List<List<Long>> idChunks)
+	{
+		this.conditions = (conditions != null) ? conditions : new ArrayList<SearchCondition>();
+		this.idChunks = idChunks;
+	}
+	
+	/**
+	 * Splits specified ids into chunks of specified size. Ids are sorted, so that each chunk covers a narrow id range.
+	 * @param ids Ids to split
+	 * @param chunkSize Max ids per chunk
+	 * @return Id chunks, which will have at least one chunk
+	 */
+	public static List<List<Long>> toChunks(Collection<Long> ids, int chunkSize)
+	{
+		List<Long> sortedIds = new ArrayList<>(ids);
+		Collections.sort(sortedIds);
+		
+		List<List<Long>> chunks = new ArrayList<>();
+		
+		for(int i = 0; i < sortedIds.size(); i += chunkSize)
+		{
+			chunks.add(new ArrayList<>(sortedIds.subList(i, Math.min(i + chunkSize, sortedIds.size()))));
+		}
+		
+		if(chunks.isEmpty())
+		{
+			chunks.add(new ArrayList<Long>());
+		}
+		
+		return chunks;
+	}
+
+	/**
+	 * Gets the conditions to be applied as is.
+	 *
+	 * @return the conditions to be applied as is
+	 */
+	public List<SearchCondition> getConditions()
+	{
+		return conditions;
+	}
+
+	/**
+	 * Gets the chunks of matching entity ids. Null, if search is not restricted by ids.
+	 *
+	 * @return the chunks of matching entity ids
+	 */
+	public List<List<Long>> getIdChunks()
+	{
+		return idChunks;
+	}
+	
+	/**
+	 * Fetches number of times search needs to be executed to cover all matching ids.
+	 * @return Number of chunks, 1 if search is not restricted by ids
+	 */
+	public int getChunkCount()
+	{
+		return (idChunks != null) ? idChunks.size() : 1;
+	}
+	
+	/**
+	 * Checks if search needs to be executed multiple times, once per id chunk.
+	 * @return true, if there are multiple id chunks
+	 */
+	public boolean isChunked()
+	{
+		return (getChunkCount() > 1);
+	}
+	
+	/**
+	 * Adds conditions, including id condition of specified chunk, to specified query.
+	 * @param query Query to which conditions should be added
+	 * @param chunkIndex Index of id chunk to be used
+	 */
+	public void apply(SearchQuery query, int chunkIndex)
+	{
+		for(SearchCondition condition : conditions)
+		{
+			query.addCondition(condition);
+		}
+		
+		if(idChunks == null)
+		{
+			return;
+		}
+		
+		List<Long> ids = idChunks.get(chunkIndex);
+		
+		//entity ids are always positive, so an empty chunk matches nothing
+		query.addCondition(new SearchCondition("id", Operator.IN, ids.isEmpty() ? Collections.singletonList(-1L) : ids));
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.yukthi.webutils.common.models.search.SearchColumn;
+import com.yukthi.webutils.common.models.search.SearchRow;
+
+/**
+ * Writer used to stream search results in export format. Rows are pushed to the writer in chunks
+ * as they are fetched from repository, so writers are expected not to hold rows in memory.
+ * 
+ * @author akiran
+ */
+public interface ISearchExportWriter
+{
+	/**
+	 * Invoked once before any rows are written.
+	 * @param searchColumns Columns of the search results.
+	 * @throws IOException Thrown if writing fails.
+	 */
+	public void writeHeader(List<SearchColumn> searchColumns) throws IOException;
+	
+	/**
+	 * Writes specified chunk of rows.
+	 * @param rows Rows to write.
+	 * @throws IOException Thrown if writing fails.
+	 */
+	public void writeRows(List<SearchRow> rows) throws IOException;
+	
+	/**
+	 * Invoked once after all the rows are written. Writer should flush the content.
+	 * @throws IOException Thrown if writing fails.
+	 */
+	public void finish() throws IOException;
+	
+	/**
+	 * Fetches number of bytes written so far.
+	 * @return Number of bytes written.
+	 */
+	public long getBytesWritten();
+}
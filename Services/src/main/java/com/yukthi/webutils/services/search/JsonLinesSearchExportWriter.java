@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yukthi.webutils.common.models.search.SearchColumn;
+import com.yukthi.webutils.common.models.search.SearchRow;
+
+/**
+ * Export writer which writes search results as newline delimited json. Each row is written as a json
+ * object on a separate line, using column names as keys. No header line is written.
+ * 
+ * @author akiran
+ */
+public class JsonLinesSearchExportWriter extends AbstractSearchExportWriter
+{
+	/**
+	 * Factory used to create json generators.
+	 */
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	
+	/**
+	 * Generator used to write json content.
+	 */
+	private JsonGenerator generator;
+	
+	/**
+	 * Names of the columns, used as keys of row objects.
+	 */
+	private String columnNames[];
+
+	/**
+	 * Instantiates a new json lines search export writer.
+	 *
+	 * @param outputStream Stream to which json content should be written.
+	 * @throws IOException Thrown if generator creation fails.
+	 */
+	public JsonLinesSearchExportWriter(OutputStream outputStream) throws IOException
+	{
+		super(outputStream);
+		
+		this.generator = JSON_FACTORY.createGenerator(this.outputStream, JsonEncoding.UTF8);
+		this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		
+		//rows are separated by new lines, which are written explicitly
+		this.generator.setRootValueSeparator(null);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.AbstractSearchExportWriter#writeColumns(java.util.List)
+	 */
+	@Override
+	protected void writeColumns(List<SearchColumn> columns) throws IOException
+	{
+		columnNames = new String[columns.size()];
+		int idx = 0;
+		
+		for(SearchColumn column : columns)
+		{
+			columnNames[idx++] = column.getName();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.AbstractSearchExportWriter#writeRow(java.lang.String[])
+	 */
+	@Override
+	protected void writeRow(String[] values) throws IOException
+	{
+		generator.writeStartObject();
+		
+		for(int i = 0; i < values.length; i++)
+		{
+			generator.writeStringField(columnNames[i], values[i]);
+		}
+		
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.AbstractSearchExportWriter#writeRows(java.util.List)
+	 */
+	@Override
+	public void writeRows(List<SearchRow> rows) throws IOException
+	{
+		super.writeRows(rows);
+		
+		//flush every chunk, so that content is streamed to client as it is produced
+		generator.flush();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.yukthi.webutils.services.search.ISearchExportWriter#finish()
+	 */
+	@Override
+	public void finish() throws IOException
+	{
+		generator.flush();
+	}
+}
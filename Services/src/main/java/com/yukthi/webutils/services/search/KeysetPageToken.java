@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yukthi.webutils.InvalidRequestParameterException;
+
+/**
+ * Continuation token used by keyset pagination. Token carries the value of leading order-by field
+ * of the last row returned, number of rows with that value which are already returned and absolute
+ * offset of next page (which is used when keyset value is not available).
+ * 
+ * Tokens are exchanged with clients as opaque url-safe base64 strings.
+ * 
+ * @author akiran
+ */
+public class KeysetPageToken
+{
+	/**
+	 * Object mapper used to serialize tokens.
+	 */
+	private static ObjectMapper objectMapper = new ObjectMapper();
+	
+	/**
+	 * Value of leading order-by field of last row returned. Null, if offset should be used.
+	 */
+	private Object value;
+	
+	/**
+	 * Number of rows, with same value as {@link #value}, which are already returned.
+	 */
+	private int skipCount;
+	
+	/**
+	 * Absolute offset of next page.
+	 */
+	private int offset;
+	
+	/**
+	 * Instantiates a new keyset page token.
+	 */
+	public KeysetPageToken()
+	{}
+
+	/**
+	 * Instantiates a new keyset page token.
+	 *
+	 * @param value the value
+	 * @param skipCount the skip count
+	 * @param offset the offset
+	 */
+	public KeysetPageToken(Object value, int skipCount, int offset)
+	{
+		this.value = value;
+		this.skipCount = skipCount;
+		this.offset = offset;
+	}
+
+	/**
+	 * Gets the value of leading order-by field of last row returned. Null, if offset should be used.
+	 *
+	 * @return the value of leading order-by field of last row returned
+	 */
+	public Object getValue()
+	{
+		return value;
+	}
+
+	/**
+	 * Sets the value of leading order-by field of last row returned. Null, if offset should be used.
+	 *
+	 * @param value the new value of leading order-by field of last row returned
+	 */
+	public void setValue(Object value)
+	{
+		this.value = value;
+	}
+
+	/**
+	 * Gets the number of rows, with same value as {@link #value}, which are already returned.
+	 *
+	 * @return the number of rows, with same value as {@link #value}, which are already returned
+	 */
+	public int getSkipCount()
+	{
+		return skipCount;
+	}
+
+	/**
+	 * Sets the number of rows, with same value as {@link #value}, which are already returned.
+	 *
+	 * @param skipCount the new number of rows, with same value as {@link #value}, which are already returned
+	 */
+	public void setSkipCount(int skipCount)
+	{
+		this.skipCount = skipCount;
+	}
+
+	/**
+	 * Gets the absolute offset of next page.
+	 *
+	 * @return the absolute offset of next page
+	 */
+	public int getOffset()
+	{
+		return offset;
+	}
+
+	/**
+	 * Sets the absolute offset of next page.
+	 *
+	 * @param offset the new absolute offset of next page
+	 */
+	public void setOffset(int offset)
+	{
+		this.offset = offset;
+	}
+	
+	/**
+	 * Encodes this token into opaque string.
+	 * @return Encoded token string
+	 */
+	public String encode()
+	{
+		try
+		{
+			byte json[] = objectMapper.writeValueAsBytes(this);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+		}catch(Exception ex)
+		{
+			throw new IllegalStateException("An error occurred while encoding page token", ex);
+		}
+	}
+	
+	/**
+	 * Decodes specified token string.
+	 * @param token Token string to decode
+	 * @return Decoded token, null if specified token is null or empty
+	 */
+	public static KeysetPageToken decode(String token)
+	{
+		if(token == null || token.trim().length() == 0)
+		{
+			return null;
+		}
+		
+		try
+		{
+			String json = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+			return objectMapper.readValue(json, KeysetPageToken.class);
+		}catch(Exception ex)
+		{
+			throw new InvalidRequestParameterException(ex, "Invalid page token specified - {}", token);
+		}
+	}
+}
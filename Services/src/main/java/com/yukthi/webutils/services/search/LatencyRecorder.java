@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.yukthi.webutils.common.models.search.LatencyHistogram;
+
+/**
+ * Thread safe recorder of latencies, which maintains fixed bucket histogram.
+ * @author akiran
+ */
+public class LatencyRecorder
+{
+	/**
+	 * Upper bounds (in millis) of histogram buckets.
+	 */
+	private static final long BUCKET_BOUNDS[] = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+	
+	/**
+	 * Number of recordings in each bucket. Last bucket is for recordings exceeding last bound.
+	 */
+	private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+	
+	/**
+	 * Number of recordings.
+	 */
+	private final LongAdder count = new LongAdder();
+	
+	/**
+	 * Total of recorded latencies.
+	 */
+	private final LongAdder totalMillis = new LongAdder();
+	
+	/**
+	 * Maximum recorded latency.
+	 */
+	private final AtomicLong maxMillis = new AtomicLong();
+	
+	/**
+	 * Records specified latency.
+	 * @param millis Latency to record
+	 */
+	public void record(long millis)
+	{
+		int bucket = Arrays.binarySearch(BUCKET_BOUNDS, millis);
+		
+		// when not found, binary search returns (-(insertion point) - 1)
+		if(bucket < 0)
+		{
+			bucket = -bucket - 1;
+		}
+		
+		bucketCounts.incrementAndGet(bucket);
+		count.increment();
+		totalMillis.add(millis);
+		maxMillis.accumulateAndGet(millis, Math::max);
+	}
+	
+	/**
+	 * Converts current recordings into histogram model.
+	 * @return Histogram model
+	 */
+	public LatencyHistogram toHistogram()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.setCount(count.sum());
+		histogram.setTotalMillis(totalMillis.sum());
+		histogram.setMaxMillis(maxMillis.get());
+		histogram.setBucketBounds(BUCKET_BOUNDS.clone());
+		
+		long counts[] = new long[bucketCounts.length()];
+		
+		for(int i = 0; i < counts.length; i++)
+		{
+			counts[i] = bucketCounts.get(i);
+		}
+		
+		histogram.setBucketCounts(counts);
+		return histogram;
+	}
+}
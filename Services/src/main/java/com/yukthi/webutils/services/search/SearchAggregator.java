@@ -0,0 +1,378 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.InvalidRequestParameterException;
+import com.yukthi.webutils.common.models.search.AggregateFunction;
+import com.yukthi.webutils.common.models.search.AggregateGroup;
+import com.yukthi.webutils.common.models.search.SearchAggregation;
+
+/**
+ * Computes grouped aggregations over search results, which are fed chunk by chunk. Only the
+ * group keys and accumulators are maintained, so memory usage depends on number of groups and not
+ * on number of results.
+ * 
+ * @author akiran
+ */
+public class SearchAggregator
+{
+	/**
+	 * Accumulator of single aggregation of a group.
+	 */
+	private static class Accumulator
+	{
+		/**
+		 * Number of non-null values (or rows, for count without field).
+		 */
+		private long count;
+		
+		/**
+		 * Sum of values. Maintained as big decimal to avoid precision loss for integral and decimal values.
+		 */
+		private BigDecimal sum = BigDecimal.ZERO;
+		
+		/**
+		 * Minimum value.
+		 */
+		private Comparable<Object> min;
+		
+		/**
+		 * Maximum value.
+		 */
+		private Comparable<Object> max;
+	}
+	
+	/**
+	 * Aggregation state of single group.
+	 */
+	private static class Group
+	{
+		/**
+		 * Number of results in the group.
+		 */
+		private long rowCount;
+		
+		/**
+		 * Accumulators of the aggregations, in aggregation order.
+		 */
+		private Accumulator accumulators[];
+	}
+	
+	/**
+	 * Getters of group-by fields.
+	 */
+	private final MethodHandle groupGetters[];
+	
+	/**
+	 * Getters of aggregation fields. Null for count without field.
+	 */
+	private final MethodHandle valueGetters[];
+	
+	/**
+	 * Aggregations being computed.
+	 */
+	private final List<SearchAggregation> aggregations;
+	
+	/**
+	 * Maximum number of groups allowed.
+	 */
+	private final int maxGroups;
+	
+	/**
+	 * Groups keyed by group-by values.
+	 */
+	private final Map<List<Object>, Group> groups = new LinkedHashMap<>();
+	
+	/**
+	 * Number of results aggregated.
+	 */
+	private long rowCount;
+	
+	/**
+	 * Instantiates a new search aggregator.
+	 *
+	 * @param resultType Search result type
+	 * @param groupByFields Result fields by which results should be grouped, can be null
+	 * @param aggregations Aggregations to compute
+	 * @param maxGroups Maximum number of groups allowed
+	 */
+	public SearchAggregator(Class<?> resultType, List<String> groupByFields, List<SearchAggregation> aggregations, int maxGroups)
+	{
+		Map<String, MethodHandle> getters = SearchRowProjection.getGetters(resultType);
+		
+		groupByFields = (groupByFields != null) ? groupByFields : new ArrayList<String>();
+		this.groupGetters = new MethodHandle[groupByFields.size()];
+		
+		for(int i = 0; i < groupGetters.length; i++)
+		{
+			groupGetters[i] = getGetter(getters, groupByFields.get(i));
+		}
+		
+		this.valueGetters = new MethodHandle[aggregations.size()];
+		SearchAggregation aggregation = null;
+		
+		for(int i = 0; i < valueGetters.length; i++)
+		{
+			aggregation = aggregations.get(i);
+			
+			if(aggregation.getField() == null)
+			{
+				if(aggregation.getFunction() != AggregateFunction.COUNT)
+				{
+					throw new InvalidRequestParameterException("No field specified for aggregate function - {}", aggregation.getFunction());
+				}
+				
+				continue;
+			}
+			
+			valueGetters[i] = getGetter(getters, aggregation.getField());
+		}
+		
+		this.aggregations = aggregations;
+		this.maxGroups = maxGroups;
+	}
+	
+	/**
+	 * Fetches getter of specified field.
+	 * @param getters Available getters
+	 * @param field Field name
+	 * @return Getter of the field
+	 */
+	private static MethodHandle getGetter(Map<String, MethodHandle> getters, String field)
+	{
+		MethodHandle getter = getters.get(field);
+		
+		if(getter == null)
+		{
+			throw new InvalidRequestParameterException("Invalid result field specified for aggregation - {}", field);
+		}
+		
+		return getter;
+	}
+	
+	/**
+	 * Fetches value of specified field from specified result.
+	 * @param getter Field getter
+	 * @param result Result from which value should be fetched
+	 * @return Field value
+	 */
+	private static Object getValue(MethodHandle getter, Object result)
+	{
+		try
+		{
+			return (Object) getter.invokeExact(result);
+		}catch(Throwable ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while fetching aggregation field value from result - {}", result);
+		}
+	}
+	
+	/**
+	 * Adds specified results to the aggregation.
+	 * @param results Results to add
+	 */
+	@SuppressWarnings("unchecked")
+	public void add(List<Object> results)
+	{
+		Object keys[] = null;
+		List<Object> groupKey = null;
+		Group group = null;
+		Accumulator accumulator = null;
+		Object value = null;
+		
+		for(Object result : results)
+		{
+			keys = new Object[groupGetters.length];
+			
+			for(int i = 0; i < keys.length; i++)
+			{
+				keys[i] = getValue(groupGetters[i], result);
+			}
+			
+			groupKey = Arrays.asList(keys);
+			group = groups.get(groupKey);
+			
+			if(group == null)
+			{
+				if(groups.size() >= maxGroups)
+				{
+					throw new InvalidRequestParameterException("Number of aggregation groups exceeded max limit {}", maxGroups);
+				}
+				
+				group = new Group();
+				group.accumulators = new Accumulator[valueGetters.length];
+				
+				for(int i = 0; i < group.accumulators.length; i++)
+				{
+					group.accumulators[i] = new Accumulator();
+				}
+				
+				groups.put(groupKey, group);
+			}
+			
+			group.rowCount++;
+			
+			for(int i = 0; i < valueGetters.length; i++)
+			{
+				accumulator = group.accumulators[i];
+				
+				// count without field, counts rows
+				if(valueGetters[i] == null)
+				{
+					accumulator.count++;
+					continue;
+				}
+				
+				value = getValue(valueGetters[i], result);
+				
+				if(value == null)
+				{
+					continue;
+				}
+				
+				accumulator.count++;
+				
+				switch(aggregations.get(i).getFunction())
+				{
+					case SUM:
+					case AVG:
+					{
+						if(!(value instanceof Number))
+						{
+							throw new InvalidRequestParameterException("Non-numeric field {} specified for aggregate function {}", aggregations.get(i).getField(), aggregations.get(i).getFunction());
+						}
+						
+						accumulator.sum = accumulator.sum.add(new BigDecimal(value.toString()));
+						break;
+					}
+					case MIN:
+					case MAX:
+					{
+						if(!(value instanceof Comparable))
+						{
+							throw new InvalidRequestParameterException("Non-comparable field {} specified for aggregate function {}", aggregations.get(i).getField(), aggregations.get(i).getFunction());
+						}
+						
+						Comparable<Object> comparable = (Comparable<Object>) value;
+						
+						if(accumulator.min == null || comparable.compareTo(accumulator.min) < 0)
+						{
+							accumulator.min = comparable;
+						}
+						
+						if(accumulator.max == null || comparable.compareTo(accumulator.max) > 0)
+						{
+							accumulator.max = comparable;
+						}
+						
+						break;
+					}
+					default:
+					{
+						break;
+					}
+				}
+			}
+		}
+		
+		rowCount += results.size();
+	}
+	
+	/**
+	 * Gets the number of results aggregated.
+	 *
+	 * @return the number of results aggregated
+	 */
+	public long getRowCount()
+	{
+		return rowCount;
+	}
+	
+	/**
+	 * Converts current aggregations into groups. Groups are returned in the order they are encountered.
+	 * @param dateFormat Format to be used for date values
+	 * @return Aggregated groups
+	 */
+	public List<AggregateGroup> toGroups(DateFormat dateFormat)
+	{
+		List<AggregateGroup> result = new ArrayList<>(groups.size());
+		List<String> keys = null;
+		List<String> values = null;
+		
+		for(Map.Entry<List<Object>, Group> entry : groups.entrySet())
+		{
+			keys = new ArrayList<>(entry.getKey().size());
+			
+			for(Object key : entry.getKey())
+			{
+				keys.add(SearchRowProjection.toString(key, dateFormat));
+			}
+			
+			values = new ArrayList<>(aggregations.size());
+			
+			for(int i = 0; i < aggregations.size(); i++)
+			{
+				values.add(toValue(aggregations.get(i).getFunction(), entry.getValue().accumulators[i], dateFormat));
+			}
+			
+			result.add(new AggregateGroup(keys, entry.getValue().rowCount, values));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Converts specified accumulator into aggregated value.
+	 * @param function Aggregate function
+	 * @param accumulator Accumulator to convert
+	 * @param dateFormat Format to be used for date values
+	 * @return Aggregated value, null if no values are accumulated
+	 */
+	private static String toValue(AggregateFunction function, Accumulator accumulator, DateFormat dateFormat)
+	{
+		switch(function)
+		{
+			case COUNT:
+				return String.valueOf(accumulator.count);
+			case SUM:
+				return (accumulator.count == 0) ? null : accumulator.sum.toPlainString();
+			case AVG:
+				return (accumulator.count == 0) ? null : String.valueOf(accumulator.sum.doubleValue() / accumulator.count);
+			case MIN:
+				return SearchRowProjection.toString(accumulator.min, dateFormat);
+			default:
+				return SearchRowProjection.toString(accumulator.max, dateFormat);
+		}
+	}
+}
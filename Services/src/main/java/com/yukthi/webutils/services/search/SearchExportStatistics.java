@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+/**
+ * Statistics of search results export.
+ * 
+ * @author akiran
+ */
+public class SearchExportStatistics
+{
+	/**
+	 * Search query name which was exported.
+	 */
+	private String searchQueryName;
+	
+	/**
+	 * Number of rows exported.
+	 */
+	private long rowCount;
+	
+	/**
+	 * Number of bytes written.
+	 */
+	private long bytesWritten;
+	
+	/**
+	 * Time taken for export in millis.
+	 */
+	private long timeTakenInMillis;
+
+	/**
+	 * Instantiates a new search export statistics.
+	 *
+	 * @param searchQueryName the search query name
+	 * @param rowCount the row count
+	 * @param bytesWritten the bytes written
+	 * @param timeTakenInMillis the time taken in millis
+	 */
+	public SearchExportStatistics(String searchQueryName, long rowCount, long bytesWritten, long timeTakenInMillis)
+	{
+		this.searchQueryName = searchQueryName;
+		this.rowCount = rowCount;
+		this.bytesWritten = bytesWritten;
+		this.timeTakenInMillis = timeTakenInMillis;
+	}
+
+	/**
+	 * Gets the search query name which was exported.
+	 *
+	 * @return the search query name which was exported
+	 */
+	public String getSearchQueryName()
+	{
+		return searchQueryName;
+	}
+
+	/**
+	 * Gets the number of rows exported.
+	 *
+	 * @return the number of rows exported
+	 */
+	public long getRowCount()
+	{
+		return rowCount;
+	}
+
+	/**
+	 * Gets the number of bytes written.
+	 *
+	 * @return the number of bytes written
+	 */
+	public long getBytesWritten()
+	{
+		return bytesWritten;
+	}
+
+	/**
+	 * Gets the time taken for export in millis.
+	 *
+	 * @return the time taken for export in millis
+	 */
+	public long getTimeTakenInMillis()
+	{
+		return timeTakenInMillis;
+	}
+	
+	/**
+	 * Computes the export rate.
+	 * @return Number of rows exported per second.
+	 */
+	public double getRowsPerSecond()
+	{
+		if(timeTakenInMillis <= 0)
+		{
+			return rowCount;
+		}
+		
+		return (rowCount * 1000.0) / timeTakenInMillis;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder(super.toString());
+		builder.append("[");
+
+		builder.append("Query: ").append(searchQueryName);
+		builder.append(",").append("Rows: ").append(rowCount);
+		builder.append(",").append("Bytes: ").append(bytesWritten);
+		builder.append(",").append("Time (ms): ").append(timeTakenInMillis);
+		builder.append(",").append("Rows/sec: ").append(String.format("%.2f", getRowsPerSecond()));
+
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.yukthi.webutils.common.ExportFormat;
+import com.yukthi.webutils.utils.WebAttachmentUtils;
+
+/**
+ * Creates export writers and provides file details for supported export formats.
+ * 
+ * @author akiran
+ */
+public class SearchExportWriterFactory
+{
+	/**
+	 * Creates export writer of specified format, which writes to specified stream.
+	 * @param exportFormat Export format, excel is used when null
+	 * @param os Stream to which export content should be written
+	 * @return Export writer
+	 * @throws IOException Thrown if writer creation fails
+	 */
+	public static ISearchExportWriter newWriter(ExportFormat exportFormat, OutputStream os) throws IOException
+	{
+		if(exportFormat == ExportFormat.CSV)
+		{
+			return new CsvSearchExportWriter(os);
+		}
+		
+		if(exportFormat == ExportFormat.JSON_LINES)
+		{
+			return new JsonLinesSearchExportWriter(os);
+		}
+		
+		return new ExcelSearchExportWriter("Results", os);
+	}
+	
+	/**
+	 * Fetches file extension to be used for specified format.
+	 * @param exportFormat Export format, excel is used when null
+	 * @return File extension (including dot)
+	 */
+	public static String getFileExtension(ExportFormat exportFormat)
+	{
+		if(exportFormat == ExportFormat.CSV)
+		{
+			return WebAttachmentUtils.EXTENSION_CSV_FILE;
+		}
+		
+		if(exportFormat == ExportFormat.JSON_LINES)
+		{
+			return WebAttachmentUtils.EXTENSION_JSON_LINES_FILE;
+		}
+		
+		return WebAttachmentUtils.EXTENSION_MS_EXCEL_XML_FILE;
+	}
+	
+	/**
+	 * Fetches mime type to be used for specified format.
+	 * @param exportFormat Export format, excel is used when null
+	 * @return Mime type
+	 */
+	public static String getMimeType(ExportFormat exportFormat)
+	{
+		if(exportFormat == ExportFormat.CSV)
+		{
+			return WebAttachmentUtils.MIME_CSV_FILE;
+		}
+		
+		if(exportFormat == ExportFormat.JSON_LINES)
+		{
+			return WebAttachmentUtils.MIME_JSON_LINES_FILE;
+		}
+		
+		return WebAttachmentUtils.MIME_MS_EXCEL_XML_FILE;
+	}
+}
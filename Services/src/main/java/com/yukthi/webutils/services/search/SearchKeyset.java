@@ -0,0 +1,375 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+import javax.persistence.Column;
+
+import org.apache.commons.beanutils.PropertyUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.persistence.repository.annotations.OrderByType;
+import com.yukthi.persistence.repository.search.SearchCondition;
+import com.yukthi.persistence.repository.search.SearchQuery;
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.InvalidRequestParameterException;
+
+/**
+ * Keyset (seek) pagination support of a search query. Instead of skipping earlier rows using offset, 
+ * next page is fetched by adding range condition on leading order-by field, starting from the value of 
+ * last row returned. Rows sharing the boundary value are skipped using the (small) skip count carried by
+ * the token, which keeps cost of deep pages same as the first page. Skipping tied rows needs them to be returned
+ * in same order by every query, hence search queries are always ordered by id after declared order-by fields.
+ * 
+ * When leading order-by field is not available in search result (or is not of a comparable simple type),
+ * keyset falls back to offset based tokens. Same is the case when leading order-by column is nullable, as range 
+ * conditions never match null values and null ordering is database specific. So seek is used only for id field,
+ * primitive fields and entity fields marked as non-nullable.
+ * 
+ * @author akiran
+ */
+public class SearchKeyset
+{
+	/**
+	 * Object mapper used to convert token values to property type.
+	 */
+	private static ObjectMapper objectMapper = new ObjectMapper();
+	
+	/**
+	 * Entity field name of leading order-by field.
+	 */
+	private String fieldName;
+	
+	/**
+	 * Indicates if leading order-by field is ordered in descending order.
+	 */
+	private boolean descending;
+	
+	/**
+	 * Search result property holding the order-by field value. Null, if keyset is not supported.
+	 */
+	private String propertyName;
+	
+	/**
+	 * Type of result property.
+	 */
+	private Class<?> propertyType;
+	
+	/**
+	 * Instantiates a new search keyset.
+	 *
+	 * @param fieldName the field name
+	 * @param descending the descending
+	 * @param propertyName the property name
+	 * @param propertyType the property type
+	 */
+	private SearchKeyset(String fieldName, boolean descending, String propertyName, Class<?> propertyType)
+	{
+		this.fieldName = fieldName;
+		this.descending = descending;
+		this.propertyName = propertyName;
+		this.propertyType = propertyType;
+	}
+	
+	/**
+	 * Checks if specified type can be used as keyset value.
+	 * @param type Type to check
+	 * @return true if supported
+	 */
+	private static boolean isSupportedType(Class<?> type)
+	{
+		if(type.isPrimitive())
+		{
+			return !boolean.class.equals(type) && !char.class.equals(type);
+		}
+		
+		return Number.class.isAssignableFrom(type) || String.class.equals(type) || Date.class.isAssignableFrom(type);
+	}
+	
+	/**
+	 * Checks if specified entity field is guaranteed to be non-null. Id field, primitive fields and fields
+	 * whose column is marked as non-nullable are considered as non-null. Nested fields are considered nullable,
+	 * as the joined entity may not exist.
+	 * @param entityType Entity type, can be null if not known
+	 * @param fieldName Entity field name
+	 * @return true if field value can never be null
+	 */
+	private static boolean isNonNullField(Class<?> entityType, String fieldName)
+	{
+		if("id".equals(fieldName))
+		{
+			return true;
+		}
+		
+		if(entityType == null || fieldName.contains("."))
+		{
+			return false;
+		}
+		
+		Class<?> cls = entityType;
+		
+		while(cls != null && !Object.class.equals(cls))
+		{
+			for(Field field : cls.getDeclaredFields())
+			{
+				if(!fieldName.equals(field.getName()))
+				{
+					continue;
+				}
+				
+				if(field.getType().isPrimitive())
+				{
+					return true;
+				}
+				
+				Column column = field.getAnnotation(Column.class);
+				return (column != null && !column.nullable());
+			}
+			
+			cls = cls.getSuperclass();
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Compiles keyset for specified result type and leading order-by field. Result property is matched 
+	 * by {@link com.yukthi.persistence.repository.annotations.Field} annotation or by name.
+	 * 
+	 * @param resultType Search result type
+	 * @param entityType Entity type being searched, used to check nullability of order-by field. Can be null.
+	 * @param orderByField Leading order-by field name
+	 * @param orderByType Ordering type of the leading field
+	 * @return Compiled keyset, which may fall back to offset tokens, if keyset is not supported.
+	 */
+	public static SearchKeyset compile(Class<?> resultType, Class<?> entityType, String orderByField, OrderByType orderByType)
+	{
+		boolean descending = (orderByType == OrderByType.DESC);
+		Field nameMatch = null;
+		com.yukthi.persistence.repository.annotations.Field fieldAnnot = null;
+		
+		Class<?> cls = resultType;
+		
+		while(cls != null && !Object.class.equals(cls))
+		{
+			for(Field field : cls.getDeclaredFields())
+			{
+				fieldAnnot = field.getAnnotation(com.yukthi.persistence.repository.annotations.Field.class);
+				
+				if(fieldAnnot != null)
+				{
+					if(orderByField.equals(fieldAnnot.value()))
+					{
+						return newKeyset(entityType, orderByField, descending, field);
+					}
+					
+					continue;
+				}
+				
+				if(nameMatch == null && orderByField.equals(field.getName()))
+				{
+					nameMatch = field;
+				}
+			}
+			
+			cls = cls.getSuperclass();
+		}
+		
+		if(nameMatch != null)
+		{
+			return newKeyset(entityType, orderByField, descending, nameMatch);
+		}
+		
+		return new SearchKeyset(orderByField, descending, null, null);
+	}
+	
+	/**
+	 * Creates keyset using specified result field, if its type is supported and its value can never be null.
+	 * @param entityType Entity type being searched
+	 * @param orderByField Order by field
+	 * @param descending Whether descending
+	 * @param field Result field
+	 * @return Keyset
+	 */
+	private static SearchKeyset newKeyset(Class<?> entityType, String orderByField, boolean descending, Field field)
+	{
+		if(!isSupportedType(field.getType()))
+		{
+			return new SearchKeyset(orderByField, descending, null, null);
+		}
+		
+		// rows with null value would be skipped by range condition, so use offset for nullable columns
+		if(!field.getType().isPrimitive() && !isNonNullField(entityType, orderByField))
+		{
+			return new SearchKeyset(orderByField, descending, null, null);
+		}
+		
+		return new SearchKeyset(orderByField, descending, field.getName(), field.getType());
+	}
+	
+	/**
+	 * Checks if keyset conditions are supported. If not, offset is used by tokens.
+	 * @return true if keyset conditions are supported
+	 */
+	public boolean isKeysetSupported()
+	{
+		return (propertyName != null);
+	}
+	
+	/**
+	 * Decodes specified token and converts token value to result property type.
+	 * @param token Token to decode
+	 * @return Decoded token, null if token is empty
+	 */
+	public KeysetPageToken decodeToken(String token)
+	{
+		KeysetPageToken pageToken = KeysetPageToken.decode(token);
+		
+		if(pageToken == null || pageToken.getValue() == null)
+		{
+			return pageToken;
+		}
+		
+		if(!isKeysetSupported())
+		{
+			throw new InvalidRequestParameterException("Keyset page token specified for search query which does not support keyset - {}", token);
+		}
+		
+		try
+		{
+			pageToken.setValue(objectMapper.convertValue(pageToken.getValue(), propertyType));
+		}catch(Exception ex)
+		{
+			throw new InvalidRequestParameterException(ex, "Invalid page token specified - {}", token);
+		}
+		
+		return pageToken;
+	}
+	
+	/**
+	 * Sets conditions and limits on specified query to fetch the page represented by specified token.
+	 * @param query Query to be updated
+	 * @param pageToken Token of the page to fetch, null for first page
+	 * @param pageSize Page size
+	 */
+	public void applyToken(SearchQuery query, KeysetPageToken pageToken, int pageSize)
+	{
+		query.setResultsLimit(pageSize);
+		query.setResultsOffset(applyCondition(query, pageToken));
+	}
+	
+	/**
+	 * Adds keyset condition (if any) of specified token to specified query, without setting limits. Used when
+	 * query results are merged with other results, before skipping.
+	 * @param query Query to be updated
+	 * @param pageToken Token of the page to fetch, null for first page
+	 * @return Number of results (matching the query) to be skipped to reach the page
+	 */
+	public int applyCondition(SearchQuery query, KeysetPageToken pageToken)
+	{
+		if(pageToken == null)
+		{
+			return 0;
+		}
+		
+		if(pageToken.getValue() == null)
+		{
+			return pageToken.getOffset();
+		}
+		
+		query.addCondition(new SearchCondition(fieldName, descending ? Operator.LE : Operator.GE, pageToken.getValue()));
+		return pageToken.getSkipCount();
+	}
+	
+	/**
+	 * Builds token for the page next to specified results.
+	 * @param pageToken Token used to fetch the results
+	 * @param results Results of current page
+	 * @param pageSize Page size
+	 * @return Next page token, null if there are no more pages
+	 */
+	public KeysetPageToken nextToken(KeysetPageToken pageToken, List<?> results, int pageSize)
+	{
+		if(results == null || results.size() < pageSize)
+		{
+			return null;
+		}
+		
+		int nextOffset = (pageToken != null ? pageToken.getOffset() : 0) + results.size();
+		
+		if(!isKeysetSupported())
+		{
+			return new KeysetPageToken(null, 0, nextOffset);
+		}
+		
+		Object lastValue = getValue(results.get(results.size() - 1));
+		
+		// as null ordering is database specific, fall back to offset
+		if(lastValue == null)
+		{
+			return new KeysetPageToken(null, 0, nextOffset);
+		}
+		
+		int ties = 0;
+		
+		for(int i = results.size() - 1; i >= 0; i--)
+		{
+			if(!Objects.equals(lastValue, getValue(results.get(i))))
+			{
+				break;
+			}
+			
+			ties++;
+		}
+		
+		// if all rows have the boundary value of previous page, include previously skipped rows
+		if(ties == results.size() && pageToken != null && Objects.equals(lastValue, pageToken.getValue()))
+		{
+			ties += pageToken.getSkipCount();
+		}
+		
+		return new KeysetPageToken(lastValue, ties, nextOffset);
+	}
+	
+	/**
+	 * Fetches keyset property value from specified result.
+	 * @param result Result from which value needs to be fetched
+	 * @return Property value
+	 */
+	private Object getValue(Object result)
+	{
+		try
+		{
+			return PropertyUtils.getProperty(result, propertyName);
+		}catch(Exception ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while fetching keyset property '{}' from result - {}", propertyName, result);
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.yukthi.webutils.common.models.search.LatencyHistogram;
+import com.yukthi.webutils.common.models.search.SearchQueryMetrics;
+
+/**
+ * Thread safe recorder of execution metrics of single search query.
+ * @author akiran
+ */
+public class SearchQueryMetricsRecorder
+{
+	/**
+	 * Labels of page ranges, for which page distribution is maintained.
+	 */
+	private static final String PAGE_RANGES[] = {"1", "2", "3-5", "6-10", "11-50", ">50", "keyset"};
+	
+	/**
+	 * Index of keyset page range.
+	 */
+	private static final int KEYSET_PAGE_RANGE = PAGE_RANGES.length - 1;
+	
+	/**
+	 * Name of the search query.
+	 */
+	private final String queryName;
+	
+	/**
+	 * Latency recorders of each phase, indexed by phase ordinal.
+	 */
+	private final LatencyRecorder latencies[];
+	
+	/**
+	 * Number of executions, excluding cached ones.
+	 */
+	private final LongAdder executionCount = new LongAdder();
+	
+	/**
+	 * Number of executions served from result cache.
+	 */
+	private final LongAdder cachedCount = new LongAdder();
+	
+	/**
+	 * Number of failed executions.
+	 */
+	private final LongAdder failureCount = new LongAdder();
+	
+	/**
+	 * Number of slow executions.
+	 */
+	private final LongAdder slowCount = new LongAdder();
+	
+	/**
+	 * Total rows returned.
+	 */
+	private final LongAdder totalRows = new LongAdder();
+	
+	/**
+	 * Maximum rows returned by single execution.
+	 */
+	private final AtomicLong maxRows = new AtomicLong();
+	
+	/**
+	 * Number of executions per page range.
+	 */
+	private final AtomicLongArray pageCounts = new AtomicLongArray(PAGE_RANGES.length);
+	
+	/**
+	 * Instantiates a new search query metrics recorder.
+	 *
+	 * @param queryName Name of the search query
+	 */
+	public SearchQueryMetricsRecorder(String queryName)
+	{
+		this.queryName = queryName;
+		this.latencies = new LatencyRecorder[SearchPhase.values().length];
+		
+		for(int i = 0; i < latencies.length; i++)
+		{
+			latencies[i] = new LatencyRecorder();
+		}
+	}
+	
+	/**
+	 * Fetches page range index of specified page number.
+	 * @param pageNumber Page number, zero for keyset pagination
+	 * @return Page range index
+	 */
+	private static int toPageRange(int pageNumber)
+	{
+		if(pageNumber <= 0)
+		{
+			return KEYSET_PAGE_RANGE;
+		}
+		
+		if(pageNumber <= 2)
+		{
+			return pageNumber - 1;
+		}
+		
+		if(pageNumber <= 5)
+		{
+			return 2;
+		}
+		
+		if(pageNumber <= 10)
+		{
+			return 3;
+		}
+		
+		return (pageNumber <= 50) ? 4 : 5;
+	}
+	
+	/**
+	 * Records an execution of the query.
+	 * @param phaseMillis Time (in millis) taken by each phase, indexed by phase ordinal. Negative values indicate phase was not executed
+	 * @param rowCount Number of rows returned
+	 * @param pageNumber Page number requested, zero for keyset pagination
+	 * @param slow Flag indicating if execution is slow
+	 */
+	public void recordExecution(long phaseMillis[], int rowCount, int pageNumber, boolean slow)
+	{
+		executionCount.increment();
+		
+		for(int i = 0; i < phaseMillis.length; i++)
+		{
+			if(phaseMillis[i] >= 0)
+			{
+				latencies[i].record(phaseMillis[i]);
+			}
+		}
+		
+		totalRows.add(rowCount);
+		maxRows.accumulateAndGet(rowCount, Math::max);
+		pageCounts.incrementAndGet(toPageRange(pageNumber));
+		
+		if(slow)
+		{
+			slowCount.increment();
+		}
+	}
+	
+	/**
+	 * Records an execution served from result cache.
+	 */
+	public void recordCacheHit()
+	{
+		cachedCount.increment();
+	}
+	
+	/**
+	 * Records a failed execution.
+	 */
+	public void recordFailure()
+	{
+		failureCount.increment();
+	}
+	
+	/**
+	 * Converts current recordings into metrics model.
+	 * @return Metrics model
+	 */
+	public SearchQueryMetrics toMetrics()
+	{
+		SearchQueryMetrics metrics = new SearchQueryMetrics();
+		metrics.setQueryName(queryName);
+		metrics.setExecutionCount(executionCount.sum());
+		metrics.setCachedCount(cachedCount.sum());
+		metrics.setFailureCount(failureCount.sum());
+		metrics.setSlowCount(slowCount.sum());
+		metrics.setTotalRows(totalRows.sum());
+		metrics.setMaxRows(maxRows.get());
+		
+		Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+		
+		for(SearchPhase phase : SearchPhase.values())
+		{
+			histograms.put(phase.name(), latencies[phase.ordinal()].toHistogram());
+		}
+		
+		metrics.setLatencies(histograms);
+		
+		Map<String, Long> pageDistribution = new LinkedHashMap<>();
+		
+		for(int i = 0; i < PAGE_RANGES.length; i++)
+		{
+			pageDistribution.put(PAGE_RANGES[i], pageCounts.get(i));
+		}
+		
+		metrics.setPageDistribution(pageDistribution);
+		return metrics;
+	}
+}
@@ -0,0 +1,425 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.beanutils.PropertyUtils;
+
+import com.yukthi.persistence.repository.annotations.Condition;
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.persistence.repository.search.SearchCondition;
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.common.annotations.ContextAttribute;
+
+/**
+ * Immutable, precompiled form of a search query model. Built once when search query method
+ * is registered, so that conditions can be extracted from query objects during search execution
+ * without any reflection or annotation lookups.
+ * 
+ * @author akiran
+ */
+public class SearchQueryPlan
+{
+	/**
+	 * Normalizers to be applied on condition values before adding them to repository query.
+	 * Normalizers return null for values which should not be part of the query.
+	 */
+	private static enum ValueNormalizer
+	{
+		/**
+		 * For string fields. Ignores blank values and replaces * with %.
+		 */
+		STRING
+		{
+			@Override
+			public Object normalize(Object value)
+			{
+				String strValue = (String) value;
+
+				if(strValue.trim().length() == 0)
+				{
+					return null;
+				}
+
+				return strValue.replace("*", "%");
+			}
+		},
+		
+		/**
+		 * For enum fields. Converts the enum into string.
+		 */
+		ENUM
+		{
+			@Override
+			public Object normalize(Object value)
+			{
+				return value.toString();
+			}
+		},
+		
+		/**
+		 * For fields whose type is not known in advance (context attributes, object fields). Decides
+		 * normalization based on runtime type.
+		 */
+		DYNAMIC
+		{
+			@Override
+			public Object normalize(Object value)
+			{
+				if(value instanceof String)
+				{
+					return STRING.normalize(value);
+				}
+
+				if(value instanceof Enum)
+				{
+					return ENUM.normalize(value);
+				}
+				
+				return value;
+			}
+		},
+		
+		/**
+		 * For other fields, values are used as is.
+		 */
+		NONE
+		{
+			@Override
+			public Object normalize(Object value)
+			{
+				return value;
+			}
+		};
+		
+		/**
+		 * Normalizes specified non-null value.
+		 * @param value Value to normalize.
+		 * @return Normalized value or null, if value should be ignored.
+		 */
+		public abstract Object normalize(Object value);
+		
+		/**
+		 * Fetches normalizer suitable for specified type.
+		 * @param type Type for which normalizer is needed.
+		 * @return Matching normalizer.
+		 */
+		public static ValueNormalizer forType(Class<?> type)
+		{
+			if(String.class.equals(type))
+			{
+				return STRING;
+			}
+			
+			if(type.isEnum())
+			{
+				return ENUM;
+			}
+			
+			if(Object.class.equals(type) || type.isInterface() || Enum.class.equals(type))
+			{
+				return DYNAMIC;
+			}
+			
+			return NONE;
+		}
+	}
+	
+	/**
+	 * Compiled details of single condition field.
+	 */
+	private static class ConditionPlan
+	{
+		/**
+		 * Query field name, used for error messages.
+		 */
+		private final String fieldName;
+		
+		/**
+		 * Accessor to fetch value from query object. Null, if value is fetched from context.
+		 */
+		private final MethodHandle getter;
+		
+		/**
+		 * Context attribute path, if the value should be fetched from context.
+		 */
+		private final String contextPath;
+		
+		/**
+		 * Indicates context path is simple attribute name, so that attribute can be fetched
+		 * directly from attribute map.
+		 */
+		private final boolean simpleContextPath;
+		
+		/**
+		 * Entity field on which condition should be applied.
+		 */
+		private final String conditionField;
+		
+		/**
+		 * Condition operator.
+		 */
+		private final Operator operator;
+		
+		/**
+		 * Flag indicating case should be ignored during comparison.
+		 */
+		private final boolean ignoreCase;
+		
+		/**
+		 * Normalizer to be applied on values.
+		 */
+		private final ValueNormalizer normalizer;
+		
+		/**
+		 * Instantiates a new condition plan.
+		 *
+		 * @param field Query field from which plan is built.
+		 * @param condition Condition annotation on the field.
+		 * @param contextAttribute Context attribute annotation on the field, can be null.
+		 */
+		private ConditionPlan(Field field, Condition condition, ContextAttribute contextAttribute)
+		{
+			this.fieldName = field.getName();
+			this.conditionField = condition.value();
+			this.operator = condition.op();
+			this.ignoreCase = condition.ignoreCase();
+			
+			if(contextAttribute == null)
+			{
+				field.setAccessible(true);
+				
+				try
+				{
+					this.getter = MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+				} catch(IllegalAccessException ex)
+				{
+					throw new InvalidStateException(ex, "Failed to create accessor for search query field - {}.{}", field.getDeclaringClass().getName(), field.getName());
+				}
+				
+				this.contextPath = null;
+				this.simpleContextPath = false;
+				this.normalizer = ValueNormalizer.forType(field.getType());
+			}
+			else
+			{
+				this.getter = null;
+				this.contextPath = contextAttribute.value();
+				this.simpleContextPath = (contextPath.indexOf('.') < 0 && contextPath.indexOf('[') < 0 && contextPath.indexOf('(') < 0);
+				this.normalizer = ValueNormalizer.DYNAMIC;
+			}
+		}
+		
+		/**
+		 * Fetches the raw value for this condition.
+		 * @param query Query object from which value needs to be fetched.
+		 * @param contextAttributes Current context attributes.
+		 * @return Value for this condition
+		 */
+		private Object fetchValue(Object query, Map<String, Object> contextAttributes)
+		{
+			if(getter != null)
+			{
+				if(query == null)
+				{
+					return null;
+				}
+				
+				try
+				{
+					return (Object) getter.invokeExact(query);
+				} catch(Throwable ex)
+				{
+					throw new InvalidStateException(ex, "An error occurred while fetching field value - {}", fieldName);
+				}
+			}
+			
+			if(simpleContextPath)
+			{
+				return contextAttributes.get(contextPath);
+			}
+			
+			try
+			{
+				return PropertyUtils.getProperty(contextAttributes, contextPath);
+			} catch(Exception ex)
+			{
+				throw new InvalidStateException(ex, "An error occurred while fetching context attribute - {}", contextPath);
+			}
+		}
+	}
+	
+	/**
+	 * Query type for which this plan is built.
+	 */
+	private final Class<?> queryType;
+	
+	/**
+	 * Compiled conditions.
+	 */
+	private final ConditionPlan conditions[];
+	
+	/**
+	 * Instantiates a new search query plan.
+	 *
+	 * @param queryType Query type
+	 * @param conditions Compiled conditions
+	 */
+	private SearchQueryPlan(Class<?> queryType, ConditionPlan conditions[])
+	{
+		this.queryType = queryType;
+		this.conditions = conditions;
+	}
+	
+	/**
+	 * Compiles specified query model type into search query plan.
+	 * @param queryType Query model type to compile.
+	 * @return Compiled plan.
+	 */
+	public static SearchQueryPlan compile(Class<?> queryType)
+	{
+		List<ConditionPlan> conditions = new ArrayList<>();
+		Condition condition = null;
+		
+		for(Field field : queryType.getDeclaredFields())
+		{
+			condition = field.getAnnotation(Condition.class);
+
+			if(condition == null)
+			{
+				continue;
+			}
+			
+			conditions.add(new ConditionPlan(field, condition, field.getAnnotation(ContextAttribute.class)));
+		}
+		
+		return new SearchQueryPlan(queryType, conditions.toArray(new ConditionPlan[0]));
+	}
+	
+	/**
+	 * Gets the query type for which this plan is built.
+	 *
+	 * @return the query type for which this plan is built
+	 */
+	public Class<?> getQueryType()
+	{
+		return queryType;
+	}
+	
+	/**
+	 * Extracts search conditions from specified query object and context attributes. Null and blank values
+	 * are ignored.
+	 * @param query Query object from which condition values needs to be extracted. 
+	 * @param contextAttributes Context attributes to be used for context based conditions.
+	 * @return Search conditions to be used.
+	 */
+	public List<SearchCondition> buildConditions(Object query, Map<String, Object> contextAttributes)
+	{
+		return buildConditions(query, contextAttributes, null);
+	}
+	
+	/**
+	 * Extracts search conditions from specified query object and context attributes. Null and blank values
+	 * are ignored. Along with conditions, normalized form of the conditions is appended to specified key builder,
+	 * which can be used as cache key.
+	 * @param query Query object from which condition values needs to be extracted. 
+	 * @param contextAttributes Context attributes to be used for context based conditions.
+	 * @param conditionKey Builder to which normalized conditions should be appended. Can be null.
+	 * @return Search conditions to be used.
+	 */
+	public List<SearchCondition> buildConditions(Object query, Map<String, Object> contextAttributes, StringBuilder conditionKey)
+	{
+		List<SearchCondition> searchConditions = new ArrayList<>(conditions.length + 1);
+		SearchCondition searchCondition = null;
+		Object value = null;
+		
+		for(ConditionPlan plan : conditions)
+		{
+			value = plan.fetchValue(query, contextAttributes);
+			
+			// ignore nulls
+			if(value == null)
+			{
+				continue;
+			}
+			
+			value = plan.normalizer.normalize(value);
+			
+			// ignore blank values
+			if(value == null)
+			{
+				continue;
+			}
+			
+			searchCondition = new SearchCondition(plan.conditionField, plan.operator, value);
+			searchCondition.setIgnoreCase(plan.ignoreCase);
+			
+			searchConditions.add(searchCondition);
+			
+			if(conditionKey != null)
+			{
+				conditionKey.append(plan.conditionField).append(' ').append(plan.operator);
+				conditionKey.append(plan.ignoreCase ? "~" : "=");
+				appendKeyValue(conditionKey, value);
+				conditionKey.append(';');
+			}
+		}
+		
+		return searchConditions;
+	}
+	
+	/**
+	 * Appends specified value to cache key. Values are prefixed with their length (and collections
+	 * with their size), so that separators within values can not make different conditions produce same key.
+	 * @param key Key builder to which value should be appended
+	 * @param value Value to append, can be null
+	 */
+	public static void appendKeyValue(StringBuilder key, Object value)
+	{
+		if(value instanceof Collection)
+		{
+			Collection<?> values = (Collection<?>) value;
+			key.append('[').append(values.size()).append(']');
+			
+			for(Object element : values)
+			{
+				appendKeyValue(key, element);
+			}
+			
+			return;
+		}
+		
+		String str = (value instanceof Date) ? Long.toString(((Date) value).getTime()) : String.valueOf(value);
+		key.append(str.length()).append(':').append(str);
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.yukthi.persistence.repository.annotations.OrderByType;
+import com.yukthi.utils.exceptions.InvalidStateException;
+
+/**
+ * Compares search results as per order-by fields of the search query. Used to merge results of a search which is
+ * executed in multiple parts (one per chunk of matching ids), each part being ordered by the database.
+ * 
+ * Values are compared using their natural ordering and null values are ordered first (as in MySQL and SQL Server). 
+ * So merged order of string values and null values may differ slightly from database specific collation.
+ * 
+ * @author akiran
+ */
+public class SearchResultComparator implements Comparator<Object>
+{
+	/**
+	 * Result fields holding order-by field values, in order-by order.
+	 */
+	private Field fields[];
+	
+	/**
+	 * Flags indicating descending order of corresponding fields.
+	 */
+	private boolean descending[];
+	
+	/**
+	 * Instantiates a new search result comparator.
+	 *
+	 * @param fields the fields
+	 * @param descending the descending
+	 */
+	private SearchResultComparator(Field fields[], boolean descending[])
+	{
+		this.fields = fields;
+		this.descending = descending;
+	}
+	
+	/**
+	 * Finds result field for specified order-by field. Result field is matched by 
+	 * {@link com.yukthi.persistence.repository.annotations.Field} annotation or by name.
+	 * @param resultType Result type
+	 * @param orderByField Order-by field name
+	 * @return Matching result field, null if not found
+	 */
+	private static Field findField(Class<?> resultType, String orderByField)
+	{
+		Field nameMatch = null;
+		com.yukthi.persistence.repository.annotations.Field fieldAnnot = null;
+		Class<?> cls = resultType;
+		
+		while(cls != null && !Object.class.equals(cls))
+		{
+			for(Field field : cls.getDeclaredFields())
+			{
+				fieldAnnot = field.getAnnotation(com.yukthi.persistence.repository.annotations.Field.class);
+				
+				if(fieldAnnot != null)
+				{
+					if(orderByField.equals(fieldAnnot.value()))
+					{
+						return field;
+					}
+					
+					continue;
+				}
+				
+				if(nameMatch == null && orderByField.equals(field.getName()))
+				{
+					nameMatch = field;
+				}
+			}
+			
+			cls = cls.getSuperclass();
+		}
+		
+		return nameMatch;
+	}
+	
+	/**
+	 * Compiles comparator for specified result type and order-by fields.
+	 * @param resultType Search result type
+	 * @param orderByFields Order-by field names of the search
+	 * @param orderByTypes Order-by types of corresponding fields
+	 * @return Comparator, null if any of the order-by fields (or its comparable value) is not available in result type
+	 */
+	public static SearchResultComparator compile(Class<?> resultType, String orderByFields[], OrderByType orderByTypes[])
+	{
+		Field fields[] = new Field[orderByFields.length];
+		boolean descending[] = new boolean[orderByFields.length];
+		
+		for(int i = 0; i < orderByFields.length; i++)
+		{
+			fields[i] = findField(resultType, orderByFields[i]);
+			
+			if(fields[i] == null)
+			{
+				return null;
+			}
+			
+			if(!fields[i].getType().isPrimitive() && !Comparable.class.isAssignableFrom(fields[i].getType()))
+			{
+				return null;
+			}
+			
+			fields[i].setAccessible(true);
+			descending[i] = (orderByTypes[i] == OrderByType.DESC);
+		}
+		
+		return new SearchResultComparator(fields, descending);
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public int compare(Object result1, Object result2)
+	{
+		Object value1 = null, value2 = null;
+		int diff = 0;
+		
+		try
+		{
+			for(int i = 0; i < fields.length; i++)
+			{
+				value1 = fields[i].get(result1);
+				value2 = fields[i].get(result2);
+				
+				if(value1 == null || value2 == null)
+				{
+					diff = (value1 == value2) ? 0 : (value1 == null ? -1 : 1);
+				}
+				else
+				{
+					diff = ((Comparable) value1).compareTo(value2);
+				}
+				
+				if(diff != 0)
+				{
+					return descending[i] ? -diff : diff;
+				}
+			}
+		}catch(IllegalAccessException ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while comparing search results");
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * Merges specified (individually ordered) results into single ordered list and returns specified window of it.
+	 * @param orderedResults Results to merge, each of which is ordered as per this comparator
+	 * @param skip Number of leading results to skip
+	 * @param limit Max number of results to return, negative for no limit
+	 * @return Merged results window
+	 */
+	public List<Object> merge(List<? extends List<?>> orderedResults, int skip, int limit)
+	{
+		int positions[] = new int[orderedResults.size()];
+		List<Object> mergedResults = new ArrayList<>((limit > 0) ? limit : 16);
+		int skipped = 0, minIndex = 0;
+		Object minResult = null, result = null;
+		
+		while(limit < 0 || mergedResults.size() < limit)
+		{
+			minIndex = -1;
+			minResult = null;
+			
+			//find the least result among heads of all lists
+			for(int i = 0; i < positions.length; i++)
+			{
+				if(orderedResults.get(i) == null || positions[i] >= orderedResults.get(i).size())
+				{
+					continue;
+				}
+				
+				result = orderedResults.get(i).get(positions[i]);
+				
+				if(minIndex < 0 || compare(result, minResult) < 0)
+				{
+					minIndex = i;
+					minResult = result;
+				}
+			}
+			
+			if(minIndex < 0)
+			{
+				break;
+			}
+			
+			positions[minIndex]++;
+			
+			if(skipped < skip)
+			{
+				skipped++;
+				continue;
+			}
+			
+			mergedResults.add(minResult);
+		}
+		
+		return mergedResults;
+	}
+}
@@ -0,0 +1,365 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.beanutils.PropertyUtils;
+
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.common.IExtendedSearchResult;
+import com.yukthi.webutils.common.models.search.SearchField;
+import com.yukthi.webutils.common.models.search.SearchRow;
+import com.yukthi.webutils.common.models.search.SearchSettingsColumn;
+import com.yukthi.webutils.controllers.IExtensionContextProvider;
+
+/**
+ * Compiled projection of search results into search rows, for a specific result type and search settings
+ * layout. Columns which are not part of results are removed, static columns are read using method handles
+ * and extension field keys are resolved in advance, so that rows can be built without any bean introspection.
+ * 
+ * @author akiran
+ */
+public class SearchRowProjection
+{
+	/**
+	 * Lookup used to create method handles.
+	 */
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	
+	/**
+	 * Method type to which all getters are adapted.
+	 */
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	
+	/**
+	 * Accessor of single column value.
+	 */
+	private static class ColumnAccessor
+	{
+		/**
+		 * Getter for static columns. Null, if property path or extension field is used.
+		 */
+		private MethodHandle getter;
+		
+		/**
+		 * Nested property path of static column, for which getter could not be resolved.
+		 */
+		private String propertyPath;
+		
+		/**
+		 * Extension field key, for simple extension columns.
+		 */
+		private String extensionKey;
+		
+		/**
+		 * Extension name to field key mapping, for columns which maps to fields of multiple extensions.
+		 */
+		private Map<String, String> mixedKeys;
+		
+		/**
+		 * Fetches the column value from specified result.
+		 * @param result Result from which value should be fetched
+		 * @param extensionName Extension name of the result, needed only for mixed columns
+		 * @return Column value
+		 */
+		private Object getValue(Object result, String extensionName) throws Throwable
+		{
+			if(getter != null)
+			{
+				return (Object) getter.invokeExact(result);
+			}
+			
+			if(propertyPath != null)
+			{
+				return PropertyUtils.getProperty(result, propertyPath);
+			}
+			
+			if(mixedKeys != null)
+			{
+				String key = (extensionName != null) ? mixedKeys.get(extensionName) : extensionKey;
+				return (key != null) ? ((IExtendedSearchResult) result).getDynamicFieldValue(key) : null;
+			}
+			
+			return ((IExtendedSearchResult) result).getDynamicFieldValue(extensionKey);
+		}
+	}
+	
+	/**
+	 * Accessors of the columns which are part of results, in column order.
+	 */
+	private final ColumnAccessor accessors[];
+	
+	/**
+	 * Flag indicating if any of the columns need extension name of the result.
+	 */
+	private final boolean needsExtensionName;
+	
+	/**
+	 * Instantiates a new search row projection.
+	 *
+	 * @param accessors the accessors
+	 * @param needsExtensionName the needs extension name
+	 */
+	private SearchRowProjection(ColumnAccessor accessors[], boolean needsExtensionName)
+	{
+		this.accessors = accessors;
+		this.needsExtensionName = needsExtensionName;
+	}
+	
+	/**
+	 * Builds key identifying the projection layout of specified columns. Projections of same result
+	 * type with same layout key can be shared.
+	 * @param columns Search settings columns
+	 * @return Layout key
+	 */
+	public static String toLayoutKey(List<SearchSettingsColumn> columns)
+	{
+		StringBuilder key = new StringBuilder();
+		
+		for(SearchSettingsColumn column : columns)
+		{
+			if(!column.isRequired() && !column.isDisplayed())
+			{
+				continue;
+			}
+			
+			if(!column.isExtended())
+			{
+				key.append(column.getPropertyName()).append(';');
+				continue;
+			}
+			
+			key.append('[');
+			
+			for(SearchField field : column.getFields())
+			{
+				key.append(field.getExtensionName()).append(':').append(field.getField()).append(',');
+			}
+			
+			key.append("];");
+		}
+		
+		return key.toString();
+	}
+	
+	/**
+	 * Compiles projection for specified result type and columns.
+	 * @param resultType Search result type
+	 * @param columns Search settings columns
+	 * @return Compiled projection
+	 */
+	public static SearchRowProjection compile(Class<?> resultType, List<SearchSettingsColumn> columns)
+	{
+		Map<String, MethodHandle> getters = getGetters(resultType);
+		List<ColumnAccessor> accessors = new ArrayList<>(columns.size());
+		ColumnAccessor accessor = null;
+		boolean needsExtensionName = false;
+		
+		for(SearchSettingsColumn column : columns)
+		{
+			// ignore fields which will not be part of results
+			if(!column.isRequired() && !column.isDisplayed())
+			{
+				continue;
+			}
+			
+			accessor = new ColumnAccessor();
+			
+			// if column belong to static field
+			if(!column.isExtended())
+			{
+				accessor.getter = getters.get(column.getPropertyName());
+				
+				if(accessor.getter == null)
+				{
+					accessor.propertyPath = column.getPropertyName();
+				}
+			}
+			// if multiple extension fields (of different extensions) point to same column
+			else if(column.isMixedField())
+			{
+				accessor.extensionKey = column.getFieldName();
+				accessor.mixedKeys = new HashMap<>();
+				
+				for(SearchField field : column.getFields())
+				{
+					if(field.getExtensionName() != null && !accessor.mixedKeys.containsKey(field.getExtensionName()))
+					{
+						accessor.mixedKeys.put(field.getExtensionName(), field.getField());
+					}
+				}
+				
+				needsExtensionName = true;
+			}
+			else
+			{
+				accessor.extensionKey = column.getFieldName();
+			}
+			
+			accessors.add(accessor);
+		}
+		
+		return new SearchRowProjection(accessors.toArray(new ColumnAccessor[0]), needsExtensionName);
+	}
+	
+	/**
+	 * Builds getter method handles for readable properties of specified type. For properties without 
+	 * public getter, field handles are used. Getters are adapted to (Object)Object type.
+	 * @param type Type for which getters are needed
+	 * @return Property name to getter mapping
+	 */
+	static Map<String, MethodHandle> getGetters(Class<?> type)
+	{
+		Map<String, MethodHandle> getters = new HashMap<>();
+		
+		try
+		{
+			BeanInfo beanInfo = Introspector.getBeanInfo(type);
+			
+			for(PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors())
+			{
+				if(descriptor.getReadMethod() == null)
+				{
+					continue;
+				}
+				
+				descriptor.getReadMethod().setAccessible(true);
+				getters.put(descriptor.getName(), LOOKUP.unreflect(descriptor.getReadMethod()).asType(GETTER_TYPE));
+			}
+			
+			Class<?> cls = type;
+			
+			while(cls != null && !Object.class.equals(cls))
+			{
+				for(Field field : cls.getDeclaredFields())
+				{
+					if(getters.containsKey(field.getName()))
+					{
+						continue;
+					}
+					
+					field.setAccessible(true);
+					getters.put(field.getName(), LOOKUP.unreflectGetter(field).asType(GETTER_TYPE));
+				}
+				
+				cls = cls.getSuperclass();
+			}
+		}catch(Exception ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while building accessors for search result type - {}", type.getName());
+		}
+		
+		return getters;
+	}
+	
+	/**
+	 * Fetches raw column values of specified result, in column order.
+	 * @param result Result from which values should be fetched
+	 * @param extensionContextProvider Used to fetch extension name of results, when mixed extension columns are present
+	 * @return Column values
+	 */
+	public Object[] fetchValues(Object result, IExtensionContextProvider extensionContextProvider)
+	{
+		Object values[] = new Object[accessors.length];
+		String extensionName = needsExtensionName ? extensionContextProvider.getExtensionName(result) : null;
+		
+		for(int i = 0; i < accessors.length; i++)
+		{
+			try
+			{
+				values[i] = accessors[i].getValue(result, extensionName);
+			}catch(Throwable ex)
+			{
+				throw new InvalidStateException(ex, "An error occurred while fetching column value at index {} from result - {}", i, result);
+			}
+		}
+		
+		return values;
+	}
+	
+	/**
+	 * Projects specified result into search row.
+	 * @param result Result to project
+	 * @param extensionContextProvider Used to fetch extension name of results, when mixed extension columns are present
+	 * @param dateFormat Format to be used for date values. As formats are not thread safe, callers are expected
+	 * 		to use a format instance which is not shared across threads.
+	 * @return Projected row
+	 */
+	public SearchRow project(Object result, IExtensionContextProvider extensionContextProvider, DateFormat dateFormat)
+	{
+		Object values[] = fetchValues(result, extensionContextProvider);
+		List<String> row = new ArrayList<>(values.length);
+		
+		for(Object value : values)
+		{
+			row.add(toString(value, dateFormat));
+		}
+		
+		return new SearchRow(row);
+	}
+	
+	/**
+	 * Converts specified column value into string, as sent in search rows.
+	 * @param value Value to convert
+	 * @param dateFormat Format to be used for date values
+	 * @return String form of the value
+	 */
+	public static String toString(Object value, DateFormat dateFormat)
+	{
+		if(value == null)
+		{
+			return null;
+		}
+		
+		if(value instanceof Date)
+		{
+			return dateFormat.format((Date) value);
+		}
+		
+		return value.toString();
+	}
+	
+	/**
+	 * Gets the number of columns in projected rows.
+	 *
+	 * @return the number of columns in projected rows
+	 */
+	public int getColumnCount()
+	{
+		return accessors.length;
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Request attributes which are detached from the actual servlet request. Used to execute background tasks on behalf 
+ * of a request after the request is completed (when actual request can no longer be accessed). Only the request attributes 
+ * (like current user details) are captured, other request methods are not supported on detached request.
+ * 
+ * @author akiran
+ */
+public class DetachedRequestAttributes extends ServletRequestAttributes
+{
+	/**
+	 * Invocation handler which serves request attribute methods from captured attributes.
+	 */
+	private static class DetachedRequestHandler implements InvocationHandler
+	{
+		/**
+		 * Captured request attributes.
+		 */
+		private Map<String, Object> attributes;
+		
+		/**
+		 * Instantiates a new detached request handler.
+		 *
+		 * @param attributes the captured attributes
+		 */
+		public DetachedRequestHandler(Map<String, Object> attributes)
+		{
+			this.attributes = Collections.synchronizedMap(attributes);
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object, java.lang.reflect.Method, java.lang.Object[])
+		 */
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+		{
+			switch(method.getName())
+			{
+				case "getAttribute":
+					return attributes.get(args[0]);
+				case "setAttribute":
+					attributes.put((String) args[0], args[1]);
+					return null;
+				case "removeAttribute":
+					attributes.remove(args[0]);
+					return null;
+				case "getAttributeNames":
+				{
+					synchronized(attributes)
+					{
+						return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+					}
+				}
+				case "toString":
+					return "DetachedRequest" + attributes.keySet();
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					throw new UnsupportedOperationException("Operation is not supported on detached request - " + method.getName());
+			}
+		}
+	}
+	
+	/**
+	 * Instantiates a new detached request attributes.
+	 *
+	 * @param request the detached request
+	 */
+	private DetachedRequestAttributes(HttpServletRequest request)
+	{
+		super(request);
+	}
+	
+	/**
+	 * Captures attributes of current thread request into detached request attributes.
+	 * @return Detached request attributes, null if current thread is not bound to any request
+	 */
+	public static DetachedRequestAttributes capture()
+	{
+		if(!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes))
+		{
+			return null;
+		}
+		
+		HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
+		Map<String, Object> attributes = new HashMap<>();
+		Enumeration<String> names = request.getAttributeNames();
+		String name = null;
+		
+		while(names.hasMoreElements())
+		{
+			name = names.nextElement();
+			attributes.put(name, request.getAttribute(name));
+		}
+		
+		HttpServletRequest detachedRequest = (HttpServletRequest) Proxy.newProxyInstance(DetachedRequestAttributes.class.getClassLoader(), 
+				new Class<?>[] {HttpServletRequest.class}, new DetachedRequestHandler(attributes));
+		
+		return new DetachedRequestAttributes(detachedRequest);
+	}
+}
@@ -0,0 +1,326 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Simple thread safe, size bounded LRU cache, whose entries expire after specified time-to-live. Maintains
+ * hit, miss and eviction counts, which can be used for tuning cache size.
+ * 
+ * @author akiran
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class LruCache<K, V>
+{
+	/**
+	 * Cache entry along with its expiry time.
+	 * @param <V> Value type
+	 */
+	private static class CacheEntry<V>
+	{
+		/**
+		 * Cached value.
+		 */
+		private V value;
+		
+		/**
+		 * Time (in millis) at which this entry expires.
+		 */
+		private long expiryTime;
+
+		/**
+		 * Instantiates a new cache entry.
+		 *
+		 * @param value the value
+		 * @param expiryTime the expiry time
+		 */
+		private CacheEntry(V value, long expiryTime)
+		{
+			this.value = value;
+			this.expiryTime = expiryTime;
+		}
+	}
+	
+	/**
+	 * Name of the cache, used in logging and statistics.
+	 */
+	private String name;
+	
+	/**
+	 * Maximum number of entries to be maintained.
+	 */
+	private int maxSize;
+	
+	/**
+	 * Entries in access order.
+	 */
+	private LinkedHashMap<K, CacheEntry<V>> entries;
+	
+	/**
+	 * Number of successful lookups.
+	 */
+	private long hitCount;
+	
+	/**
+	 * Number of failed lookups, including expired entries.
+	 */
+	private long missCount;
+	
+	/**
+	 * Number of entries removed because of size limit.
+	 */
+	private long evictionCount;
+	
+	/**
+	 * Number of entries removed because of expiry.
+	 */
+	private long expiryCount;
+	
+	/**
+	 * Instantiates a new lru cache.
+	 *
+	 * @param name Name of the cache
+	 * @param maxSize Maximum number of entries to be maintained
+	 */
+	public LruCache(String name, final int maxSize)
+	{
+		if(maxSize <= 0)
+		{
+			throw new IllegalArgumentException("Max size should be greater than zero - " + maxSize);
+		}
+		
+		this.name = name;
+		this.maxSize = maxSize;
+		
+		this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest)
+			{
+				if(size() > LruCache.this.maxSize)
+				{
+					evictionCount++;
+					return true;
+				}
+				
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Fetches value for specified key.
+	 * @param key Key to lookup
+	 * @return Matching value, null if not found or expired
+	 */
+	public synchronized V get(K key)
+	{
+		CacheEntry<V> entry = entries.get(key);
+		
+		if(entry == null)
+		{
+			missCount++;
+			return null;
+		}
+		
+		if(entry.expiryTime <= System.currentTimeMillis())
+		{
+			entries.remove(key);
+			expiryCount++;
+			missCount++;
+			return null;
+		}
+		
+		hitCount++;
+		return entry.value;
+	}
+	
+	/**
+	 * Adds specified value to cache.
+	 * @param key Key of the value
+	 * @param value Value to cache
+	 * @param timeToLiveMillis Time (in millis) after which value should expire
+	 */
+	public synchronized void put(K key, V value, long timeToLiveMillis)
+	{
+		entries.put(key, new CacheEntry<V>(value, System.currentTimeMillis() + timeToLiveMillis));
+	}
+	
+	/**
+	 * Removes value with specified key.
+	 * @param key Key to remove
+	 */
+	public synchronized void remove(K key)
+	{
+		entries.remove(key);
+	}
+	
+	/**
+	 * Removes entries whose keys matches with specified filter.
+	 * @param filter Filter to match keys
+	 * @return Number of entries removed
+	 */
+	public synchronized int removeIf(Predicate<K> filter)
+	{
+		int count = 0;
+		
+		for(Iterator<K> it = entries.keySet().iterator(); it.hasNext();)
+		{
+			if(filter.test(it.next()))
+			{
+				it.remove();
+				count++;
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Removes all the expired entries.
+	 * @return Number of entries removed
+	 */
+	public synchronized int removeExpired()
+	{
+		long now = System.currentTimeMillis();
+		int count = 0;
+		
+		for(Iterator<CacheEntry<V>> it = entries.values().iterator(); it.hasNext();)
+		{
+			if(it.next().expiryTime <= now)
+			{
+				it.remove();
+				count++;
+			}
+		}
+		
+		expiryCount += count;
+		return count;
+	}
+	
+	/**
+	 * Removes all the entries.
+	 */
+	public synchronized void clear()
+	{
+		entries.clear();
+	}
+	
+	/**
+	 * Gets the name of the cache.
+	 *
+	 * @return the name of the cache
+	 */
+	public String getName()
+	{
+		return name;
+	}
+	
+	/**
+	 * Gets the maximum number of entries to be maintained.
+	 *
+	 * @return the maximum number of entries to be maintained
+	 */
+	public int getMaxSize()
+	{
+		return maxSize;
+	}
+	
+	/**
+	 * Gets the current number of entries.
+	 *
+	 * @return the current number of entries
+	 */
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * Gets the number of successful lookups.
+	 *
+	 * @return the number of successful lookups
+	 */
+	public synchronized long getHitCount()
+	{
+		return hitCount;
+	}
+
+	/**
+	 * Gets the number of failed lookups, including expired entries.
+	 *
+	 * @return the number of failed lookups
+	 */
+	public synchronized long getMissCount()
+	{
+		return missCount;
+	}
+
+	/**
+	 * Gets the number of entries removed because of size limit.
+	 *
+	 * @return the number of entries removed because of size limit
+	 */
+	public synchronized long getEvictionCount()
+	{
+		return evictionCount;
+	}
+
+	/**
+	 * Gets the number of entries removed because of expiry.
+	 *
+	 * @return the number of entries removed because of expiry
+	 */
+	public synchronized long getExpiryCount()
+	{
+		return expiryCount;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString()
+	{
+		StringBuilder builder = new StringBuilder(super.toString());
+		builder.append("[");
+
+		builder.append("Name: ").append(name);
+		builder.append(",").append("Size: ").append(entries.size()).append("/").append(maxSize);
+		builder.append(",").append("Hits: ").append(hitCount);
+		builder.append(",").append("Misses: ").append(missCount);
+		builder.append(",").append("Evictions: ").append(evictionCount);
+		builder.append(",").append("Expired: ").append(expiryCount);
+
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.utils;
+
+import java.io.File;
+
+import com.yukthi.webutils.common.FileInfo;
+
+/**
+ * File information of an uploaded file, along with content details computed while receiving the
+ * content, so that content need not be read again while saving.
+ * @author akiran
+ */
+public class UploadedFileInfo extends FileInfo
+{
+	/**
+	 * SHA-256 hash (hex) of the file content.
+	 */
+	private String contentHash;
+	
+	/**
+	 * Size of the content in bytes.
+	 */
+	private long contentLength;
+
+	/**
+	 * Instantiates a new uploaded file info.
+	 *
+	 * @param fileName the file name
+	 * @param file the file
+	 * @param contentType the content type
+	 * @param contentHash the SHA-256 hash (hex) of the file content
+	 * @param contentLength the size of the content in bytes
+	 */
+	public UploadedFileInfo(String fileName, File file, String contentType, String contentHash, long contentLength)
+	{
+		super(fileName, file, contentType);
+		
+		this.contentHash = contentHash;
+		this.contentLength = contentLength;
+	}
+
+	/**
+	 * Gets the SHA-256 hash (hex) of the file content.
+	 *
+	 * @return the SHA-256 hash (hex) of the file content
+	 */
+	public String getContentHash()
+	{
+		return contentHash;
+	}
+
+	/**
+	 * Gets the size of the content in bytes.
+	 *
+	 * @return the size of the content in bytes
+	 */
+	public long getContentLength()
+	{
+		return contentLength;
+	}
+}
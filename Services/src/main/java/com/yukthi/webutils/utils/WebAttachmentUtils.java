@@ -25,14 +25,27 @@ package com.yukthi.webutils.utils;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -42,7 +55,6 @@ import org.apache.commons.fileupload.FileUploadException;
 import org.apache.commons.fileupload.disk.DiskFileItem;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
-import org.apache.commons.io.IOUtils;
 import org.apache.tika.Tika;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
@@ -61,17 +73,90 @@ public class WebAttachmentUtils
 	public static final String MIME_CSV_FILE = "text/csv";
 	public static final String MIME_JAR_FILE = "application/java-archive";
 	public static final String MIME_JSON_FILE = "application/json";
+	public static final String MIME_JSON_LINES_FILE = "application/x-ndjson";
 	public static final String MIME_JPEG_FILE = "image/jpeg";
 	
 	public static final String MIME_MS_ACCSS_FILE = "application/x-msaccess";
 	public static final String MIME_MS_EXCEL_FILE = "application/vnd.ms-excel";
+	public static final String MIME_MS_EXCEL_XML_FILE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
 	public static final String MIME_MS_WORD_FILE = "application/msword";
 	
 	public static final String MIME_ZIP_FILE = "application/zip";
 	
 	public static final String EXTENSION_MS_EXCEL_FILE = ".xls";
+	public static final String EXTENSION_MS_EXCEL_XML_FILE = ".xlsx";
+	public static final String EXTENSION_CSV_FILE = ".csv";
+	public static final String EXTENSION_JSON_LINES_FILE = ".ndjson";
 	
 	private static final Tika tika = new Tika();
+	
+	/**
+	 * Request attribute set by tomcat, when container supports sending files directly (zero copy).
+	 */
+	private static final String ATTR_SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	
+	/**
+	 * Request attribute to specify file to be sent by container.
+	 */
+	private static final String ATTR_SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	
+	/**
+	 * Request attribute to specify start position of the file to be sent by container.
+	 */
+	private static final String ATTR_SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	
+	/**
+	 * Request attribute to specify end position (exclusive) of the file to be sent by container.
+	 */
+	private static final String ATTR_SENDFILE_END = "org.apache.tomcat.sendfile.end";
+	
+	/**
+	 * Pattern of supported range header values. Only single byte range is supported.
+	 */
+	private static final Pattern BYTE_RANGE_PATTERN = Pattern.compile("bytes=(\\d*)-(\\d*)");
+	
+	/**
+	 * Number of leading bytes of uploaded content used for mime type detection.
+	 */
+	private static final int MIME_SNIFF_LENGTH = 8192;
+	
+	/**
+	 * Buffer size used while receiving uploaded content.
+	 */
+	private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+	
+	/**
+	 * Inclusive byte range of file requested by client.
+	 */
+	private static class ByteRange
+	{
+		/**
+		 * Start position of the range.
+		 */
+		private final long start;
+		
+		/**
+		 * End position of the range (inclusive).
+		 */
+		private final long end;
+
+		/**
+		 * Instantiates a new byte range.
+		 *
+		 * @param start the start
+		 * @param end the end
+		 */
+		private ByteRange(long start, long end)
+		{
+			this.start = start;
+			this.end = end;
+		}
+	}
+	
+	/**
+	 * Range used to indicate requested range can not be satisfied.
+	 */
+	private static final ByteRange UNSATISFIABLE_RANGE = new ByteRange(-1, -1);
 
 	/**
 	 * Sends file to the client on specified response
@@ -82,6 +167,237 @@ public class WebAttachmentUtils
 	 */
 	public static void sendFile(HttpServletResponse response, FileInfo fileInfo, boolean asAttachment, boolean deleteFile)
 	{
+		sendFile(null, response, fileInfo, asAttachment, deleteFile, null, null);
+	}
+	
+	/**
+	 * Parses specified range header value into byte range of file with specified length.
+	 * @param rangeHeader Range header value
+	 * @param fileLength Length of the file
+	 * @return Matching byte range, {@link #UNSATISFIABLE_RANGE} if range is outside the file and null if
+	 * full file should be sent (no range, multiple ranges or invalid range).
+	 */
+	private static ByteRange parseRange(String rangeHeader, long fileLength)
+	{
+		if(rangeHeader == null)
+		{
+			return null;
+		}
+		
+		Matcher matcher = BYTE_RANGE_PATTERN.matcher(rangeHeader.trim());
+		
+		//other units and multiple ranges are not supported, full content is sent for such requests
+		if(!matcher.matches())
+		{
+			return null;
+		}
+		
+		String startStr = matcher.group(1);
+		String endStr = matcher.group(2);
+		long start = 0, end = 0;
+		
+		try
+		{
+			if(startStr.isEmpty())
+			{
+				if(endStr.isEmpty())
+				{
+					return null;
+				}
+				
+				//suffix range, which specifies number of bytes from end. No suffix of an empty file can be
+				//	satisfied, as there is no last byte to start from
+				long suffixLength = Long.parseLong(endStr);
+				
+				if(suffixLength == 0 || fileLength == 0)
+				{
+					return UNSATISFIABLE_RANGE;
+				}
+				
+				start = Math.max(0, fileLength - suffixLength);
+				end = fileLength - 1;
+			}
+			else
+			{
+				start = Long.parseLong(startStr);
+				
+				//open ended range, which is unsatisfiable (instead of invalid) when start is beyond the file
+				if(endStr.isEmpty())
+				{
+					end = fileLength - 1;
+				}
+				else
+				{
+					end = Long.parseLong(endStr);
+					
+					if(end < start)
+					{
+						return null;
+					}
+					
+					end = Math.min(end, fileLength - 1);
+				}
+			}
+		} catch(NumberFormatException ex)
+		{
+			return null;
+		}
+		
+		if(start >= fileLength)
+		{
+			return UNSATISFIABLE_RANGE;
+		}
+		
+		return new ByteRange(start, end);
+	}
+	
+	/**
+	 * Checks if range specified in request should be honored, based on If-Range header value.
+	 * @param ifRange If-Range header value
+	 * @param entityTag Strong entity tag of the file, can be null
+	 * @param lastModified Last modified time of the file, can be null
+	 * @return True, if range should be honored
+	 */
+	private static boolean isRangeApplicable(String ifRange, String entityTag, Date lastModified)
+	{
+		if(ifRange == null)
+		{
+			return true;
+		}
+		
+		ifRange = ifRange.trim();
+		
+		//entity tags are compared strongly, so weak tags never match
+		if(ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+		{
+			return ifRange.equals(entityTag);
+		}
+		
+		if(lastModified == null)
+		{
+			return false;
+		}
+		
+		try
+		{
+			long validatorTime = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+			
+			//http dates are in seconds precision
+			return (lastModified.getTime() / 1000) == (validatorTime / 1000);
+		} catch(DateTimeParseException ex)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Sets validator (ETag, Last-Modified) and caching headers on specified response.
+	 * @param response Response on which headers needs to be set
+	 * @param entityTag Strong entity tag (including quotes) of the content, can be null
+	 * @param lastModified Last modified time of the content, can be null
+	 * @param privateContent If true, content will be marked as cacheable only by client (not by shared caches)
+	 * @param maxAgeSeconds Time for which content can be used by client without revalidation
+	 */
+	public static void setCacheHeaders(HttpServletResponse response, String entityTag, Date lastModified, boolean privateContent, int maxAgeSeconds)
+	{
+		if(entityTag != null)
+		{
+			response.setHeader("ETag", entityTag);
+		}
+		
+		if(lastModified != null)
+		{
+			response.setDateHeader("Last-Modified", lastModified.getTime());
+		}
+		
+		response.setHeader("Cache-Control", (privateContent ? "private" : "public") + ", max-age=" + maxAgeSeconds);
+	}
+	
+	/**
+	 * Checks if the client copy of the content is still valid, based on If-None-Match and If-Modified-Since headers 
+	 * of specified request. If-Modified-Since is considered only when If-None-Match is not specified.
+	 * @param request Request to check
+	 * @param entityTag Strong entity tag (including quotes) of the content, can be null
+	 * @param lastModified Last modified time of the content, can be null
+	 * @return True, if content is not modified and 304 (not modified) response can be sent.
+	 */
+	public static boolean isNotModified(HttpServletRequest request, String entityTag, Date lastModified)
+	{
+		String ifNoneMatch = request.getHeader("If-None-Match");
+		
+		if(ifNoneMatch != null)
+		{
+			String tag = null;
+			
+			for(String clientTag : ifNoneMatch.split(","))
+			{
+				tag = clientTag.trim();
+				
+				//matches any current content, even when it does not have entity tag
+				if("*".equals(tag))
+				{
+					return true;
+				}
+				
+				if(entityTag == null)
+				{
+					continue;
+				}
+				
+				//weak comparison is used for If-None-Match
+				if(tag.startsWith("W/"))
+				{
+					tag = tag.substring(2);
+				}
+				
+				if(tag.equals(entityTag))
+				{
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		if(lastModified == null)
+		{
+			return false;
+		}
+		
+		long ifModifiedSince = -1;
+		
+		try
+		{
+			ifModifiedSince = request.getDateHeader("If-Modified-Since");
+		} catch(IllegalArgumentException ex)
+		{
+			//ignore invalid dates
+			return false;
+		}
+		
+		//http dates are in seconds precision
+		return (ifModifiedSince >= 0 && (lastModified.getTime() / 1000) <= (ifModifiedSince / 1000));
+	}
+	
+	/**
+	 * Sends file to the client on specified response. If request is specified, single byte range requests
+	 * (along with If-Range validation) are supported, in which case partial content is sent.
+	 * When container supports it and file is not deleted after sending, file is sent directly by container
+	 * (zero copy). Otherwise content is transferred using file channel without copying it through heap buffers.
+	 * @param request Current request, can be null, in which case full file is sent
+	 * @param response Response on which file needs to be sent
+	 * @param fileInfo File information
+	 * @param asAttachment If true, file will be sent as attachment. Otherwise as body content
+	 * @param deleteFile If true, deletes the file once content is sent over the response
+	 * @param entityTag Strong entity tag of the file, used for If-Range validation. Can be null.
+	 * @param lastModified Last modified time of the file, used for If-Range validation. Can be null.
+	 * Validator headers are expected to be set by caller using {@link #setCacheHeaders(HttpServletResponse, String, Date, boolean, int)}.
+	 */
+	public static void sendFile(HttpServletRequest request, HttpServletResponse response, FileInfo fileInfo, boolean asAttachment, 
+			boolean deleteFile, String entityTag, Date lastModified)
+	{
+		File file = fileInfo.getFile();
+		long fileLength = file.length();
 		String mimeType = fileInfo.getContentType();
 		
 		if(mimeType == null)
@@ -98,7 +414,7 @@ public class WebAttachmentUtils
 
 		// modifies response
 		response.setContentType(mimeType);
-		response.setContentLength((int)fileInfo.getFile().length());
+		response.setHeader("Accept-Ranges", "bytes");
 
 		if(asAttachment)
 		{
@@ -107,26 +423,96 @@ public class WebAttachmentUtils
 			response.setHeader("Content-Disposition", headerValue);
 		}
 		
-		//write content to response
+		ByteRange range = null;
+		
+		if(request != null && isRangeApplicable(request.getHeader("If-Range"), entityTag, lastModified))
+		{
+			range = parseRange(request.getHeader("Range"), fileLength);
+		}
+		
+		long start = 0, count = fileLength;
+		
 		try
 		{
-			OutputStream os = response.getOutputStream();
-			FileInputStream fis = new FileInputStream(fileInfo.getFile());
-			IOUtils.copy(fis, os);
+			if(range == UNSATISFIABLE_RANGE)
+			{
+				response.setHeader("Content-Range", "bytes */" + fileLength);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
 			
-			os.close();
-			fis.close();
+			if(range != null)
+			{
+				start = range.start;
+				count = range.end - range.start + 1;
+				
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader("Content-Range", "bytes " + range.start + "-" + range.end + "/" + fileLength);
+			}
+	
+			//content length is set as header, so that files larger than 2GB are supported
+			response.setHeader("Content-Length", Long.toString(count));
 			
-			if(deleteFile)
+			//let the container send the file after request processing, without copying it to user space. As file
+			//	is accessed after this method returns, this can not be used for files to be deleted
+			if(!deleteFile && request != null && Boolean.TRUE.equals(request.getAttribute(ATTR_SENDFILE_SUPPORT)))
 			{
-				fileInfo.getFile().delete();
+				request.setAttribute(ATTR_SENDFILE_FILENAME, file.getAbsolutePath());
+				request.setAttribute(ATTR_SENDFILE_START, Long.valueOf(start));
+				request.setAttribute(ATTR_SENDFILE_END, Long.valueOf(start + count));
+				return;
 			}
+			
+			//write content to response
+			OutputStream os = response.getOutputStream();
+			
+			try(FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+			{
+				WritableByteChannel target = Channels.newChannel(os);
+				long position = start, end = start + count, transferred = 0;
+				
+				while(position < end)
+				{
+					transferred = fileChannel.transferTo(position, end - position, target);
+					
+					//file got truncated while sending
+					if(transferred <= 0)
+					{
+						throw new IOException("Failed to read file content at position - " + position);
+					}
+					
+					position += transferred;
+				}
+			}
+			
+			os.close();
 		}catch(Exception ex)
 		{
 			throw new IllegalStateException("An error occurred while writing content to response", ex);
+		} finally
+		{
+			if(deleteFile)
+			{
+				file.delete();
+			}
 		}
 	}
 	
+	/**
+	 * Prepares specified response for sending content as attachment with specified file name. Content-length
+	 * is not set, so that the content can be streamed as it is generated.
+	 * @param response Response to be prepared
+	 * @param fileName File name to be used for attachment
+	 * @param mimeType Mime type of the content
+	 */
+	public static void prepareAttachmentResponse(HttpServletResponse response, String fileName, String mimeType)
+	{
+		response.setContentType(mimeType);
+		
+		String headerValue = String.format("attachment; filename=\"%s\"", fileName);
+		response.setHeader("Content-Disposition", headerValue);
+	}
+	
 	/**
 	 * Receives the file attachments part of requests and returns file path list
 	 * @param request Request from which file attachments needs to be fetched
@@ -181,12 +567,125 @@ public class WebAttachmentUtils
 	}
 	
 	
+	/**
+	 * Creates SHA-256 message digest.
+	 * @return New message digest
+	 */
+	private static MessageDigest newContentDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256");
+		} catch(NoSuchAlgorithmException ex)
+		{
+			throw new InvalidStateException(ex, "SHA-256 digest is not supported");
+		}
+	}
+	
+	/**
+	 * Converts specified digest bytes into hex string.
+	 * @param digest Digest bytes
+	 * @return Hex string
+	 */
+	private static String toHex(byte digest[])
+	{
+		StringBuilder hex = new StringBuilder(digest.length * 2);
+		
+		for(byte b : digest)
+		{
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		
+		return hex.toString();
+	}
+	
+	/**
+	 * Computes SHA-256 hash of specified file content.
+	 * @param file File whose hash needs to be computed
+	 * @return Hash in hex format
+	 */
+	public static String computeContentHash(File file)
+	{
+		MessageDigest digest = newContentDigest();
+		byte buffer[] = new byte[UPLOAD_BUFFER_SIZE];
+		int read = 0;
+		
+		try(InputStream is = new FileInputStream(file))
+		{
+			while((read = is.read(buffer)) > 0)
+			{
+				digest.update(buffer, 0, read);
+			}
+		} catch(IOException ex)
+		{
+			throw new InvalidStateException(ex, "An error occurred while computing hash of file - {}", file.getPath());
+		}
+		
+		return toHex(digest.digest());
+	}
+	
+	/**
+	 * Builds details of specified uploaded file. Size, SHA-256 hash and mime type (from leading bytes) are computed
+	 * in single read of the content.
+	 * @param content File holding uploaded content
+	 * @param fileName Name of the uploaded file
+	 * @param contentType Content type specified by client, can be null
+	 * @return Uploaded file details
+	 * @throws IOException If content could not be read
+	 */
+	private static UploadedFileInfo describeContent(File content, String fileName, String contentType) throws IOException
+	{
+		MessageDigest digest = newContentDigest();
+		byte buffer[] = new byte[UPLOAD_BUFFER_SIZE];
+		byte sniffBuffer[] = new byte[MIME_SNIFF_LENGTH];
+		int sniffLength = 0, read = 0;
+		long size = 0;
+		
+		try(InputStream is = new FileInputStream(content))
+		{
+			while((read = is.read(buffer)) > 0)
+			{
+				digest.update(buffer, 0, read);
+				
+				if(sniffLength < MIME_SNIFF_LENGTH)
+				{
+					int length = Math.min(read, MIME_SNIFF_LENGTH - sniffLength);
+					System.arraycopy(buffer, 0, sniffBuffer, sniffLength, length);
+					sniffLength += length;
+				}
+				
+				size += read;
+			}
+		}
+		
+		//use detected type, when client does not specify specific type
+		if(contentType == null || MIME_BINARY_FILE.equals(contentType))
+		{
+			contentType = tika.detect(Arrays.copyOf(sniffBuffer, sniffLength), fileName);
+		}
+		
+		return new UploadedFileInfo(fileName, content, contentType, toHex(digest.digest()), size);
+	}
+	
 	/**
 	 * Downloads the uploaded files from specified request and returns the file details
 	 * @param request Request from which files need to be downloaded
 	 * @return Field name to file list
 	 */
 	public static Map<String, List<FileInfo>> recieveImports(MultipartHttpServletRequest request)
+	{
+		return recieveImports(request, null);
+	}
+	
+	/**
+	 * Downloads the uploaded files from specified request into specified directory and returns the file details.
+	 * Uploaded content is moved (or written once, if it is held in memory) into the directory by multipart file itself,
+	 * after which it is read only once, during which size, content hash and mime type are computed.
+	 * @param request Request from which files need to be downloaded
+	 * @param tempDirectory Directory in which files should be created. If null, default temp directory is used.
+	 * @return Field name to file list. Files are instances of {@link UploadedFileInfo}.
+	 */
+	public static Map<String, List<FileInfo>> recieveImports(MultipartHttpServletRequest request, File tempDirectory)
 	{
 		Iterator<String> fileNames = request.getFileNames();
 		
@@ -200,9 +699,9 @@ public class WebAttachmentUtils
 		File tempFile = null;
 		String fileName = null;
 		int idx = 0;
-		FileOutputStream fos = null;
 		List<FileInfo> fileInfoLst = null;
 		String fieldName = null;
+		UploadedFileInfo fileInfo = null;
 		
 		while(fileNames.hasNext())
 		{
@@ -224,15 +723,22 @@ public class WebAttachmentUtils
 					fileName = fileName.substring(idx + 1);
 				}
 				
-				//copy the content of attachment to temp file
+				tempFile = null;
+				
+				//let the multipart file move its content to temp file, which avoids copying disk based uploads
 				try
 				{
-					tempFile = File.createTempFile(fileName, ".temp");
-					fos = new FileOutputStream(tempFile);
-					IOUtils.copy(file.getInputStream(), fos);
-					fos.close();
-				}catch(IOException ex)
+					tempFile = File.createTempFile("upload", ".temp", tempDirectory);
+					file.transferTo(tempFile);
+					
+					fileInfo = describeContent(tempFile, fileName, file.getContentType());
+				}catch(IOException | RuntimeException ex)
 				{
+					if(tempFile != null)
+					{
+						tempFile.delete();
+					}
+					
 					throw new InvalidStateException(ex, "An error occurred while uploading file content to temp file");
 				}
 				
@@ -246,7 +752,7 @@ public class WebAttachmentUtils
 					result.put(fieldName, fileInfoLst);
 				}
 				
-				fileInfoLst.add(new FileInfo(fileName, tempFile, file.getContentType()));
+				fileInfoLst.add(fileInfo);
 			}
 		}
 		
@@ -23,23 +23,15 @@
 
 package com.yukthi.webutils.validation;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 
-import com.yukthi.webutils.WebutilsConfiguration;
 import com.yukthi.webutils.common.IExtendableModel;
 import com.yukthi.webutils.common.annotations.ExtendableModel;
-import com.yukthi.webutils.common.extensions.FieldConfiguration;
 import com.yukthi.webutils.controllers.IExtensionContextProvider;
-import com.yukthi.webutils.repository.ExtensionEntity;
-import com.yukthi.webutils.repository.ExtensionFieldEntity;
+import com.yukthi.webutils.extensions.ExtensionFieldsValidator;
 import com.yukthi.webutils.services.ExtensionService;
 
 /**
@@ -52,9 +44,6 @@ public class ExtendableModelValidator implements Validator
 	@Autowired
 	private ExtensionService extensionService;
 	
-	@Autowired
-	private WebutilsConfiguration webutilsConfiguration;
-	
 	@Autowired
 	private IExtensionContextProvider extensionContextProvider;
 	
@@ -87,51 +76,13 @@ public class ExtendableModelValidator implements Validator
 			extensionName = extendableModel.name();
 		}
 		
-		ExtensionEntity extensionEntity = extensionService.getExtensionEntity(extensionName);
+		ExtensionFieldsValidator fieldsValidator = extensionService.getFieldsValidator(extensionName);
 		
-		if(extensionEntity == null)
+		if(fieldsValidator == null)
 		{
 			return;
 		}
 		
-		List<ExtensionFieldEntity> extendedFields = extensionService.getExtensionFields(extensionName);
-		Map<String, String> extendedFieldValues = new HashMap<>( ((IExtendableModel) target).getExtendedFields() );
-		String value = null;
-		FieldConfiguration fieldConfig = null;
-		
-		//loop through the fields and validate the values
-		for(ExtensionFieldEntity field : extendedFields)
-		{
-			value = extendedFieldValues.remove(field.getName());
-			
-			//ensure values are provided for all mandatory fields
-			if(field.isRequired())
-			{
-				if(StringUtils.isBlank(value))
-				{
-					errors.reject("extended.required.field.missing", new String[]{field.getName()}, "No value specified for mandatory field - " + field.getName());
-					continue;
-				}
-			}
-			
-			//ignore null and blank values
-			if(StringUtils.isBlank(value))
-			{
-				continue;
-			}
-			
-			fieldConfig = new FieldConfiguration(webutilsConfiguration.getDateFormat(), field.getLovValues(), field.getMaxLength());
-			
-			//ensure proper value provided according to data type
-			if( !field.getType().validateValue(value, fieldConfig) )
-			{
-				errors.reject("extended.invalid.value", new String[]{field.getName()}, "Invalid value specified for field - " + field.getName());
-			}
-		}
-		
-		if(!extendedFieldValues.isEmpty())
-		{
-			errors.reject("extended.extra.field", "Extra fields specified for extension");
-		}
+		fieldsValidator.validate(((IExtendableModel) target).getExtendedFields(), errors);
 	}
 }
@@ -0,0 +1,192 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.extensions;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.validation.Errors;
+import org.springframework.validation.MapBindingResult;
+
+import com.yukthi.webutils.common.extensions.ExtensionFieldType;
+import com.yukthi.webutils.common.extensions.FieldConfiguration;
+import com.yukthi.webutils.common.extensions.LovOption;
+import com.yukthi.webutils.repository.ExtensionFieldEntity;
+
+/**
+ * Compares compiled extension field validator with per-field configuration based validation (as done
+ * earlier by extendable model validator), for a model with 50 extended fields.
+ * 
+ * Execute using main method, after test compilation.
+ * 
+ * @author akiran
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtensionFieldsValidatorBenchmark
+{
+	/**
+	 * Number of extended fields in benchmarked model.
+	 */
+	private static final int FIELD_COUNT = 50;
+	
+	private static final String DATE_PATTERN = "dd/MM/yyyy";
+	
+	private List<ExtensionFieldEntity> fields;
+	
+	private Map<String, String> values;
+	
+	private ExtensionFieldsValidator validator;
+	
+	private SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_PATTERN);
+	
+	@Setup
+	public void setup()
+	{
+		fields = new ArrayList<>(FIELD_COUNT);
+		values = new HashMap<>();
+		
+		ExtensionFieldType types[] = ExtensionFieldType.values();
+		ExtensionFieldEntity field = null;
+		
+		for(int i = 0; i < FIELD_COUNT; i++)
+		{
+			field = new ExtensionFieldEntity();
+			field.setName("field" + i);
+			field.setType(types[i % types.length]);
+			field.setRequired(i % 3 == 0);
+			field.setMaxLength(100);
+			field.setLovOptions(Arrays.asList(new LovOption("LOW", "Low"), new LovOption("MEDIUM", "Medium"), new LovOption("HIGH", "High")));
+			field.getLovValues();
+			
+			fields.add(field);
+			values.put(field.getName(), sampleValue(field.getType(), i));
+		}
+		
+		validator = ExtensionFieldsValidator.compile(fields, DATE_PATTERN);
+	}
+	
+	/**
+	 * Builds valid sample value for specified type.
+	 * @param type Field type
+	 * @param idx Field index
+	 * @return Sample value
+	 */
+	private static String sampleValue(ExtensionFieldType type, int idx)
+	{
+		switch(type)
+		{
+			case INTEGER:
+				return "" + (idx * 1000);
+			case DECIMAL:
+				return idx + ".25";
+			case BOOLEAN:
+				return "true";
+			case DATE:
+				return "12/08/2016";
+			case LIST_OF_VALUES:
+				return "MEDIUM";
+			default:
+				return "Some value of field " + idx;
+		}
+	}
+	
+	/**
+	 * Validates values by building field configuration for every field.
+	 * @return Errors
+	 */
+	@Benchmark
+	public Errors fieldConfiguration()
+	{
+		Errors errors = new MapBindingResult(new HashMap<>(), "model");
+		Map<String, String> extendedFieldValues = new HashMap<>(values);
+		String value = null;
+		
+		for(ExtensionFieldEntity field : fields)
+		{
+			value = extendedFieldValues.remove(field.getName());
+			
+			if(StringUtils.isBlank(value))
+			{
+				if(field.isRequired())
+				{
+					errors.reject("extended.required.field.missing", new String[]{field.getName()}, "No value specified for mandatory field - " + field.getName());
+				}
+				
+				continue;
+			}
+			
+			if( !field.getType().validateValue(value, new FieldConfiguration(dateFormat, field.getLovValues(), field.getMaxLength())) )
+			{
+				errors.reject("extended.invalid.value", new String[]{field.getName()}, "Invalid value specified for field - " + field.getName());
+			}
+		}
+		
+		if(!extendedFieldValues.isEmpty())
+		{
+			errors.reject("extended.extra.field", "Extra fields specified for extension");
+		}
+		
+		return errors;
+	}
+	
+	/**
+	 * Validates values using compiled validator.
+	 * @return Errors
+	 */
+	@Benchmark
+	public Errors compiledValidator()
+	{
+		Errors errors = new MapBindingResult(new HashMap<>(), "model");
+		validator.validate(values, errors);
+		return errors;
+	}
+	
+	public static void main(String[] args) throws Exception
+	{
+		new Runner(new OptionsBuilder().include(ExtensionFieldsValidatorBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.extensions;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.MapBindingResult;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yukthi.webutils.common.extensions.ExtensionFieldType;
+import com.yukthi.webutils.common.extensions.LovOption;
+import com.yukthi.webutils.repository.ExtensionFieldEntity;
+
+/**
+ * Tests compiled validation of extended field values.
+ * @author akiran
+ */
+public class TExtensionFieldsValidator
+{
+	private static ExtensionFieldEntity newField(String name, ExtensionFieldType type, boolean required)
+	{
+		ExtensionFieldEntity field = new ExtensionFieldEntity();
+		field.setName(name);
+		field.setType(type);
+		field.setRequired(required);
+		field.setMaxLength(5);
+		field.setLovOptions(Arrays.asList(new LovOption("LOW", "Low"), new LovOption("HIGH", "High")));
+		
+		return field;
+	}
+	
+	private static Errors validate(Map<String, String> values)
+	{
+		ExtensionFieldsValidator validator = ExtensionFieldsValidator.compile(Arrays.asList(
+				newField("str", ExtensionFieldType.STRING, true),
+				newField("int", ExtensionFieldType.INTEGER, false),
+				newField("dec", ExtensionFieldType.DECIMAL, false),
+				newField("bool", ExtensionFieldType.BOOLEAN, false),
+				newField("date", ExtensionFieldType.DATE, false),
+				newField("lov", ExtensionFieldType.LIST_OF_VALUES, false)
+			), "dd/MM/yyyy");
+		
+		Errors errors = new MapBindingResult(new HashMap<>(), "model");
+		validator.validate(values, errors);
+		return errors;
+	}
+	
+	@Test
+	public void testValidValues()
+	{
+		Map<String, String> values = new HashMap<>();
+		values.put("str", "abc");
+		values.put("int", "123");
+		values.put("dec", "12.50");
+		values.put("bool", "TRUE");
+		values.put("date", "12/08/2016");
+		values.put("lov", "LOW");
+		
+		Assert.assertFalse(validate(values).hasErrors());
+	}
+	
+	@Test
+	public void testInvalidValues()
+	{
+		Map<String, String> values = new HashMap<>();
+		values.put("str", "abcdefg");
+		values.put("int", "12a");
+		values.put("dec", "12.");
+		values.put("bool", "yes");
+		values.put("date", "2016-08-12");
+		values.put("lov", "MEDIUM");
+		
+		Errors errors = validate(values);
+		Assert.assertEquals(errors.getGlobalErrorCount(), 6);
+		Assert.assertEquals(errors.getGlobalError().getCode(), "extended.invalid.value");
+	}
+	
+	@Test
+	public void testMissingAndExtraFields()
+	{
+		Map<String, String> values = new HashMap<>();
+		values.put("int", "  ");
+		values.put("extra", "value");
+		
+		Errors errors = validate(values);
+		Assert.assertEquals(errors.getGlobalErrorCount(), 2);
+		Assert.assertEquals(errors.getGlobalErrors().get(0).getCode(), "extended.required.field.missing");
+		Assert.assertEquals(errors.getGlobalErrors().get(1).getCode(), "extended.extra.field");
+		
+		Assert.assertEquals(validate(null).getGlobalErrorCount(), 1);
+	}
+}
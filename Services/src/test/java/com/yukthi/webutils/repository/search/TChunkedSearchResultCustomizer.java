@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.repository.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests chunking of chunked search result customizer.
+ * @author akiran
+ */
+public class TChunkedSearchResultCustomizer
+{
+	/**
+	 * Ensures results are passed in chunks of configured size and filtered results are merged in order.
+	 */
+	@Test
+	public void testChunking()
+	{
+		final List<Integer> chunkSizes = new ArrayList<>();
+		
+		IChunkedSearchResultCustomizer<Integer> customizer = new IChunkedSearchResultCustomizer<Integer>()
+		{
+			@Override
+			public int getChunkSize()
+			{
+				return 4;
+			}
+			
+			@Override
+			public List<Integer> customizeChunk(List<Integer> chunk)
+			{
+				chunkSizes.add(chunk.size());
+				List<Integer> evenValues = new ArrayList<>();
+				
+				for(Integer value : chunk)
+				{
+					if(value % 2 == 0)
+					{
+						evenValues.add(value);
+					}
+				}
+				
+				return evenValues;
+			}
+		};
+		
+		List<Integer> results = new ArrayList<>();
+		
+		for(int i = 0; i < 10; i++)
+		{
+			results.add(i);
+		}
+		
+		List<Integer> customized = customizer.customize(results);
+		
+		Assert.assertEquals(chunkSizes.toString(), "[4, 4, 2]");
+		Assert.assertEquals(customized.toString(), "[0, 2, 4, 6, 8]");
+	}
+}
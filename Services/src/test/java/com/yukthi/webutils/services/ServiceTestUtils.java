@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.yukthi.webutils.services;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+import com.yukthi.webutils.security.ISecurityService;
+
+/**
+ * Common utilities to set up services for tests, without spring context and database.
+ * @author akiran
+ */
+public class ServiceTestUtils
+{
+	/**
+	 * Sets specified private field value on specified target. Field is searched in target class and its super classes.
+	 * @param target Target object
+	 * @param name Field name
+	 * @param value Value to set
+	 */
+	public static void setField(Object target, String name, Object value) throws Exception
+	{
+		Class<?> type = target.getClass();
+		
+		while(true)
+		{
+			try
+			{
+				Field field = type.getDeclaredField(name);
+				field.setAccessible(true);
+				field.set(target, value);
+				return;
+			}catch(NoSuchFieldException ex)
+			{
+				type = type.getSuperclass();
+				
+				if(type == null)
+				{
+					throw ex;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Creates stub of specified interface, whose method invocations are delegated to specified handler.
+	 * @param type Interface to be stubbed
+	 * @param handler Handler to execute the methods
+	 * @return Stub instance
+	 */
+	public static <T> T newStub(Class<T> type, InvocationHandler handler)
+	{
+		return type.cast(Proxy.newProxyInstance(ServiceTestUtils.class.getClassLoader(), new Class<?>[] {type}, handler));
+	}
+	
+	/**
+	 * Creates security service stub which supports only fetching of user space identity.
+	 * @param spaceIdentity Supplier of current user space identity
+	 * @return Security service stub
+	 */
+	public static ISecurityService newSecurityService(Supplier<String> spaceIdentity)
+	{
+		return newStub(ISecurityService.class, (proxy, method, args) -> 
+		{
+			if("getUserSpaceIdentity".equals(method.getName()))
+			{
+				return spaceIdentity.get();
+			}
+			
+			throw new UnsupportedOperationException(method.getName());
+		});
+	}
+}
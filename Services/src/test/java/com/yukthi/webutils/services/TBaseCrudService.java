@@ -0,0 +1,280 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import static com.yukthi.webutils.services.ServiceTestUtils.newSecurityService;
+import static com.yukthi.webutils.services.ServiceTestUtils.newStub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.yukthi.webutils.repository.IWebutilsRepository;
+import com.yukthi.webutils.repository.WebutilsEntity;
+
+/**
+ * Tests model conversion of base crud service is done in bulk and in order.
+ * @author akiran
+ */
+public class TBaseCrudService
+{
+	/**
+	 * Test entity.
+	 */
+	public static class TestEntity extends WebutilsEntity
+	{
+		/**
+		 * Name.
+		 */
+		private String name;
+		
+		/**
+		 * Instantiates a new test entity.
+		 */
+		public TestEntity()
+		{}
+		
+		/**
+		 * Instantiates a new test entity.
+		 * @param id Id
+		 * @param name Name
+		 */
+		public TestEntity(Long id, String name)
+		{
+			super(id);
+			this.name = name;
+		}
+		
+		/**
+		 * Gets the name.
+		 * @return the name
+		 */
+		public String getName()
+		{
+			return name;
+		}
+		
+		/**
+		 * Sets the name.
+		 * @param name the new name
+		 */
+		public void setName(String name)
+		{
+			this.name = name;
+		}
+	}
+	
+	/**
+	 * Test model.
+	 */
+	public static class TestModel
+	{
+		/**
+		 * Id.
+		 */
+		private Long id;
+		
+		/**
+		 * Name.
+		 */
+		private String name;
+
+		/**
+		 * Gets the id.
+		 * @return the id
+		 */
+		public Long getId()
+		{
+			return id;
+		}
+
+		/**
+		 * Sets the id.
+		 * @param id the new id
+		 */
+		public void setId(Long id)
+		{
+			this.id = id;
+		}
+
+		/**
+		 * Gets the name.
+		 * @return the name
+		 */
+		public String getName()
+		{
+			return name;
+		}
+
+		/**
+		 * Sets the name.
+		 * @param name the new name
+		 */
+		public void setName(String name)
+		{
+			this.name = name;
+		}
+	}
+	
+	/**
+	 * Test repository.
+	 */
+	public static interface ITestRepository extends IWebutilsRepository<TestEntity>
+	{}
+	
+	/**
+	 * File service which records bulk reads, instead of hitting db.
+	 */
+	private static class RecordingFileService extends FileService
+	{
+		/**
+		 * Owner ids of bulk reads.
+		 */
+		private List<List<Long>> bulkReads = new ArrayList<>();
+		
+		@Override
+		public void readFilesForModels(List<?> models, Class<?> entityType, List<Long> ownerIds)
+		{
+			Assert.assertEquals(models.size(), ownerIds.size());
+			bulkReads.add(new ArrayList<>(ownerIds));
+		}
+	}
+	
+	/**
+	 * Image service which records bulk reads, instead of hitting db.
+	 */
+	private static class RecordingImageService extends ImageService
+	{
+		/**
+		 * Owner ids of bulk reads.
+		 */
+		private List<List<Long>> bulkReads = new ArrayList<>();
+		
+		@Override
+		public void readImagesForModels(List<?> models, Class<?> entityType, List<Long> ownerIds)
+		{
+			Assert.assertEquals(models.size(), ownerIds.size());
+			bulkReads.add(new ArrayList<>(ownerIds));
+		}
+	}
+	
+	/**
+	 * Service being tested.
+	 */
+	private BaseCrudService<TestEntity, ITestRepository> service;
+	
+	/**
+	 * File service used by test service.
+	 */
+	private RecordingFileService fileService;
+	
+	/**
+	 * Image service used by test service.
+	 */
+	private RecordingImageService imageService;
+	
+	/**
+	 * Entities available in test repository.
+	 */
+	private List<TestEntity> entities = Arrays.asList(new TestEntity(1L, "one"), new TestEntity(2L, "two"), new TestEntity(3L, "three"));
+	
+	/**
+	 * Creates test service with stubbed repository and services.
+	 */
+	@BeforeMethod
+	public void setup()
+	{
+		service = new BaseCrudService<TestEntity, ITestRepository>(TestEntity.class, ITestRepository.class)
+		{};
+		
+		service.repository = newStub(ITestRepository.class, (proxy, method, args) -> 
+		{
+			if("findByIdAndUserSpace".equals(method.getName()))
+			{
+				return entities.stream().filter(entity -> entity.getId().equals(args[0])).findFirst().orElse(null);
+			}
+			
+			if("findByIdsAndUserSpace".equals(method.getName()))
+			{
+				Collection<?> ids = (Collection<?>) args[0];
+				
+				//return in entity order, irrespective of input id order, like a db would
+				return entities.stream().filter(entity -> ids.contains(entity.getId())).collect(Collectors.toList());
+			}
+			
+			throw new UnsupportedOperationException(method.getName());
+		});
+		
+		service.securityService = newSecurityService(() -> "testSpace");
+		
+		service.fileService = fileService = new RecordingFileService();
+		service.imageService = imageService = new RecordingImageService();
+	}
+	
+	/**
+	 * Ensures single model fetch is routed through bulk conversion.
+	 */
+	@Test
+	public void testFetchFullModelRouting()
+	{
+		TestModel model = service.fetchFullModel(2L, TestModel.class);
+		
+		Assert.assertEquals(model.getId(), Long.valueOf(2));
+		Assert.assertEquals(model.getName(), "two");
+		
+		Assert.assertEquals(fileService.bulkReads, Arrays.asList(Arrays.asList(2L)));
+		Assert.assertEquals(imageService.bulkReads, Arrays.asList(Arrays.asList(2L)));
+		
+		Assert.assertNull(service.fetchFullModel(10L, TestModel.class));
+	}
+	
+	/**
+	 * Ensures multiple models are fetched in order of ids, with single bulk read for files and images.
+	 */
+	@Test
+	public void testFetchFullModelsOrder()
+	{
+		List<TestModel> models = service.fetchFullModels(Arrays.asList(3L, 10L, 1L, 3L, 2L), TestModel.class);
+		List<Long> ids = new ArrayList<>();
+		
+		for(TestModel model : models)
+		{
+			ids.add(model.getId());
+		}
+		
+		Assert.assertEquals(ids, Arrays.asList(3L, 1L, 2L));
+		Assert.assertEquals(models.get(0).getName(), "three");
+		
+		Assert.assertEquals(fileService.bulkReads, Arrays.asList(Arrays.asList(3L, 1L, 2L)));
+		Assert.assertEquals(imageService.bulkReads, Arrays.asList(Arrays.asList(3L, 1L, 2L)));
+		
+		Assert.assertTrue(service.fetchFullModels(Arrays.asList(10L, 11L), TestModel.class).isEmpty());
+	}
+}
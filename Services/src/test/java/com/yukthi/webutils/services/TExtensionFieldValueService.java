@@ -0,0 +1,407 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import static com.yukthi.webutils.services.ServiceTestUtils.newSecurityService;
+import static com.yukthi.webutils.services.ServiceTestUtils.newStub;
+import static com.yukthi.webutils.services.ServiceTestUtils.setField;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.yukthi.persistence.repository.annotations.Operator;
+import com.yukthi.webutils.InvalidRequestParameterException;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.common.IExtendableModel;
+import com.yukthi.webutils.common.extensions.ExtensionFieldType;
+import com.yukthi.webutils.common.models.search.ExtendedFieldCondition;
+import com.yukthi.webutils.repository.EntityIdResult;
+import com.yukthi.webutils.repository.ExtensionEntity;
+import com.yukthi.webutils.repository.ExtensionFieldEntity;
+import com.yukthi.webutils.repository.ExtensionFieldValueEntity;
+import com.yukthi.webutils.repository.ExtensionFieldValueMatch;
+import com.yukthi.webutils.repository.IExtensionFieldValueRepository;
+import com.yukthi.webutils.repository.IWebutilsRepository;
+import com.yukthi.webutils.security.ISecurityService;
+import com.yukthi.webutils.services.search.ExtendedSearchConditions;
+
+/**
+ * Tests evaluation of extended field conditions using typed value store.
+ * @author akiran
+ */
+public class TExtensionFieldValueService
+{
+	/**
+	 * Name of test extension.
+	 */
+	private static final String EXTENSION_NAME = "testExtension";
+	
+	/**
+	 * Extension service returning test extension and fields.
+	 */
+	private static class TestExtensionService extends ExtensionService
+	{
+		/**
+		 * Test extension.
+		 */
+		private ExtensionEntity extension = new ExtensionEntity();
+		
+		/**
+		 * Test extension fields.
+		 */
+		private List<ExtensionFieldEntity> fields = new ArrayList<>();
+		
+		/**
+		 * Instantiates a new test extension service.
+		 */
+		private TestExtensionService()
+		{
+			extension.setName(EXTENSION_NAME);
+			extension.setTargetEntityType(TestEntity.class.getName());
+			
+			fields.add(newField(1L, "amount", ExtensionFieldType.DECIMAL));
+			fields.add(newField(2L, "quantity", ExtensionFieldType.INTEGER));
+			fields.add(newField(3L, "code", ExtensionFieldType.STRING));
+			fields.get(2).setIndexed(false);
+		}
+		
+		/**
+		 * Creates indexed field with specified details.
+		 * @param id Id
+		 * @param name Name
+		 * @param type Type
+		 * @return Field
+		 */
+		private ExtensionFieldEntity newField(Long id, String name, ExtensionFieldType type)
+		{
+			ExtensionFieldEntity field = new ExtensionFieldEntity();
+			field.setId(id);
+			field.setName(name);
+			field.setColumnName("FLD" + id);
+			field.setType(type);
+			field.setIndexed(true);
+			
+			return field;
+		}
+		
+		@Override
+		public ExtensionEntity getExtensionEntity(String name)
+		{
+			return EXTENSION_NAME.equals(name) ? extension : null;
+		}
+		
+		@Override
+		public List<ExtensionFieldEntity> getExtensionFields(String extensionName)
+		{
+			return fields;
+		}
+		
+		@Override
+		public String getExtensionName(Object model)
+		{
+			return EXTENSION_NAME;
+		}
+	}
+	
+	/**
+	 * Test entity type.
+	 */
+	private static class TestEntity
+	{}
+	
+	/**
+	 * Responses to be returned by value repository searches, in order.
+	 */
+	private LinkedList<List<Long>> valueSearchResponses = new LinkedList<>();
+	
+	/**
+	 * Values saved into value repository.
+	 */
+	private List<ExtensionFieldValueEntity> savedValues = new ArrayList<>();
+	
+	/**
+	 * Ids to be returned by entity repository.
+	 */
+	private List<Long> candidateIds = new ArrayList<>();
+	
+	/**
+	 * Entity repository used to fetch candidates.
+	 */
+	private IWebutilsRepository<?> entityRepository;
+	
+	/**
+	 * Service being tested.
+	 */
+	private ExtensionFieldValueService service;
+	
+	/**
+	 * Fetches default value of specified method return type, used by proxies.
+	 * @param method Method being invoked
+	 * @return Default value
+	 */
+	private static Object defaultValue(Method method)
+	{
+		if(boolean.class.equals(method.getReturnType()))
+		{
+			return true;
+		}
+		
+		if(int.class.equals(method.getReturnType()))
+		{
+			return 0;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Creates service with stubbed repositories and services.
+	 */
+	@BeforeMethod
+	public void setup() throws Exception
+	{
+		valueSearchResponses.clear();
+		savedValues.clear();
+		candidateIds.clear();
+		
+		IExtensionFieldValueRepository valueRepository = newStub(IExtensionFieldValueRepository.class, (proxy, method, args) -> 
+		{
+			if("searchMatchingEntities".equals(method.getName()))
+			{
+				List<ExtensionFieldValueMatch> matches = new ArrayList<>();
+				
+				for(Long id : valueSearchResponses.removeFirst())
+				{
+					ExtensionFieldValueMatch match = new ExtensionFieldValueMatch();
+					match.setEntityId(id);
+					matches.add(match);
+				}
+				
+				return matches;
+			}
+			
+			if("save".equals(method.getName()))
+			{
+				savedValues.add((ExtensionFieldValueEntity) args[0]);
+			}
+			
+			return defaultValue(method);
+		});
+		
+		entityRepository = newStub(IWebutilsRepository.class, (proxy, method, args) -> 
+		{
+			if("searchIds".equals(method.getName()))
+			{
+				List<EntityIdResult> results = new ArrayList<>();
+				
+				for(Long id : candidateIds)
+				{
+					EntityIdResult result = new EntityIdResult();
+					result.setId(id);
+					results.add(result);
+				}
+				
+				return results;
+			}
+			
+			return defaultValue(method);
+		});
+		
+		ISecurityService securityService = newSecurityService(() -> "testSpace");
+		
+		WebutilsConfiguration configuration = new WebutilsConfiguration();
+		configuration.setExtensionIndexMaxMatches(10);
+		
+		service = new ExtensionFieldValueService();
+		setField(service, "valueRepository", valueRepository);
+		setField(service, "extensionService", new TestExtensionService());
+		setField(service, "securityService", securityService);
+		setField(service, "webutilsConfiguration", configuration);
+	}
+	
+	/**
+	 * Creates list of ids in specified range.
+	 * @param from Starting id (inclusive)
+	 * @param to End id (inclusive)
+	 * @return Id list
+	 */
+	private static List<Long> ids(long from, long to)
+	{
+		List<Long> ids = new ArrayList<>();
+		
+		for(long id = from; id <= to; id++)
+		{
+			ids.add(id);
+		}
+		
+		return ids;
+	}
+	
+	/**
+	 * Ensures broad condition is evaluated against matches of narrower condition, instead of rejecting the request.
+	 */
+	@Test
+	public void testBroadConditionWithNarrowCondition()
+	{
+		// broad amount condition, narrow quantity condition and amount condition evaluated on quantity matches
+		valueSearchResponses.add(ids(1, 11));
+		valueSearchResponses.add(ids(1, 5));
+		valueSearchResponses.add(Arrays.asList(2L, 4L));
+		
+		ExtendedSearchConditions conditions = service.toSearchConditions(TestEntity.class, Arrays.asList(
+					new ExtendedFieldCondition(EXTENSION_NAME, "amount", Operator.GT, "10.5"),
+					new ExtendedFieldCondition(EXTENSION_NAME, "quantity", Operator.LE, "5"),
+					new ExtendedFieldCondition(EXTENSION_NAME, "code", Operator.EQ, "X1")
+				), entityRepository, null);
+		
+		Assert.assertEquals(conditions.getConditions().size(), 1);
+		Assert.assertEquals(conditions.getIdChunks(), Arrays.asList(Arrays.asList(2L, 4L)));
+		Assert.assertFalse(conditions.isChunked());
+		Assert.assertTrue(valueSearchResponses.isEmpty());
+	}
+	
+	/**
+	 * Ensures entities matching regular conditions are used as candidates, when all indexed conditions are broad.
+	 */
+	@Test
+	public void testBroadConditionWithCandidates()
+	{
+		valueSearchResponses.add(ids(1, 11));
+		valueSearchResponses.add(Arrays.asList(3L, 7L));
+		candidateIds.addAll(Arrays.asList(3L, 5L, 7L));
+		
+		ExtendedSearchConditions conditions = service.toSearchConditions(TestEntity.class, Arrays.asList(
+					new ExtendedFieldCondition(EXTENSION_NAME, "amount", Operator.GT, "10.5")
+				), entityRepository, new com.yukthi.persistence.repository.search.SearchQuery());
+		
+		Assert.assertEquals(conditions.getIdChunks(), Arrays.asList(Arrays.asList(3L, 7L)));
+	}
+	
+	/**
+	 * Ensures request is rejected only when neither indexed conditions nor regular conditions are narrow.
+	 */
+	@Test(expectedExceptions = InvalidRequestParameterException.class)
+	public void testBroadConditionRejection()
+	{
+		valueSearchResponses.add(ids(1, 11));
+		candidateIds.addAll(ids(1, 11));
+		
+		service.toSearchConditions(TestEntity.class, Arrays.asList(
+					new ExtendedFieldCondition(EXTENSION_NAME, "amount", Operator.GT, "10.5")
+				), entityRepository, new com.yukthi.persistence.repository.search.SearchQuery());
+	}
+	
+	/**
+	 * Ensures large id sets are split into chunks within database IN list limits.
+	 */
+	@Test
+	public void testIdChunks() throws Exception
+	{
+		WebutilsConfiguration configuration = new WebutilsConfiguration();
+		configuration.setExtensionIndexMaxMatches(5000);
+		setField(service, "webutilsConfiguration", configuration);
+		
+		valueSearchResponses.add(ids(1, 1200));
+		
+		ExtendedSearchConditions conditions = service.toSearchConditions(TestEntity.class, Arrays.asList(
+					new ExtendedFieldCondition(EXTENSION_NAME, "quantity", Operator.GE, "1")
+				), entityRepository, null);
+		
+		Assert.assertTrue(conditions.isChunked());
+		Assert.assertEquals(conditions.getChunkCount(), 3);
+		
+		List<Long> allIds = new ArrayList<>();
+		
+		for(List<Long> chunk : conditions.getIdChunks())
+		{
+			Assert.assertTrue(chunk.size() <= 500);
+			allIds.addAll(chunk);
+		}
+		
+		Assert.assertEquals(allIds, ids(1, 1200));
+	}
+	
+	/**
+	 * Ensures no matches result in single chunk which matches nothing.
+	 */
+	@Test
+	public void testNoMatches()
+	{
+		valueSearchResponses.add(new ArrayList<Long>());
+		
+		ExtendedSearchConditions conditions = service.toSearchConditions(TestEntity.class, Arrays.asList(
+					new ExtendedFieldCondition(EXTENSION_NAME, "quantity", Operator.GE, "1"),
+					new ExtendedFieldCondition(EXTENSION_NAME, "amount", Operator.GE, "1")
+				), entityRepository, null);
+		
+		Assert.assertEquals(conditions.getIdChunks(), Arrays.asList(new ArrayList<Long>()));
+		Assert.assertTrue(valueSearchResponses.isEmpty());
+	}
+	
+	/**
+	 * Ensures decimal values are stored without precision loss.
+	 */
+	@Test
+	public void testDecimalPrecision()
+	{
+		final Map<String, String> values = new HashMap<>();
+		values.put("amount", "12345678901234567.891");
+		values.put("quantity", "42");
+		
+		IExtendableModel model = new IExtendableModel()
+		{
+			@Override
+			public Map<String, String> getExtendedFields()
+			{
+				return values;
+			}
+			
+			@Override
+			public void setExtendedFields(Map<String, String> extendedFieldValues)
+			{}
+			
+			@Override
+			public Long getId()
+			{
+				return 1L;
+			}
+		};
+		
+		service.saveValues(model, TestEntity.class, 1L, "testSpace");
+		
+		Assert.assertEquals(savedValues.size(), 2);
+		Assert.assertEquals(savedValues.get(0).getDecimalValue(), new BigDecimal("12345678901234567.891"));
+		Assert.assertEquals(savedValues.get(1).getLongValue(), Long.valueOf(42));
+	}
+}
@@ -0,0 +1,700 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.yukthi.webutils.services;
+
+import static com.yukthi.webutils.services.ServiceTestUtils.newStub;
+import static com.yukthi.webutils.services.ServiceTestUtils.setField;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.repository.file.FileContentEntity;
+import com.yukthi.webutils.repository.file.IFileContentRepository;
+import com.yukthi.webutils.repository.file.IFileContentStore;
+import com.yukthi.webutils.repository.file.IFileRepository;
+
+/**
+ * Tests acquire, release and sweep of shared file contents, including their concurrent execution.
+ * @author akiran
+ */
+public class TFileContentService
+{
+	/**
+	 * Hash of the content used by tests.
+	 */
+	private static final String CONTENT_HASH = "testHash";
+	
+	/**
+	 * In memory database, simulating row locks held till commit and file rows visible only after commit. Statements
+	 * executed outside {@link #begin()} and {@link #commit()} are committed immediately, like sweep statements.
+	 */
+	private static class FakeDatabase
+	{
+		/**
+		 * Content records by id.
+		 */
+		private Map<Long, FileContentEntity> contents = new HashMap<>();
+		
+		/**
+		 * Committed file records, mapping file id to content key.
+		 */
+		private Map<Long, String> files = new HashMap<>();
+		
+		/**
+		 * Threads holding locks on content records, by content id.
+		 */
+		private Map<Long, Thread> rowLocks = new HashMap<>();
+		
+		/**
+		 * File changes to be applied on commit, by thread.
+		 */
+		private Map<Thread, List<Runnable>> pendingChanges = new HashMap<>();
+		
+		/**
+		 * Id to be used for next record.
+		 */
+		private long nextId = 1;
+		
+		/**
+		 * Action to be executed after contents are fetched by hash, used to simulate concurrent changes.
+		 */
+		private Runnable afterFindByHash;
+		
+		/**
+		 * Action to be executed after references are counted, used to simulate concurrent changes.
+		 */
+		private Runnable afterCount;
+		
+		/**
+		 * Number of queries executed to count references.
+		 */
+		private int referenceQueries;
+		
+		/**
+		 * Starts transaction for current thread.
+		 */
+		private synchronized void begin()
+		{
+			pendingChanges.put(Thread.currentThread(), new ArrayList<>());
+		}
+		
+		/**
+		 * Applies file changes of current thread and releases its locks.
+		 */
+		private synchronized void commit()
+		{
+			pendingChanges.remove(Thread.currentThread()).forEach(Runnable::run);
+			rowLocks.values().removeIf(thread -> thread == Thread.currentThread());
+			
+			notifyAll();
+		}
+		
+		/**
+		 * Waits till specified content record is not locked by other threads. And locks it for current thread, if
+		 * current thread is within a transaction.
+		 * @param id Content id
+		 */
+		private void lockRow(long id) throws InterruptedException
+		{
+			Thread owner = null;
+			
+			while((owner = rowLocks.get(id)) != null && owner != Thread.currentThread())
+			{
+				wait();
+			}
+			
+			if(pendingChanges.containsKey(Thread.currentThread()))
+			{
+				rowLocks.put(id, Thread.currentThread());
+			}
+		}
+		
+		/**
+		 * Adds file record referring to specified content, as part of current transaction.
+		 * @param contentKey Content key
+		 * @return Id of the file
+		 */
+		private synchronized long addFile(String contentKey)
+		{
+			long id = nextId++;
+			
+			pendingChanges.get(Thread.currentThread()).add(() -> files.put(id, contentKey));
+			return id;
+		}
+		
+		/**
+		 * Removes specified file record, as part of current transaction.
+		 * @param id Id of the file
+		 */
+		private synchronized void removeFile(long id)
+		{
+			pendingChanges.get(Thread.currentThread()).add(() -> files.remove(id));
+		}
+		
+		/**
+		 * Fetches content key of specified committed file.
+		 * @param id Id of the file
+		 * @return Content key of the file
+		 */
+		private synchronized String getContentKey(long id)
+		{
+			return files.get(id);
+		}
+		
+		/**
+		 * Fetches content keys referred by committed files.
+		 * @return Referred content keys
+		 */
+		private synchronized Set<String> referredKeys()
+		{
+			return new HashSet<>(files.values());
+		}
+		
+		/**
+		 * Fetches content record with specified key.
+		 * @param contentKey Content key
+		 * @return Matching record, if any
+		 */
+		private FileContentEntity findByKey(String contentKey)
+		{
+			return contents.values().stream().filter(content -> contentKey.equals(content.getContentKey())).findFirst().orElse(null);
+		}
+		
+		/**
+		 * Executes specified content repository method.
+		 * @param name Method name
+		 * @param args Method arguments
+		 * @return Method result
+		 */
+		private synchronized Object execute(String name, Object args[]) throws InterruptedException
+		{
+			FileContentEntity content = null;
+			
+			switch(name)
+			{
+				case "findByContentHash":
+				{
+					List<FileContentEntity> result = new ArrayList<>();
+					
+					for(FileContentEntity entity : contents.values())
+					{
+						if(args[0].equals(entity.getContentHash()))
+						{
+							result.add(copy(entity));
+						}
+					}
+					
+					if(afterFindByHash != null)
+					{
+						afterFindByHash.run();
+						afterFindByHash = null;
+					}
+					
+					return result;
+				}
+				case "findByContentKey":
+				{
+					content = findByKey((String) args[0]);
+					return (content != null) ? copy(content) : null;
+				}
+				case "searchContents":
+				{
+					List<FileContentEntity> result = new ArrayList<>();
+					
+					for(FileContentEntity entity : contents.values())
+					{
+						if(entity.getReleasedOn() != null)
+						{
+							result.add(copy(entity));
+						}
+					}
+					
+					return result;
+				}
+				case "save":
+				{
+					content = copy((FileContentEntity) args[0]);
+					content.setId(nextId++);
+					
+					contents.put(content.getId(), content);
+					lockRow(content.getId());
+					return true;
+				}
+				case "updateReleasedOn":
+				{
+					lockRow((Long) args[0]);
+					content = contents.get(args[0]);
+					break;
+				}
+				case "updateReleasedOnByKey":
+				{
+					content = findByKey((String) args[0]);
+					
+					if(content != null)
+					{
+						lockRow(content.getId());
+						content = contents.get(content.getId());
+					}
+					
+					break;
+				}
+				case "clearReleasedOn":
+				{
+					lockRow((Long) args[0]);
+					content = contents.get(args[0]);
+					
+					if(content == null || !args[1].equals(content.getReleasedOn()))
+					{
+						return false;
+					}
+					
+					content.setReleasedOn(null);
+					return true;
+				}
+				case "deleteReleased":
+				{
+					lockRow((Long) args[0]);
+					content = contents.get(args[0]);
+					
+					if(content == null || content.getReleasedOn() == null || !content.getReleasedOn().before((Date) args[1]))
+					{
+						return 0;
+					}
+					
+					contents.remove(args[0]);
+					return 1;
+				}
+				default:
+				{
+					throw new UnsupportedOperationException(name);
+				}
+			}
+			
+			//update release time of content found by update methods
+			if(content == null)
+			{
+				return false;
+			}
+			
+			content.setReleasedOn((Date) args[1]);
+			return true;
+		}
+		
+		/**
+		 * Fetches content keys of committed files referring to specified contents, once per file. Yields after 
+		 * fetching, to let other threads modify the contents before the references are used.
+		 * @param contentKeys Content keys
+		 * @return Content keys of referring files
+		 */
+		private List<String> fetchReferredContentKeys(Collection<String> contentKeys) throws InterruptedException
+		{
+			List<String> referredKeys = null;
+			
+			synchronized(this)
+			{
+				referenceQueries++;
+				referredKeys = files.values().stream().filter(contentKeys::contains).collect(Collectors.toList());
+			}
+			
+			if(afterCount != null)
+			{
+				afterCount.run();
+				afterCount = null;
+			}
+			
+			Thread.yield();
+			return referredKeys;
+		}
+	}
+	
+	/**
+	 * Copies specified content record.
+	 * @param content Record to copy
+	 * @return Copy
+	 */
+	private static FileContentEntity copy(FileContentEntity content)
+	{
+		FileContentEntity copy = new FileContentEntity(content.getContentHash(), content.getContentKey(), content.getSizeInBytes());
+		copy.setId(content.getId());
+		copy.setReleasedOn(content.getReleasedOn());
+		
+		return copy;
+	}
+	
+	/**
+	 * Database being used.
+	 */
+	private FakeDatabase database;
+	
+	/**
+	 * Keys of contents present in content store.
+	 */
+	private Set<String> storedKeys;
+	
+	/**
+	 * Service being tested.
+	 */
+	private FileContentService service;
+	
+	/**
+	 * Dummy file used as content.
+	 */
+	private File content = new File("test-content");
+	
+	/**
+	 * Creates service with in memory repositories and content store.
+	 */
+	@BeforeMethod
+	@SuppressWarnings("unchecked")
+	public void setup() throws Exception
+	{
+		database = new FakeDatabase();
+		storedKeys = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		
+		IFileContentRepository repository = newStub(IFileContentRepository.class, (proxy, method, args) -> database.execute(method.getName(), args));
+		
+		IFileRepository fileRepository = newStub(IFileRepository.class, (proxy, method, args) -> 
+		{
+			if("fetchReferredContentKeys".equals(method.getName()))
+			{
+				return database.fetchReferredContentKeys((Collection<String>) args[0]);
+			}
+			
+			throw new UnsupportedOperationException(method.getName());
+		});
+		
+		IFileContentStore contentStore = new IFileContentStore()
+		{
+			@Override
+			public String store(File content)
+			{
+				String contentKey = UUID.randomUUID().toString();
+				storedKeys.add(contentKey);
+				
+				return contentKey;
+			}
+			
+			@Override
+			public File fetch(String contentKey)
+			{
+				return storedKeys.contains(contentKey) ? new File(contentKey) : null;
+			}
+			
+			@Override
+			public boolean delete(String contentKey)
+			{
+				return storedKeys.remove(contentKey);
+			}
+		};
+		
+		WebutilsConfiguration configuration = new WebutilsConfiguration();
+		configuration.setFileContentGcGraceMinutes(0);
+		
+		service = new FileContentService();
+		setField(service, "repository", repository);
+		setField(service, "fileRepository", fileRepository);
+		setField(service, "contentStore", contentStore);
+		setField(service, "webutilsConfiguration", configuration);
+	}
+	
+	/**
+	 * Acquires content and saves file referring to it, in single transaction.
+	 * @return Id of the saved file
+	 */
+	private long saveFile()
+	{
+		return saveFile(CONTENT_HASH);
+	}
+	
+	/**
+	 * Acquires content with specified hash and saves file referring to it, in single transaction.
+	 * @param contentHash Hash of the content
+	 * @return Id of the saved file
+	 */
+	private long saveFile(String contentHash)
+	{
+		database.begin();
+		long fileId = database.addFile(service.acquire(content, contentHash, 10));
+		database.commit();
+		
+		return fileId;
+	}
+	
+	/**
+	 * Deletes specified file and releases its content, in single transaction.
+	 * @param fileId Id of the file
+	 * @param contentKey Content key of the file
+	 */
+	private void deleteFile(long fileId, String contentKey)
+	{
+		database.begin();
+		database.removeFile(fileId);
+		service.release(Arrays.asList(contentKey));
+		database.commit();
+	}
+	
+	/**
+	 * Sleeps for specified time, ignoring interruption.
+	 * @param millis Time to sleep in millis
+	 */
+	private static void sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		} catch(InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Waits for clock to move, so that contents released till now are older than sweep cutoff.
+	 */
+	private static void waitForClock()
+	{
+		sleep(5);
+	}
+	
+	/**
+	 * Ensures same content is stored once and is removed by sweep only after last file referring to it is deleted.
+	 */
+	@Test
+	public void testSharedContentLifecycle() throws Exception
+	{
+		long file1 = saveFile();
+		long file2 = saveFile();
+		String contentKey = database.getContentKey(file1);
+		
+		Assert.assertEquals(database.getContentKey(file2), contentKey);
+		Assert.assertEquals(storedKeys, Collections.singleton(contentKey));
+		
+		deleteFile(file1, contentKey);
+		Assert.assertTrue(storedKeys.contains(contentKey), "Content is deleted on release");
+		
+		//content is still referred, sweep should retain it and clear its release time
+		waitForClock();
+		Assert.assertEquals(service.collectGarbage(), 0);
+		Assert.assertNull(database.findByKey(contentKey).getReleasedOn());
+		
+		deleteFile(file2, contentKey);
+		waitForClock();
+		
+		Assert.assertEquals(service.collectGarbage(), 1);
+		Assert.assertTrue(storedKeys.isEmpty());
+		Assert.assertNull(database.findByKey(contentKey));
+	}
+	
+	/**
+	 * Ensures content stored before deduplication is recorded on release and removed by sweep.
+	 */
+	@Test
+	public void testReleaseOfContentWithoutRecord() throws Exception
+	{
+		String contentKey = "preDedupKey";
+		storedKeys.add(contentKey);
+		
+		database.begin();
+		service.release(Arrays.asList(contentKey));
+		database.commit();
+		
+		Assert.assertTrue(storedKeys.contains(contentKey), "Content is deleted on release");
+		Assert.assertNotNull(database.findByKey(contentKey).getReleasedOn());
+		Assert.assertNull(database.findByKey(contentKey).getContentHash());
+		
+		waitForClock();
+		Assert.assertEquals(service.collectGarbage(), 1);
+		Assert.assertFalse(storedKeys.contains(contentKey));
+	}
+	
+	/**
+	 * Ensures content removed by sweep after it was read by acquire, is stored again instead of being reused.
+	 */
+	@Test
+	public void testAcquireOfRemovedContent() throws Exception
+	{
+		long fileId = saveFile();
+		String contentKey = database.getContentKey(fileId);
+		
+		deleteFile(fileId, contentKey);
+		
+		//remove the content after acquire reads it, as a concurrent sweep would do
+		database.afterFindByHash = () -> 
+		{
+			database.contents.clear();
+			storedKeys.remove(contentKey);
+		};
+		
+		String newKey = database.getContentKey(saveFile());
+		
+		Assert.assertNotEquals(newKey, contentKey);
+		Assert.assertEquals(storedKeys, Collections.singleton(newKey));
+		Assert.assertNull(database.findByKey(newKey).getReleasedOn());
+	}
+	
+	/**
+	 * Ensures sweep counts references of a batch of released contents with single query, retaining referred
+	 * contents and removing unreferenced ones.
+	 */
+	@Test
+	public void testSweepReferenceCountInBatch() throws Exception
+	{
+		long sharedFileId = saveFile("hash1");
+		saveFile("hash1");
+		long fileId = saveFile("hash2");
+		
+		String sharedKey = database.getContentKey(sharedFileId);
+		String contentKey = database.getContentKey(fileId);
+		
+		deleteFile(sharedFileId, sharedKey);
+		deleteFile(fileId, contentKey);
+		waitForClock();
+		
+		Assert.assertEquals(service.collectGarbage(), 1);
+		Assert.assertEquals(database.referenceQueries, 1);
+		
+		Assert.assertEquals(storedKeys, Collections.singleton(sharedKey));
+		Assert.assertNull(database.findByKey(sharedKey).getReleasedOn());
+	}
+	
+	/**
+	 * Ensures content acquired after sweep counted its references (as zero), is not removed by the sweep.
+	 */
+	@Test
+	public void testSweepOfContentAcquiredAfterCount() throws Exception
+	{
+		long fileId = saveFile();
+		String contentKey = database.getContentKey(fileId);
+		
+		deleteFile(fileId, contentKey);
+		waitForClock();
+		
+		long newFileIds[] = {0};
+		database.afterCount = () -> newFileIds[0] = saveFile();
+		
+		Assert.assertEquals(service.collectGarbage(), 0);
+		
+		Assert.assertEquals(database.getContentKey(newFileIds[0]), contentKey);
+		Assert.assertTrue(storedKeys.contains(contentKey), "Acquired content is removed");
+		Assert.assertNull(database.findByKey(contentKey).getReleasedOn());
+	}
+	
+	/**
+	 * Executes acquire, release and sweep concurrently and ensures content referred by committed files is never
+	 * removed, and that all unreferenced contents are removed by final sweep.
+	 */
+	@Test
+	public void testConcurrentAcquireReleaseAndSweep() throws Exception
+	{
+		int workerCount = 6, iterations = 200;
+		ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+		AtomicBoolean workersRunning = new AtomicBoolean(true);
+		
+		long retainedFileId = saveFile();
+		String retainedKey = database.getContentKey(retainedFileId);
+		
+		List<Thread> workers = new ArrayList<>();
+		
+		for(int i = 0; i < workerCount; i++)
+		{
+			//few workers share the content, others use own content which often becomes unreferenced
+			String contentHash = (i % 3 == 0) ? CONTENT_HASH : CONTENT_HASH + i;
+			
+			workers.add(new Thread(() -> 
+			{
+				for(int j = 0; j < iterations; j++)
+				{
+					long fileId = saveFile(contentHash);
+					String contentKey = database.getContentKey(fileId);
+					
+					if(!storedKeys.contains(contentKey))
+					{
+						failures.add("Content of saved file is missing - " + contentKey);
+					}
+					
+					deleteFile(fileId, contentKey);
+					
+					//let released content age beyond sweep cutoff at times
+					if(j % 3 == 0)
+					{
+						sleep(2);
+					}
+				}
+			}));
+		}
+		
+		Thread sweeper = new Thread(() -> 
+		{
+			while(workersRunning.get())
+			{
+				service.collectGarbage();
+				
+				for(String contentKey : database.referredKeys())
+				{
+					if(!storedKeys.contains(contentKey))
+					{
+						failures.add("Content of committed file is removed - " + contentKey);
+					}
+				}
+			}
+		});
+		
+		sweeper.start();
+		workers.forEach(Thread::start);
+		
+		for(Thread worker : workers)
+		{
+			worker.join();
+		}
+		
+		workersRunning.set(false);
+		sweeper.join();
+		
+		Assert.assertTrue(failures.isEmpty(), "Failures: " + failures);
+		
+		waitForClock();
+		service.collectGarbage();
+		
+		Assert.assertEquals(database.referredKeys(), Collections.singleton(retainedKey));
+		Assert.assertEquals(storedKeys, Collections.singleton(retainedKey));
+	}
+}
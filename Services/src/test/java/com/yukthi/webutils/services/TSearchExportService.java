@@ -0,0 +1,586 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import static com.yukthi.webutils.services.ServiceTestUtils.newSecurityService;
+import static com.yukthi.webutils.services.ServiceTestUtils.newStub;
+import static com.yukthi.webutils.services.ServiceTestUtils.setField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.yukthi.webutils.InvalidRequestParameterException;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.common.ExportFormat;
+import com.yukthi.webutils.common.FileInfo;
+import com.yukthi.webutils.common.models.search.ExtendedFieldCondition;
+import com.yukthi.webutils.common.models.search.SearchExportJobResponse;
+import com.yukthi.webutils.common.models.search.SearchExportJobStatus;
+import com.yukthi.webutils.repository.search.ISearchExportJobRepository;
+import com.yukthi.webutils.repository.search.SearchExportJobEntity;
+import com.yukthi.webutils.security.ISecurityService;
+import com.yukthi.webutils.security.UnauthorizedException;
+import com.yukthi.webutils.security.UserDetails;
+import com.yukthi.webutils.services.job.IJob;
+import com.yukthi.webutils.services.job.JobService;
+import com.yukthi.webutils.services.search.ISearchExportWriter;
+import com.yukthi.webutils.services.search.SearchExportStatistics;
+
+/**
+ * Tests concurrency limits, expiry and status access of asynchronous search exports.
+ * @author akiran
+ */
+public class TSearchExportService
+{
+	/**
+	 * In memory export job repository.
+	 */
+	private class JobRepository
+	{
+		/**
+		 * Persisted jobs.
+		 */
+		private List<SearchExportJobEntity> jobs = new ArrayList<>();
+		
+		/**
+		 * Id to be used for next job.
+		 */
+		private long nextId = 1;
+		
+		/**
+		 * Action to be executed after a job is saved, used to simulate submissions on other nodes.
+		 */
+		private Runnable afterSave;
+		
+		/**
+		 * Fetches job with specified job id.
+		 * @param jobId Job id
+		 * @return Matching job, null if not found
+		 */
+		private SearchExportJobEntity find(String jobId)
+		{
+			return jobs.stream().filter(job -> job.getJobId().equals(jobId)).findFirst().orElse(null);
+		}
+		
+		/**
+		 * Executes specified repository method on in memory jobs.
+		 * @param method Method name
+		 * @param args Method arguments
+		 * @return Result of the method
+		 */
+		@SuppressWarnings("unchecked")
+		private Object execute(String method, Object args[])
+		{
+			SearchExportJobEntity job = null;
+			
+			switch(method)
+			{
+				case "save":
+				{
+					job = (SearchExportJobEntity) args[0];
+					job.setId(nextId++);
+					jobs.add(job);
+					
+					if(afterSave != null)
+					{
+						Runnable action = afterSave;
+						afterSave = null;
+						action.run();
+					}
+					
+					return true;
+				}
+				case "findByJobId":
+					return find((String) args[0]);
+				case "countByStatus":
+					return (int) jobs.stream().filter(entity -> ((Collection<?>) args[0]).contains(entity.getStatus())).count();
+				case "countBySpaceAndStatus":
+					return (int) jobs.stream().filter(entity -> entity.getSpaceIdentity().equals(args[0]) 
+							&& ((Collection<?>) args[1]).contains(entity.getStatus())).count();
+				case "deleteById":
+					return jobs.removeIf(entity -> entity.getId().equals(args[0]));
+				case "updateStarted":
+				{
+					job = find((String) args[0]);
+					
+					if(job == null || job.getStatus() != args[1])
+					{
+						return false;
+					}
+					
+					job.setStatus((SearchExportJobStatus) args[2]);
+					job.setStartedOn((Date) args[3]);
+					job.setHeartbeatOn((Date) args[4]);
+					return true;
+				}
+				case "updateProgress":
+				{
+					job = find((String) args[0]);
+					
+					if(job == null || job.getStatus() != args[1])
+					{
+						return false;
+					}
+					
+					job.setRowsDone((Long) args[2]);
+					job.setTotalRows((Long) args[3]);
+					job.setHeartbeatOn((Date) args[4]);
+					return true;
+				}
+				case "updateFinished":
+				{
+					job = find((String) args[0]);
+					
+					if(job == null || job.getStatus() != args[1])
+					{
+						return false;
+					}
+					
+					job.setStatus((SearchExportJobStatus) args[2]);
+					job.setRowsDone((Long) args[3]);
+					job.setFileId((Long) args[4]);
+					job.setErrorMessage((String) args[5]);
+					job.setFinishedOn((Date) args[6]);
+					return true;
+				}
+				case "expireAbandoned":
+				{
+					int count = 0;
+					
+					for(SearchExportJobEntity entity : jobs)
+					{
+						if(((Collection<SearchExportJobStatus>) args[0]).contains(entity.getStatus()) && entity.getHeartbeatOn().before((Date) args[1]))
+						{
+							entity.setStatus((SearchExportJobStatus) args[2]);
+							entity.setErrorMessage((String) args[3]);
+							entity.setFinishedOn((Date) args[4]);
+							count++;
+						}
+					}
+					
+					return count;
+				}
+				default:
+					throw new UnsupportedOperationException(method);
+			}
+		}
+	}
+	
+	/**
+	 * Job service which records submitted jobs, instead of executing them.
+	 */
+	private static class RecordingJobService extends JobService
+	{
+		/**
+		 * Data of submitted jobs.
+		 */
+		private List<Object> submittedJobs = new ArrayList<>();
+		
+		@Override
+		public void submitJob(String name, Class<? extends IJob> jobClass, Object jobData)
+		{
+			submittedJobs.add(jobData);
+		}
+	}
+	
+	/**
+	 * Search service with fixed results.
+	 */
+	private static class TestSearchService extends SearchService
+	{
+		/**
+		 * Action to be executed while counting, used to simulate changes during export.
+		 */
+		private Runnable duringCount;
+		
+		/**
+		 * Extended conditions received by count.
+		 */
+		private List<ExtendedFieldCondition> countConditions;
+		
+		/**
+		 * Extended conditions received by export.
+		 */
+		private List<ExtendedFieldCondition> exportConditions;
+		
+		@Override
+		public long countSearch(String searchQueryName, Object query, List<ExtendedFieldCondition> extendedConditions)
+		{
+			countConditions = extendedConditions;
+			
+			if(duringCount != null)
+			{
+				duringCount.run();
+			}
+			
+			return 0;
+		}
+		
+		@Override
+		public SearchExportStatistics exportSearch(String searchQueryName, Object query, List<ExtendedFieldCondition> extendedConditions, 
+				ISearchExportWriter exportWriter)
+		{
+			exportConditions = extendedConditions;
+			return new SearchExportStatistics(searchQueryName, 0, 0, 0);
+		}
+	}
+	
+	/**
+	 * File service which records saved and deleted files, instead of hitting db.
+	 */
+	private static class RecordingFileService extends FileService
+	{
+		/**
+		 * Ids of files saved.
+		 */
+		private List<Long> savedFiles = new ArrayList<>();
+		
+		/**
+		 * Ids of files deleted.
+		 */
+		private List<Long> deletedFiles = new ArrayList<>();
+		
+		@Override
+		public Long save(FileInfo file, Class<?> ownerEntityType, String ownerEntityField, long ownerEntityId)
+		{
+			Long id = 100L + savedFiles.size();
+			savedFiles.add(id);
+			return id;
+		}
+		
+		@Override
+		public boolean delete(Long id)
+		{
+			deletedFiles.add(id);
+			return true;
+		}
+	}
+	
+	/**
+	 * Service being tested.
+	 */
+	private SearchExportService service;
+	
+	/**
+	 * Repository used by the service.
+	 */
+	private JobRepository repository;
+	
+	/**
+	 * Job service used by the service.
+	 */
+	private RecordingJobService jobService;
+	
+	/**
+	 * Search service used by the service.
+	 */
+	private TestSearchService searchService;
+	
+	/**
+	 * File service used by the service.
+	 */
+	private RecordingFileService fileService;
+	
+	/**
+	 * Space of current user.
+	 */
+	private String userSpace;
+	
+	/**
+	 * Id of current user.
+	 */
+	private long userId;
+	
+	/**
+	 * Creates service with in memory repository and recording services.
+	 */
+	@BeforeMethod
+	public void setup() throws Exception
+	{
+		repository = new JobRepository();
+		jobService = new RecordingJobService();
+		searchService = new TestSearchService();
+		fileService = new RecordingFileService();
+		userSpace = "space1";
+		userId = 1;
+		
+		WebutilsConfiguration configuration = new WebutilsConfiguration();
+		configuration.getSearchConfiguration().setAsyncExportMaxPerSpace(1);
+		configuration.getSearchConfiguration().setAsyncExportMaxRunning(2);
+		configuration.getSearchConfiguration().setAsyncExportStaleMinutes(10);
+		
+		ISecurityService securityService = newSecurityService(() -> userSpace);
+		
+		CurrentUserService currentUserService = new CurrentUserService()
+		{
+			@Override
+			public UserDetails getCurrentUserDetails()
+			{
+				return new UserDetails(userId);
+			}
+		};
+		
+		service = new SearchExportService();
+		setField(service, "repository", newStub(ISearchExportJobRepository.class, (proxy, method, args) -> repository.execute(method.getName(), args)));
+		setField(service, "jobService", jobService);
+		setField(service, "searchService", searchService);
+		setField(service, "fileService", fileService);
+		setField(service, "securityService", securityService);
+		setField(service, "currentUserService", currentUserService);
+		setField(service, "webutilsConfiguration", configuration);
+	}
+	
+	/**
+	 * Submits export of test query in current user space.
+	 * @return Id of submitted job
+	 */
+	private String submit()
+	{
+		return service.submitExport("testQuery", null, null, ExportFormat.CSV).getJobId();
+	}
+	
+	/**
+	 * Ensures submission fails with limit error and does not leave a persisted job.
+	 */
+	private void assertRejected()
+	{
+		int count = repository.jobs.size();
+		
+		try
+		{
+			submit();
+			Assert.fail("Export is submitted beyond concurrency limit");
+		}catch(InvalidRequestParameterException ex)
+		{
+			Assert.assertEquals(repository.jobs.size(), count);
+		}
+	}
+	
+	/**
+	 * Ensures extended conditions of submitted export are applied while counting and exporting the results.
+	 */
+	@Test
+	public void testExtendedConditions()
+	{
+		List<ExtendedFieldCondition> conditions = Arrays.asList(new ExtendedFieldCondition());
+		String jobId = service.submitExport("testQuery", null, conditions, ExportFormat.CSV).getJobId();
+		
+		service.runExport(jobId);
+		
+		Assert.assertEquals(repository.find(jobId).getStatus(), SearchExportJobStatus.COMPLETED);
+		Assert.assertSame(searchService.countConditions, conditions);
+		Assert.assertSame(searchService.exportConditions, conditions);
+	}
+	
+	/**
+	 * Ensures concurrent exports are limited per space and overall, and finished exports release their slots.
+	 */
+	@Test
+	public void testConcurrencyLimits()
+	{
+		String jobId = submit();
+		Assert.assertEquals(repository.find(jobId).getStatus(), SearchExportJobStatus.QUEUED);
+		Assert.assertEquals(jobService.submittedJobs, Arrays.asList(jobId));
+		
+		//space limit
+		assertRejected();
+		
+		userSpace = "space2";
+		submit();
+		
+		//overall limit
+		userSpace = "space3";
+		assertRejected();
+		
+		userSpace = "space1";
+		service.runExport(jobId);
+		Assert.assertEquals(repository.find(jobId).getStatus(), SearchExportJobStatus.COMPLETED);
+		
+		userSpace = "space3";
+		submit();
+	}
+	
+	/**
+	 * Ensures export registered concurrently by other node, after limits are checked, is accounted and 
+	 * current submission is rejected.
+	 */
+	@Test
+	public void testConcurrentSubmissionOnOtherNode()
+	{
+		repository.afterSave = () -> 
+		{
+			SearchExportJobEntity otherJob = new SearchExportJobEntity();
+			otherJob.setJobId("otherNodeJob");
+			otherJob.setSpaceIdentity(userSpace);
+			otherJob.setStatus(SearchExportJobStatus.QUEUED);
+			otherJob.setHeartbeatOn(new Date());
+			
+			repository.execute("save", new Object[] {otherJob});
+		};
+		
+		try
+		{
+			submit();
+			Assert.fail("Export is submitted beyond concurrency limit");
+		}catch(InvalidRequestParameterException ex)
+		{
+			//expected
+		}
+		
+		Assert.assertEquals(repository.jobs.size(), 1);
+		Assert.assertEquals(repository.jobs.get(0).getJobId(), "otherNodeJob");
+		Assert.assertTrue(jobService.submittedJobs.isEmpty());
+	}
+	
+	/**
+	 * Ensures exports without heartbeat for stale time are expired, releasing their slots, and are not executed
+	 * later.
+	 */
+	@Test
+	public void testExpiryOfQueuedExport()
+	{
+		String jobId = submit();
+		repository.find(jobId).setHeartbeatOn(new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(11)));
+		
+		//expires abandoned export, before checking limits
+		submit();
+		Assert.assertEquals(repository.find(jobId).getStatus(), SearchExportJobStatus.FAILED);
+		
+		service.runExport(jobId);
+		Assert.assertEquals(repository.find(jobId).getStatus(), SearchExportJobStatus.FAILED);
+		Assert.assertNull(repository.find(jobId).getStartedOn());
+		Assert.assertTrue(fileService.savedFiles.isEmpty());
+	}
+	
+	/**
+	 * Ensures export expired while running is stopped and its expired status is retained.
+	 */
+	@Test
+	public void testExpiryOfRunningExport()
+	{
+		String jobId = submit();
+		
+		searchService.duringCount = () -> 
+		{
+			SearchExportJobEntity job = repository.find(jobId);
+			job.setHeartbeatOn(new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(11)));
+			
+			//expiry by other submission
+			userSpace = "space2";
+			submit();
+		};
+		
+		service.runExport(jobId);
+		
+		SearchExportJobEntity job = repository.find(jobId);
+		Assert.assertEquals(job.getStatus(), SearchExportJobStatus.FAILED);
+		Assert.assertEquals(job.getErrorMessage(), "Export is abandoned, as no progress is made for long time");
+		Assert.assertTrue(fileService.savedFiles.isEmpty());
+	}
+	
+	/**
+	 * Ensures file of export expired just before finishing is removed and expired status is retained.
+	 */
+	@Test
+	public void testExpiryBeforeFinish() throws Exception
+	{
+		String jobId = submit();
+		
+		fileService = new RecordingFileService()
+		{
+			@Override
+			public Long save(FileInfo file, Class<?> ownerEntityType, String ownerEntityField, long ownerEntityId)
+			{
+				repository.find(jobId).setStatus(SearchExportJobStatus.FAILED);
+				return super.save(file, ownerEntityType, ownerEntityField, ownerEntityId);
+			}
+		};
+		
+		setField(service, "fileService", fileService);
+		
+		service.runExport(jobId);
+		
+		Assert.assertEquals(repository.find(jobId).getStatus(), SearchExportJobStatus.FAILED);
+		Assert.assertNull(repository.find(jobId).getFileId());
+		Assert.assertEquals(fileService.deletedFiles, fileService.savedFiles);
+		Assert.assertEquals(fileService.deletedFiles.size(), 1);
+	}
+	
+	/**
+	 * Ensures status is accessible only to the submitter.
+	 */
+	@Test
+	public void testStatus()
+	{
+		String jobId = submit();
+		service.runExport(jobId);
+		
+		SearchExportJobResponse response = service.getStatus(jobId);
+		Assert.assertEquals(response.getStatus(), SearchExportJobStatus.COMPLETED);
+		Assert.assertEquals(response.getFileId(), Long.valueOf(100));
+		Assert.assertEquals(response.getEtaMillis(), 0L);
+		
+		//other user of same space
+		userId = 2;
+		
+		try
+		{
+			service.getStatus(jobId);
+			Assert.fail("Status is accessible to other user");
+		}catch(UnauthorizedException ex)
+		{
+			//expected
+		}
+		
+		//same user id from other space
+		userId = 1;
+		userSpace = "space2";
+		
+		try
+		{
+			service.getStatus(jobId);
+			Assert.fail("Status is accessible from other space");
+		}catch(UnauthorizedException ex)
+		{
+			//expected
+		}
+		
+		try
+		{
+			service.getStatus("unknown");
+			Assert.fail("Status is returned for unknown job");
+		}catch(InvalidRequestParameterException ex)
+		{
+			//expected
+		}
+	}
+}
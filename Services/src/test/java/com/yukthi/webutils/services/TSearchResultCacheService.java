@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services;
+
+import static com.yukthi.webutils.services.ServiceTestUtils.newStub;
+import static com.yukthi.webutils.services.ServiceTestUtils.setField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.yukthi.utils.exceptions.InvalidStateException;
+import com.yukthi.webutils.WebutilsConfiguration;
+import com.yukthi.webutils.common.models.search.ExecuteSearchResponse;
+import com.yukthi.webutils.repository.ISearchCacheVersionRepository;
+import com.yukthi.webutils.utils.LruCache;
+
+/**
+ * Tests invalidation of cached search results within nested transaction scopes and named versions.
+ * @author akiran
+ */
+public class TSearchResultCacheService
+{
+	/**
+	 * Service being tested.
+	 */
+	private SearchResultCacheService service;
+	
+	/**
+	 * Entity types whose version stamp was updated, in order of update.
+	 */
+	private List<String> stampUpdates;
+	
+	/**
+	 * Version stamps in database.
+	 */
+	private Map<String, Long> stamps;
+	
+	/**
+	 * Configuration used by service.
+	 */
+	private WebutilsConfiguration configuration;
+	
+	/**
+	 * Creates service with in memory version repository.
+	 */
+	@BeforeMethod
+	public void setup() throws Exception
+	{
+		stampUpdates = new ArrayList<>();
+		stamps = new HashMap<>();
+		configuration = new WebutilsConfiguration();
+		
+		ISearchCacheVersionRepository repository = newStub(ISearchCacheVersionRepository.class, (proxy, method, args) -> 
+		{
+			if("fetchStamp".equals(method.getName()))
+			{
+				return stamps.get(args[0]);
+			}
+			
+			if("updateStamp".equals(method.getName()))
+			{
+				stampUpdates.add((String) args[0]);
+				stamps.put((String) args[0], (Long) args[1]);
+				return true;
+			}
+			
+			throw new UnsupportedOperationException(method.getName());
+		});
+		
+		service = new SearchResultCacheService();
+		setField(service, "webutilsConfiguration", configuration);
+		setField(service, "searchCacheVersionRepository", repository);
+		setField(service, "cache", new LruCache<String, byte[]>("test", 10));
+	}
+	
+	/**
+	 * Caches an empty response for specified query key, with current generation.
+	 * @param queryKey Query key
+	 */
+	private void cache(String queryKey)
+	{
+		long generation = service.getGeneration(String.class);
+		Assert.assertTrue(service.put(String.class, queryKey, new ExecuteSearchResponse(), 60000, generation));
+	}
+	
+	/**
+	 * Ensures invalidation outside of transaction scope is done immediately.
+	 */
+	@Test
+	public void testInvalidateWithoutScope()
+	{
+		cache("query");
+		service.invalidate(String.class);
+		
+		Assert.assertNull(service.get(String.class, "query"));
+		Assert.assertEquals(stampUpdates, Arrays.asList(String.class.getName()));
+	}
+	
+	/**
+	 * Ensures invalidations within nested scopes drop local results immediately and are repeated,
+	 * along with stamp update, only when outermost scope ends.
+	 */
+	@Test
+	public void testInvalidateWithinNestedScopes()
+	{
+		cache("query");
+		
+		service.beginTransaction();
+		service.beginTransaction();
+		
+		long generation = service.getGeneration(String.class);
+		service.invalidate(String.class);
+		
+		//results being cached during invalidation are dropped
+		Assert.assertFalse(service.put(String.class, "query", new ExecuteSearchResponse(), 60000, generation));
+		Assert.assertNull(service.get(String.class, "query"));
+		
+		service.endTransaction();
+		Assert.assertTrue(stampUpdates.isEmpty());
+		
+		//results read before outer commit, would be stale after outer commit
+		cache("query");
+		
+		service.invalidate(String.class);
+		cache("query");
+		
+		service.endTransaction();
+		
+		Assert.assertNull(service.get(String.class, "query"));
+		Assert.assertEquals(stampUpdates, Arrays.asList(String.class.getName()));
+		
+		//scope is closed, so further invalidations are immediate
+		cache("query");
+		service.invalidate(String.class);
+		
+		Assert.assertNull(service.get(String.class, "query"));
+		Assert.assertEquals(stampUpdates.size(), 2);
+	}
+	
+	/**
+	 * Ensures named version stamps are changed on update and reflect the changes done by other nodes,
+	 * without affecting cached search results.
+	 */
+	@Test
+	public void testNamedVersion()
+	{
+		configuration.getSearchConfiguration().setResultCacheVersionCheckMillis(0);
+		cache("query");
+		
+		Assert.assertEquals(service.getVersionStamp("settings|1"), 0L);
+		
+		service.updateVersionStamp("settings|1");
+		long stamp = service.getVersionStamp("settings|1");
+		
+		Assert.assertNotEquals(stamp, 0L);
+		Assert.assertEquals(stamps.get("settings|1"), Long.valueOf(stamp));
+		Assert.assertEquals(service.getVersionStamp("settings|2"), 0L);
+		
+		//modification by other node
+		stamps.put("settings|1", stamp + 1);
+		Assert.assertEquals(service.getVersionStamp("settings|1"), stamp + 1);
+		
+		Assert.assertNotNull(service.get(String.class, "query"));
+		Assert.assertEquals(stampUpdates, Arrays.asList("settings|1"));
+	}
+	
+	/**
+	 * Ensures ending a scope which is not started fails.
+	 */
+	@Test(expectedExceptions = InvalidStateException.class)
+	public void testEndWithoutBegin()
+	{
+		service.endTransaction();
+	}
+}
@@ -0,0 +1,213 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.yukthi.webutils.common.models.search.SearchField;
+import com.yukthi.webutils.common.models.search.SearchRow;
+import com.yukthi.webutils.common.models.search.SearchSettingsColumn;
+
+/**
+ * Compares compiled row projection with bean introspection based row building (as done earlier
+ * by search service), for a page of 1000 rows.
+ * 
+ * Execute using main method, after test compilation.
+ * 
+ * @author akiran
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchRowProjectionBenchmark
+{
+	/**
+	 * Number of rows in benchmarked page.
+	 */
+	private static final int PAGE_SIZE = 1000;
+	
+	/**
+	 * Test result bean.
+	 */
+	public static class EmployeeResult
+	{
+		private Long id;
+		private String name;
+		private Double salary;
+		private Date joinedOn;
+		private String city;
+		
+		public EmployeeResult(Long id, String name, Double salary, Date joinedOn, String city)
+		{
+			this.id = id;
+			this.name = name;
+			this.salary = salary;
+			this.joinedOn = joinedOn;
+			this.city = city;
+		}
+
+		public Long getId()
+		{
+			return id;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public Double getSalary()
+		{
+			return salary;
+		}
+
+		public Date getJoinedOn()
+		{
+			return joinedOn;
+		}
+
+		public String getCity()
+		{
+			return city;
+		}
+	}
+	
+	private List<SearchSettingsColumn> columns;
+	
+	private List<Object> results;
+	
+	private SearchRowProjection projection;
+	
+	private DateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
+	
+	@Setup
+	public void setup()
+	{
+		columns = new ArrayList<>();
+		
+		for(String property : Arrays.asList("id", "name", "salary", "joinedOn", "city"))
+		{
+			SearchSettingsColumn column = new SearchSettingsColumn(property, true, false, new SearchField(null, property, property));
+			columns.add(column);
+		}
+		
+		results = new ArrayList<>(PAGE_SIZE);
+		
+		for(int i = 0; i < PAGE_SIZE; i++)
+		{
+			results.add(new EmployeeResult((long) i, "Employee " + i, 1000.0 * i, new Date(), "City " + (i % 10)));
+		}
+		
+		projection = SearchRowProjection.compile(EmployeeResult.class, columns);
+	}
+	
+	/**
+	 * Builds rows by introspecting beans for every cell.
+	 * @return Built rows
+	 */
+	@Benchmark
+	public List<SearchRow> introspection() throws Exception
+	{
+		List<SearchRow> rows = new ArrayList<>(results.size());
+		SearchRow row = null;
+		Object value = null;
+		
+		for(Object result : results)
+		{
+			row = new SearchRow();
+			
+			for(SearchSettingsColumn column : columns)
+			{
+				if(!column.isRequired() && !column.isDisplayed())
+				{
+					continue;
+				}
+				
+				value = PropertyUtils.getProperty(result, column.getPropertyName());
+				
+				if(value == null)
+				{
+					row.addValue(null);
+					continue;
+				}
+				
+				if(value instanceof Date)
+				{
+					value = dateFormat.format(value);
+				}
+				
+				row.addValue(value.toString());
+			}
+			
+			rows.add(row);
+		}
+		
+		return rows;
+	}
+	
+	/**
+	 * Builds rows using compiled projection.
+	 * @return Built rows
+	 */
+	@Benchmark
+	public List<SearchRow> compiledProjection()
+	{
+		List<SearchRow> rows = new ArrayList<>(results.size());
+		
+		for(Object result : results)
+		{
+			rows.add(projection.project(result, null, dateFormat));
+		}
+		
+		return rows;
+	}
+	
+	public static void main(String[] args) throws Exception
+	{
+		new Runner(new OptionsBuilder().include(SearchRowProjectionBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yukthi.webutils.common.models.search.ColumnarSearchResults;
+import com.yukthi.webutils.common.models.search.SearchColumnEncoding;
+import com.yukthi.webutils.common.models.search.SearchRow;
+
+/**
+ * Tests columnar encoding of search results.
+ * @author akiran
+ */
+public class TColumnarSearchResults
+{
+	/**
+	 * Ensures columns are encoded as per their values and decoded rows (after json conversion) match
+	 * with row based results.
+	 * @throws Exception
+	 */
+	@Test
+	public void testEncodeDecode() throws Exception
+	{
+		SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
+		Date date = dateFormat.parse("12/03/2016");
+		
+		List<Object[]> rows = Arrays.asList(
+			new Object[] {1L, "Open", date, "Name 1", 1.5},
+			new Object[] {2L, "Open", null, "Name 2", 2.5},
+			new Object[] {null, "Closed", date, "Name 3", null},
+			new Object[] {4, null, date, "Name 4", 4.5}
+		);
+		
+		ColumnarSearchResultsBuilder builder = new ColumnarSearchResultsBuilder(5, rows.size());
+		List<SearchRow> expectedRows = new ArrayList<>();
+		
+		for(Object row[] : rows)
+		{
+			builder.addRow(row);
+			
+			List<String> values = new ArrayList<>();
+			
+			for(Object value : row)
+			{
+				values.add(SearchRowProjection.toString(value, dateFormat));
+			}
+			
+			expectedRows.add(new SearchRow(values));
+		}
+		
+		ColumnarSearchResults results = builder.build(dateFormat);
+		
+		Assert.assertEquals(results.getColumns().get(0).getEncoding(), SearchColumnEncoding.INTEGER);
+		Assert.assertEquals(results.getColumns().get(1).getEncoding(), SearchColumnEncoding.DICTIONARY);
+		Assert.assertEquals(results.getColumns().get(1).getDictionary(), Arrays.asList("Open", "Closed"));
+		Assert.assertEquals(results.getColumns().get(2).getEncoding(), SearchColumnEncoding.DATE);
+		Assert.assertEquals(results.getColumns().get(3).getEncoding(), SearchColumnEncoding.PLAIN);
+		Assert.assertEquals(results.getColumns().get(4).getEncoding(), SearchColumnEncoding.PLAIN);
+		
+		// simulate transfer to client
+		ObjectMapper objectMapper = new ObjectMapper();
+		results = objectMapper.readValue(objectMapper.writeValueAsString(results), ColumnarSearchResults.class);
+		
+		List<SearchRow> decodedRows = results.toRows();
+		Assert.assertEquals(decodedRows.size(), expectedRows.size());
+		
+		for(int i = 0; i < expectedRows.size(); i++)
+		{
+			Assert.assertEquals(decodedRows.get(i).getData(), expectedRows.get(i).getData());
+		}
+	}
+}
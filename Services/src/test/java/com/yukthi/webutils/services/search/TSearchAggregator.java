@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yukthi.webutils.InvalidRequestParameterException;
+import com.yukthi.webutils.common.models.search.AggregateFunction;
+import com.yukthi.webutils.common.models.search.AggregateGroup;
+import com.yukthi.webutils.common.models.search.SearchAggregation;
+
+/**
+ * Tests grouped aggregation of search results.
+ * @author akiran
+ */
+public class TSearchAggregator
+{
+	/**
+	 * Result bean used for testing.
+	 */
+	public static class Result
+	{
+		private String category;
+		private Integer amount;
+		
+		public Result(String category, Integer amount)
+		{
+			this.category = category;
+			this.amount = amount;
+		}
+
+		public String getCategory()
+		{
+			return category;
+		}
+
+		public Integer getAmount()
+		{
+			return amount;
+		}
+	}
+	
+	/**
+	 * Ensures aggregations are computed per group across chunks.
+	 */
+	@Test
+	public void testGroupedAggregations()
+	{
+		SearchAggregator aggregator = new SearchAggregator(Result.class, Arrays.asList("category"), Arrays.asList(
+				new SearchAggregation(AggregateFunction.COUNT, null),
+				new SearchAggregation(AggregateFunction.SUM, "amount"),
+				new SearchAggregation(AggregateFunction.MIN, "amount"),
+				new SearchAggregation(AggregateFunction.MAX, "amount"),
+				new SearchAggregation(AggregateFunction.AVG, "amount")
+			), 10);
+		
+		aggregator.add(Arrays.<Object>asList(new Result("a", 10), new Result("b", 5), new Result("a", 20)));
+		aggregator.add(Arrays.<Object>asList(new Result("a", null), new Result("b", 7)));
+		
+		List<AggregateGroup> groups = aggregator.toGroups(new SimpleDateFormat("MM/dd/yyyy"));
+		
+		Assert.assertEquals(aggregator.getRowCount(), 5);
+		Assert.assertEquals(groups.size(), 2);
+		
+		Assert.assertEquals(groups.get(0).getKeys(), Arrays.asList("a"));
+		Assert.assertEquals(groups.get(0).getRowCount(), 3);
+		Assert.assertEquals(groups.get(0).getValues(), Arrays.asList("3", "30", "10", "20", "15.0"));
+		
+		Assert.assertEquals(groups.get(1).getKeys(), Arrays.asList("b"));
+		Assert.assertEquals(groups.get(1).getRowCount(), 2);
+		Assert.assertEquals(groups.get(1).getValues(), Arrays.asList("2", "12", "5", "7", "6.0"));
+	}
+	
+	/**
+	 * Ensures number of groups is limited.
+	 */
+	@Test(expectedExceptions = InvalidRequestParameterException.class)
+	public void testMaxGroups()
+	{
+		SearchAggregator aggregator = new SearchAggregator(Result.class, Arrays.asList("category"), Arrays.asList(
+				new SearchAggregation(AggregateFunction.COUNT, null)
+			), 1);
+		
+		aggregator.add(Arrays.<Object>asList(new Result("a", 10), new Result("b", 5)));
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yukthi.webutils.common.models.def.FieldType;
+import com.yukthi.webutils.common.models.search.SearchColumn;
+import com.yukthi.webutils.common.models.search.SearchRow;
+
+/**
+ * Tests streaming export writers.
+ * @author akiran
+ */
+public class TSearchExportWriters
+{
+	/**
+	 * Writes test columns and rows using specified writer. Second column is non-displayable and is expected
+	 * to be skipped by writers.
+	 * @param writer Writer to use
+	 * @throws Exception
+	 */
+	private void writeTestData(ISearchExportWriter writer) throws Exception
+	{
+		writer.writeHeader(Arrays.asList(
+			new SearchColumn("name", "Name", true, FieldType.STRING),
+			new SearchColumn("id", "Id", false, FieldType.STRING),
+			new SearchColumn("notes", "Notes", true, FieldType.STRING)
+		));
+		
+		writer.writeRows(Arrays.asList(
+			new SearchRow(Arrays.asList("abc", "1", "simple")),
+			new SearchRow(Arrays.asList("x,y", "2", "say \"hi\"")),
+			new SearchRow(Arrays.asList("z", "3", null))
+		));
+		
+		writer.finish();
+	}
+	
+	/**
+	 * Ensures csv writer skips non-displayable columns and quotes values when required.
+	 * @throws Exception
+	 */
+	@Test
+	public void testCsvWriter() throws Exception
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		CsvSearchExportWriter writer = new CsvSearchExportWriter(bos);
+		
+		writeTestData(writer);
+		
+		String content = new String(bos.toByteArray(), "UTF-8");
+		Assert.assertEquals(content, "Name,Notes\r\nabc,simple\r\n\"x,y\",\"say \"\"hi\"\"\"\r\nz,\r\n");
+		Assert.assertEquals(writer.getBytesWritten(), bos.size());
+	}
+
+	/**
+	 * Ensures json lines writer writes one object per line, keyed by column names.
+	 * @throws Exception
+	 */
+	@Test
+	public void testJsonLinesWriter() throws Exception
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		JsonLinesSearchExportWriter writer = new JsonLinesSearchExportWriter(bos);
+		
+		writeTestData(writer);
+		
+		String content = new String(bos.toByteArray(), "UTF-8");
+		Assert.assertEquals(content, "{\"name\":\"abc\",\"notes\":\"simple\"}\n"
+				+ "{\"name\":\"x,y\",\"notes\":\"say \\\"hi\\\"\"}\n"
+				+ "{\"name\":\"z\",\"notes\":null}\n");
+		Assert.assertEquals(writer.getBytesWritten(), bos.size());
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.Column;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yukthi.persistence.repository.annotations.Field;
+import com.yukthi.persistence.repository.annotations.OrderByType;
+
+/**
+ * Tests keyset token generation.
+ * @author akiran
+ */
+public class TSearchKeyset
+{
+	/**
+	 * Test entity being searched.
+	 */
+	public static class TestEntity
+	{
+		private Long id;
+		
+		@Column(name = "SALARY", nullable = false)
+		private Long salary;
+		
+		@Column(name = "BONUS")
+		private Long bonus;
+		
+		private int age;
+	}
+	
+	/**
+	 * Test search result bean.
+	 */
+	public static class TestResult
+	{
+		@Field("salary")
+		private Long salary;
+		
+		@Field("bonus")
+		private Long bonus;
+		
+		@Field("employee.salary")
+		private Long managerSalary;
+		
+		private int age;
+		
+		public TestResult(Long salary)
+		{
+			this.salary = salary;
+		}
+		
+		public Long getSalary()
+		{
+			return salary;
+		}
+		
+		public Long getBonus()
+		{
+			return bonus;
+		}
+		
+		public Long getManagerSalary()
+		{
+			return managerSalary;
+		}
+		
+		public int getAge()
+		{
+			return age;
+		}
+	}
+	
+	/**
+	 * Builds test results with specified salaries.
+	 * @param salaries Salaries to use
+	 * @return Results
+	 */
+	private List<TestResult> results(Long... salaries)
+	{
+		TestResult results[] = new TestResult[salaries.length];
+		
+		for(int i = 0; i < salaries.length; i++)
+		{
+			results[i] = new TestResult(salaries[i]);
+		}
+		
+		return Arrays.asList(results);
+	}
+	
+	/**
+	 * Ensures tokens carry last value, ties and offset and survive encoding.
+	 */
+	@Test
+	public void testNextToken()
+	{
+		SearchKeyset keyset = SearchKeyset.compile(TestResult.class, TestEntity.class, "salary", OrderByType.ASC);
+		Assert.assertTrue(keyset.isKeysetSupported());
+		
+		//first page ending with two rows having same value
+		KeysetPageToken token = keyset.nextToken(null, results(10L, 20L, 30L, 30L), 4);
+		Assert.assertEquals(token.getValue(), 30L);
+		Assert.assertEquals(token.getSkipCount(), 2);
+		Assert.assertEquals(token.getOffset(), 4);
+		
+		token = keyset.decodeToken(token.encode());
+		Assert.assertEquals(token.getValue(), 30L);
+		
+		//page where all rows has boundary value, should accumulate previous ties
+		token = keyset.nextToken(token, results(30L, 30L, 30L, 30L), 4);
+		Assert.assertEquals(token.getSkipCount(), 6);
+		Assert.assertEquals(token.getOffset(), 8);
+		
+		//partial page indicates end of results
+		Assert.assertNull(keyset.nextToken(token, results(30L, 40L), 4));
+	}
+	
+	/**
+	 * Ensures offset tokens are used when order field is not part of results.
+	 */
+	@Test
+	public void testOffsetFallback()
+	{
+		SearchKeyset keyset = SearchKeyset.compile(TestResult.class, TestEntity.class, "name", OrderByType.ASC);
+		Assert.assertFalse(keyset.isKeysetSupported());
+		
+		KeysetPageToken token = keyset.nextToken(null, results(10L, 20L), 2);
+		Assert.assertNull(token.getValue());
+		Assert.assertEquals(token.getOffset(), 2);
+	}
+	
+	/**
+	 * Ensures seek is not used when leading order-by column can have nulls, as range condition would
+	 * skip rows with null values.
+	 */
+	@Test
+	public void testNullableFallback()
+	{
+		//nullable column
+		SearchKeyset keyset = SearchKeyset.compile(TestResult.class, TestEntity.class, "bonus", OrderByType.ASC);
+		Assert.assertFalse(keyset.isKeysetSupported());
+		
+		//nested field, joined entity may not exist
+		keyset = SearchKeyset.compile(TestResult.class, TestEntity.class, "employee.salary", OrderByType.DESC);
+		Assert.assertFalse(keyset.isKeysetSupported());
+		
+		//nullability can not be determined without entity type
+		keyset = SearchKeyset.compile(TestResult.class, null, "salary", OrderByType.ASC);
+		Assert.assertFalse(keyset.isKeysetSupported());
+		
+		//primitive field can never be null
+		keyset = SearchKeyset.compile(TestResult.class, TestEntity.class, "age", OrderByType.ASC);
+		Assert.assertTrue(keyset.isKeysetSupported());
+		
+		//nullable page still moves forward using offsets
+		keyset = SearchKeyset.compile(TestResult.class, TestEntity.class, "bonus", OrderByType.ASC);
+		KeysetPageToken token = keyset.nextToken(null, results(10L, 20L), 2);
+		Assert.assertNull(token.getValue());
+		Assert.assertEquals(token.getOffset(), 2);
+	}
+}
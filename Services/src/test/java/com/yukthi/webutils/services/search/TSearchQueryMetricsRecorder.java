@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yukthi.webutils.common.models.search.LatencyHistogram;
+import com.yukthi.webutils.common.models.search.SearchQueryMetrics;
+
+/**
+ * Tests search metrics recording.
+ * @author akiran
+ */
+public class TSearchQueryMetricsRecorder
+{
+	/**
+	 * Ensures latencies are placed in correct buckets.
+	 */
+	@Test
+	public void testLatencyBuckets()
+	{
+		LatencyRecorder recorder = new LatencyRecorder();
+		recorder.record(0);
+		recorder.record(1);
+		recorder.record(7);
+		recorder.record(10);
+		recorder.record(20000);
+		
+		LatencyHistogram histogram = recorder.toHistogram();
+		
+		Assert.assertEquals(histogram.getCount(), 5);
+		Assert.assertEquals(histogram.getTotalMillis(), 20018);
+		Assert.assertEquals(histogram.getMaxMillis(), 20000);
+		Assert.assertEquals(histogram.getBucketCounts().length, histogram.getBucketBounds().length + 1);
+		
+		// bounds are 1, 2, 5, 10...
+		Assert.assertEquals(histogram.getBucketCounts()[0], 2);
+		Assert.assertEquals(histogram.getBucketCounts()[3], 2);
+		Assert.assertEquals(histogram.getBucketCounts()[histogram.getBucketBounds().length], 1);
+	}
+	
+	/**
+	 * Ensures executions, rows, skipped phases and page distribution are recorded.
+	 */
+	@Test
+	public void testQueryMetrics()
+	{
+		SearchQueryMetricsRecorder recorder = new SearchQueryMetricsRecorder("testQuery");
+		long phaseMillis[] = {5, -1, -1, 2, 8};
+		
+		recorder.recordExecution(phaseMillis, 10, 1, false);
+		recorder.recordExecution(phaseMillis, 30, 7, true);
+		recorder.recordExecution(phaseMillis, 5, 0, false);
+		recorder.recordCacheHit();
+		recorder.recordFailure();
+		
+		SearchQueryMetrics metrics = recorder.toMetrics();
+		
+		Assert.assertEquals(metrics.getQueryName(), "testQuery");
+		Assert.assertEquals(metrics.getExecutionCount(), 3);
+		Assert.assertEquals(metrics.getCachedCount(), 1);
+		Assert.assertEquals(metrics.getFailureCount(), 1);
+		Assert.assertEquals(metrics.getSlowCount(), 1);
+		Assert.assertEquals(metrics.getTotalRows(), 45);
+		Assert.assertEquals(metrics.getMaxRows(), 30);
+		
+		Assert.assertEquals(metrics.getLatencies().get(SearchPhase.FETCH.name()).getCount(), 3);
+		Assert.assertEquals(metrics.getLatencies().get(SearchPhase.COUNT.name()).getCount(), 0);
+		
+		Assert.assertEquals(metrics.getPageDistribution().get("1"), Long.valueOf(1));
+		Assert.assertEquals(metrics.getPageDistribution().get("6-10"), Long.valueOf(1));
+		Assert.assertEquals(metrics.getPageDistribution().get("keyset"), Long.valueOf(1));
+	}
+}
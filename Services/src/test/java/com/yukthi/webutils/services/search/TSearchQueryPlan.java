@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.yukthi.webutils.services.search;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests cache key generation of search query plan.
+ * @author akiran
+ */
+public class TSearchQueryPlan
+{
+	/**
+	 * Builds key for specified values, separated by condition separator.
+	 * @param values Values to append
+	 * @return Key
+	 */
+	private static String key(Object... values)
+	{
+		StringBuilder key = new StringBuilder();
+		
+		for(Object value : values)
+		{
+			SearchQueryPlan.appendKeyValue(key, value);
+			key.append(';');
+		}
+		
+		return key.toString();
+	}
+	
+	/**
+	 * Ensures values containing separators do not produce same key as different set of values.
+	 */
+	@Test
+	public void testSeparatorsInValues()
+	{
+		Assert.assertNotEquals(key("a;b"), key("a", "b"));
+		Assert.assertNotEquals(key("x;name=y"), key("x", "y"));
+		Assert.assertNotEquals(key("1:a"), key("1", "a"));
+		Assert.assertNotEquals(key(Arrays.asList("a, b")), key(Arrays.asList("a", "b")));
+		Assert.assertNotEquals(key(Arrays.asList("a", "b"), "c"), key(Arrays.asList("a"), "b", "c"));
+	}
+	
+	/**
+	 * Ensures same values produce same key and dates are keyed by time.
+	 */
+	@Test
+	public void testStableKeys()
+	{
+		Assert.assertEquals(key("a;b", 10, Arrays.asList(1, 2)), key("a;b", 10, Arrays.asList(1, 2)));
+		Assert.assertEquals(key(new Date(1000)), key(new Date(1000)));
+		Assert.assertEquals(key(new Date(1000)), "4:1000;");
+		Assert.assertEquals(key((Object) null), "4:null;");
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.services.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yukthi.persistence.repository.annotations.Field;
+import com.yukthi.persistence.repository.annotations.OrderByType;
+
+/**
+ * Tests merging of search results executed in parts.
+ * @author akiran
+ */
+public class TSearchResultComparator
+{
+	/**
+	 * Test result.
+	 */
+	public static class TestResult
+	{
+		/**
+		 * Name.
+		 */
+		@Field("name")
+		private String name;
+		
+		/**
+		 * Age.
+		 */
+		private Integer age;
+		
+		/**
+		 * Instantiates a new test result.
+		 * @param name Name
+		 * @param age Age
+		 */
+		public TestResult(String name, Integer age)
+		{
+			this.name = name;
+			this.age = age;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString()
+		{
+			return name + ":" + age;
+		}
+	}
+	
+	/**
+	 * Converts specified results to strings for comparison.
+	 * @param results Results to convert
+	 * @return String list
+	 */
+	private static List<String> toStrings(List<Object> results)
+	{
+		List<String> strings = new ArrayList<>();
+		
+		for(Object result : results)
+		{
+			strings.add(result.toString());
+		}
+		
+		return strings;
+	}
+	
+	/**
+	 * Ensures ordered parts are merged as per order-by fields and requested window is returned.
+	 */
+	@Test
+	public void testMerge()
+	{
+		SearchResultComparator comparator = SearchResultComparator.compile(TestResult.class, new String[] {"age", "name"}, 
+				new OrderByType[] {OrderByType.DESC, OrderByType.ASC});
+		
+		List<List<TestResult>> parts = Arrays.asList(
+					Arrays.asList(new TestResult("b", 40), new TestResult("a", 30), new TestResult("c", null)),
+					Arrays.asList(new TestResult("a", 40), new TestResult("d", 20)),
+					new ArrayList<TestResult>()
+				);
+		
+		Assert.assertEquals(toStrings(comparator.merge(parts, 0, -1)), Arrays.asList("a:40", "b:40", "a:30", "d:20", "c:null"));
+		Assert.assertEquals(toStrings(comparator.merge(parts, 1, 2)), Arrays.asList("b:40", "a:30"));
+		Assert.assertEquals(toStrings(comparator.merge(parts, 4, 2)), Arrays.asList("c:null"));
+	}
+	
+	/**
+	 * Ensures comparator is not created when order-by fields are not part of results.
+	 */
+	@Test
+	public void testMissingOrderField()
+	{
+		Assert.assertNull(SearchResultComparator.compile(TestResult.class, new String[] {"id"}, new OrderByType[] {OrderByType.ASC}));
+	}
+	
+	/**
+	 * Ensures ids are split into sorted chunks.
+	 */
+	@Test
+	public void testIdChunks()
+	{
+		Assert.assertEquals(ExtendedSearchConditions.toChunks(Arrays.asList(5L, 1L, 3L, 2L, 4L), 2), 
+				Arrays.asList(Arrays.asList(1L, 2L), Arrays.asList(3L, 4L), Arrays.asList(5L)));
+		Assert.assertEquals(ExtendedSearchConditions.toChunks(new ArrayList<Long>(), 2), Arrays.asList(new ArrayList<Long>()));
+	}
+}
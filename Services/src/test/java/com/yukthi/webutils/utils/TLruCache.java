@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.yukthi.webutils.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests LRU cache eviction, expiry and statistics.
+ * @author akiran
+ */
+public class TLruCache
+{
+	/**
+	 * Ensures least recently used entry is evicted when cache is full.
+	 */
+	@Test
+	public void testEviction()
+	{
+		LruCache<String, Integer> cache = new LruCache<>("test", 2);
+		cache.put("a", 1, 60000);
+		cache.put("b", 2, 60000);
+		
+		//access "a", so that "b" becomes least recently used
+		Assert.assertEquals(cache.get("a"), (Integer) 1);
+		
+		cache.put("c", 3, 60000);
+		
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals(cache.get("c"), (Integer) 3);
+		
+		Assert.assertEquals(cache.getEvictionCount(), 1);
+		Assert.assertEquals(cache.getHitCount(), 2);
+		Assert.assertEquals(cache.getMissCount(), 1);
+	}
+	
+	/**
+	 * Ensures expired entries are not returned and filtered removal works.
+	 * @throws Exception
+	 */
+	@Test
+	public void testExpiryAndRemoveIf() throws Exception
+	{
+		LruCache<String, Integer> cache = new LruCache<>("test", 10);
+		cache.put("x|1", 1, 1);
+		cache.put("y|1", 2, 60000);
+		cache.put("y|2", 3, 60000);
+		
+		Thread.sleep(10);
+		
+		Assert.assertNull(cache.get("x|1"));
+		Assert.assertEquals(cache.getExpiryCount(), 1);
+		
+		Assert.assertEquals(cache.removeIf(key -> key.startsWith("y|")), 2);
+		Assert.assertEquals(cache.size(), 0);
+	}
+}
@@ -0,0 +1,486 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 "Yukthi Techsoft Pvt. Ltd." (http://yukthi-tech.co.in)
+
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.yukthi.webutils.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.yukthi.webutils.common.FileInfo;
+
+/**
+ * Tests upload receiving, range, conditional request and cache header handling of attachment utils.
+ * @author akiran
+ */
+public class TWebAttachmentUtils
+{
+	/**
+	 * Content of the test file.
+	 */
+	private static final String CONTENT = "0123456789";
+	
+	/**
+	 * Entity tag of the test file.
+	 */
+	private static final String ENTITY_TAG = "\"v1\"";
+	
+	/**
+	 * Last modified time of the test file (in seconds precision).
+	 */
+	private static final Date LAST_MODIFIED = new Date(1_500_000_000_000L);
+	
+	/**
+	 * Response details recorded by response stub.
+	 */
+	private static class RecordedResponse
+	{
+		/**
+		 * Headers set on response.
+		 */
+		private Map<String, Object> headers = new HashMap<>();
+		
+		/**
+		 * Status set on response.
+		 */
+		private int status = HttpServletResponse.SC_OK;
+		
+		/**
+		 * Content written to response.
+		 */
+		private ByteArrayOutputStream content = new ByteArrayOutputStream();
+		
+		/**
+		 * Response stub recording into this object.
+		 */
+		private HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(TWebAttachmentUtils.class.getClassLoader(), 
+				new Class<?>[] {HttpServletResponse.class}, (proxy, method, args) -> 
+		{
+			switch(method.getName())
+			{
+				case "setHeader":
+				case "setDateHeader":
+				{
+					headers.put((String) args[0], args[1]);
+					break;
+				}
+				case "setStatus":
+				case "sendError":
+				{
+					status = (Integer) args[0];
+					break;
+				}
+				case "getOutputStream":
+				{
+					return new ServletOutputStream()
+					{
+						@Override
+						public void write(int b)
+						{
+							content.write(b);
+						}
+					};
+				}
+			}
+			
+			return null;
+		});
+		
+		/**
+		 * Fetches content written to response.
+		 * @return Content as string
+		 */
+		private String getContent()
+		{
+			return new String(content.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+	
+	/**
+	 * File sent by tests.
+	 */
+	private File file;
+	
+	/**
+	 * Creates test file.
+	 */
+	@BeforeMethod
+	public void setup() throws Exception
+	{
+		file = File.createTempFile("attachment", ".txt");
+		Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Deletes test file.
+	 */
+	@AfterMethod
+	public void cleanup()
+	{
+		file.delete();
+	}
+	
+	/**
+	 * Creates request stub with specified headers.
+	 * @param headers Header names and values, in pairs
+	 * @return Request stub
+	 */
+	private static HttpServletRequest request(String... headers)
+	{
+		Map<String, String> headerMap = new HashMap<>();
+		
+		for(int i = 0; i < headers.length; i += 2)
+		{
+			headerMap.put(headers[i], headers[i + 1]);
+		}
+		
+		return (HttpServletRequest) Proxy.newProxyInstance(TWebAttachmentUtils.class.getClassLoader(), new Class<?>[] {HttpServletRequest.class}, 
+				(proxy, method, args) -> 
+		{
+			switch(method.getName())
+			{
+				case "getHeader":
+				{
+					return headerMap.get(args[0]);
+				}
+				case "getDateHeader":
+				{
+					String value = headerMap.get(args[0]);
+					
+					if(value == null)
+					{
+						return -1L;
+					}
+					
+					try
+					{
+						return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+					} catch(Exception ex)
+					{
+						throw new IllegalArgumentException(value);
+					}
+				}
+			}
+			
+			return null;
+		});
+	}
+	
+	/**
+	 * Formats specified time as http date.
+	 * @param date Time to format
+	 * @return Http date
+	 */
+	private static String httpDate(Date date)
+	{
+		return DateTimeFormatter.RFC_1123_DATE_TIME.format(date.toInstant().atZone(ZoneOffset.UTC));
+	}
+	
+	/**
+	 * Sends test file for specified request.
+	 * @param request Request
+	 * @return Recorded response
+	 */
+	private RecordedResponse send(HttpServletRequest request)
+	{
+		RecordedResponse response = new RecordedResponse();
+		WebAttachmentUtils.sendFile(request, response.response, new FileInfo("test.txt", file, "text/plain"), false, false, ENTITY_TAG, LAST_MODIFIED);
+		
+		return response;
+	}
+	
+	/**
+	 * Ensures full content is sent when no range is requested.
+	 */
+	@Test
+	public void testFullContent()
+	{
+		RecordedResponse response = send(request());
+		
+		Assert.assertEquals(response.status, HttpServletResponse.SC_OK);
+		Assert.assertEquals(response.getContent(), CONTENT);
+		Assert.assertEquals(response.headers.get("Content-Length"), "10");
+		Assert.assertEquals(response.headers.get("Accept-Ranges"), "bytes");
+	}
+	
+	/**
+	 * Ensures closed and open ended ranges are served as partial content, with end clamped to the file.
+	 */
+	@Test
+	public void testRanges()
+	{
+		RecordedResponse response = send(request("Range", "bytes=2-4"));
+		
+		Assert.assertEquals(response.status, HttpServletResponse.SC_PARTIAL_CONTENT);
+		Assert.assertEquals(response.getContent(), "234");
+		Assert.assertEquals(response.headers.get("Content-Range"), "bytes 2-4/10");
+		Assert.assertEquals(response.headers.get("Content-Length"), "3");
+		
+		response = send(request("Range", "bytes=7-"));
+		
+		Assert.assertEquals(response.status, HttpServletResponse.SC_PARTIAL_CONTENT);
+		Assert.assertEquals(response.getContent(), "789");
+		Assert.assertEquals(response.headers.get("Content-Range"), "bytes 7-9/10");
+		
+		response = send(request("Range", "bytes=8-100"));
+		
+		Assert.assertEquals(response.getContent(), "89");
+		Assert.assertEquals(response.headers.get("Content-Range"), "bytes 8-9/10");
+	}
+	
+	/**
+	 * Ensures suffix ranges return last bytes, full file when suffix is longer than file.
+	 */
+	@Test
+	public void testSuffixRange()
+	{
+		RecordedResponse response = send(request("Range", "bytes=-3"));
+		
+		Assert.assertEquals(response.status, HttpServletResponse.SC_PARTIAL_CONTENT);
+		Assert.assertEquals(response.getContent(), "789");
+		Assert.assertEquals(response.headers.get("Content-Range"), "bytes 7-9/10");
+		
+		response = send(request("Range", "bytes=-50"));
+		
+		Assert.assertEquals(response.status, HttpServletResponse.SC_PARTIAL_CONTENT);
+		Assert.assertEquals(response.getContent(), CONTENT);
+		Assert.assertEquals(response.headers.get("Content-Range"), "bytes 0-9/10");
+	}
+	
+	/**
+	 * Ensures ranges outside the file, zero length suffix and any range of empty file result in 416.
+	 */
+	@Test
+	public void testUnsatisfiableRange() throws Exception
+	{
+		for(String range : new String[] {"bytes=10-", "bytes=20-30", "bytes=-0"})
+		{
+			RecordedResponse response = send(request("Range", range));
+			
+			Assert.assertEquals(response.status, HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, range);
+			Assert.assertEquals(response.headers.get("Content-Range"), "bytes */10", range);
+			Assert.assertEquals(response.getContent(), "", range);
+		}
+		
+		Files.write(file.toPath(), new byte[0]);
+		
+		for(String range : new String[] {"bytes=-5", "bytes=0-", "bytes=0-0"})
+		{
+			RecordedResponse response = send(request("Range", range));
+			
+			Assert.assertEquals(response.status, HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, range);
+			Assert.assertEquals(response.headers.get("Content-Range"), "bytes */0", range);
+		}
+	}
+	
+	/**
+	 * Ensures multiple ranges, other units and invalid ranges are ignored and full content is sent.
+	 */
+	@Test
+	public void testIgnoredRanges()
+	{
+		for(String range : new String[] {"bytes=0-1,4-5", "items=0-1", "bytes=5-2", "bytes=-", "bytes=abc"})
+		{
+			RecordedResponse response = send(request("Range", range));
+			
+			Assert.assertEquals(response.status, HttpServletResponse.SC_OK, range);
+			Assert.assertEquals(response.getContent(), CONTENT, range);
+			Assert.assertNull(response.headers.get("Content-Range"), range);
+		}
+	}
+	
+	/**
+	 * Ensures range is honored only when If-Range matches current entity tag strongly or last modified time exactly.
+	 */
+	@Test
+	public void testIfRange()
+	{
+		RecordedResponse response = send(request("Range", "bytes=0-1", "If-Range", ENTITY_TAG));
+		
+		Assert.assertEquals(response.status, HttpServletResponse.SC_PARTIAL_CONTENT);
+		Assert.assertEquals(response.getContent(), "01");
+		
+		response = send(request("Range", "bytes=0-1", "If-Range", httpDate(LAST_MODIFIED)));
+		Assert.assertEquals(response.status, HttpServletResponse.SC_PARTIAL_CONTENT);
+		
+		//weak tags never match strongly, mismatched tags and dates indicate changed content
+		for(String ifRange : new String[] {"W/" + ENTITY_TAG, "\"v0\"", httpDate(new Date(LAST_MODIFIED.getTime() - 1000)), "invalid date"})
+		{
+			response = send(request("Range", "bytes=0-1", "If-Range", ifRange));
+			
+			Assert.assertEquals(response.status, HttpServletResponse.SC_OK, ifRange);
+			Assert.assertEquals(response.getContent(), CONTENT, ifRange);
+		}
+	}
+	
+	/**
+	 * Ensures validator and cache control headers are set, skipping validators which are not available.
+	 */
+	@Test
+	public void testSetCacheHeaders()
+	{
+		RecordedResponse response = new RecordedResponse();
+		WebAttachmentUtils.setCacheHeaders(response.response, ENTITY_TAG, LAST_MODIFIED, true, 60);
+		
+		Assert.assertEquals(response.headers.get("ETag"), ENTITY_TAG);
+		Assert.assertEquals(response.headers.get("Last-Modified"), LAST_MODIFIED.getTime());
+		Assert.assertEquals(response.headers.get("Cache-Control"), "private, max-age=60");
+		
+		response = new RecordedResponse();
+		WebAttachmentUtils.setCacheHeaders(response.response, null, null, false, 0);
+		
+		Assert.assertFalse(response.headers.containsKey("ETag"));
+		Assert.assertFalse(response.headers.containsKey("Last-Modified"));
+		Assert.assertEquals(response.headers.get("Cache-Control"), "public, max-age=0");
+	}
+	
+	/**
+	 * Ensures If-None-Match matches any tag of the list weakly, and "*" matches any content.
+	 */
+	@Test
+	public void testIfNoneMatch()
+	{
+		Assert.assertTrue(WebAttachmentUtils.isNotModified(request("If-None-Match", ENTITY_TAG), ENTITY_TAG, LAST_MODIFIED));
+		Assert.assertTrue(WebAttachmentUtils.isNotModified(request("If-None-Match", "\"v0\", " + ENTITY_TAG + " ,\"v2\""), ENTITY_TAG, LAST_MODIFIED));
+		Assert.assertTrue(WebAttachmentUtils.isNotModified(request("If-None-Match", "W/" + ENTITY_TAG), ENTITY_TAG, LAST_MODIFIED));
+		
+		Assert.assertTrue(WebAttachmentUtils.isNotModified(request("If-None-Match", "*"), ENTITY_TAG, LAST_MODIFIED));
+		Assert.assertTrue(WebAttachmentUtils.isNotModified(request("If-None-Match", "*"), null, null));
+		
+		Assert.assertFalse(WebAttachmentUtils.isNotModified(request("If-None-Match", "\"v0\", W/\"v2\""), ENTITY_TAG, LAST_MODIFIED));
+		Assert.assertFalse(WebAttachmentUtils.isNotModified(request("If-None-Match", ENTITY_TAG), null, LAST_MODIFIED));
+		
+		//tags are compared with quotes
+		Assert.assertFalse(WebAttachmentUtils.isNotModified(request("If-None-Match", "v1"), ENTITY_TAG, LAST_MODIFIED));
+	}
+	
+	/**
+	 * Ensures If-Modified-Since is compared in seconds precision and is ignored when If-None-Match is specified.
+	 */
+	@Test
+	public void testIfModifiedSince()
+	{
+		Date contentTime = new Date(LAST_MODIFIED.getTime() + 500);
+		
+		Assert.assertTrue(WebAttachmentUtils.isNotModified(request("If-Modified-Since", httpDate(LAST_MODIFIED)), ENTITY_TAG, contentTime));
+		Assert.assertTrue(WebAttachmentUtils.isNotModified(request("If-Modified-Since", httpDate(new Date(LAST_MODIFIED.getTime() + 60000))), 
+				ENTITY_TAG, LAST_MODIFIED));
+		
+		Assert.assertFalse(WebAttachmentUtils.isNotModified(request("If-Modified-Since", httpDate(new Date(LAST_MODIFIED.getTime() - 1000))), 
+				ENTITY_TAG, LAST_MODIFIED));
+		Assert.assertFalse(WebAttachmentUtils.isNotModified(request("If-Modified-Since", httpDate(LAST_MODIFIED)), ENTITY_TAG, null));
+		Assert.assertFalse(WebAttachmentUtils.isNotModified(request("If-Modified-Since", "invalid date"), ENTITY_TAG, LAST_MODIFIED));
+		Assert.assertFalse(WebAttachmentUtils.isNotModified(request(), ENTITY_TAG, LAST_MODIFIED));
+		
+		//If-None-Match takes precedence, even when it does not match
+		Assert.assertFalse(WebAttachmentUtils.isNotModified(request("If-None-Match", "\"v0\"", "If-Modified-Since", httpDate(LAST_MODIFIED)), 
+				ENTITY_TAG, LAST_MODIFIED));
+	}
+	
+	/**
+	 * Ensures uploaded content is transferred by multipart file (without reading its stream) and its size, hash and
+	 * mime type are computed.
+	 */
+	@Test
+	public void testRecieveImports() throws Exception
+	{
+		byte pdfContent[] = "%PDF-1.4 test".getBytes(StandardCharsets.UTF_8);
+		
+		MultipartFile multipartFile = (MultipartFile) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {MultipartFile.class}, 
+				(proxy, method, args) -> 
+		{
+			switch(method.getName())
+			{
+				case "getOriginalFilename":
+				{
+					return "uploads/report.pdf";
+				}
+				case "getContentType":
+				{
+					return WebAttachmentUtils.MIME_BINARY_FILE;
+				}
+				case "transferTo":
+				{
+					Files.write(((File) args[0]).toPath(), pdfContent);
+					return null;
+				}
+			}
+			
+			throw new UnsupportedOperationException(method.getName());
+		});
+		
+		MultipartHttpServletRequest request = (MultipartHttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(), 
+				new Class<?>[] {MultipartHttpServletRequest.class}, (proxy, method, args) -> 
+		{
+			switch(method.getName())
+			{
+				case "getFileNames":
+				{
+					return Collections.singletonList("attachment").iterator();
+				}
+				case "getFiles":
+				{
+					return Arrays.asList(multipartFile);
+				}
+			}
+			
+			throw new UnsupportedOperationException(method.getName());
+		});
+		
+		Map<String, List<FileInfo>> files = WebAttachmentUtils.recieveImports(request, file.getParentFile());
+		UploadedFileInfo uploadedFile = (UploadedFileInfo) files.get("attachment").get(0);
+		
+		try
+		{
+			Assert.assertEquals(uploadedFile.getFileName(), "report.pdf");
+			Assert.assertEquals(uploadedFile.getContentType(), WebAttachmentUtils.MIME_PDF_FILE);
+			Assert.assertEquals(uploadedFile.getContentLength(), pdfContent.length);
+			Assert.assertEquals(uploadedFile.getContentHash(), WebAttachmentUtils.computeContentHash(uploadedFile.getFile()));
+			Assert.assertEquals(Files.readAllBytes(uploadedFile.getFile().toPath()), pdfContent);
+		} finally
+		{
+			uploadedFile.getFile().delete();
+		}
+	}
+}